@@ -29,6 +29,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Local tests run the plain-Java logic; android.util.Log and friends are no-ops there
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -49,6 +53,14 @@ dependencies {
     
     // Image loading library for thumbnails
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        isTransitive = false
+    }
+    // Route Glide fetches through the same OkHttp client as Retrofit (okhttp itself is declared above)
+    implementation("com.github.bumptech.glide:okhttp3-integration:4.16.0") {
+        isTransitive = false
+    }
+    annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
     
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
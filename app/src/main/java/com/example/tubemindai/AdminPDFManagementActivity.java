@@ -2,31 +2,26 @@ package com.example.tubemindai;
 
 import android.app.ProgressDialog;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.view.Menu;
 import android.view.MenuItem;
-import android.view.View;
 import android.widget.LinearLayout;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.tubemindai.adapters.AdminPDFAdapter;
 import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.ApiConfig;
 import com.example.tubemindai.api.ApiService;
 import com.example.tubemindai.api.models.AdminPDFsResponse;
 import com.example.tubemindai.api.models.DeleteResponse;
+import com.example.tubemindai.utils.AdminListController;
+import com.example.tubemindai.utils.AdminSearchController;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.gson.Gson;
-
-import java.util.ArrayList;
-import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -38,12 +33,10 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
     private LinearLayout llEmptyState;
     private TextInputEditText etSearch;
     private AdminPDFAdapter pdfAdapter;
-    private List<AdminPDFsResponse.AdminPDFItem> pdfList;
     private ApiService apiService;
     private SharedPrefsManager prefsManager;
     private ProgressDialog progressDialog;
-    private int currentPage = 0;
-    private final int PAGE_SIZE = 50;
+    private AdminListController<AdminPDFsResponse.AdminPDFItem> listController;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,8 +46,7 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupRecyclerView();
-        setupSearch();
-        loadPDFs();
+        listController.load();
     }
 
     private void initViews() {
@@ -64,7 +56,6 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
         etSearch = findViewById(R.id.etSearch);
         apiService = ApiClient.getApiService();
         prefsManager = new SharedPrefsManager(this);
-        pdfList = new ArrayList<>();
     }
 
     private void setupToolbar() {
@@ -77,7 +68,33 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        pdfAdapter = new AdminPDFAdapter(pdfList);
+        listController = new AdminListController<>(this, rvPDFs, llEmptyState, etSearch,
+            "PDFs", "pdfs", AdminPDFsResponse.AdminPDFItem.class,
+            (authHeader, skip, limit, search) -> apiService.streamAllPDFs(
+                authHeader, skip, limit, search, null, ApiConfig.FIELDS_ADMIN_PDFS),
+            new AdminSearchController.RowKeys<AdminPDFsResponse.AdminPDFItem>() {
+                @Override
+                public int idOf(AdminPDFsResponse.AdminPDFItem pdf) {
+                    return pdf.getId();
+                }
+
+                @Override
+                public String[] textOf(AdminPDFsResponse.AdminPDFItem pdf) {
+                    return new String[] {pdf.getFileName(), pdf.getUserName(), pdf.getUserEmail()};
+                }
+            },
+            new AdminListController.Progress() {
+                @Override
+                public void show(String message) {
+                    showProgressDialog(message);
+                }
+
+                @Override
+                public void hide() {
+                    hideProgressDialog();
+                }
+            });
+        pdfAdapter = new AdminPDFAdapter(listController.getRows());
         pdfAdapter.setOnPDFClickListener(pdf -> {
             // Show PDF details dialog
             showPDFDetailsDialog(pdf);
@@ -87,93 +104,7 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
             showDeleteDialog(pdf, position);
         });
 
-        rvPDFs.setLayoutManager(new LinearLayoutManager(this));
-        rvPDFs.setAdapter(pdfAdapter);
-    }
-
-    private void setupSearch() {
-        etSearch.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
-
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before, int count) {
-                currentPage = 0;
-                loadPDFs();
-            }
-
-            @Override
-            public void afterTextChanged(Editable s) {}
-        });
-    }
-
-    private void loadPDFs() {
-        String accessToken = prefsManager.getAccessToken();
-        if (accessToken == null) {
-            Toast.makeText(this, "Please login again", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        showProgressDialog("Loading PDFs...");
-
-        String authHeader = "Bearer " + accessToken;
-        String searchQuery = etSearch.getText().toString().trim();
-        String search = searchQuery.isEmpty() ? null : searchQuery;
-
-        Call<AdminPDFsResponse> call = apiService.getAllPDFs(
-            authHeader,
-            currentPage * PAGE_SIZE,
-            PAGE_SIZE,
-            search,
-            null
-        );
-
-        call.enqueue(new Callback<AdminPDFsResponse>() {
-            @Override
-            public void onResponse(Call<AdminPDFsResponse> call, Response<AdminPDFsResponse> response) {
-                hideProgressDialog();
-
-                if (response.isSuccessful() && response.body() != null) {
-                    AdminPDFsResponse pdfsResponse = response.body();
-                    List<AdminPDFsResponse.AdminPDFItem> pdfs = pdfsResponse.getPdfs();
-
-                    if (currentPage == 0) {
-                        pdfList.clear();
-                    }
-                    pdfList.addAll(pdfs);
-                    pdfAdapter.notifyDataSetChanged();
-
-                    if (pdfList.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        hideEmptyState();
-                    }
-                } else {
-                    String errorMsg = "Failed to load PDFs";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                    }
-                    Toast.makeText(AdminPDFManagementActivity.this, errorMsg, Toast.LENGTH_LONG).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<AdminPDFsResponse> call, Throwable t) {
-                hideProgressDialog();
-                Toast.makeText(AdminPDFManagementActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
-            }
-        });
+        listController.setAdapter(pdfAdapter);
     }
 
     private void showPDFDetailsDialog(AdminPDFsResponse.AdminPDFItem pdf) {
@@ -231,48 +162,30 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
 
                 if (response.isSuccessful() && response.body() != null) {
                     DeleteResponse deleteResponse = response.body();
+                    com.example.tubemindai.utils.MemoryCache.removePDF(pdf.getId());
                     pdfAdapter.removeItem(position);
+                    listController.onRowRemoved(pdf.getId());
                     Toast.makeText(AdminPDFManagementActivity.this,
                         deleteResponse.getMessage(), Toast.LENGTH_SHORT).show();
-
-                    if (pdfList.isEmpty()) {
-                        showEmptyState();
-                    }
                 } else {
-                    String errorMsg = "Failed to delete PDF";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                    }
-                    Toast.makeText(AdminPDFManagementActivity.this, errorMsg, Toast.LENGTH_LONG).show();
+                    AdminListController.showError(AdminPDFManagementActivity.this, response, null);
                 }
             }
 
             @Override
             public void onFailure(Call<DeleteResponse> call, Throwable t) {
                 hideProgressDialog();
-                Toast.makeText(AdminPDFManagementActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
+                AdminListController.showError(AdminPDFManagementActivity.this, null, t);
             }
         });
     }
 
-    private void showEmptyState() {
-        rvPDFs.setVisibility(View.GONE);
-        llEmptyState.setVisibility(View.VISIBLE);
-    }
-
-    private void hideEmptyState() {
-        rvPDFs.setVisibility(View.VISIBLE);
-        llEmptyState.setVisibility(View.GONE);
+    @Override
+    protected void onDestroy() {
+        if (listController != null) {
+            listController.release();
+        }
+        super.onDestroy();
     }
 
     private void showProgressDialog(String message) {
@@ -299,8 +212,7 @@ public class AdminPDFManagementActivity extends AppCompatActivity {
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == R.id.menu_refresh) {
-            currentPage = 0;
-            loadPDFs();
+            listController.load();
             return true;
         }
         return super.onOptionsItemSelected(item);
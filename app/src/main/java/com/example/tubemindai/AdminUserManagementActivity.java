@@ -2,18 +2,14 @@ package com.example.tubemindai;
 
 import android.app.ProgressDialog;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.view.Menu;
 import android.view.MenuItem;
-import android.view.View;
 import android.widget.LinearLayout;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.tubemindai.adapters.AdminUserAdapter;
@@ -21,12 +17,10 @@ import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
 import com.example.tubemindai.api.models.AdminUsersResponse;
 import com.example.tubemindai.api.models.AdminUserActionResponse;
+import com.example.tubemindai.utils.AdminListController;
+import com.example.tubemindai.utils.AdminSearchController;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.gson.Gson;
-
-import java.util.ArrayList;
-import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -38,12 +32,10 @@ public class AdminUserManagementActivity extends AppCompatActivity {
     private LinearLayout llEmptyState;
     private TextInputEditText etSearch;
     private AdminUserAdapter userAdapter;
-    private List<AdminUsersResponse.AdminUserItem> userList;
     private ApiService apiService;
     private SharedPrefsManager prefsManager;
     private ProgressDialog progressDialog;
-    private int currentPage = 0;
-    private final int PAGE_SIZE = 50;
+    private AdminListController<AdminUsersResponse.AdminUserItem> listController;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,8 +45,7 @@ public class AdminUserManagementActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupRecyclerView();
-        setupSearch();
-        loadUsers();
+        listController.load();
     }
 
     private void initViews() {
@@ -64,7 +55,6 @@ public class AdminUserManagementActivity extends AppCompatActivity {
         etSearch = findViewById(R.id.etSearch);
         apiService = ApiClient.getApiService();
         prefsManager = new SharedPrefsManager(this);
-        userList = new ArrayList<>();
     }
 
     private void setupToolbar() {
@@ -77,7 +67,33 @@ public class AdminUserManagementActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        userAdapter = new AdminUserAdapter(userList);
+        listController = new AdminListController<>(this, rvUsers, llEmptyState, etSearch,
+            "users", "users", AdminUsersResponse.AdminUserItem.class,
+            (authHeader, skip, limit, search) -> apiService.streamAllUsers(
+                authHeader, skip, limit, search, null, null),
+            new AdminSearchController.RowKeys<AdminUsersResponse.AdminUserItem>() {
+                @Override
+                public int idOf(AdminUsersResponse.AdminUserItem user) {
+                    return user.getId();
+                }
+
+                @Override
+                public String[] textOf(AdminUsersResponse.AdminUserItem user) {
+                    return new String[] {user.getName(), user.getEmail()};
+                }
+            },
+            new AdminListController.Progress() {
+                @Override
+                public void show(String message) {
+                    showProgressDialog(message);
+                }
+
+                @Override
+                public void hide() {
+                    hideProgressDialog();
+                }
+            });
+        userAdapter = new AdminUserAdapter(listController.getRows());
         userAdapter.setOnUserClickListener(user -> {
             // Show user details dialog
             showUserDetailsDialog(user);
@@ -87,95 +103,7 @@ public class AdminUserManagementActivity extends AppCompatActivity {
             showActivateDialog(user, position);
         });
 
-        rvUsers.setLayoutManager(new LinearLayoutManager(this));
-        rvUsers.setAdapter(userAdapter);
-    }
-
-    private void setupSearch() {
-        etSearch.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
-
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before, int count) {
-                // Reload with search query
-                currentPage = 0;
-                loadUsers();
-            }
-
-            @Override
-            public void afterTextChanged(Editable s) {}
-        });
-    }
-
-    private void loadUsers() {
-        String accessToken = prefsManager.getAccessToken();
-        if (accessToken == null) {
-            Toast.makeText(this, "Please login again", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        showProgressDialog("Loading users...");
-
-        String authHeader = "Bearer " + accessToken;
-        String searchQuery = etSearch.getText().toString().trim();
-        String search = searchQuery.isEmpty() ? null : searchQuery;
-
-        Call<AdminUsersResponse> call = apiService.getAllUsers(
-            authHeader,
-            currentPage * PAGE_SIZE,
-            PAGE_SIZE,
-            search,
-            null,
-            null
-        );
-
-        call.enqueue(new Callback<AdminUsersResponse>() {
-            @Override
-            public void onResponse(Call<AdminUsersResponse> call, Response<AdminUsersResponse> response) {
-                hideProgressDialog();
-
-                if (response.isSuccessful() && response.body() != null) {
-                    AdminUsersResponse usersResponse = response.body();
-                    List<AdminUsersResponse.AdminUserItem> users = usersResponse.getUsers();
-
-                    if (currentPage == 0) {
-                        userList.clear();
-                    }
-                    userList.addAll(users);
-                    userAdapter.notifyDataSetChanged();
-
-                    if (userList.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        hideEmptyState();
-                    }
-                } else {
-                    String errorMsg = "Failed to load users";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                    }
-                    Toast.makeText(AdminUserManagementActivity.this, errorMsg, Toast.LENGTH_LONG).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<AdminUsersResponse> call, Throwable t) {
-                hideProgressDialog();
-                Toast.makeText(AdminUserManagementActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
-            }
-        });
+        listController.setAdapter(userAdapter);
     }
 
     private void showUserDetailsDialog(AdminUsersResponse.AdminUserItem user) {
@@ -230,40 +158,24 @@ public class AdminUserManagementActivity extends AppCompatActivity {
                     Toast.makeText(AdminUserManagementActivity.this,
                         actionResponse.getMessage(), Toast.LENGTH_SHORT).show();
                 } else {
-                    String errorMsg = "Failed to update user";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                    }
-                    Toast.makeText(AdminUserManagementActivity.this, errorMsg, Toast.LENGTH_LONG).show();
+                    AdminListController.showError(AdminUserManagementActivity.this, response, null);
                 }
             }
 
             @Override
             public void onFailure(Call<AdminUserActionResponse> call, Throwable t) {
                 hideProgressDialog();
-                Toast.makeText(AdminUserManagementActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
+                AdminListController.showError(AdminUserManagementActivity.this, null, t);
             }
         });
     }
 
-    private void showEmptyState() {
-        rvUsers.setVisibility(View.GONE);
-        llEmptyState.setVisibility(View.VISIBLE);
-    }
-
-    private void hideEmptyState() {
-        rvUsers.setVisibility(View.VISIBLE);
-        llEmptyState.setVisibility(View.GONE);
+    @Override
+    protected void onDestroy() {
+        if (listController != null) {
+            listController.release();
+        }
+        super.onDestroy();
     }
 
     private void showProgressDialog(String message) {
@@ -290,8 +202,7 @@ public class AdminUserManagementActivity extends AppCompatActivity {
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == R.id.menu_refresh) {
-            currentPage = 0;
-            loadUsers();
+            listController.load();
             return true;
         }
         return super.onOptionsItemSelected(item);
@@ -2,31 +2,26 @@ package com.example.tubemindai;
 
 import android.app.ProgressDialog;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.view.Menu;
 import android.view.MenuItem;
-import android.view.View;
 import android.widget.LinearLayout;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
-import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.tubemindai.adapters.AdminVideoAdapter;
 import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.ApiConfig;
 import com.example.tubemindai.api.ApiService;
 import com.example.tubemindai.api.models.AdminVideosResponse;
 import com.example.tubemindai.api.models.DeleteResponse;
+import com.example.tubemindai.utils.AdminListController;
+import com.example.tubemindai.utils.AdminSearchController;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.gson.Gson;
-
-import java.util.ArrayList;
-import java.util.List;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -38,12 +33,10 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
     private LinearLayout llEmptyState;
     private TextInputEditText etSearch;
     private AdminVideoAdapter videoAdapter;
-    private List<AdminVideosResponse.AdminVideoItem> videoList;
     private ApiService apiService;
     private SharedPrefsManager prefsManager;
     private ProgressDialog progressDialog;
-    private int currentPage = 0;
-    private final int PAGE_SIZE = 50;
+    private AdminListController<AdminVideosResponse.AdminVideoItem> listController;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,8 +46,7 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupRecyclerView();
-        setupSearch();
-        loadVideos();
+        listController.load();
     }
 
     private void initViews() {
@@ -64,7 +56,6 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
         etSearch = findViewById(R.id.etSearch);
         apiService = ApiClient.getApiService();
         prefsManager = new SharedPrefsManager(this);
-        videoList = new ArrayList<>();
     }
 
     private void setupToolbar() {
@@ -77,7 +68,33 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
     }
 
     private void setupRecyclerView() {
-        videoAdapter = new AdminVideoAdapter(videoList);
+        listController = new AdminListController<>(this, rvVideos, llEmptyState, etSearch,
+            "videos", "videos", AdminVideosResponse.AdminVideoItem.class,
+            (authHeader, skip, limit, search) -> apiService.streamAllVideos(
+                authHeader, skip, limit, search, null, ApiConfig.FIELDS_ADMIN_VIDEOS),
+            new AdminSearchController.RowKeys<AdminVideosResponse.AdminVideoItem>() {
+                @Override
+                public int idOf(AdminVideosResponse.AdminVideoItem video) {
+                    return video.getId();
+                }
+
+                @Override
+                public String[] textOf(AdminVideosResponse.AdminVideoItem video) {
+                    return new String[] {video.getTitle(), video.getVideoId(), video.getUserName(), video.getUserEmail()};
+                }
+            },
+            new AdminListController.Progress() {
+                @Override
+                public void show(String message) {
+                    showProgressDialog(message);
+                }
+
+                @Override
+                public void hide() {
+                    hideProgressDialog();
+                }
+            });
+        videoAdapter = new AdminVideoAdapter(listController.getRows());
         videoAdapter.setOnVideoClickListener(video -> {
             // Show video details dialog
             showVideoDetailsDialog(video);
@@ -87,93 +104,8 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
             showDeleteDialog(video, position);
         });
 
-        rvVideos.setLayoutManager(new LinearLayoutManager(this));
-        rvVideos.setAdapter(videoAdapter);
-    }
-
-    private void setupSearch() {
-        etSearch.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
-
-            @Override
-            public void onTextChanged(CharSequence s, int start, int before, int count) {
-                currentPage = 0;
-                loadVideos();
-            }
-
-            @Override
-            public void afterTextChanged(Editable s) {}
-        });
-    }
-
-    private void loadVideos() {
-        String accessToken = prefsManager.getAccessToken();
-        if (accessToken == null) {
-            Toast.makeText(this, "Please login again", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
-
-        showProgressDialog("Loading videos...");
-
-        String authHeader = "Bearer " + accessToken;
-        String searchQuery = etSearch.getText().toString().trim();
-        String search = searchQuery.isEmpty() ? null : searchQuery;
-
-        Call<AdminVideosResponse> call = apiService.getAllVideos(
-            authHeader,
-            currentPage * PAGE_SIZE,
-            PAGE_SIZE,
-            search,
-            null
-        );
-
-        call.enqueue(new Callback<AdminVideosResponse>() {
-            @Override
-            public void onResponse(Call<AdminVideosResponse> call, Response<AdminVideosResponse> response) {
-                hideProgressDialog();
-
-                if (response.isSuccessful() && response.body() != null) {
-                    AdminVideosResponse videosResponse = response.body();
-                    List<AdminVideosResponse.AdminVideoItem> videos = videosResponse.getVideos();
-
-                    if (currentPage == 0) {
-                        videoList.clear();
-                    }
-                    videoList.addAll(videos);
-                    videoAdapter.notifyDataSetChanged();
-
-                    if (videoList.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        hideEmptyState();
-                    }
-                } else {
-                    String errorMsg = "Failed to load videos";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                    }
-                    Toast.makeText(AdminVideoManagementActivity.this, errorMsg, Toast.LENGTH_LONG).show();
-                }
-            }
-
-            @Override
-            public void onFailure(Call<AdminVideosResponse> call, Throwable t) {
-                hideProgressDialog();
-                Toast.makeText(AdminVideoManagementActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
-            }
-        });
+        listController.setAdapter(videoAdapter);
+        videoAdapter.attachThumbnailPreloader(this, rvVideos);
     }
 
     private void showVideoDetailsDialog(AdminVideosResponse.AdminVideoItem video) {
@@ -220,48 +152,30 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
 
                 if (response.isSuccessful() && response.body() != null) {
                     DeleteResponse deleteResponse = response.body();
+                    com.example.tubemindai.utils.MemoryCache.removeVideo(video.getId());
                     videoAdapter.removeItem(position);
+                    listController.onRowRemoved(video.getId());
                     Toast.makeText(AdminVideoManagementActivity.this,
                         deleteResponse.getMessage(), Toast.LENGTH_SHORT).show();
-
-                    if (videoList.isEmpty()) {
-                        showEmptyState();
-                    }
                 } else {
-                    String errorMsg = "Failed to delete video";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
-                    }
-                    Toast.makeText(AdminVideoManagementActivity.this, errorMsg, Toast.LENGTH_LONG).show();
+                    AdminListController.showError(AdminVideoManagementActivity.this, response, null);
                 }
             }
 
             @Override
             public void onFailure(Call<DeleteResponse> call, Throwable t) {
                 hideProgressDialog();
-                Toast.makeText(AdminVideoManagementActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
+                AdminListController.showError(AdminVideoManagementActivity.this, null, t);
             }
         });
     }
 
-    private void showEmptyState() {
-        rvVideos.setVisibility(View.GONE);
-        llEmptyState.setVisibility(View.VISIBLE);
-    }
-
-    private void hideEmptyState() {
-        rvVideos.setVisibility(View.VISIBLE);
-        llEmptyState.setVisibility(View.GONE);
+    @Override
+    protected void onDestroy() {
+        if (listController != null) {
+            listController.release();
+        }
+        super.onDestroy();
     }
 
     private void showProgressDialog(String message) {
@@ -288,8 +202,7 @@ public class AdminVideoManagementActivity extends AppCompatActivity {
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == R.id.menu_refresh) {
-            currentPage = 0;
-            loadVideos();
+            listController.load();
             return true;
         }
         return super.onOptionsItemSelected(item);
@@ -13,17 +13,28 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.tubemindai.adapters.ChatAdapter;
 import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
-import com.example.tubemindai.api.models.ChatMessageRequest;
+import com.example.tubemindai.api.RateLimiter;
+import com.example.tubemindai.api.HedgedCall;
 import com.example.tubemindai.api.models.ChatMessageResponse;
 import com.example.tubemindai.api.models.ChatHistoryResponse;
 import com.example.tubemindai.models.ChatModel;
+import com.example.tubemindai.utils.AnswerCache;
+import com.example.tubemindai.utils.ChatJournal;
+import com.example.tubemindai.utils.ChatOutbox;
+import com.example.tubemindai.utils.ConnectivityMonitor;
+import com.example.tubemindai.utils.MemoryCache;
 import com.example.tubemindai.utils.SharedPrefsManager;
+import com.example.tubemindai.utils.SuggestedQuestions;
 import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.textfield.TextInputEditText;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -37,6 +48,8 @@ public class ChatActivity extends AppCompatActivity {
     private RecyclerView rvChatMessages;
     private TextInputEditText etMessage;
     private FloatingActionButton fabSend;
+    private View scrollSuggestions;
+    private ChipGroup chipGroupSuggestions;
     private ChatAdapter chatAdapter;
     private List<ChatModel> chatList;
     private String videoId, videoTitle;
@@ -44,6 +57,10 @@ public class ChatActivity extends AppCompatActivity {
     private ApiService apiService;
     private SharedPrefsManager prefsManager;
     private ProgressDialog progressDialog;
+    private ChatOutbox outbox;
+    // Set once the server's history is shown - a late journal read must not replace it
+    private boolean historyLoaded;
+    private boolean journalShown;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,21 +75,38 @@ public class ChatActivity extends AppCompatActivity {
         // Initialize API service
         apiService = ApiClient.getApiService();
         prefsManager = new SharedPrefsManager(this);
+        outbox = ChatOutbox.get(this);
 
         initViews();
         setupToolbar();
         setupRecyclerView();
         setupClickListeners();
+        showSuggestions();
+        
+        if (videoDbId != -1) {
+            outbox.addListener(ChatOutbox.conversation(ChatOutbox.KIND_VIDEO, videoDbId), outboxListener);
+        }
         
         // Load chat history from API
         loadChatHistory();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (videoDbId != -1) {
+            outbox.removeListener(ChatOutbox.conversation(ChatOutbox.KIND_VIDEO, videoDbId), outboxListener);
+        }
+        hideProgressDialog();
+    }
+
     private void initViews() {
         toolbar = findViewById(R.id.toolbar);
         rvChatMessages = findViewById(R.id.rvChatMessages);
         etMessage = findViewById(R.id.etMessage);
         fabSend = findViewById(R.id.fabSend);
+        scrollSuggestions = findViewById(R.id.scrollSuggestions);
+        chipGroupSuggestions = findViewById(R.id.chipGroupSuggestions);
     }
 
     private void setupToolbar() {
@@ -86,6 +120,7 @@ public class ChatActivity extends AppCompatActivity {
     private void setupRecyclerView() {
         chatList = new ArrayList<>();
         chatAdapter = new ChatAdapter(chatList);
+        chatAdapter.setOnRegenerateListener(this::regenerate);
 
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         layoutManager.setStackFromEnd(true); // Scroll to bottom
@@ -103,6 +138,41 @@ public class ChatActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Chips for the questions SuggestedQuestions derived from the notes
+     */
+    private void showSuggestions() {
+        chipGroupSuggestions.removeAllViews();
+        for (String question : SuggestedQuestions.forVideo(videoDbId)) {
+            Chip chip = new Chip(this);
+            chip.setText(question);
+            chip.setOnClickListener(v -> askSuggestion(chip, question));
+            chipGroupSuggestions.addView(chip);
+        }
+        scrollSuggestions.setVisibility(chipGroupSuggestions.getChildCount() > 0 ? View.VISIBLE : View.GONE);
+    }
+
+    private void askSuggestion(Chip chip, String question) {
+        chipGroupSuggestions.removeView(chip);
+        if (chipGroupSuggestions.getChildCount() == 0) {
+            scrollSuggestions.setVisibility(View.GONE);
+        }
+        // Answer still being prefetched - wait for it rather than asking a second time
+        boolean waiting = SuggestedQuestions.whenAnswered(videoDbId, question, () -> {
+            if (!isFinishing() && !isDestroyed()) {
+                hideProgressDialog();
+                etMessage.setText(question);
+                sendMessage();
+            }
+        });
+        if (waiting) {
+            showProgressDialog("Getting AI response...");
+            return;
+        }
+        etMessage.setText(question);
+        sendMessage();
+    }
+
     private void sendMessage() {
         String message = etMessage.getText().toString().trim();
 
@@ -122,68 +192,138 @@ public class ChatActivity extends AppCompatActivity {
             return;
         }
 
-        // Add user message to UI immediately
-        ChatModel userMessage = new ChatModel(message, ChatModel.TYPE_USER, 
-                String.valueOf(System.currentTimeMillis()), videoId);
-        chatAdapter.addMessage(userMessage);
         etMessage.setText("");
+
+        // Asked before in this conversation - answer from the cache, "Regenerate" still asks the server
+        String cachedAnswer = AnswerCache.get().lookup(ChatOutbox.KIND_VIDEO, videoDbId, message);
+        if (cachedAnswer != null) {
+            // Still sent, with its answer, so the server history and the journal have it
+            addCachedAnswer(outbox.enqueueAnswered(ChatOutbox.KIND_VIDEO, videoDbId, message, cachedAnswer));
+            rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
+            return;
+        }
+        askServer(message);
+    }
+
+    private void askServer(String message) {
+        // Write the question to the outbox first - it survives failures and restarts
+        ChatOutbox.Entry entry = outbox.enqueue(ChatOutbox.KIND_VIDEO, videoDbId, message);
+        chatAdapter.addMessage(pendingBubble(entry));
         
         // Scroll to bottom
         rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
 
+        if (!ConnectivityMonitor.get().isOnline()) {
+            Toast.makeText(this, "You're offline - your question will be sent when you reconnect", Toast.LENGTH_LONG).show();
+            return;
+        }
+
         // Show loading indicator
-        showProgressDialog("Getting AI response...");
+        // Sends beyond the chat rate limit are queued by the client - say how long for
+        long waitMs = RateLimiter.forScope(RateLimiter.SCOPE_VIDEO_CHAT).expectedWaitMs();
+        showProgressDialog(waitMs > 0
+                ? "Message queued - sending in " + ((waitMs + 999) / 1000) + "s..."
+                : "Getting AI response...");
+    }
 
-        // Send message to backend
-        ChatMessageRequest request = new ChatMessageRequest(message);
-        String authHeader = "Bearer " + token;
-        
-        Call<ChatMessageResponse> call = apiService.sendChatMessage(authHeader, videoDbId, request);
-        call.enqueue(new Callback<ChatMessageResponse>() {
-            @Override
-            public void onResponse(Call<ChatMessageResponse> call, Response<ChatMessageResponse> response) {
-                hideProgressDialog();
+    private void addCachedAnswer(ChatOutbox.Entry entry) {
+        String time = String.valueOf(entry.getCreatedAt());
+        ChatModel question = new ChatModel(entry.getMessage(), ChatModel.TYPE_USER, time, videoId);
+        question.setClientMessageId(entry.getClientMessageId());
+        chatAdapter.addMessage(question);
+        ChatModel aiMessage = new ChatModel(entry.getAnswer(), ChatModel.TYPE_AI, time, videoId);
+        aiMessage.setCachedQuestion(entry.getMessage());
+        chatAdapter.addMessage(aiMessage);
+    }
+
+    /**
+     * Drop the cached answer and send the question again - the new answer replaces it in the cache
+     */
+    private void regenerate(ChatModel cachedAnswer) {
+        String question = cachedAnswer.getCachedQuestion();
+        AnswerCache.get().invalidate(ChatOutbox.KIND_VIDEO, videoDbId, question);
+        chatAdapter.clearCachedAnswer(cachedAnswer);
+        askServer(question);
+    }
+
+    private final ChatOutbox.Listener outboxListener = new ChatOutbox.Listener() {
+        @Override
+        public void onDelivered(ChatOutbox.Entry entry, String response) {
+            if (entry.getAnswer() != null) {
+                // A cached answer now stored on the server - it is already on screen
+                return;
+            }
+            hideProgressDialog();
+            chatAdapter.setMessageStatus(entry.getClientMessageId(), ChatModel.STATUS_SENT);
+            
+            // Add AI response to chat
+            if (response != null && !response.isEmpty()) {
+                ChatModel aiMessage = new ChatModel(
+                        response,
+                        ChatModel.TYPE_AI,
+                        String.valueOf(System.currentTimeMillis()),
+                        videoId
+                );
+                chatAdapter.addMessage(aiMessage);
                 
-                if (response.isSuccessful() && response.body() != null) {
-                    ChatMessageResponse chatResponse = response.body();
-                    
-                    // Add AI response to chat
-                    if (chatResponse.getResponse() != null && !chatResponse.getResponse().isEmpty()) {
-                        ChatModel aiMessage = new ChatModel(
-                                chatResponse.getResponse(),
-                                ChatModel.TYPE_AI,
-                                chatResponse.getCreatedAt() != null ? chatResponse.getCreatedAt() : String.valueOf(System.currentTimeMillis()),
-                                videoId
-                        );
-                        chatAdapter.addMessage(aiMessage);
-                        
-                        // Scroll to bottom
-                        rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
-                    } else {
-                        Toast.makeText(ChatActivity.this, "No response from AI", Toast.LENGTH_SHORT).show();
-                    }
-                } else {
-                    // Handle 401 (token expired) - redirect to login
-                    if (com.example.tubemindai.utils.ApiErrorHandler.handleError(ChatActivity.this, response)) {
-                        finish(); // Close this activity after redirecting to login
-                        return;
-                    }
-                    
-                    // Handle other errors
-                    String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.getErrorMessage(response);
-                    Toast.makeText(ChatActivity.this, errorMessage, Toast.LENGTH_SHORT).show();
-                }
+                // Scroll to bottom
+                rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
+            } else {
+                Toast.makeText(ChatActivity.this, "No response from AI", Toast.LENGTH_SHORT).show();
             }
+        }
 
-            @Override
-            public void onFailure(Call<ChatMessageResponse> call, Throwable t) {
-                hideProgressDialog();
-                
-                // Handle network errors with user-friendly message
-                String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(t);
-                Toast.makeText(ChatActivity.this, errorMessage, Toast.LENGTH_LONG).show();
+        @Override
+        public void onSendError(ChatOutbox.Entry entry, Response<?> errorResponse, Throwable error, boolean willRetry) {
+            if (entry.getAnswer() != null) {
+                // The answer is on screen - only storing it failed, and the outbox keeps trying
+                return;
             }
-        });
+            hideProgressDialog();
+            
+            // Handle 401 (token expired) - redirect to login
+            if (errorResponse != null && com.example.tubemindai.utils.ApiErrorHandler.handleError(ChatActivity.this, errorResponse)) {
+                finish(); // Close this activity after redirecting to login
+                return;
+            }
+            
+            if (willRetry) {
+                Toast.makeText(ChatActivity.this, "Couldn't reach the server - your question is saved and will be sent automatically", Toast.LENGTH_LONG).show();
+            } else {
+                chatAdapter.setMessageStatus(entry.getClientMessageId(), ChatModel.STATUS_FAILED);
+                String errorMessage = errorResponse != null
+                        ? com.example.tubemindai.utils.ApiErrorHandler.getErrorMessage(errorResponse)
+                        : com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(error);
+                Toast.makeText(ChatActivity.this, errorMessage, Toast.LENGTH_SHORT).show();
+            }
+        }
+    };
+
+    private ChatModel pendingBubble(ChatOutbox.Entry entry) {
+        ChatModel bubble = new ChatModel(entry.getMessage(), ChatModel.TYPE_USER,
+                String.valueOf(entry.getCreatedAt()), videoId);
+        bubble.setClientMessageId(entry.getClientMessageId());
+        bubble.setStatus(ChatModel.STATUS_PENDING);
+        return bubble;
+    }
+
+    /**
+     * Append questions still waiting in the outbox (e.g. typed offline before the app was closed)
+     */
+    private void showPendingMessages(Set<String> shownClientIds) {
+        if (videoDbId == -1) {
+            return;
+        }
+        for (ChatOutbox.Entry entry : outbox.pending(ChatOutbox.conversation(ChatOutbox.KIND_VIDEO, videoDbId))) {
+            if (shownClientIds.contains(entry.getClientMessageId())) {
+                continue;
+            }
+            if (entry.getAnswer() != null) {
+                addCachedAnswer(entry);
+            } else {
+                chatAdapter.addMessage(pendingBubble(entry));
+            }
+        }
     }
 
     private void loadChatHistory() {
@@ -199,46 +339,47 @@ public class ChatActivity extends AppCompatActivity {
             return;
         }
 
+        // Reopening a conversation is painted from memory, then refreshed from the server -
+        // another device may have added to it
+        ChatHistoryResponse cached = MemoryCache.getVideoChat(videoDbId);
+        if (cached != null) {
+            displayChatHistory(cached.getMessages());
+            // A failed refresh keeps these rows, as it would journalled ones
+            journalShown = true;
+        }
+
+        // Otherwise paint the last screen from the on-device journal while the server copy loads
+        ChatJournal.get().readTail(ChatOutbox.KIND_VIDEO, videoDbId, ChatJournal.TAIL_MESSAGES, records -> {
+            if (historyLoaded || records.isEmpty() || isDestroyed()) {
+                return;
+            }
+            journalShown = true;
+            Set<String> journalClientIds = new HashSet<>();
+            for (ChatJournal.Record record : records) {
+                if (record.getClientMessageId() != null) {
+                    journalClientIds.add(record.getClientMessageId());
+                }
+            }
+            showRecords(records, journalClientIds);
+        });
+
         String authHeader = "Bearer " + token;
         Call<ChatHistoryResponse> call = apiService.getChatHistory(authHeader, videoDbId, 0, 50);
         
-        call.enqueue(new Callback<ChatHistoryResponse>() {
+        HedgedCall.enqueue(call, HedgedCall.GROUP_VIDEO_CHAT_HISTORY, new Callback<ChatHistoryResponse>() {
             @Override
             public void onResponse(Call<ChatHistoryResponse> call, Response<ChatHistoryResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     ChatHistoryResponse historyResponse = response.body();
-                    List<ChatMessageResponse> messages = historyResponse.getMessages();
-                    
-                    if (messages != null && !messages.isEmpty()) {
-                        // Load chat history
-                        chatList.clear();
-                        for (ChatMessageResponse msg : messages) {
-                            if (msg.isUserMessage()) {
-                                ChatModel chatModel = new ChatModel(
-                                        msg.getMessage(),
-                                        ChatModel.TYPE_USER,
-                                        msg.getCreatedAt() != null ? msg.getCreatedAt() : String.valueOf(System.currentTimeMillis()),
-                                        videoId
-                                );
-                                chatList.add(chatModel);
-                            }
-                            
-                            if (msg.getResponse() != null && !msg.getResponse().isEmpty()) {
-                                ChatModel chatModel = new ChatModel(
-                                        msg.getResponse(),
-                                        ChatModel.TYPE_AI,
-                                        msg.getCreatedAt() != null ? msg.getCreatedAt() : String.valueOf(System.currentTimeMillis()),
-                                        videoId
-                                );
-                                chatList.add(chatModel);
-                            }
-                        }
-                        chatAdapter.notifyDataSetChanged();
-                        rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
-                    } else {
-                        // No history, show welcome message
-                        loadWelcomeMessage();
+                    MemoryCache.putVideoChat(videoDbId, historyResponse);
+                    // The page is the oldest messages - only a complete history can replace the
+                    // journal, whose tail is the last screen
+                    if (historyResponse.getMessages() != null
+                            && historyResponse.getTotal() <= historyResponse.getMessages().size()) {
+                        ChatJournal.get().replaceWith(ChatOutbox.KIND_VIDEO, videoDbId,
+                                ChatJournal.fromVideoHistory(historyResponse.getMessages()));
                     }
+                    displayChatHistory(historyResponse.getMessages());
                 } else {
                     // Handle 401 (token expired) - redirect to login
                     if (response.code() == 401 && com.example.tubemindai.utils.ApiErrorHandler.handleError(ChatActivity.this, response)) {
@@ -246,19 +387,69 @@ public class ChatActivity extends AppCompatActivity {
                         return;
                     }
                     
-                    // Failed to load, show welcome message
-                    loadWelcomeMessage();
+                    // Failed to load, show welcome message unless the journal already filled the screen
+                    if (!journalShown) {
+                        loadWelcomeMessage();
+                    }
                 }
             }
 
             @Override
             public void onFailure(Call<ChatHistoryResponse> call, Throwable t) {
-                // On failure, show welcome message
-                loadWelcomeMessage();
+                // On failure, keep the journalled messages or show the welcome message
+                if (!journalShown) {
+                    loadWelcomeMessage();
+                }
             }
         });
     }
 
+    private void displayChatHistory(List<ChatMessageResponse> messages) {
+        historyLoaded = true;
+        // Messages the server has answered are no longer pending
+        Set<String> historyClientIds = new HashSet<>();
+        Set<String> answeredClientIds = new HashSet<>();
+        if (messages != null) {
+            for (ChatMessageResponse msg : messages) {
+                if (msg.getClientMessageId() != null) {
+                    historyClientIds.add(msg.getClientMessageId());
+                    if (msg.getResponse() != null && !msg.getResponse().isEmpty()) {
+                        answeredClientIds.add(msg.getClientMessageId());
+                    }
+                }
+            }
+        }
+        outbox.reconcile(ChatOutbox.conversation(ChatOutbox.KIND_VIDEO, videoDbId), answeredClientIds);
+
+        if (messages == null || messages.isEmpty()) {
+            // No history, show welcome message
+            chatList.clear();
+            chatAdapter.notifyDataSetChanged();
+            loadWelcomeMessage();
+            return;
+        }
+
+        // Load chat history - the same bubbles the journal stores
+        showRecords(ChatJournal.fromVideoHistory(messages), historyClientIds);
+    }
+
+    private void showRecords(List<ChatJournal.Record> records, Set<String> shownClientIds) {
+        chatList.clear();
+        for (ChatJournal.Record record : records) {
+            chatList.add(new ChatModel(
+                    record.getText(),
+                    record.isUser() ? ChatModel.TYPE_USER : ChatModel.TYPE_AI,
+                    record.getTimestamp() != null ? record.getTimestamp() : String.valueOf(System.currentTimeMillis()),
+                    videoId
+            ));
+        }
+        chatAdapter.notifyDataSetChanged();
+        showPendingMessages(shownClientIds);
+        if (!chatList.isEmpty()) {
+            rvChatMessages.scrollToPosition(chatList.size() - 1);
+        }
+    }
+
     private void loadWelcomeMessage() {
         ChatModel welcomeMessage = new ChatModel(
                 "Hello! I'm here to help you understand this video better. Ask me anything!",
@@ -267,6 +458,7 @@ public class ChatActivity extends AppCompatActivity {
                 videoId
         );
         chatAdapter.addMessage(welcomeMessage);
+        showPendingMessages(new HashSet<>());
     }
 
     private void showProgressDialog(String message) {
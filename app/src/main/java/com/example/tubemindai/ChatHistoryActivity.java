@@ -19,10 +19,11 @@ import com.example.tubemindai.adapters.HistoryAdapter;
 import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
 import com.example.tubemindai.api.models.ChatHistoryItem;
-import com.example.tubemindai.api.models.ChatHistoryListResponse;
 import com.example.tubemindai.api.models.DeleteResponse;
 import com.example.tubemindai.models.HistoryModel;
+import com.example.tubemindai.utils.ConnectivityMonitor;
 import com.example.tubemindai.utils.SharedPrefsManager;
+import com.example.tubemindai.utils.SyncManager;
 import com.google.android.material.appbar.MaterialToolbar;
 
 import java.text.ParseException;
@@ -40,7 +41,7 @@ import retrofit2.Response;
 /**
  * Chat History Activity - Displays all chat conversations from backend
  */
-public class ChatHistoryActivity extends AppCompatActivity {
+public class ChatHistoryActivity extends AppCompatActivity implements ConnectivityMonitor.Refreshable {
     private MaterialToolbar toolbar;
     private RecyclerView rvChatHistory;
     private LinearLayout llEmptyState;
@@ -68,7 +69,15 @@ public class ChatHistoryActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupRecyclerView();
-        loadChatHistory();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Cheap with the change feed, so refresh every time the screen comes back
+        if (historyAdapter != null) {
+            loadChatHistory();
+        }
     }
 
     private void initViews() {
@@ -126,58 +135,72 @@ public class ChatHistoryActivity extends AppCompatActivity {
             return;
         }
 
-        showProgressDialog("Loading chat history...");
+        // Show the local copy straight away, then merge only what changed since the last sync
+        boolean hasLocalCopy = SyncManager.hasSnapshot();
+        if (hasLocalCopy) {
+            displayChatHistory(SyncManager.getChatHistories());
+        } else {
+            showProgressDialog("Loading chat history...");
+        }
 
         String authHeader = "Bearer " + accessToken;
-        Call<ChatHistoryListResponse> call = apiService.getAllChatHistories(authHeader, 0, 100);
+        SyncManager.sync(authHeader, new SyncManager.SyncCallback() {
+            @Override
+            public void onSynced(boolean changed) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+                hideProgressDialog();
+                if (changed || !hasLocalCopy) {
+                    displayChatHistory(SyncManager.getChatHistories());
+                }
+            }
 
-        call.enqueue(new Callback<ChatHistoryListResponse>() {
             @Override
-            public void onResponse(Call<ChatHistoryListResponse> call, Response<ChatHistoryListResponse> response) {
+            public void onSyncError(Response<?> errorResponse, Throwable error) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
                 hideProgressDialog();
-                
-                if (response.isSuccessful() && response.body() != null) {
-                    ChatHistoryListResponse chatHistoryResponse = response.body();
-                    List<ChatHistoryItem> histories = chatHistoryResponse.getHistories();
-                    
-                    historyList.clear();
-                    
-                    for (ChatHistoryItem item : histories) {
-                        HistoryModel history = new HistoryModel(
-                            String.valueOf(item.getVideoId()),
-                            HistoryModel.TYPE_CHAT,
-                            item.getVideoTitle(),
-                            item.getLastMessage(),
-                            formatTimeAgo(item.getLastMessageTime()),
-                            item.getYoutubeVideoId(),
-                            item.getVideoId()
-                        );
-                        historyList.add(history);
-                    }
-                    
-                    historyAdapter.notifyDataSetChanged();
-                    updateEmptyState();
-                } else {
+                if (errorResponse != null) {
                     // Handle 401 (token expired) - redirect to login
-                    if (com.example.tubemindai.utils.ApiErrorHandler.handleError(ChatHistoryActivity.this, response)) {
+                    if (com.example.tubemindai.utils.ApiErrorHandler.handleError(ChatHistoryActivity.this, errorResponse)) {
                         finish();
                         return;
                     }
+                    if (!hasLocalCopy) {
+                        showEmptyState();
+                        Toast.makeText(ChatHistoryActivity.this, "Failed to load chat history", Toast.LENGTH_SHORT).show();
+                    }
+                } else if (!hasLocalCopy) {
                     showEmptyState();
-                    Toast.makeText(ChatHistoryActivity.this, "Failed to load chat history", Toast.LENGTH_SHORT).show();
+                    String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(error);
+                    Toast.makeText(ChatHistoryActivity.this, errorMessage, Toast.LENGTH_LONG).show();
                 }
             }
-
-            @Override
-            public void onFailure(Call<ChatHistoryListResponse> call, Throwable t) {
-                hideProgressDialog();
-                showEmptyState();
-                String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(t);
-                Toast.makeText(ChatHistoryActivity.this, errorMessage, Toast.LENGTH_LONG).show();
-            }
         });
     }
 
+    private void displayChatHistory(List<ChatHistoryItem> histories) {
+        historyList.clear();
+        
+        for (ChatHistoryItem item : histories) {
+            HistoryModel history = new HistoryModel(
+                String.valueOf(item.getVideoId()),
+                HistoryModel.TYPE_CHAT,
+                item.getVideoTitle(),
+                item.getLastMessage(),
+                formatTimeAgo(item.getLastMessageTime()),
+                item.getYoutubeVideoId(),
+                item.getVideoId()
+            );
+            historyList.add(history);
+        }
+        
+        historyAdapter.notifyDataSetChanged();
+        updateEmptyState();
+    }
+
     private void showDeleteDialog(HistoryModel history, int position) {
         new AlertDialog.Builder(this)
             .setTitle("Delete Chat History")
@@ -219,6 +242,12 @@ public class ChatHistoryActivity extends AppCompatActivity {
                 hideProgressDialog();
                 
                 if (response.isSuccessful()) {
+                    com.example.tubemindai.utils.MemoryCache.removeVideoChat(history.getVideoDbId());
+                    SyncManager.removeVideoChat(history.getVideoDbId());
+                    com.example.tubemindai.utils.ChatJournal.get().remove(
+                            com.example.tubemindai.utils.ChatOutbox.KIND_VIDEO, history.getVideoDbId());
+                    com.example.tubemindai.utils.AnswerCache.get().remove(
+                            com.example.tubemindai.utils.ChatOutbox.KIND_VIDEO, history.getVideoDbId());
                     historyAdapter.removeItem(position);
                     updateEmptyState();
                     Toast.makeText(ChatHistoryActivity.this, "Chat history deleted", Toast.LENGTH_SHORT).show();
@@ -259,6 +288,11 @@ public class ChatHistoryActivity extends AppCompatActivity {
                 hideProgressDialog();
                 
                 if (response.isSuccessful()) {
+                    com.example.tubemindai.utils.MemoryCache.removeAllChats();
+                    SyncManager.removeAllVideoChats();
+                    com.example.tubemindai.utils.ChatJournal.get().removeAll();
+                    com.example.tubemindai.utils.AnswerCache.get().removeAll(
+                            com.example.tubemindai.utils.ChatOutbox.KIND_VIDEO);
                     historyAdapter.clearAll();
                     updateEmptyState();
                     Toast.makeText(ChatHistoryActivity.this, "All chat history cleared", Toast.LENGTH_SHORT).show();
@@ -367,4 +401,9 @@ public class ChatHistoryActivity extends AppCompatActivity {
             progressDialog.dismiss();
         }
     }
+
+    @Override
+    public void onConnectivityRestored() {
+        loadChatHistory();
+    }
 }
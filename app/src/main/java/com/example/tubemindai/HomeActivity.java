@@ -1,11 +1,17 @@
 package com.example.tubemindai;
 
 import android.app.Dialog;
+import android.content.ClipData;
+import android.content.ClipDescription;
+import android.content.ClipboardManager;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
@@ -29,11 +35,14 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.tubemindai.adapters.VideoAdapter;
 import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
-import com.example.tubemindai.api.models.VideoGenerateRequest;
 import com.example.tubemindai.api.models.VideoGenerateResponse;
+import com.example.tubemindai.api.models.VideoResponse;
 import com.example.tubemindai.models.VideoModel;
+import com.example.tubemindai.utils.ConnectivityMonitor;
+import com.example.tubemindai.utils.MemoryCache;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.example.tubemindai.utils.ValidationUtils;
+import com.example.tubemindai.utils.VideoPrefetcher;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.navigation.NavigationView;
@@ -50,7 +59,7 @@ import retrofit2.Response;
 /**
  * Home Activity - Main screen with video URL input and recent videos
  */
-public class HomeActivity extends AppCompatActivity implements NavigationView.OnNavigationItemSelectedListener {
+public class HomeActivity extends AppCompatActivity implements NavigationView.OnNavigationItemSelectedListener, ConnectivityMonitor.Refreshable {
     private DrawerLayout drawerLayout;
     private NavigationView navigationView;
     private MaterialToolbar toolbar;
@@ -65,6 +74,8 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
     private Handler loadingHandler;
     private Runnable loadingRunnable;
     private int loadingStep = 0;
+    // Last clipboard link offered, so it is not pasted back after the user clears the field
+    private String lastClipboardVideoId;
     private String[] loadingMessages = {
         "Fetching video information...",
         "Extracting transcript...",
@@ -84,6 +95,12 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
             // User is not logged in, redirect to LoginActivity
             Intent intent = new Intent(HomeActivity.this, LoginActivity.class);
             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            // Keep a shared link so it still gets opened after logging in
+            if (Intent.ACTION_SEND.equals(getIntent().getAction())) {
+                intent.setAction(Intent.ACTION_SEND);
+                intent.setType(getIntent().getType());
+                intent.putExtra(Intent.EXTRA_TEXT, getIntent().getStringExtra(Intent.EXTRA_TEXT));
+            }
             startActivity(intent);
             finish();
             return;
@@ -101,6 +118,7 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
         setupClickListeners();
         loadUserData();
         loadRecentVideos();
+        handleSharedUrl(getIntent());
         
         // Hide PDF card if coming from YouTube option
         if (fromYouTubeOption && cardPDF != null) {
@@ -179,6 +197,7 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
 
         rvRecentVideos.setLayoutManager(new LinearLayoutManager(this));
         rvRecentVideos.setAdapter(videoAdapter);
+        videoAdapter.attachThumbnailPreloader(this, rvRecentVideos);
     }
 
     private void setupClickListeners() {
@@ -187,6 +206,83 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
             Intent intent = new Intent(HomeActivity.this, PDFUploadActivity.class);
             startActivity(intent);
         });
+
+        // Look the video up as soon as a link is pasted or typed, not when Generate is tapped
+        etVideoUrl.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                VideoPrefetcher.get().onUrlSeen(HomeActivity.this, s.toString(), false);
+            }
+        });
+    }
+
+    /**
+     * A link shared from the YouTube app (ACTION_SEND) - fill it in and start generating right away
+     */
+    private void handleSharedUrl(Intent intent) {
+        if (intent == null || !Intent.ACTION_SEND.equals(intent.getAction())) {
+            return;
+        }
+        String videoId = ValidationUtils.findYouTubeVideoId(intent.getStringExtra(Intent.EXTRA_TEXT));
+        if (videoId == null) {
+            Toast.makeText(this, "No YouTube link found in the shared text", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String videoUrl = ValidationUtils.canonicalYouTubeUrl(videoId);
+        VideoPrefetcher.get().onUrlSeen(this, videoUrl, true);
+        etVideoUrl.setText(videoUrl);
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus) {
+        super.onWindowFocusChanged(hasFocus);
+        // Android 10+ only lets the focused app read the clipboard, so onResume is too early
+        if (hasFocus) {
+            offerClipboardUrl();
+        }
+    }
+
+    /**
+     * Fill an empty URL field with a YouTube link found on the clipboard
+     */
+    private void offerClipboardUrl() {
+        if (etVideoUrl == null || !TextUtils.isEmpty(etVideoUrl.getText())) {
+            return;
+        }
+        ClipboardManager clipboard = (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
+        if (clipboard == null || !clipboard.hasPrimaryClip()) {
+            return;
+        }
+        ClipDescription description = clipboard.getPrimaryClipDescription();
+        if (description == null || !description.hasMimeType(ClipDescription.MIMETYPE_TEXT_PLAIN)) {
+            return;
+        }
+        ClipData clip = clipboard.getPrimaryClip();
+        CharSequence text = clip != null && clip.getItemCount() > 0 ? clip.getItemAt(0).getText() : null;
+        String videoId = text != null ? ValidationUtils.findYouTubeVideoId(text.toString()) : null;
+        if (videoId == null || videoId.equals(lastClipboardVideoId)) {
+            return;
+        }
+        lastClipboardVideoId = videoId;
+        etVideoUrl.setText(ValidationUtils.canonicalYouTubeUrl(videoId));
+    }
+
+    private void openNotes(int videoDbId, String youtubeVideoId, String title, String videoUrl) {
+        Intent intent = new Intent(HomeActivity.this, NotesActivity.class);
+        intent.putExtra("videoId", youtubeVideoId);
+        intent.putExtra("videoTitle", title);
+        intent.putExtra("videoUrl", videoUrl);
+        intent.putExtra("videoDbId", videoDbId);
+        startActivity(intent);
+        etVideoUrl.setText("");
     }
 
     private void generateNotes() {
@@ -202,6 +298,14 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
             return;
         }
 
+        // Notes found when the link was pasted - nothing to generate
+        VideoResponse existing = VideoPrefetcher.get().existingNotes(ValidationUtils.findYouTubeVideoId(videoUrl));
+        if (existing != null) {
+            MemoryCache.putVideo(existing);
+            openNotes(existing.getId(), existing.getVideoId(), existing.getTitle(), videoUrl);
+            return;
+        }
+
         // Disable button and show animated loading dialog
         btnGenerateNotes.setEnabled(false);
         showLoadingDialog();
@@ -225,9 +329,6 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
     }
 
     private void callGenerateNotesAPI(String videoUrl, String accessToken) {
-        ApiService apiService = ApiClient.getApiService();
-        VideoGenerateRequest request = new VideoGenerateRequest(videoUrl);
-        
         // Add Bearer token
         String authHeader = "Bearer " + accessToken;
 
@@ -236,10 +337,10 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
         android.util.Log.d("HomeActivity", "Video URL: " + videoUrl);
         android.util.Log.d("HomeActivity", "Token present: " + (accessToken != null && !accessToken.isEmpty()));
         
-        Call<VideoGenerateResponse> call = apiService.generateVideoNotes(authHeader, request);
-        call.enqueue(new Callback<VideoGenerateResponse>() {
+        // Joins the generation a shared link already started, if any
+        VideoPrefetcher.get().generate(authHeader, videoUrl, new VideoPrefetcher.GenerateCallback() {
             @Override
-            public void onResponse(Call<VideoGenerateResponse> call, Response<VideoGenerateResponse> response) {
+            public void onResponse(Response<VideoGenerateResponse> response) {
                 hideLoadingDialog();
                 btnGenerateNotes.setEnabled(true);
                 
@@ -252,19 +353,24 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
                     
                     Toast.makeText(HomeActivity.this, videoResponse.getMessage(), Toast.LENGTH_SHORT).show();
                     
-                    // Navigate to NotesActivity with generated notes
-                    Intent intent = new Intent(HomeActivity.this, NotesActivity.class);
-                    intent.putExtra("videoId", videoResponse.getYoutubeVideoId());
-                    intent.putExtra("videoTitle", videoResponse.getTitle());
-                    intent.putExtra("videoUrl", videoUrl);
-                    intent.putExtra("videoDbId", videoResponse.getVideoId());
-                    intent.putExtra("summary", videoResponse.getSummary());
-                    intent.putExtra("keyPoints", videoResponse.getKeyPoints());
-                    intent.putExtra("bulletNotes", videoResponse.getBulletNotes());
-                    startActivity(intent);
-                    
-                    // Clear input
-                    etVideoUrl.setText("");
+                    // Hand the notes over through MemoryCache - only the id goes in the Intent
+                    com.example.tubemindai.api.models.VideoResponse notes = new com.example.tubemindai.api.models.VideoResponse();
+                    notes.setId(videoResponse.getVideoId());
+                    notes.setVideoId(videoResponse.getYoutubeVideoId());
+                    notes.setVideoUrl(videoUrl);
+                    notes.setTitle(videoResponse.getTitle());
+                    notes.setThumbnailUrl(videoResponse.getThumbnailUrl());
+                    notes.setSummary(videoResponse.getSummary());
+                    notes.setKeyPoints(videoResponse.getKeyPoints());
+                    notes.setBulletNotes(videoResponse.getBulletNotes());
+                    // "Already generated" may be notes the user saved - the search and related
+                    // indexes drop unsaved videos, so this must be the server's flag
+                    notes.setSaved(videoResponse.isSaved());
+                    MemoryCache.putVideo(notes);
+
+                    // Navigate to NotesActivity with generated notes, then clear the input
+                    openNotes(videoResponse.getVideoId(), videoResponse.getYoutubeVideoId(),
+                            videoResponse.getTitle(), videoUrl);
                     
                     // Reload recent videos to show the new one (FIFO - automatically limits to 4)
                     loadRecentVideos();
@@ -285,7 +391,7 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
             }
 
             @Override
-            public void onFailure(Call<VideoGenerateResponse> call, Throwable t) {
+            public void onFailure(Throwable t) {
                 hideLoadingDialog();
                 btnGenerateNotes.setEnabled(true);
                 
@@ -309,20 +415,23 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
         String authHeader = "Bearer " + accessToken;
 
         // Get only the 4 most recent videos (FIFO - First In First Out)
-        Call<com.example.tubemindai.api.models.VideoListResponse> call = apiService.getUserVideos(authHeader, 0, 4);
-        call.enqueue(new Callback<com.example.tubemindai.api.models.VideoListResponse>() {
+        // Only the fields a recent-video card shows - notes are fetched when the card is opened
+        Call<com.example.tubemindai.api.models.VideoListItemsResponse> call = apiService.getUserVideoItems(
+                authHeader, 0, 4, com.example.tubemindai.api.ApiConfig.FIELDS_RECENT_VIDEOS);
+        call.enqueue(new Callback<com.example.tubemindai.api.models.VideoListItemsResponse>() {
             @Override
-            public void onResponse(Call<com.example.tubemindai.api.models.VideoListResponse> call, Response<com.example.tubemindai.api.models.VideoListResponse> response) {
+            public void onResponse(Call<com.example.tubemindai.api.models.VideoListItemsResponse> call, Response<com.example.tubemindai.api.models.VideoListItemsResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
-                    com.example.tubemindai.api.models.VideoListResponse videoListResponse = response.body();
+                    com.example.tubemindai.utils.ApiErrorHandler.notifyIfStale(HomeActivity.this, response);
+                    com.example.tubemindai.api.models.VideoListItemsResponse videoListResponse = response.body();
                     
                     videoList.clear();
-                    List<com.example.tubemindai.api.models.VideoResponse> videos = videoListResponse.getVideos();
+                    List<com.example.tubemindai.api.models.VideoListItem> videos = videoListResponse.getVideos();
                     
                     // Limit to 4 videos maximum (FIFO - most recent first, oldest removed automatically)
                     int maxVideos = Math.min(videos.size(), 4);
                     for (int i = 0; i < maxVideos; i++) {
-                        com.example.tubemindai.api.models.VideoResponse video = videos.get(i);
+                        com.example.tubemindai.api.models.VideoListItem video = videos.get(i);
                         // Convert API response to VideoModel
                         String duration = video.getDuration() != null ? video.getDuration() : "";
                         String timeAgo = formatTimeAgo(video.getCreatedAt());
@@ -335,6 +444,7 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
                             timeAgo,
                             duration
                         );
+                        videoModel.setThumbnailHash(video.getThumbnailHash());
                         videoList.add(videoModel);
                     }
                     videoAdapter.notifyDataSetChanged();
@@ -351,7 +461,7 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
             }
 
             @Override
-            public void onFailure(Call<com.example.tubemindai.api.models.VideoListResponse> call, Throwable t) {
+            public void onFailure(Call<com.example.tubemindai.api.models.VideoListItemsResponse> call, Throwable t) {
                 // On failure, show empty list
                 videoList.clear();
                 videoAdapter.notifyDataSetChanged();
@@ -582,5 +692,9 @@ public class HomeActivity extends AppCompatActivity implements NavigationView.On
             loadingHandler.removeCallbacks(loadingRunnable);
         }
     }
-}
 
+    @Override
+    public void onConnectivityRestored() {
+        loadRecentVideos();
+    }
+}
@@ -115,7 +115,7 @@ public class LoginActivity extends AppCompatActivity {
                     btnLogin.setText("Login");
                     String errorMsg = "Backend returned error: " + response.code() + 
                         "\n\nPlease check:\n1. Backend is running\n2. Correct IP in ApiConfig.java\n3. Backend URL: " + 
-                        com.example.tubemindai.api.ApiConfig.BASE_URL;
+                        com.example.tubemindai.api.EndpointSelector.get().currentBaseUrl();
                     Toast.makeText(LoginActivity.this, errorMsg, Toast.LENGTH_LONG).show();
                 }
             }
@@ -125,7 +125,7 @@ public class LoginActivity extends AppCompatActivity {
                 btnLogin.setEnabled(true);
                 btnLogin.setText("Login");
                 String errorMsg = "Cannot connect to backend!\n\n" +
-                    "Backend URL: " + com.example.tubemindai.api.ApiConfig.BASE_URL + "\n\n" +
+                    "Backend URL: " + com.example.tubemindai.api.EndpointSelector.get().currentBaseUrl() + "\n\n" +
                     "Please:\n1. Start backend: uvicorn app.main:app --reload --host 0.0.0.0 --port 8000\n" +
                     "2. Check IP address in ApiConfig.java\n" +
                     "3. Verify backend at: http://localhost:8000/docs\n" +
@@ -163,7 +163,16 @@ public class LoginActivity extends AppCompatActivity {
                     Toast.makeText(LoginActivity.this, "Login successful!", Toast.LENGTH_SHORT).show();
                     
                     // Navigate to HomeActivity
-                    Intent intent = new Intent(LoginActivity.this, IntroActivity.class);
+                    Intent intent;
+                    if (Intent.ACTION_SEND.equals(getIntent().getAction())) {
+                        // Opened for a shared link - go straight to generating it
+                        intent = new Intent(LoginActivity.this, HomeActivity.class);
+                        intent.setAction(Intent.ACTION_SEND);
+                        intent.setType(getIntent().getType());
+                        intent.putExtra(Intent.EXTRA_TEXT, getIntent().getStringExtra(Intent.EXTRA_TEXT));
+                    } else {
+                        intent = new Intent(LoginActivity.this, IntroActivity.class);
+                    }
                     startActivity(intent);
                     finish();
                 } else {
@@ -1,6 +1,7 @@
 package com.example.tubemindai;
 
 import android.app.ProgressDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
@@ -11,12 +12,20 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
+import com.example.tubemindai.api.HedgedCall;
 import com.example.tubemindai.api.models.VideoResponse;
+import com.example.tubemindai.utils.ConnectivityMonitor;
+import com.example.tubemindai.utils.MemoryCache;
+import com.example.tubemindai.utils.RelatedNotesIndex;
+import com.example.tubemindai.utils.RelatedNotesStrip;
 import com.example.tubemindai.utils.SharedPrefsManager;
+import com.example.tubemindai.utils.SuggestedQuestions;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
 import com.google.gson.Gson;
 
+import java.lang.ref.WeakReference;
+
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -24,13 +33,15 @@ import retrofit2.Response;
 /**
  * Notes Activity - Displays generated notes for a video
  */
-public class NotesActivity extends AppCompatActivity {
+public class NotesActivity extends AppCompatActivity implements ConnectivityMonitor.Refreshable {
     private MaterialToolbar toolbar;
     private TextView tvVideoTitle, tvVideoUrl, tvSummary, tvKeyPoints, tvBulletNotes;
     private MaterialButton btnChatAboutVideo, btnSaveToHistory;
     private String videoId, videoTitle, videoUrl;
     private int videoDbId = -1;
     private ProgressDialog progressDialog;
+    // Set when the last load failed, so reconnecting retries it
+    private boolean notesLoadFailed;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -70,14 +81,15 @@ public class NotesActivity extends AppCompatActivity {
         tvVideoTitle.setText(videoTitle != null ? videoTitle : "Video Title");
         tvVideoUrl.setText(videoUrl != null ? videoUrl : "https://youtube.com/watch?v=...");
 
-        // Check if notes were passed from intent (from HomeActivity)
-        String summary = getIntent().getStringExtra("summary");
-        String keyPoints = getIntent().getStringExtra("keyPoints");
-        String bulletNotes = getIntent().getStringExtra("bulletNotes");
+        // Notes handed over by the previous screen (missing after process death)
+        VideoResponse cached = videoDbId > 0 ? MemoryCache.getVideo(videoDbId) : null;
 
-        if (summary != null && keyPoints != null && bulletNotes != null) {
-            // Notes already loaded from HomeActivity
-            displayNotes(summary, keyPoints, bulletNotes);
+        if (cached != null) {
+            displayNotes(cached.getSummary(), cached.getKeyPoints(), cached.getBulletNotes());
+            if (cached.getTitle() != null) {
+                tvVideoTitle.setText(cached.getTitle());
+            }
+            RelatedNotesStrip.show(this, RelatedNotesIndex.KIND_VIDEO, videoDbId);
         } else if (videoDbId > 0) {
             // Load notes from API using database ID
             loadNotesFromAPI(videoDbId);
@@ -112,6 +124,9 @@ public class NotesActivity extends AppCompatActivity {
         animateTextView(tvSummary, formattedSummary, 200);
         animateTextView(tvKeyPoints, formattedKeyPoints, 350);
         animateTextView(tvBulletNotes, formattedBulletNotes, 500);
+
+        // Likely first chat questions - their answers are fetched now so "Chat about video" has them ready
+        SuggestedQuestions.prefetch(this, videoDbId, keyPoints);
     }
     
     private String formatSummary(String summary) {
@@ -202,13 +217,16 @@ public class NotesActivity extends AppCompatActivity {
         String authHeader = "Bearer " + accessToken;
 
         Call<VideoResponse> call = apiService.getVideoNotes(authHeader, videoDbId);
-        call.enqueue(new Callback<VideoResponse>() {
+        HedgedCall.enqueue(call, HedgedCall.GROUP_VIDEO_NOTES, new Callback<VideoResponse>() {
             @Override
             public void onResponse(Call<VideoResponse> call, Response<VideoResponse> response) {
                 hideProgressDialog();
 
                 if (response.isSuccessful() && response.body() != null) {
+                    com.example.tubemindai.utils.ApiErrorHandler.notifyIfStale(NotesActivity.this, response);
+                    notesLoadFailed = false;
                     VideoResponse videoResponse = response.body();
+                    MemoryCache.putVideo(videoResponse);
                     displayNotes(
                         videoResponse.getSummary(),
                         videoResponse.getKeyPoints(),
@@ -219,6 +237,7 @@ public class NotesActivity extends AppCompatActivity {
                     if (videoResponse.getTitle() != null) {
                         tvVideoTitle.setText(videoResponse.getTitle());
                     }
+                    RelatedNotesStrip.show(NotesActivity.this, RelatedNotesIndex.KIND_VIDEO, videoDbId);
                 } else {
                     // Handle 401 (token expired) - redirect to login
                     if (com.example.tubemindai.utils.ApiErrorHandler.handleError(NotesActivity.this, response)) {
@@ -236,6 +255,7 @@ public class NotesActivity extends AppCompatActivity {
             @Override
             public void onFailure(Call<VideoResponse> call, Throwable t) {
                 hideProgressDialog();
+                notesLoadFailed = true;
                 String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(t);
                 Toast.makeText(NotesActivity.this, errorMessage, Toast.LENGTH_LONG).show();
                 tvSummary.setText("Network error. Please check your connection.");
@@ -266,7 +286,11 @@ public class NotesActivity extends AppCompatActivity {
                 hideProgressDialog();
 
                 if (response.isSuccessful() && response.body() != null) {
+                    notesLoadFailed = false;
                     VideoResponse videoResponse = response.body();
+                    MemoryCache.putVideo(videoResponse);
+                    // Store database ID for save functionality (and the suggested-question prefetch)
+                    videoDbId = videoResponse.getId();
                     displayNotes(
                         videoResponse.getSummary(),
                         videoResponse.getKeyPoints(),
@@ -281,8 +305,7 @@ public class NotesActivity extends AppCompatActivity {
                         tvVideoUrl.setText(videoResponse.getVideoUrl());
                     }
                     
-                    // Store database ID for save functionality
-                    videoDbId = videoResponse.getId();
+                    RelatedNotesStrip.show(NotesActivity.this, RelatedNotesIndex.KIND_VIDEO, videoDbId);
                 } else {
                     // Handle 401 (token expired) - redirect to login
                     if (com.example.tubemindai.utils.ApiErrorHandler.handleError(NotesActivity.this, response)) {
@@ -298,6 +321,7 @@ public class NotesActivity extends AppCompatActivity {
             @Override
             public void onFailure(Call<VideoResponse> call, Throwable t) {
                 hideProgressDialog();
+                notesLoadFailed = true;
                 String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(t);
                 Toast.makeText(NotesActivity.this, errorMessage, Toast.LENGTH_LONG).show();
                 tvSummary.setText("Network error. Please check your connection.");
@@ -340,6 +364,10 @@ public class NotesActivity extends AppCompatActivity {
     }
 
     private void saveVideoToHistory(int videoDbId) {
+        if (ConnectivityMonitor.isKnownOffline()) {
+            deferSaveUntilOnline(videoDbId);
+            return;
+        }
         btnSaveToHistory.setEnabled(false);
         btnSaveToHistory.setText("Saving...");
 
@@ -364,6 +392,12 @@ public class NotesActivity extends AppCompatActivity {
                 btnSaveToHistory.setText("Save to History");
 
                 if (response.isSuccessful()) {
+                    // The cached copy still says is_saved=false - replace it with the server's version
+                    if (response.body() != null) {
+                        MemoryCache.putVideo(response.body());
+                    } else {
+                        MemoryCache.removeVideo(videoDbId);
+                    }
                     Toast.makeText(NotesActivity.this, "Notes saved to history!", Toast.LENGTH_SHORT).show();
                     btnSaveToHistory.setText("Saved ✓");
                     btnSaveToHistory.setEnabled(false);
@@ -390,6 +424,63 @@ public class NotesActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Hold the save until the network returns. The held work only keeps a weak reference -
+     * if this screen is gone by then, the save still runs without UI.
+     */
+    private void deferSaveUntilOnline(int videoDbId) {
+        btnSaveToHistory.setEnabled(false);
+        btnSaveToHistory.setText("Will save when online");
+        Toast.makeText(this, "You're offline - notes will be saved when the connection is back", Toast.LENGTH_SHORT).show();
+
+        WeakReference<NotesActivity> activityRef = new WeakReference<>(this);
+        Context appContext = getApplicationContext();
+        ConnectivityMonitor.get().runWhenOnline("video.save:" + videoDbId, ConnectivityMonitor.PRIORITY_USER_ACTION, () -> {
+            NotesActivity activity = activityRef.get();
+            if (activity != null && !activity.isFinishing() && !activity.isDestroyed()) {
+                activity.saveVideoToHistory(videoDbId);
+            } else {
+                saveVideoToHistoryInBackground(appContext, videoDbId);
+            }
+        });
+    }
+
+    private static void saveVideoToHistoryInBackground(Context context, int videoDbId) {
+        String accessToken = new SharedPrefsManager(context).getAccessToken();
+        if (accessToken == null) {
+            return;
+        }
+        ApiClient.getApiService().saveVideoToHistory("Bearer " + accessToken, videoDbId).enqueue(new Callback<VideoResponse>() {
+            @Override
+            public void onResponse(Call<VideoResponse> call, Response<VideoResponse> response) {
+                if (response.isSuccessful()) {
+                    if (response.body() != null) {
+                        MemoryCache.putVideo(response.body());
+                    } else {
+                        MemoryCache.removeVideo(videoDbId);
+                    }
+                    Toast.makeText(context, "Notes saved to history!", Toast.LENGTH_SHORT).show();
+                } else {
+                    android.util.Log.w("NotesActivity", "Deferred save failed: HTTP " + response.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<VideoResponse> call, Throwable t) {
+                android.util.Log.w("NotesActivity", "Deferred save failed", t);
+            }
+        });
+    }
+
+    @Override
+    public void onConnectivityRestored() {
+        // Held saves have already run by now - only a failed load needs retrying
+        if (notesLoadFailed) {
+            notesLoadFailed = false;
+            loadNotes();
+        }
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
@@ -13,10 +13,15 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.tubemindai.adapters.ChatAdapter;
 import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
-import com.example.tubemindai.api.models.PDFChatMessageRequest;
+import com.example.tubemindai.api.RateLimiter;
 import com.example.tubemindai.api.models.PDFChatMessageResponse;
 import com.example.tubemindai.api.models.PDFChatHistoryResponse;
 import com.example.tubemindai.models.ChatModel;
+import com.example.tubemindai.utils.AnswerCache;
+import com.example.tubemindai.utils.ChatJournal;
+import com.example.tubemindai.utils.ChatOutbox;
+import com.example.tubemindai.utils.ConnectivityMonitor;
+import com.example.tubemindai.utils.MemoryCache;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
@@ -24,7 +29,9 @@ import com.google.android.material.textfield.TextInputEditText;
 import com.google.gson.Gson;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -42,6 +49,9 @@ public class PDFChatActivity extends AppCompatActivity {
     private ApiService apiService;
     private SharedPrefsManager prefsManager;
     private ProgressDialog progressDialog;
+    private ChatOutbox outbox;
+    // Set once the server's history is shown - a late journal read must not replace it
+    private boolean historyLoaded;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,14 +63,29 @@ public class PDFChatActivity extends AppCompatActivity {
 
         apiService = ApiClient.getApiService();
         prefsManager = new SharedPrefsManager(this);
+        outbox = ChatOutbox.get(this);
 
         initViews();
         setupToolbar();
         setupRecyclerView();
         setupClickListeners();
+        if (pdfId != -1) {
+            outbox.addListener(ChatOutbox.conversation(ChatOutbox.KIND_PDF, pdfId), outboxListener);
+            // Questions left in the outbox show up even if the history cannot be loaded
+            showPendingMessages(new HashSet<>());
+        }
         loadChatHistory();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (pdfId != -1) {
+            outbox.removeListener(ChatOutbox.conversation(ChatOutbox.KIND_PDF, pdfId), outboxListener);
+        }
+        hideProgressDialog();
+    }
+
     private void initViews() {
         toolbar = findViewById(R.id.toolbar);
         rvChatMessages = findViewById(R.id.rvChatMessages);
@@ -81,6 +106,7 @@ public class PDFChatActivity extends AppCompatActivity {
     private void setupRecyclerView() {
         chatList = new ArrayList<>();
         chatAdapter = new ChatAdapter(chatList);
+        chatAdapter.setOnRegenerateListener(this::regenerate);
 
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         layoutManager.setStackFromEnd(true);
@@ -114,58 +140,129 @@ public class PDFChatActivity extends AppCompatActivity {
             return;
         }
 
-        ChatModel userMessage = new ChatModel(message, ChatModel.TYPE_USER,
-                String.valueOf(System.currentTimeMillis()), String.valueOf(pdfId));
-        chatAdapter.addMessage(userMessage);
         etMessage.setText("");
+
+        // Asked before in this conversation - answer from the cache, "Regenerate" still asks the server
+        String cachedAnswer = AnswerCache.get().lookup(ChatOutbox.KIND_PDF, pdfId, message);
+        if (cachedAnswer != null) {
+            // Still sent, with its answer, so the server history and the journal have it
+            addCachedAnswer(outbox.enqueueAnswered(ChatOutbox.KIND_PDF, pdfId, message, cachedAnswer));
+            rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
+            return;
+        }
+        askServer(message);
+    }
+
+    private void askServer(String message) {
+        // Write the question to the outbox first - it survives failures and restarts
+        ChatOutbox.Entry entry = outbox.enqueue(ChatOutbox.KIND_PDF, pdfId, message);
+        chatAdapter.addMessage(pendingBubble(entry));
         rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
 
-        showProgressDialog("Getting AI response...");
+        if (!ConnectivityMonitor.get().isOnline()) {
+            Toast.makeText(this, "You're offline - your question will be sent when you reconnect", Toast.LENGTH_LONG).show();
+            return;
+        }
 
-        PDFChatMessageRequest request = new PDFChatMessageRequest(message);
-        String authHeader = "Bearer " + token;
+        // Sends beyond the chat rate limit are queued by the client - say how long for
+        long waitMs = RateLimiter.forScope(RateLimiter.SCOPE_PDF_CHAT).expectedWaitMs();
+        showProgressDialog(waitMs > 0
+                ? "Message queued - sending in " + ((waitMs + 999) / 1000) + "s..."
+                : "Getting AI response...");
+    }
 
-        Call<PDFChatMessageResponse> call = apiService.sendPDFChatMessage(authHeader, pdfId, request);
-        call.enqueue(new Callback<PDFChatMessageResponse>() {
-            @Override
-            public void onResponse(Call<PDFChatMessageResponse> call, Response<PDFChatMessageResponse> response) {
-                hideProgressDialog();
+    private void addCachedAnswer(ChatOutbox.Entry entry) {
+        String time = String.valueOf(entry.getCreatedAt());
+        ChatModel question = new ChatModel(entry.getMessage(), ChatModel.TYPE_USER, time, String.valueOf(pdfId));
+        question.setClientMessageId(entry.getClientMessageId());
+        chatAdapter.addMessage(question);
+        ChatModel aiMessage = new ChatModel(entry.getAnswer(), ChatModel.TYPE_AI, time, String.valueOf(pdfId));
+        aiMessage.setCachedQuestion(entry.getMessage());
+        chatAdapter.addMessage(aiMessage);
+    }
 
-                if (response.isSuccessful() && response.body() != null) {
-                    PDFChatMessageResponse chatResponse = response.body();
-                    ChatModel aiMessage = new ChatModel(
-                        chatResponse.getResponse() != null ? chatResponse.getResponse() : "No response",
-                        ChatModel.TYPE_AI,
-                        String.valueOf(System.currentTimeMillis()),
-                        String.valueOf(pdfId)
-                    );
-                    chatAdapter.addMessage(aiMessage);
-                    rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
-                } else {
-                    String errorMsg = "Failed to get response";
-                    if (response.errorBody() != null) {
-                        try {
-                            String errorBody = response.errorBody().string();
-                            com.example.tubemindai.api.models.ApiError error =
-                                new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
-                            if (error != null && error.getDetail() != null) {
-                                errorMsg = error.getDetail();
-                            }
-                        } catch (Exception e) {
-                            // Ignore
-                        }
+    /**
+     * Drop the cached answer and send the question again - the new answer replaces it in the cache
+     */
+    private void regenerate(ChatModel cachedAnswer) {
+        String question = cachedAnswer.getCachedQuestion();
+        AnswerCache.get().invalidate(ChatOutbox.KIND_PDF, pdfId, question);
+        chatAdapter.clearCachedAnswer(cachedAnswer);
+        askServer(question);
+    }
+
+    private final ChatOutbox.Listener outboxListener = new ChatOutbox.Listener() {
+        @Override
+        public void onDelivered(ChatOutbox.Entry entry, String response) {
+            if (entry.getAnswer() != null) {
+                // A cached answer now stored on the server - it is already on screen
+                return;
+            }
+            hideProgressDialog();
+            chatAdapter.setMessageStatus(entry.getClientMessageId(), ChatModel.STATUS_SENT);
+            ChatModel aiMessage = new ChatModel(
+                response != null ? response : "No response",
+                ChatModel.TYPE_AI,
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(pdfId)
+            );
+            chatAdapter.addMessage(aiMessage);
+            rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
+        }
+
+        @Override
+        public void onSendError(ChatOutbox.Entry entry, Response<?> errorResponse, Throwable error, boolean willRetry) {
+            if (entry.getAnswer() != null) {
+                // The answer is on screen - only storing it failed, and the outbox keeps trying
+                return;
+            }
+            hideProgressDialog();
+            if (willRetry) {
+                Toast.makeText(PDFChatActivity.this,
+                    "Couldn't reach the server - your question is saved and will be sent automatically", Toast.LENGTH_LONG).show();
+                return;
+            }
+
+            chatAdapter.setMessageStatus(entry.getClientMessageId(), ChatModel.STATUS_FAILED);
+            String errorMsg = "Failed to get response";
+            if (errorResponse != null && errorResponse.errorBody() != null) {
+                try {
+                    String errorBody = errorResponse.errorBody().string();
+                    com.example.tubemindai.api.models.ApiError apiError =
+                        new Gson().fromJson(errorBody, com.example.tubemindai.api.models.ApiError.class);
+                    if (apiError != null && apiError.getDetail() != null) {
+                        errorMsg = apiError.getDetail();
                     }
-                    Toast.makeText(PDFChatActivity.this, errorMsg, Toast.LENGTH_LONG).show();
+                } catch (Exception e) {
+                    // Ignore
                 }
             }
+            Toast.makeText(PDFChatActivity.this, errorMsg, Toast.LENGTH_LONG).show();
+        }
+    };
+
+    private ChatModel pendingBubble(ChatOutbox.Entry entry) {
+        ChatModel bubble = new ChatModel(entry.getMessage(), ChatModel.TYPE_USER,
+                String.valueOf(entry.getCreatedAt()), String.valueOf(pdfId));
+        bubble.setClientMessageId(entry.getClientMessageId());
+        bubble.setStatus(ChatModel.STATUS_PENDING);
+        return bubble;
+    }
 
-            @Override
-            public void onFailure(Call<PDFChatMessageResponse> call, Throwable t) {
-                hideProgressDialog();
-                Toast.makeText(PDFChatActivity.this,
-                    "Connection failed: " + t.getMessage(), Toast.LENGTH_LONG).show();
+    /**
+     * Append questions still waiting in the outbox (e.g. typed offline before the app was closed)
+     */
+    private void showPendingMessages(Set<String> shownClientIds) {
+        for (ChatOutbox.Entry entry : outbox.pending(ChatOutbox.conversation(ChatOutbox.KIND_PDF, pdfId))) {
+            if (shownClientIds.contains(entry.getClientMessageId())) {
+                continue;
             }
-        });
+            if (entry.getAnswer() != null) {
+                addCachedAnswer(entry);
+            } else {
+                chatAdapter.addMessage(pendingBubble(entry));
+            }
+        }
     }
 
     private void loadChatHistory() {
@@ -178,6 +275,27 @@ public class PDFChatActivity extends AppCompatActivity {
             return;
         }
 
+        // Reopening a conversation is painted from memory, then refreshed from the server -
+        // another device may have added to it
+        PDFChatHistoryResponse cached = MemoryCache.getPDFChat(pdfId);
+        if (cached != null) {
+            displayChatHistory(cached.getMessages());
+        }
+
+        // Otherwise paint the last screen from the on-device journal while the server copy loads
+        ChatJournal.get().readTail(ChatOutbox.KIND_PDF, pdfId, ChatJournal.TAIL_MESSAGES, records -> {
+            if (historyLoaded || records.isEmpty() || isDestroyed()) {
+                return;
+            }
+            Set<String> journalClientIds = new HashSet<>();
+            for (ChatJournal.Record record : records) {
+                if (record.getClientMessageId() != null) {
+                    journalClientIds.add(record.getClientMessageId());
+                }
+            }
+            showRecords(records, journalClientIds);
+        });
+
         String authHeader = "Bearer " + token;
         Call<PDFChatHistoryResponse> call = apiService.getPDFChatHistory(authHeader, pdfId, 0, 100);
 
@@ -186,30 +304,14 @@ public class PDFChatActivity extends AppCompatActivity {
             public void onResponse(Call<PDFChatHistoryResponse> call, Response<PDFChatHistoryResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
                     PDFChatHistoryResponse historyResponse = response.body();
-                    List<PDFChatMessageResponse> messages = historyResponse.getMessages();
-
-                    chatList.clear();
-                    for (PDFChatMessageResponse msg : messages) {
-                        if (msg.isUserMessage()) {
-                            chatList.add(new ChatModel(
-                                msg.getMessage(),
-                                ChatModel.TYPE_USER,
-                                String.valueOf(msg.getCreatedAt() != null ? msg.getCreatedAt().getTime() : System.currentTimeMillis()),
-                                String.valueOf(pdfId)
-                            ));
-                        } else {
-                            chatList.add(new ChatModel(
-                                msg.getResponse() != null ? msg.getResponse() : "",
-                                ChatModel.TYPE_AI,
-                                String.valueOf(msg.getCreatedAt() != null ? msg.getCreatedAt().getTime() : System.currentTimeMillis()),
-                                String.valueOf(pdfId)
-                            ));
-                        }
-                    }
-                    chatAdapter.notifyDataSetChanged();
-                    if (!chatList.isEmpty()) {
-                        rvChatMessages.smoothScrollToPosition(chatList.size() - 1);
+                    MemoryCache.putPDFChat(pdfId, historyResponse);
+                    // Only a complete history can replace the journal - see ChatActivity
+                    if (historyResponse.getMessages() != null
+                            && historyResponse.getTotal() <= historyResponse.getMessages().size()) {
+                        ChatJournal.get().replaceWith(ChatOutbox.KIND_PDF, pdfId,
+                                ChatJournal.fromPDFHistory(historyResponse.getMessages()));
                     }
+                    displayChatHistory(historyResponse.getMessages());
                 }
             }
 
@@ -220,6 +322,43 @@ public class PDFChatActivity extends AppCompatActivity {
         });
     }
 
+    private void displayChatHistory(List<PDFChatMessageResponse> messages) {
+        historyLoaded = true;
+        // Messages the server has answered are no longer pending - an answer row carries its
+        // question's client id
+        Set<String> historyClientIds = new HashSet<>();
+        Set<String> answeredClientIds = new HashSet<>();
+        for (PDFChatMessageResponse msg : messages) {
+            if (msg.getClientMessageId() != null) {
+                historyClientIds.add(msg.getClientMessageId());
+                if (!msg.isUserMessage()) {
+                    answeredClientIds.add(msg.getClientMessageId());
+                }
+            }
+        }
+        outbox.reconcile(ChatOutbox.conversation(ChatOutbox.KIND_PDF, pdfId), answeredClientIds);
+
+        // The same bubbles the journal stores
+        showRecords(ChatJournal.fromPDFHistory(messages), historyClientIds);
+    }
+
+    private void showRecords(List<ChatJournal.Record> records, Set<String> shownClientIds) {
+        chatList.clear();
+        for (ChatJournal.Record record : records) {
+            chatList.add(new ChatModel(
+                record.getText(),
+                record.isUser() ? ChatModel.TYPE_USER : ChatModel.TYPE_AI,
+                record.getTimestamp() != null ? record.getTimestamp() : String.valueOf(System.currentTimeMillis()),
+                String.valueOf(pdfId)
+            ));
+        }
+        chatAdapter.notifyDataSetChanged();
+        showPendingMessages(shownClientIds);
+        if (!chatList.isEmpty()) {
+            rvChatMessages.scrollToPosition(chatList.size() - 1);
+        }
+    }
+
     private void showProgressDialog(String message) {
         if (progressDialog == null) {
             progressDialog = new ProgressDialog(this);
@@ -20,7 +20,9 @@ import com.example.tubemindai.api.ApiService;
 import com.example.tubemindai.api.models.PDFChatHistoryListResponse;
 import com.example.tubemindai.api.models.DeleteResponse;
 import com.example.tubemindai.models.PDFHistoryModel;
+import com.example.tubemindai.utils.ConnectivityMonitor;
 import com.example.tubemindai.utils.SharedPrefsManager;
+import com.example.tubemindai.utils.SyncManager;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.gson.Gson;
 
@@ -36,7 +38,7 @@ import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
 
-public class PDFHistoryActivity extends AppCompatActivity {
+public class PDFHistoryActivity extends AppCompatActivity implements ConnectivityMonitor.Refreshable {
     private MaterialToolbar toolbar;
     private RecyclerView rvPDFHistory;
     private LinearLayout llEmptyState;
@@ -63,7 +65,15 @@ public class PDFHistoryActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupRecyclerView();
-        loadPDFHistory();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Cheap with the change feed, so refresh every time the screen comes back
+        if (historyAdapter != null) {
+            loadPDFHistory();
+        }
     }
 
     private void initViews() {
@@ -118,53 +128,66 @@ public class PDFHistoryActivity extends AppCompatActivity {
             return;
         }
 
-        showProgressDialog("Loading PDF history...");
+        // Show the local copy straight away, then merge only what changed since the last sync
+        boolean hasLocalCopy = SyncManager.hasSnapshot();
+        if (hasLocalCopy) {
+            displayPDFHistory(SyncManager.getPdfChatHistories());
+        } else {
+            showProgressDialog("Loading PDF history...");
+        }
 
         String authHeader = "Bearer " + accessToken;
-        Call<PDFChatHistoryListResponse> call = apiService.getAllPDFChatHistories(authHeader, 0, 100);
-
-        call.enqueue(new Callback<PDFChatHistoryListResponse>() {
+        SyncManager.sync(authHeader, new SyncManager.SyncCallback() {
             @Override
-            public void onResponse(Call<PDFChatHistoryListResponse> call, Response<PDFChatHistoryListResponse> response) {
+            public void onSynced(boolean changed) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
                 hideProgressDialog();
-
-                if (response.isSuccessful() && response.body() != null) {
-                    PDFChatHistoryListResponse historyResponse = response.body();
-                    List<PDFChatHistoryListResponse.PDFChatHistoryItem> histories = historyResponse.getHistories();
-
-                    historyList.clear();
-
-                    for (PDFChatHistoryListResponse.PDFChatHistoryItem item : histories) {
-                        PDFHistoryModel history = new PDFHistoryModel(
-                            String.valueOf(item.getPdfId()),
-                            item.getPdfName(),
-                            item.getLastMessage(),
-                            formatDate(item.getLastMessageTime())
-                        );
-                        historyList.add(history);
-                    }
-                    historyAdapter.notifyDataSetChanged();
-
-                    if (historyList.isEmpty()) {
-                        showEmptyState();
-                    } else {
-                        hideEmptyState();
-                    }
-                } else {
-                    showEmptyState();
+                if (changed || !hasLocalCopy) {
+                    displayPDFHistory(SyncManager.getPdfChatHistories());
                 }
             }
 
             @Override
-            public void onFailure(Call<PDFChatHistoryListResponse> call, Throwable t) {
+            public void onSyncError(Response<?> errorResponse, Throwable error) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
                 hideProgressDialog();
+                if (hasLocalCopy) {
+                    return;
+                }
                 showEmptyState();
-                Toast.makeText(PDFHistoryActivity.this,
-                    "Failed to load PDF history: " + t.getMessage(), Toast.LENGTH_SHORT).show();
+                if (error != null) {
+                    Toast.makeText(PDFHistoryActivity.this,
+                        "Failed to load PDF history: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+                }
             }
         });
     }
 
+    private void displayPDFHistory(List<PDFChatHistoryListResponse.PDFChatHistoryItem> histories) {
+        historyList.clear();
+
+        for (PDFChatHistoryListResponse.PDFChatHistoryItem item : histories) {
+            PDFHistoryModel history = new PDFHistoryModel(
+                String.valueOf(item.getPdfId()),
+                item.getPdfName(),
+                item.getLastMessage(),
+                formatDate(item.getLastMessageTime())
+            );
+            historyList.add(history);
+        }
+        historyAdapter.notifyDataSetChanged();
+
+        if (historyList.isEmpty()) {
+            showEmptyState();
+        } else {
+            hideEmptyState();
+        }
+    }
+
     private String formatDate(String dateString) {
         if (dateString == null || dateString.isEmpty()) {
             return "Recently";
@@ -216,6 +239,12 @@ public class PDFHistoryActivity extends AppCompatActivity {
             public void onResponse(Call<DeleteResponse> call, Response<DeleteResponse> response) {
                 hideProgressDialog();
                 if (response.isSuccessful() && response.body() != null) {
+                    com.example.tubemindai.utils.MemoryCache.removePDF(Integer.parseInt(history.getPdfId()));
+                    com.example.tubemindai.utils.ChatJournal.get().remove(
+                            com.example.tubemindai.utils.ChatOutbox.KIND_PDF, Integer.parseInt(history.getPdfId()));
+                    com.example.tubemindai.utils.AnswerCache.get().remove(
+                            com.example.tubemindai.utils.ChatOutbox.KIND_PDF, Integer.parseInt(history.getPdfId()));
+                    SyncManager.removePDF(Integer.parseInt(history.getPdfId()));
                     historyAdapter.removeItem(position);
                     Toast.makeText(PDFHistoryActivity.this, "PDF deleted successfully", Toast.LENGTH_SHORT).show();
                     if (historyList.isEmpty()) {
@@ -271,5 +300,9 @@ public class PDFHistoryActivity extends AppCompatActivity {
             progressDialog.dismiss();
         }
     }
-}
 
+    @Override
+    public void onConnectivityRestored() {
+        loadPDFHistory();
+    }
+}
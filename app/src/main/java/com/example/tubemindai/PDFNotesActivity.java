@@ -10,7 +10,11 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
+import com.example.tubemindai.api.HedgedCall;
 import com.example.tubemindai.api.models.PDFResponse;
+import com.example.tubemindai.utils.MemoryCache;
+import com.example.tubemindai.utils.RelatedNotesIndex;
+import com.example.tubemindai.utils.RelatedNotesStrip;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
@@ -62,13 +66,12 @@ public class PDFNotesActivity extends AppCompatActivity {
     private void loadNotes() {
         tvPDFTitle.setText(fileName != null ? fileName : "PDF Document");
 
-        // Check if notes were passed from intent
-        String summary = getIntent().getStringExtra("summary");
-        String keyPoints = getIntent().getStringExtra("keyPoints");
-        String bulletNotes = getIntent().getStringExtra("bulletNotes");
+        // Notes handed over by the previous screen (missing after process death)
+        PDFResponse cached = pdfId > 0 ? MemoryCache.getPDF(pdfId) : null;
 
-        if (summary != null && keyPoints != null && bulletNotes != null) {
-            displayNotes(summary, keyPoints, bulletNotes);
+        if (cached != null) {
+            displayNotes(cached.getSummary(), cached.getKeyPoints(), cached.getBulletNotes());
+            RelatedNotesStrip.show(this, RelatedNotesIndex.KIND_PDF, pdfId);
         } else if (pdfId > 0) {
             loadNotesFromAPI(pdfId);
         } else {
@@ -92,11 +95,13 @@ public class PDFNotesActivity extends AppCompatActivity {
         String authHeader = "Bearer " + accessToken;
 
         Call<PDFResponse> call = apiService.getPDFNotes(authHeader, pdfId);
-        call.enqueue(new Callback<PDFResponse>() {
+        HedgedCall.enqueue(call, HedgedCall.GROUP_PDF_NOTES, new Callback<PDFResponse>() {
             @Override
             public void onResponse(Call<PDFResponse> call, Response<PDFResponse> response) {
                 if (response.isSuccessful() && response.body() != null) {
+                    com.example.tubemindai.utils.ApiErrorHandler.notifyIfStale(PDFNotesActivity.this, response);
                     PDFResponse pdfResponse = response.body();
+                    MemoryCache.putPDF(pdfResponse);
                     displayNotes(
                         pdfResponse.getSummary(),
                         pdfResponse.getKeyPoints(),
@@ -104,6 +109,7 @@ public class PDFNotesActivity extends AppCompatActivity {
                     );
                     fileName = pdfResponse.getFileName();
                     tvPDFTitle.setText(fileName);
+                    RelatedNotesStrip.show(PDFNotesActivity.this, RelatedNotesIndex.KIND_PDF, pdfId);
                 } else {
                     String errorMsg = "Failed to load notes";
                     if (response.errorBody() != null) {
@@ -22,6 +22,9 @@ import com.example.tubemindai.api.ApiClient;
 import com.example.tubemindai.api.ApiService;
 import com.example.tubemindai.api.models.PDFUploadResponse;
 import com.example.tubemindai.api.models.PDFGenerateResponse;
+import com.example.tubemindai.api.models.PDFResponse;
+import com.example.tubemindai.utils.IdempotencyKeys;
+import com.example.tubemindai.utils.MemoryCache;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.button.MaterialButton;
 import com.google.gson.Gson;
@@ -244,24 +247,34 @@ public class PDFUploadActivity extends AppCompatActivity {
         ApiService apiService = ApiClient.getApiService();
         String authHeader = "Bearer " + accessToken;
 
-        Call<PDFGenerateResponse> call = apiService.generatePDFNotes(authHeader, pdfId);
+        String action = IdempotencyKeys.generatePDF(pdfId);
+
+        Call<PDFGenerateResponse> call = apiService.generatePDFNotes(
+                authHeader, IdempotencyKeys.forAction(action), pdfId);
         call.enqueue(new Callback<PDFGenerateResponse>() {
             @Override
             public void onResponse(Call<PDFGenerateResponse> call, Response<PDFGenerateResponse> response) {
                 hideLoadingDialog();
+                IdempotencyKeys.onResponse(action, response.code());
                 btnUploadPDF.setEnabled(true);
 
                 if (response.isSuccessful() && response.body() != null) {
                     PDFGenerateResponse generateResponse = response.body();
                     Toast.makeText(PDFUploadActivity.this, generateResponse.getMessage(), Toast.LENGTH_SHORT).show();
 
+                    // Hand the notes over through MemoryCache - only the id goes in the Intent
+                    PDFResponse notes = new PDFResponse();
+                    notes.setId(pdfId);
+                    notes.setFileName(generateResponse.getFileName());
+                    notes.setSummary(generateResponse.getSummary());
+                    notes.setKeyPoints(generateResponse.getKeyPoints());
+                    notes.setBulletNotes(generateResponse.getBulletNotes());
+                    MemoryCache.putPDF(notes);
+
                     // Navigate to PDF Notes Activity
                     Intent intent = new Intent(PDFUploadActivity.this, PDFNotesActivity.class);
                     intent.putExtra("pdfId", pdfId);
                     intent.putExtra("fileName", generateResponse.getFileName());
-                    intent.putExtra("summary", generateResponse.getSummary());
-                    intent.putExtra("keyPoints", generateResponse.getKeyPoints());
-                    intent.putExtra("bulletNotes", generateResponse.getBulletNotes());
                     startActivity(intent);
                     // Don't finish if from intro - allow back navigation
                     if (!fromIntro) {
@@ -3,8 +3,11 @@ package com.example.tubemindai;
 import android.app.ProgressDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.LinearLayout;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -13,12 +16,17 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.tubemindai.adapters.NotesAdapter;
 import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.ApiConfig;
 import com.example.tubemindai.api.ApiService;
-import com.example.tubemindai.api.models.VideoListResponse;
-import com.example.tubemindai.api.models.VideoResponse;
+import com.example.tubemindai.api.models.VideoListItem;
+import com.example.tubemindai.api.models.VideoListItemsResponse;
 import com.example.tubemindai.models.NotesModel;
+import com.example.tubemindai.utils.ConnectivityMonitor;
+import com.example.tubemindai.utils.MemoryCache;
+import com.example.tubemindai.utils.NotesSearchIndex;
 import com.example.tubemindai.utils.SharedPrefsManager;
 import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.textfield.TextInputEditText;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -33,15 +41,26 @@ import retrofit2.Response;
 /**
  * Saved Notes Activity - Displays all saved notes
  */
-public class SavedNotesActivity extends AppCompatActivity {
+public class SavedNotesActivity extends AppCompatActivity implements ConnectivityMonitor.Refreshable {
     private MaterialToolbar toolbar;
     private RecyclerView rvSavedNotes;
     private LinearLayout llEmptyState;
+    private TextView tvEmptyTitle, tvEmptyMessage;
+    private TextInputEditText etSearch;
     private NotesAdapter notesAdapter;
     private List<NotesModel> notesList;
+    // Results of the on-device search, shown instead of the paged list while a query is typed
+    private NotesAdapter searchAdapter;
+    private List<NotesModel> searchResults;
     private ApiService apiService;
     private SharedPrefsManager prefsManager;
     private ProgressDialog progressDialog;
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5; // Load the next page this many rows before the end
+    private static final int SEARCH_LIMIT = 50;
+    private String nextCursor = null;
+    private boolean isLoading = false;
+    private boolean hasMore = true;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -55,13 +74,17 @@ public class SavedNotesActivity extends AppCompatActivity {
         initViews();
         setupToolbar();
         setupRecyclerView();
-        loadSavedNotes();
+        setupSearch();
+        loadSavedNotes(null);
     }
 
     private void initViews() {
         toolbar = findViewById(R.id.toolbar);
         rvSavedNotes = findViewById(R.id.rvSavedNotes);
         llEmptyState = findViewById(R.id.llEmptyState);
+        tvEmptyTitle = findViewById(R.id.tvEmptyTitle);
+        tvEmptyMessage = findViewById(R.id.tvEmptyMessage);
+        etSearch = findViewById(R.id.etSearch);
     }
 
     private void setupToolbar() {
@@ -71,23 +94,122 @@ public class SavedNotesActivity extends AppCompatActivity {
 
     private void setupRecyclerView() {
         notesList = new ArrayList<>();
-        notesAdapter = new NotesAdapter(notesList, notes -> {
-            // Navigate to NotesActivity to view full note
-            Intent intent = new Intent(SavedNotesActivity.this, NotesActivity.class);
-            intent.putExtra("videoId", notes.getVideoId());
-            intent.putExtra("videoTitle", notes.getVideoTitle());
-            intent.putExtra("videoUrl", notes.getVideoUrl());
-            intent.putExtra("videoDbId", Integer.parseInt(notes.getNoteId())); // Use noteId as videoDbId
-            startActivity(intent);
-        });
+        notesAdapter = new NotesAdapter(notesList, this::openNotes);
 
         // Set delete listener
         notesAdapter.setOnDeleteClickListener((notes, position) -> {
             deleteNote(notes, position);
         });
 
-        rvSavedNotes.setLayoutManager(new LinearLayoutManager(this));
+        searchResults = new ArrayList<>();
+        searchAdapter = new NotesAdapter(searchResults, this::openNotes);
+        searchAdapter.setOnDeleteClickListener(this::deleteNote);
+
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        rvSavedNotes.setLayoutManager(layoutManager);
         rvSavedNotes.setAdapter(notesAdapter);
+
+        // Load the next page of saved notes as the user nears the end of the list
+        rvSavedNotes.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || isLoading || !hasMore || isSearching()) {
+                    return;
+                }
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= notesList.size() - PREFETCH_DISTANCE) {
+                    loadSavedNotes(nextCursor);
+                }
+            }
+        });
+    }
+
+    private void openNotes(NotesModel notes) {
+        // The list only holds a preview - NotesActivity loads the full note
+        // from MemoryCache or getVideoNotes
+        Intent intent = new Intent(SavedNotesActivity.this, NotesActivity.class);
+        intent.putExtra("videoId", notes.getVideoId());
+        intent.putExtra("videoTitle", notes.getVideoTitle());
+        intent.putExtra("videoUrl", notes.getVideoUrl());
+        intent.putExtra("videoDbId", Integer.parseInt(notes.getNoteId())); // Use noteId as videoDbId
+        startActivity(intent);
+    }
+
+    private void setupSearch() {
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Local and fast, so every keystroke searches
+                runSearch();
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        });
+        // A query typed before the index finished loading from disk
+        NotesSearchIndex index = NotesSearchIndex.get();
+        if (index != null) {
+            index.whenReady(() -> {
+                if (!isDestroyed() && isSearching()) {
+                    runSearch();
+                }
+            });
+        }
+    }
+
+    private boolean isSearching() {
+        return etSearch.getText() != null && etSearch.getText().toString().trim().length() > 0;
+    }
+
+    /**
+     * Show the on-device search results for the current query, or the paged list if it is empty
+     */
+    private void runSearch() {
+        if (!isSearching()) {
+            if (rvSavedNotes.getAdapter() != notesAdapter) {
+                rvSavedNotes.setAdapter(notesAdapter);
+            }
+            if (notesList.isEmpty() && !isLoading) {
+                showEmptyState();
+            } else {
+                hideEmptyState();
+            }
+            return;
+        }
+
+        searchResults.clear();
+        NotesSearchIndex index = NotesSearchIndex.get();
+        if (index != null) {
+            for (NotesSearchIndex.Result result : index.search(etSearch.getText().toString(), SEARCH_LIMIT)) {
+                NotesModel note = new NotesModel(
+                        String.valueOf(result.getVideoDbId()),
+                        result.getVideoId(),
+                        result.getTitle(),
+                        result.getVideoUrl(),
+                        result.getSnippet().toString(),
+                        "",
+                        "",
+                        formatDate(result.getCreatedAt()),
+                        true
+                );
+                note.setHighlightedTitle(result.getHighlightedTitle());
+                note.setHighlightedPreview(result.getSnippet());
+                searchResults.add(note);
+            }
+        }
+        if (rvSavedNotes.getAdapter() != searchAdapter) {
+            rvSavedNotes.setAdapter(searchAdapter);
+        }
+        searchAdapter.notifyDataSetChanged();
+
+        if (searchResults.isEmpty()) {
+            showEmptyState("No Matching Notes", "Try a different word, or open a note once so it can be searched");
+        } else {
+            hideEmptyState();
+        }
     }
 
     private void deleteNote(NotesModel notes, int position) {
@@ -121,12 +243,24 @@ public class SavedNotesActivity extends AppCompatActivity {
                 hideProgressDialog();
 
                 if (response.isSuccessful()) {
-                    // Remove from list with animation
-                    notesAdapter.removeItem(position);
+                    MemoryCache.removeVideo(videoDbId);
+
+                    // Remove from the list on screen with animation, and from the other one by id
+                    if (rvSavedNotes.getAdapter() == searchAdapter) {
+                        searchAdapter.removeItem(position);
+                        removeById(notesList, notes.getNoteId());
+                        notesAdapter.notifyDataSetChanged();
+                    } else {
+                        notesAdapter.removeItem(position);
+                    }
                     Toast.makeText(SavedNotesActivity.this, "Note deleted successfully", Toast.LENGTH_SHORT).show();
 
                     // Show empty state if list is empty
-                    if (notesList.isEmpty()) {
+                    if (isSearching()) {
+                        if (searchResults.isEmpty()) {
+                            runSearch();
+                        }
+                    } else if (notesList.isEmpty()) {
                         showEmptyState();
                     }
                 } else {
@@ -150,7 +284,10 @@ public class SavedNotesActivity extends AppCompatActivity {
         });
     }
 
-    private void loadSavedNotes() {
+    /**
+     * Load one page of saved notes. cursor == null loads the first page and replaces the list.
+     */
+    private void loadSavedNotes(String cursor) {
         // Check if user is logged in
         String token = prefsManager.getAccessToken();
         if (token == null || token.isEmpty()) {
@@ -159,49 +296,73 @@ public class SavedNotesActivity extends AppCompatActivity {
             return;
         }
 
-        showProgressDialog("Loading saved notes...");
+        boolean firstPage = cursor == null;
+        isLoading = true;
+        if (firstPage) {
+            showProgressDialog("Loading saved notes...");
+        }
 
         String authHeader = "Bearer " + token;
-        Call<VideoListResponse> call = apiService.getUserVideos(authHeader, 0, 100); // Get up to 100 videos
+        // The server filters on is_saved, so only saved notes are downloaded,
+        // and projects each row down to a summary preview instead of the full notes
+        Call<VideoListItemsResponse> call = apiService.getUserVideosPage(
+                authHeader, true, cursor, PAGE_SIZE, ApiConfig.FIELDS_SAVED_NOTES);
         
-        call.enqueue(new Callback<VideoListResponse>() {
+        call.enqueue(new Callback<VideoListItemsResponse>() {
             @Override
-            public void onResponse(Call<VideoListResponse> call, Response<VideoListResponse> response) {
+            public void onResponse(Call<VideoListItemsResponse> call, Response<VideoListItemsResponse> response) {
                 hideProgressDialog();
+                isLoading = false;
                 
                 if (response.isSuccessful() && response.body() != null) {
-                    VideoListResponse videoListResponse = response.body();
-                    List<VideoResponse> videos = videoListResponse.getVideos();
+                    VideoListItemsResponse videoListResponse = response.body();
+                    List<VideoListItem> videos = videoListResponse.getVideos();
+                    nextCursor = videoListResponse.getNextCursor();
+                    hasMore = nextCursor != null;
                     
-                    notesList.clear();
+                    if (firstPage) {
+                        notesList.clear();
+                    }
+                    int insertStart = notesList.size();
                     
+                    NotesSearchIndex index = NotesSearchIndex.get();
                     if (videos != null) {
-                        // Filter only saved videos (is_saved = true)
-                        for (VideoResponse video : videos) {
-                            if (video.isSaved()) {
-                                // Format date
-                                String dateStr = formatDate(video.getCreatedAt());
-                                
-                                NotesModel note = new NotesModel(
-                                        String.valueOf(video.getId()),
-                                        video.getVideoId(),
-                                        video.getTitle(),
-                                        video.getVideoUrl(),
-                                        video.getSummary() != null ? video.getSummary() : "",
-                                        video.getKeyPoints() != null ? video.getKeyPoints() : "",
-                                        video.getBulletNotes() != null ? video.getBulletNotes() : "",
-                                        dateStr,
-                                        true
-                                );
-                                notesList.add(note);
+                        for (VideoListItem video : videos) {
+                            // Searchable by title and preview until the full note is opened
+                            if (index != null) {
+                                index.putPreview(video.getId(), video.getVideoId(), video.getVideoUrl(),
+                                        video.getCreatedAt(), video.getTitle(), video.getSummaryPreview());
                             }
+
+                            // Format date
+                            String dateStr = formatDate(video.getCreatedAt());
+                            
+                            NotesModel note = new NotesModel(
+                                    String.valueOf(video.getId()),
+                                    video.getVideoId(),
+                                    video.getTitle(),
+                                    video.getVideoUrl(),
+                                    video.getSummaryPreview() != null ? video.getSummaryPreview() : "",
+                                    "",
+                                    "",
+                                    dateStr,
+                                    true
+                            );
+                            notesList.add(note);
                         }
                     }
                     
-                    notesAdapter.notifyDataSetChanged();
+                    if (firstPage) {
+                        notesAdapter.notifyDataSetChanged();
+                    } else {
+                        notesAdapter.notifyItemRangeInserted(insertStart, notesList.size() - insertStart);
+                    }
                     
                     // Show/hide empty state
-                    if (notesList.isEmpty()) {
+                    if (isSearching()) {
+                        // The new rows may match the query
+                        runSearch();
+                    } else if (notesList.isEmpty()) {
                         showEmptyState();
                     } else {
                         hideEmptyState();
@@ -216,16 +377,21 @@ public class SavedNotesActivity extends AppCompatActivity {
                     // Handle other errors
                     String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.getErrorMessage(response);
                     Toast.makeText(SavedNotesActivity.this, errorMessage, Toast.LENGTH_SHORT).show();
-                    showEmptyState();
+                    if (notesList.isEmpty() && !isSearching()) {
+                        showEmptyState();
+                    }
                 }
             }
 
             @Override
-            public void onFailure(Call<VideoListResponse> call, Throwable t) {
+            public void onFailure(Call<VideoListItemsResponse> call, Throwable t) {
                 hideProgressDialog();
+                isLoading = false;
                 String errorMessage = com.example.tubemindai.utils.ApiErrorHandler.handleNetworkError(t);
                 Toast.makeText(SavedNotesActivity.this, errorMessage, Toast.LENGTH_LONG).show();
-                showEmptyState();
+                if (notesList.isEmpty() && !isSearching()) {
+                    showEmptyState();
+                }
             }
         });
     }
@@ -247,10 +413,25 @@ public class SavedNotesActivity extends AppCompatActivity {
     }
 
     private void showEmptyState() {
+        showEmptyState("No Saved Notes", "Your saved notes will appear here");
+    }
+
+    private void showEmptyState(String title, String message) {
+        tvEmptyTitle.setText(title);
+        tvEmptyMessage.setText(message);
         rvSavedNotes.setVisibility(View.GONE);
         llEmptyState.setVisibility(View.VISIBLE);
     }
 
+    private static void removeById(List<NotesModel> notes, String noteId) {
+        for (int i = 0; i < notes.size(); i++) {
+            if (notes.get(i).getNoteId().equals(noteId)) {
+                notes.remove(i);
+                return;
+            }
+        }
+    }
+
     private void hideEmptyState() {
         rvSavedNotes.setVisibility(View.VISIBLE);
         llEmptyState.setVisibility(View.GONE);
@@ -270,5 +451,9 @@ public class SavedNotesActivity extends AppCompatActivity {
             progressDialog.dismiss();
         }
     }
-}
 
+    @Override
+    public void onConnectivityRestored() {
+        loadSavedNotes(null);
+    }
+}
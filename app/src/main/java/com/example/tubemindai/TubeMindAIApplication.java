@@ -5,6 +5,16 @@ import android.content.SharedPreferences;
 
 import androidx.appcompat.app.AppCompatDelegate;
 
+import com.example.tubemindai.api.ApiConfig;
+import com.example.tubemindai.api.EndpointSelector;
+import com.example.tubemindai.utils.AnswerCache;
+import com.example.tubemindai.utils.ChatJournal;
+import com.example.tubemindai.utils.ChatOutbox;
+import com.example.tubemindai.utils.ConnectivityMonitor;
+import com.example.tubemindai.utils.MemoryCache;
+import com.example.tubemindai.utils.NotesSearchIndex;
+import com.example.tubemindai.utils.RelatedNotesIndex;
+
 /**
  * Application class to handle global theme settings
  */
@@ -25,6 +35,31 @@ public class TubeMindAIApplication extends Application {
         } else {
             AppCompatDelegate.setDefaultNightMode(AppCompatDelegate.MODE_NIGHT_NO);
         }
+        
+        // Watch the network, and resume delivering chat messages queued before the app was closed
+        ConnectivityMonitor.init(this);
+        ChatJournal.init(this);
+        AnswerCache.init(this);
+        NotesSearchIndex.init(this);
+        RelatedNotesIndex.init(this);
+        ChatOutbox.get(this).flush();
+        
+        // Rank backend replicas before the first screen makes its calls
+        if (ApiConfig.BASE_URLS.length > 1) {
+            EndpointSelector.get().checkAll();
+        }
     }
-}
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Release cached notes and chat pages before the system has to kill us
+        MemoryCache.onTrimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        MemoryCache.clear();
+    }
+}
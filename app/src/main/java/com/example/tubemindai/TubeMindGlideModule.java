@@ -0,0 +1,64 @@
+package com.example.tubemindai;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.integration.okhttp3.OkHttpUrlLoader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+import com.example.tubemindai.api.ApiClient;
+
+import java.io.InputStream;
+
+/**
+ * Glide configuration - explicit memory and disk budgets for thumbnails,
+ * with network fetches routed through the app's shared OkHttp stack
+ */
+@GlideModule
+public class TubeMindGlideModule extends AppGlideModule {
+    // Hard caps on top of Glide's screen-based defaults
+    private static final long MAX_MEMORY_CACHE_BYTES = 16L * 1024 * 1024;   // 16 MB decoded thumbnails
+    private static final long MAX_BITMAP_POOL_BYTES = 8L * 1024 * 1024;     // 8 MB reusable bitmaps
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;         // 50 MB source images
+    private static final String DISK_CACHE_DIR = "thumbnail_cache";
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(2)
+                .setBitmapPoolScreens(2)
+                .build();
+
+        builder.setMemoryCache(new LruResourceCache(
+                Math.min(calculator.getMemoryCacheSize(), MAX_MEMORY_CACHE_BYTES)));
+        builder.setBitmapPool(new LruBitmapPool(
+                Math.min(calculator.getBitmapPoolSize(), MAX_BITMAP_POOL_BYTES)));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+
+        // Thumbnails are opaque JPEGs - RGB_565 halves the decoded size
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        // Same connection pool as Retrofit, separate dispatcher, counted in NetworkMetrics.image()
+        registry.replace(GlideUrl.class, InputStream.class,
+                new OkHttpUrlLoader.Factory(ApiClient.getImageOkHttpClient()));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -11,11 +11,11 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.tubemindai.R;
 import com.example.tubemindai.api.models.AdminPDFsResponse;
+import com.example.tubemindai.utils.PagedList;
 
-import java.util.List;
 
 public class AdminPDFAdapter extends RecyclerView.Adapter<AdminPDFAdapter.PDFViewHolder> {
-    private List<AdminPDFsResponse.AdminPDFItem> pdfList;
+    private PagedList<AdminPDFsResponse.AdminPDFItem> pdfList;
     private OnPDFClickListener listener;
     private OnDeleteClickListener deleteListener;
 
@@ -27,7 +27,7 @@ public class AdminPDFAdapter extends RecyclerView.Adapter<AdminPDFAdapter.PDFVie
         void onDeleteClick(AdminPDFsResponse.AdminPDFItem pdf, int position);
     }
 
-    public AdminPDFAdapter(List<AdminPDFsResponse.AdminPDFItem> pdfList) {
+    public AdminPDFAdapter(PagedList<AdminPDFsResponse.AdminPDFItem> pdfList) {
         this.pdfList = pdfList;
     }
 
@@ -50,6 +50,12 @@ public class AdminPDFAdapter extends RecyclerView.Adapter<AdminPDFAdapter.PDFVie
     @Override
     public void onBindViewHolder(@NonNull PDFViewHolder holder, int position) {
         AdminPDFsResponse.AdminPDFItem pdf = pdfList.get(position);
+        if (pdf == null) {
+            // Row of a page that is still loading
+            bindPlaceholder(holder);
+            return;
+        }
+        holder.btnDelete.setVisibility(View.VISIBLE);
         
         holder.tvPDFName.setText(pdf.getFileName());
         holder.tvUserName.setText("User: " + pdf.getUserName());
@@ -80,6 +86,17 @@ public class AdminPDFAdapter extends RecyclerView.Adapter<AdminPDFAdapter.PDFVie
         });
     }
 
+    private void bindPlaceholder(PDFViewHolder holder) {
+        holder.tvPDFName.setText("Loading...");
+        holder.tvUserName.setText("");
+        holder.tvChatCount.setText("");
+        holder.tvPageCount.setText("");
+        holder.tvNotesBadge.setVisibility(View.GONE);
+        holder.btnDelete.setVisibility(View.INVISIBLE);
+        holder.cardView.setOnClickListener(null);
+        holder.btnDelete.setOnClickListener(null);
+    }
+
     @Override
     public int getItemCount() {
         return pdfList != null ? pdfList.size() : 0;
@@ -89,7 +106,7 @@ public class AdminPDFAdapter extends RecyclerView.Adapter<AdminPDFAdapter.PDFVie
         if (position >= 0 && position < pdfList.size()) {
             pdfList.remove(position);
             notifyItemRemoved(position);
-            notifyItemRangeChanged(position, pdfList.size());
+            notifyItemRangeChanged(position, pdfList.size() - position);
         }
     }
 
@@ -11,11 +11,11 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.tubemindai.R;
 import com.example.tubemindai.api.models.AdminUsersResponse;
+import com.example.tubemindai.utils.PagedList;
 
-import java.util.List;
 
 public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.UserViewHolder> {
-    private List<AdminUsersResponse.AdminUserItem> userList;
+    private PagedList<AdminUsersResponse.AdminUserItem> userList;
     private OnUserClickListener listener;
     private OnActivateClickListener activateListener;
 
@@ -27,7 +27,7 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
         void onActivateClick(AdminUsersResponse.AdminUserItem user, int position);
     }
 
-    public AdminUserAdapter(List<AdminUsersResponse.AdminUserItem> userList) {
+    public AdminUserAdapter(PagedList<AdminUsersResponse.AdminUserItem> userList) {
         this.userList = userList;
     }
 
@@ -50,6 +50,12 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
     @Override
     public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
         AdminUsersResponse.AdminUserItem user = userList.get(position);
+        if (user == null) {
+            // Row of a page that is still loading
+            bindPlaceholder(holder);
+            return;
+        }
+        holder.btnActivate.setVisibility(View.VISIBLE);
         
         holder.tvUserName.setText(user.getName());
         holder.tvUserEmail.setText(user.getEmail());
@@ -90,6 +96,20 @@ public class AdminUserAdapter extends RecyclerView.Adapter<AdminUserAdapter.User
         });
     }
 
+    private void bindPlaceholder(UserViewHolder holder) {
+        holder.tvUserName.setText("Loading...");
+        holder.tvUserEmail.setText("");
+        holder.tvVideoCount.setText("");
+        holder.tvChatCount.setText("");
+        holder.tvAdminBadge.setVisibility(View.GONE);
+        holder.tvVerifiedBadge.setVisibility(View.GONE);
+        holder.tvStatusBadge.setText("");
+        holder.tvStatusBadge.setBackgroundColor(android.graphics.Color.TRANSPARENT);
+        holder.btnActivate.setVisibility(View.INVISIBLE);
+        holder.cardView.setOnClickListener(null);
+        holder.btnActivate.setOnClickListener(null);
+    }
+
     @Override
     public int getItemCount() {
         return userList != null ? userList.size() : 0;
@@ -1,5 +1,6 @@
 package com.example.tubemindai.adapters;
 
+import android.app.Activity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,14 +11,18 @@ import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 import com.example.tubemindai.R;
 import com.example.tubemindai.api.models.AdminVideosResponse;
+import com.example.tubemindai.utils.PagedList;
+import com.example.tubemindai.utils.ThumbnailLoader;
 
-import java.util.List;
 
 public class AdminVideoAdapter extends RecyclerView.Adapter<AdminVideoAdapter.VideoViewHolder> {
-    private List<AdminVideosResponse.AdminVideoItem> videoList;
+    // Must match ivThumbnail in item_admin_video.xml
+    private static final int THUMBNAIL_WIDTH_DP = 120;
+    private static final int THUMBNAIL_HEIGHT_DP = 68;
+
+    private PagedList<AdminVideosResponse.AdminVideoItem> videoList;
     private OnVideoClickListener listener;
     private OnDeleteClickListener deleteListener;
 
@@ -29,7 +34,7 @@ public class AdminVideoAdapter extends RecyclerView.Adapter<AdminVideoAdapter.Vi
         void onDeleteClick(AdminVideosResponse.AdminVideoItem video, int position);
     }
 
-    public AdminVideoAdapter(List<AdminVideosResponse.AdminVideoItem> videoList) {
+    public AdminVideoAdapter(PagedList<AdminVideosResponse.AdminVideoItem> videoList) {
         this.videoList = videoList;
     }
 
@@ -52,6 +57,12 @@ public class AdminVideoAdapter extends RecyclerView.Adapter<AdminVideoAdapter.Vi
     @Override
     public void onBindViewHolder(@NonNull VideoViewHolder holder, int position) {
         AdminVideosResponse.AdminVideoItem video = videoList.get(position);
+        if (video == null) {
+            // Row of a page that is still loading
+            bindPlaceholder(holder);
+            return;
+        }
+        holder.btnDelete.setVisibility(View.VISIBLE);
         
         holder.tvVideoTitle.setText(video.getTitle());
         holder.tvUserName.setText("User: " + video.getUserName());
@@ -64,16 +75,9 @@ public class AdminVideoAdapter extends RecyclerView.Adapter<AdminVideoAdapter.Vi
         }
         
         // Load thumbnail
-        if (video.getThumbnailUrl() != null && !video.getThumbnailUrl().isEmpty()) {
-            Glide.with(holder.itemView.getContext())
-                    .load(video.getThumbnailUrl())
-                    .placeholder(R.color.primary)
-                    .error(R.color.primary)
-                    .centerCrop()
-                    .into(holder.ivThumbnail);
-        } else {
-            holder.ivThumbnail.setBackgroundColor(holder.itemView.getContext().getResources().getColor(R.color.primary));
-        }
+        ThumbnailLoader.load(holder.ivThumbnail, video.getThumbnailUrl(), video.getThumbnailHash(),
+                ThumbnailLoader.dpToPx(holder.itemView.getContext(), THUMBNAIL_WIDTH_DP),
+                ThumbnailLoader.dpToPx(holder.itemView.getContext(), THUMBNAIL_HEIGHT_DP));
         
         holder.cardView.setOnClickListener(v -> {
             if (listener != null) {
@@ -88,6 +92,27 @@ public class AdminVideoAdapter extends RecyclerView.Adapter<AdminVideoAdapter.Vi
         });
     }
 
+    public void attachThumbnailPreloader(Activity activity, RecyclerView recyclerView) {
+        ThumbnailLoader.attachPreloader(activity, recyclerView,
+                position -> {
+                    AdminVideosResponse.AdminVideoItem video = videoList.peek(position);
+                    return video != null ? video.getThumbnailUrl() : null;
+                },
+                ThumbnailLoader.dpToPx(activity, THUMBNAIL_WIDTH_DP),
+                ThumbnailLoader.dpToPx(activity, THUMBNAIL_HEIGHT_DP));
+    }
+
+    private void bindPlaceholder(VideoViewHolder holder) {
+        holder.tvVideoTitle.setText("Loading...");
+        holder.tvUserName.setText("");
+        holder.tvChatCount.setText("");
+        holder.tvNotesBadge.setVisibility(View.GONE);
+        ThumbnailLoader.load(holder.ivThumbnail, null, null, 0, 0);
+        holder.btnDelete.setVisibility(View.INVISIBLE);
+        holder.cardView.setOnClickListener(null);
+        holder.btnDelete.setOnClickListener(null);
+    }
+
     @Override
     public int getItemCount() {
         return videoList != null ? videoList.size() : 0;
@@ -97,7 +122,7 @@ public class AdminVideoAdapter extends RecyclerView.Adapter<AdminVideoAdapter.Vi
         if (position >= 0 && position < videoList.size()) {
             videoList.remove(position);
             notifyItemRemoved(position);
-            notifyItemRangeChanged(position, videoList.size());
+            notifyItemRangeChanged(position, videoList.size() - position);
         }
     }
 
@@ -19,11 +19,23 @@ import java.util.List;
  */
 public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder> {
     private List<ChatModel> chatList;
+    private OnRegenerateListener regenerateListener;
+
+    /**
+     * Asks the server again instead of showing a cached answer
+     */
+    public interface OnRegenerateListener {
+        void onRegenerate(ChatModel cachedAnswer);
+    }
 
     public ChatAdapter(List<ChatModel> chatList) {
         this.chatList = chatList != null ? chatList : new java.util.ArrayList<>();
     }
 
+    public void setOnRegenerateListener(OnRegenerateListener listener) {
+        this.regenerateListener = listener;
+    }
+
     @NonNull
     @Override
     public ChatViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -41,11 +53,25 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder
             holder.cardUserMessage.setVisibility(View.VISIBLE);
             holder.cardAiMessage.setVisibility(View.GONE);
             holder.tvUserMessage.setText(chat.getMessage());
+            // Queued messages are dimmed until the outbox delivers them
+            holder.cardUserMessage.setAlpha(chat.getStatus() == ChatModel.STATUS_SENT ? 1f
+                    : chat.getStatus() == ChatModel.STATUS_PENDING ? 0.6f : 0.35f);
         } else {
             // Show AI message on left
             holder.cardUserMessage.setVisibility(View.GONE);
             holder.cardAiMessage.setVisibility(View.VISIBLE);
             holder.tvAiMessage.setText(chat.getMessage());
+            if (chat.isCachedAnswer()) {
+                holder.tvAiCached.setVisibility(View.VISIBLE);
+                holder.tvAiCached.setOnClickListener(v -> {
+                    if (regenerateListener != null) {
+                        regenerateListener.onRegenerate(chat);
+                    }
+                });
+            } else {
+                holder.tvAiCached.setVisibility(View.GONE);
+                holder.tvAiCached.setOnClickListener(null);
+            }
         }
     }
 
@@ -63,11 +89,40 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder
         notifyItemInserted(position);
     }
 
+    /**
+     * Update the delivery state of the user message with this client id
+     */
+    public void setMessageStatus(String clientMessageId, int status) {
+        if (clientMessageId == null) {
+            return;
+        }
+        for (int i = 0; i < chatList.size(); i++) {
+            ChatModel chat = chatList.get(i);
+            if (clientMessageId.equals(chat.getClientMessageId())) {
+                chat.setStatus(status);
+                notifyItemChanged(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Turn a cached answer into a plain one once it is being regenerated
+     */
+    public void clearCachedAnswer(ChatModel chat) {
+        int position = chatList.indexOf(chat);
+        chat.setCachedQuestion(null);
+        if (position >= 0) {
+            notifyItemChanged(position);
+        }
+    }
+
     static class ChatViewHolder extends RecyclerView.ViewHolder {
         MaterialCardView cardUserMessage;
         MaterialCardView cardAiMessage;
         TextView tvUserMessage;
         TextView tvAiMessage;
+        TextView tvAiCached;
 
         public ChatViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -75,6 +130,7 @@ public class ChatAdapter extends RecyclerView.Adapter<ChatAdapter.ChatViewHolder
             cardAiMessage = itemView.findViewById(R.id.cardAiMessage);
             tvUserMessage = itemView.findViewById(R.id.tvUserMessage);
             tvAiMessage = itemView.findViewById(R.id.tvAiMessage);
+            tvAiCached = itemView.findViewById(R.id.tvAiCached);
         }
     }
 }
@@ -51,8 +51,8 @@ public class NotesAdapter extends RecyclerView.Adapter<NotesAdapter.NotesViewHol
     @Override
     public void onBindViewHolder(@NonNull NotesViewHolder holder, int position) {
         NotesModel notes = notesList.get(position);
-        holder.tvNoteTitle.setText(notes.getVideoTitle());
-        holder.tvNotePreview.setText(notes.getSummary());
+        holder.tvNoteTitle.setText(notes.getHighlightedTitle() != null ? notes.getHighlightedTitle() : notes.getVideoTitle());
+        holder.tvNotePreview.setText(notes.getHighlightedPreview() != null ? notes.getHighlightedPreview() : notes.getSummary());
         holder.tvNoteDate.setText("Saved " + notes.getDate());
         
         holder.cardView.setOnClickListener(v -> {
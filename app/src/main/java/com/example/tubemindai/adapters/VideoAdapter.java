@@ -1,5 +1,6 @@
 package com.example.tubemindai.adapters;
 
+import android.app.Activity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -10,10 +11,9 @@ import androidx.annotation.NonNull;
 import androidx.cardview.widget.CardView;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.example.tubemindai.R;
 import com.example.tubemindai.models.VideoModel;
+import com.example.tubemindai.utils.ThumbnailLoader;
 
 import java.util.List;
 
@@ -21,6 +21,10 @@ import java.util.List;
  * Adapter for Recent Videos RecyclerView
  */
 public class VideoAdapter extends RecyclerView.Adapter<VideoAdapter.VideoViewHolder> {
+    // Must match ivThumbnail in item_video.xml
+    private static final int THUMBNAIL_WIDTH_DP = 120;
+    private static final int THUMBNAIL_HEIGHT_DP = 90;
+
     private List<VideoModel> videoList;
     private OnVideoClickListener listener;
 
@@ -47,19 +51,10 @@ public class VideoAdapter extends RecyclerView.Adapter<VideoAdapter.VideoViewHol
         holder.tvVideoTitle.setText(video.getTitle());
         holder.tvVideoDate.setText(video.getDate());
         
-        // Load thumbnail using Glide
-        if (video.getThumbnailUrl() != null && !video.getThumbnailUrl().isEmpty()) {
-            Glide.with(holder.itemView.getContext())
-                    .load(video.getThumbnailUrl())
-                    .placeholder(R.color.primary) // Placeholder color while loading
-                    .error(R.color.primary) // Error placeholder
-                    .diskCacheStrategy(DiskCacheStrategy.ALL)
-                    .centerCrop()
-                    .into(holder.ivThumbnail);
-        } else {
-            // No thumbnail URL, use placeholder color
-            holder.ivThumbnail.setBackgroundColor(holder.itemView.getContext().getResources().getColor(R.color.primary));
-        }
+        // Load a thumbnail variant sized for the card (placeholder color if there is no URL)
+        ThumbnailLoader.load(holder.ivThumbnail, video.getThumbnailUrl(), video.getThumbnailHash(),
+                ThumbnailLoader.dpToPx(holder.itemView.getContext(), THUMBNAIL_WIDTH_DP),
+                ThumbnailLoader.dpToPx(holder.itemView.getContext(), THUMBNAIL_HEIGHT_DP));
         
         holder.cardView.setOnClickListener(v -> {
             if (listener != null) {
@@ -68,6 +63,16 @@ public class VideoAdapter extends RecyclerView.Adapter<VideoAdapter.VideoViewHol
         });
     }
 
+    /**
+     * Preload thumbnails for the rows just below the visible ones while the list scrolls
+     */
+    public void attachThumbnailPreloader(Activity activity, RecyclerView recyclerView) {
+        ThumbnailLoader.attachPreloader(activity, recyclerView,
+                position -> position < getItemCount() ? videoList.get(position).getThumbnailUrl() : null,
+                ThumbnailLoader.dpToPx(activity, THUMBNAIL_WIDTH_DP),
+                ThumbnailLoader.dpToPx(activity, THUMBNAIL_HEIGHT_DP));
+    }
+
     @Override
     public int getItemCount() {
         return videoList != null ? videoList.size() : 0;
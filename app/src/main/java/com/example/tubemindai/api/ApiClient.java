@@ -1,35 +1,99 @@
 package com.example.tubemindai.api;
 
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
+import retrofit2.Invocation;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class ApiClient {
     private static final String BASE_URL = ApiConfig.BASE_URL;
-    
+
+    // Dispatch limits - API calls and image fetches share sockets but not queues,
+    // so a screen full of thumbnails cannot starve a chat or notes request
+    private static final int API_MAX_REQUESTS = 16;
+    private static final int API_MAX_REQUESTS_PER_HOST = 6;
+    private static final int IMAGE_MAX_REQUESTS = 8;
+    private static final int IMAGE_MAX_REQUESTS_PER_HOST = 4;
+
     private static Retrofit retrofit = null;
     private static ApiService apiService = null;
+    private static OkHttpClient okHttpClient = null;
+    private static OkHttpClient imageOkHttpClient = null;
 
-    public static Retrofit getRetrofit() {
-        if (retrofit == null) {
-            // Create logging interceptor
-            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+    /**
+     * Shared OkHttp client for API calls. All other clients are derived from this one
+     * so they reuse its connection pool, DNS resolver and cache settings.
+     */
+    public static synchronized OkHttpClient getOkHttpClient() {
+        if (okHttpClient == null) {
+            // Create logging interceptors - BODY logging reads the whole response before
+            // returning it, so @Streaming calls only log headers
+            HttpLoggingInterceptor bodyLogger = new HttpLoggingInterceptor();
+            bodyLogger.setLevel(HttpLoggingInterceptor.Level.BODY);
+            HttpLoggingInterceptor headersLogger = new HttpLoggingInterceptor();
+            headersLogger.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+            Interceptor loggingInterceptor = chain -> isStreaming(chain.request())
+                    ? headersLogger.intercept(chain)
+                    : bodyLogger.intercept(chain);
+
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(API_MAX_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(API_MAX_REQUESTS_PER_HOST);
 
             // Create OkHttp client with increased timeouts for note generation
             // Note generation can take 30-60 seconds, so we need longer timeouts
-            OkHttpClient okHttpClient = new OkHttpClient.Builder()
-                    .connectTimeout(30, java.util.concurrent.TimeUnit.SECONDS)  // Connection timeout: 30 seconds
-                    .readTimeout(120, java.util.concurrent.TimeUnit.SECONDS)     // Read timeout: 2 minutes (for note generation)
-                    .writeTimeout(30, java.util.concurrent.TimeUnit.SECONDS)    // Write timeout: 30 seconds
+            okHttpClient = new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(8, 5, TimeUnit.MINUTES))
+                    .dispatcher(dispatcher)
+                    .eventListenerFactory(NetworkMetrics.api().listenerFactory())
+                    .connectTimeout(30, TimeUnit.SECONDS)  // Connection timeout: 30 seconds
+                    .readTimeout(120, TimeUnit.SECONDS)     // Read timeout: 2 minutes (for note generation)
+                    .writeTimeout(30, TimeUnit.SECONDS)    // Write timeout: 30 seconds
+                    .addInterceptor(new CircuitBreakerInterceptor())   // Outermost - an open circuit fails before any retry
+                    .addInterceptor(new RetryInterceptor())   // Each attempt is routed and logged
+                    .addInterceptor(new RateLimiter.ShapingInterceptor())   // Queues chat bursts
+                    .addInterceptor(EndpointSelector.get())   // Retried attempts fail over to another replica
                     .addInterceptor(loggingInterceptor)
                     .build();
+        }
+        return okHttpClient;
+    }
+
+    /**
+     * OkHttp client used by Glide for thumbnails. Shares the connection pool with the API client
+     * but has its own dispatcher, shorter timeouts and no body logging.
+     */
+    public static synchronized OkHttpClient getImageOkHttpClient() {
+        if (imageOkHttpClient == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequests(IMAGE_MAX_REQUESTS);
+            dispatcher.setMaxRequestsPerHost(IMAGE_MAX_REQUESTS_PER_HOST);
+
+            OkHttpClient.Builder builder = getOkHttpClient().newBuilder();
+            // Logging image bodies would dump binary JPEG data into logcat
+            builder.interceptors().clear();
+            imageOkHttpClient = builder
+                    .dispatcher(dispatcher)
+                    .eventListenerFactory(NetworkMetrics.image().listenerFactory())
+                    .connectTimeout(15, TimeUnit.SECONDS)
+                    .readTimeout(20, TimeUnit.SECONDS)
+                    .build();
+        }
+        return imageOkHttpClient;
+    }
 
+    public static Retrofit getRetrofit() {
+        if (retrofit == null) {
             // Create Retrofit instance
             retrofit = new Retrofit.Builder()
                     .baseUrl(BASE_URL)
-                    .client(okHttpClient)
+                    .client(getOkHttpClient())
                     .addConverterFactory(GsonConverterFactory.create())
                     .build();
         }
@@ -43,10 +107,20 @@ public class ApiClient {
         return apiService;
     }
 
+    static boolean isStreaming(okhttp3.Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(retrofit2.http.Streaming.class);
+    }
+
+    /**
+     * Send API calls to a different backend. Requests are rewritten by EndpointSelector,
+     * so the existing Retrofit instance and ApiService stay valid.
+     */
     public static void setBaseUrl(String baseUrl) {
-        retrofit = null;
-        apiService = null;
-        // Recreate with new base URL if needed
+        EndpointSelector.get().setEndpoints(java.util.Collections.singletonList(baseUrl));
     }
-}
 
+    public static void setBaseUrls(java.util.List<String> baseUrls) {
+        EndpointSelector.get().setEndpoints(baseUrls);
+    }
+}
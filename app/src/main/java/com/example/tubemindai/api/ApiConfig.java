@@ -31,6 +31,12 @@ public class ApiConfig {
     // Make sure backend is running: uvicorn app.main:app --reload --host 0.0.0.0 --port 8000
     public static final String BASE_URL = "http://10.94.179.99:8000/";
     
+    // Backend replicas - EndpointSelector sends each request to the fastest healthy one.
+    // Add more entries to fail over between replicas; BASE_URL stays the Retrofit base.
+    public static final String[] BASE_URLS = {
+        BASE_URL
+    };
+    
     // API endpoints
     public static final String REGISTER = "api/auth/register";
     public static final String VERIFY_OTP = "api/auth/verify-otp";
@@ -38,5 +44,32 @@ public class ApiConfig {
     public static final String LOGIN = "api/auth/login";
     public static final String FORGOT_PASSWORD = "api/auth/forgot-password";
     public static final String RESET_PASSWORD = "api/auth/reset-password-simple";
+    
+    // Chat sends per window before RateLimiter starts queueing them - matches the backend
+    // default and is replaced by the server's RateLimit-Policy header once one is seen
+    public static final int CHAT_RATE_LIMIT = 5;
+    public static final int CHAT_RATE_LIMIT_WINDOW_SECONDS = 60;
+    // Prefetched suggestion answers have their own, smaller bucket on the backend
+    public static final int SPECULATIVE_CHAT_RATE_LIMIT = 3;
+    
+    // Send a duplicate of slow note and chat-history reads (see HedgedCall)
+    public static final boolean USE_HEDGED_READS = true;
+    
+    // Repeated chat questions are answered from AnswerCache - how long an answer stays valid
+    // and how many answers are kept across all videos and PDFs
+    public static final int ANSWER_CACHE_TTL_HOURS = 72;
+    public static final int ANSWER_CACHE_MAX_ENTRIES = 200;
+
+    // Suggested questions offered on the chat screen after notes load. Their answers are
+    // prefetched in the background, at most SPECULATIVE_ANSWERS_PER_DAY LLM calls a day
+    public static final int SUGGESTED_QUESTIONS = 3;
+    public static final int SPECULATIVE_ANSWERS_PER_DAY = 12;
+
+    // List projections (?fields=) - list screens only download what their rows show,
+    // full notes are fetched when a row is opened
+    public static final String FIELDS_RECENT_VIDEOS = "id,video_id,video_url,title,thumbnail_url,thumbnail_hash,duration,created_at";
+    public static final String FIELDS_SAVED_NOTES = "id,video_id,video_url,title,created_at,summary_preview";
+    public static final String FIELDS_ADMIN_VIDEOS = "id,video_id,title,thumbnail_url,thumbnail_hash,user_name,user_email,has_notes,chat_count,created_at";
+    public static final String FIELDS_ADMIN_PDFS = "id,file_name,file_size,page_count,user_name,user_email,has_notes,chat_count,created_at";
 }
 
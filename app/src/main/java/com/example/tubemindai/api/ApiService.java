@@ -31,7 +31,10 @@ import retrofit2.http.PUT;
 import retrofit2.http.Part;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
+import retrofit2.http.Tag;
 import okhttp3.MultipartBody;
+import okhttp3.ResponseBody;
 
 public interface ApiService {
     
@@ -39,6 +42,10 @@ public interface ApiService {
     @GET("health")
     Call<Object> healthCheck();
     
+    // Health Check against one specific replica (used by EndpointSelector)
+    @GET("health")
+    Call<Object> healthCheck(@Tag EndpointSelector.Endpoint endpoint);
+    
     // Registration
     @POST("api/auth/register")
     Call<RegisterResponse> register(@Body RegisterRequest request);
@@ -63,10 +70,11 @@ public interface ApiService {
     @POST("api/auth/reset-password-simple")
     Call<ResetPasswordResponse> resetPassword(@Body ResetPasswordRequest request);
     
-    // Video Notes Generation
+    // Video Notes Generation - the Idempotency-Key makes retries return the first result
     @POST("api/video/generate")
     Call<VideoGenerateResponse> generateVideoNotes(
         @Header("Authorization") String token,
+        @Header("Idempotency-Key") String idempotencyKey,
         @Body VideoGenerateRequest request
     );
     
@@ -99,9 +107,38 @@ public interface ApiService {
         @Query("limit") int limit
     );
     
+    // Get User's Videos - projected rows only (see ApiConfig.FIELDS_*)
+    @GET("api/video/")
+    Call<com.example.tubemindai.api.models.VideoListItemsResponse> getUserVideoItems(
+        @Header("Authorization") String token,
+        @Query("skip") int skip,
+        @Query("limit") int limit,
+        @Query("fields") String fields
+    );
+    
+    // Get User's Videos - one keyset page of projected rows, optionally filtered by saved state
+    // Pass cursor = null for the first page, then VideoListItemsResponse.getNextCursor()
+    @GET("api/video/")
+    Call<com.example.tubemindai.api.models.VideoListItemsResponse> getUserVideosPage(
+        @Header("Authorization") String token,
+        @Query("is_saved") Boolean isSaved,
+        @Query("cursor") String cursor,
+        @Query("limit") int limit,
+        @Query("fields") String fields
+    );
+    
     // Send Chat Message
     @POST("api/video/{video_id}/chat")
     Call<ChatMessageResponse> sendChatMessage(
+        @Header("Authorization") String token,
+        @Header("Idempotency-Key") String idempotencyKey,
+        @Path("video_id") int videoId,
+        @Body ChatMessageRequest request
+    );
+    
+    // Prefetch the answer to a suggested question - not stored, rate-limited apart from chat sends
+    @POST("api/video/{video_id}/chat/speculative")
+    Call<ChatMessageResponse> sendSpeculativeChatMessage(
         @Header("Authorization") String token,
         @Path("video_id") int videoId,
         @Body ChatMessageRequest request
@@ -165,6 +202,7 @@ public interface ApiService {
     @POST("api/pdf/{pdf_id}/generate")
     Call<com.example.tubemindai.api.models.PDFGenerateResponse> generatePDFNotes(
         @Header("Authorization") String token,
+        @Header("Idempotency-Key") String idempotencyKey,
         @Path("pdf_id") int pdfId
     );
     
@@ -187,6 +225,7 @@ public interface ApiService {
     @POST("api/pdf/{pdf_id}/chat")
     Call<com.example.tubemindai.api.models.PDFChatMessageResponse> sendPDFChatMessage(
         @Header("Authorization") String token,
+        @Header("Idempotency-Key") String idempotencyKey,
         @Path("pdf_id") int pdfId,
         @Body com.example.tubemindai.api.models.PDFChatMessageRequest request
     );
@@ -215,6 +254,15 @@ public interface ApiService {
         @Path("pdf_id") int pdfId
     );
 
+    // ========== SYNC ==========
+    
+    // Change feed - pass since = null for a full snapshot, then SyncChangesResponse.getSyncToken()
+    @GET("api/sync/changes")
+    Call<com.example.tubemindai.api.models.SyncChangesResponse> getChanges(
+        @Header("Authorization") String token,
+        @Query("since") String since
+    );
+
     // ========== ADMIN ENDPOINTS ==========
     
     // Admin PDF Management
@@ -224,7 +272,20 @@ public interface ApiService {
         @Query("skip") int skip,
         @Query("limit") int limit,
         @Query("search") String search,
-        @Query("user_id") Integer userId
+        @Query("user_id") Integer userId,
+        @Query("fields") String fields
+    );
+    
+    // Admin PDF list as a raw stream - parse with StreamingListLoader ("pdfs" array)
+    @Streaming
+    @GET("api/admin/pdfs")
+    Call<ResponseBody> streamAllPDFs(
+        @Header("Authorization") String token,
+        @Query("skip") int skip,
+        @Query("limit") int limit,
+        @Query("search") String search,
+        @Query("user_id") Integer userId,
+        @Query("fields") String fields
     );
     
     @DELETE("api/admin/pdfs/{pdf_id}")
@@ -254,6 +315,18 @@ public interface ApiService {
         @Query("is_verified") Boolean isVerified
     );
     
+    // Get All Users as a raw stream - parse with StreamingListLoader ("users" array)
+    @Streaming
+    @GET("api/admin/users")
+    Call<ResponseBody> streamAllUsers(
+        @Header("Authorization") String token,
+        @Query("skip") int skip,
+        @Query("limit") int limit,
+        @Query("search") String search,
+        @Query("is_active") Boolean isActive,
+        @Query("is_verified") Boolean isVerified
+    );
+    
     // Activate/Deactivate User
     @PUT("api/admin/users/{user_id}/activate")
     Call<com.example.tubemindai.api.models.AdminUserActionResponse> activateUser(
@@ -268,7 +341,20 @@ public interface ApiService {
         @Query("skip") int skip,
         @Query("limit") int limit,
         @Query("search") String search,
-        @Query("user_id") Integer userId
+        @Query("user_id") Integer userId,
+        @Query("fields") String fields
+    );
+    
+    // Get All Videos (Admin) as a raw stream - parse with StreamingListLoader ("videos" array)
+    @Streaming
+    @GET("api/admin/videos")
+    Call<ResponseBody> streamAllVideos(
+        @Header("Authorization") String token,
+        @Query("skip") int skip,
+        @Query("limit") int limit,
+        @Query("search") String search,
+        @Query("user_id") Integer userId,
+        @Query("fields") String fields
     );
     
     // Delete Video (Admin)
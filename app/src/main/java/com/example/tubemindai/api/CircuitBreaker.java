@@ -0,0 +1,118 @@
+package com.example.tubemindai.api;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker for one endpoint group (auth, video, pdf, admin, ...).
+ *
+ * CLOSED: calls go through; FAILURE_THRESHOLD consecutive failures (errors, 5xx or slow
+ * reads - a 429 is backpressure and does not count) trip it. OPEN: calls fail fast with OpenException until the open period ends.
+ * HALF_OPEN: a single trial call is let through - success closes the breaker, failure
+ * re-opens it for twice as long (capped), so a struggling backend is probed, not flooded.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final String TAG = "CircuitBreaker";
+
+    // Each call already includes RetryInterceptor's attempts, so a few failures in a row is a real outage
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long BASE_OPEN_MS = 15_000;
+    private static final long MAX_OPEN_MS = 2 * 60_000;
+
+    private static final Map<String, CircuitBreaker> breakers = new HashMap<>();
+
+    /**
+     * Thrown instead of making the call while the breaker is open
+     */
+    public static class OpenException extends IOException {
+        public OpenException(String group) {
+            super("Circuit open for '" + group + "' endpoints");
+        }
+    }
+
+    private final String group;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMs;
+    private long openDurationMs = BASE_OPEN_MS;
+    private boolean trialInFlight;
+
+    private CircuitBreaker(String group) {
+        this.group = group;
+    }
+
+    public static synchronized CircuitBreaker forGroup(String group) {
+        CircuitBreaker breaker = breakers.get(group);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(group);
+            breakers.put(group, breaker);
+        }
+        return breaker;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a call may go out now. Every true must be followed by
+     * onSuccess, onFailure or onIgnored.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAtMs < openDurationMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            android.util.Log.d(TAG, group + " closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openDurationMs = BASE_OPEN_MS;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            trip(Math.min(openDurationMs * 2, MAX_OPEN_MS));
+        } else if (state == State.CLOSED && ++consecutiveFailures >= FAILURE_THRESHOLD) {
+            trip(BASE_OPEN_MS);
+        }
+    }
+
+    /**
+     * The call ended without saying anything about backend health (e.g. it was cancelled)
+     */
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    private void trip(long durationMs) {
+        state = State.OPEN;
+        openedAtMs = System.currentTimeMillis();
+        openDurationMs = durationMs;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        android.util.Log.w(TAG, group + " opened for " + durationMs + " ms");
+    }
+}
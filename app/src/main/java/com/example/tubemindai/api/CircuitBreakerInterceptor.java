@@ -0,0 +1,206 @@
+package com.example.tubemindai.api;
+
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.utils.ConnectivityMonitor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.ByteString;
+
+/**
+ * Guards API calls with a CircuitBreaker per endpoint group and keeps the last good body of
+ * each GET, so reads keep working from a stale copy while the backend is down or tripped.
+ * A 429 is backpressure, not a sign of an unhealthy backend - it never counts as a failure.
+ *
+ * Stale responses are ordinary 200s carrying the STALE_HEADER - screens check isStale()
+ * to tell the user they are looking at saved data.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+    public static final String STALE_HEADER = "X-TubeMind-Stale";
+
+    // A read slower than this counts as a failure even though it succeeded
+    private static final long SLOW_CALL_MS = 10_000;
+
+    private static final int STALE_CACHE_BYTES = 1024 * 1024;
+    private static final int MAX_STALE_ENTRY_BYTES = 256 * 1024;
+
+    private static final LruCache<String, StaleEntry> staleResponses = new LruCache<String, StaleEntry>(STALE_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, StaleEntry value) {
+            return value.body.length;
+        }
+    };
+
+    private static class StaleEntry {
+        final byte[] body;
+        @Nullable final MediaType contentType;
+
+        StaleEntry(byte[] body, @Nullable MediaType contentType) {
+            this.body = body;
+            this.contentType = contentType;
+        }
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.tag(EndpointSelector.Endpoint.class) != null) {
+            // Replica health probes must reach a backend even while its group is tripped
+            return chain.proceed(request);
+        }
+        if (ConnectivityMonitor.isKnownOffline()) {
+            // No network is not the backend's fault - leave the breaker alone and answer from the saved copy
+            return staleOrThrow(request, new ConnectivityMonitor.OfflineException());
+        }
+        CircuitBreaker breaker = CircuitBreaker.forGroup(groupOf(request.url()));
+
+        if (!breaker.tryAcquire()) {
+            return staleOrThrow(request, new CircuitBreaker.OpenException(breaker.getGroup()));
+        }
+
+        long startNs = System.nanoTime();
+        Response response = null;
+        boolean reported = false;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            reported = true;
+            if (chain.call().isCanceled() || ConnectivityMonitor.isKnownOffline()
+                    || e instanceof RateLimiter.RateLimitedException) {
+                breaker.onIgnored();
+                throw e;
+            }
+            breaker.onFailure();
+            return staleOrThrow(request, e);
+        } finally {
+            if (response == null && !reported) {
+                // A RuntimeException from further down - not the backend's fault, but a
+                // HALF_OPEN trial left in flight would keep the breaker open for good
+                breaker.onIgnored();
+            }
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+        int code = response.code();
+        boolean overloaded = code >= 500;
+        // Generation and chat POSTs are slow by design - only reads are judged on latency
+        boolean slowRead = request.method().equals("GET") && elapsedMs > SLOW_CALL_MS;
+        if (code == 429) {
+            // Rate limited - the caller honours Retry-After; the backend itself is fine
+            breaker.onIgnored();
+        } else if (overloaded || slowRead) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+
+        if (overloaded) {
+            Response stale = staleResponse(request);
+            if (stale != null) {
+                response.close();
+                return stale;
+            }
+        } else if (response.isSuccessful()) {
+            remember(request, response);
+        }
+        return response;
+    }
+
+    /**
+     * Whether a Retrofit response was served from the last-known-good copy
+     */
+    public static boolean isStale(retrofit2.Response<?> response) {
+        return response.headers().get(STALE_HEADER) != null;
+    }
+
+    /**
+     * Drop every saved body, e.g. on logout
+     */
+    public static void clearStaleResponses() {
+        staleResponses.evictAll();
+    }
+
+    /**
+     * "api/video/..." -> "video"; anything outside /api (e.g. /health) is its own group
+     */
+    static String groupOf(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        if (segments.size() >= 2 && segments.get(0).equals("api")) {
+            return segments.get(1);
+        }
+        return "root";
+    }
+
+    private static Response staleOrThrow(Request request, IOException error) throws IOException {
+        Response stale = staleResponse(request);
+        if (stale == null) {
+            throw error;
+        }
+        return stale;
+    }
+
+    private static void remember(Request request, Response response) throws IOException {
+        String key = staleKey(request);
+        if (key == null || ApiClient.isStreaming(request)) {
+            return;
+        }
+        ResponseBody peeked = response.peekBody(MAX_STALE_ENTRY_BYTES + 1);
+        byte[] bytes = peeked.bytes();
+        if (bytes.length <= MAX_STALE_ENTRY_BYTES) {
+            staleResponses.put(key, new StaleEntry(bytes, peeked.contentType()));
+        }
+    }
+
+    @Nullable
+    private static Response staleResponse(Request request) {
+        String key = staleKey(request);
+        StaleEntry entry = key != null ? staleResponses.get(key) : null;
+        if (entry == null) {
+            return null;
+        }
+        android.util.Log.d("CircuitBreaker", "Serving stale " + request.url().encodedPath());
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK (stale)")
+                .header(STALE_HEADER, "1")
+                .body(ResponseBody.create(entry.body, entry.contentType));
+        if (entry.contentType != null) {
+            builder.header("Content-Type", entry.contentType.toString());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Only GETs are replayed, and never the change feed (an old sync token would rewind it)
+     * or auth. The key includes a SHA-256 of the token so one user's data is never shown to
+     * another - a String hash collides far too easily for that.
+     */
+    @Nullable
+    private static String staleKey(Request request) {
+        if (!request.method().equals("GET")) {
+            return null;
+        }
+        String group = groupOf(request.url());
+        if (group.equals("sync") || group.equals("auth")) {
+            return null;
+        }
+        String auth = request.header("Authorization");
+        return (auth != null ? ByteString.encodeUtf8(auth).sha256().hex() : "-") + " " + request.url();
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.tubemindai.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Call;
+import retrofit2.Callback;
+
+/**
+ * Routes API calls to the fastest healthy backend replica.
+ *
+ * Retrofit is built against ApiConfig.BASE_URL; this interceptor rewrites each backend request
+ * to the selected endpoint, so switching replicas needs no new Retrofit instance. Each endpoint
+ * keeps a moving-average RTT from GETs and health checks. A connection failure or 502-504 marks
+ * it unhealthy (a timed-out POST does not - note generation is slow by design), and the next attempt (RetryInterceptor) goes to another replica. Unhealthy
+ * endpoints are re-checked with healthCheck() before they get traffic again.
+ */
+public class EndpointSelector implements Interceptor {
+    private static final String TAG = "EndpointSelector";
+
+    // Weight of the newest RTT sample in the moving average
+    private static final double RTT_ALPHA = 0.3;
+    private static final long RECHECK_UNHEALTHY_MS = 30_000;
+    // Healthy replicas that get no traffic are re-measured this often so the ranking stays current
+    private static final long PROBE_ALL_INTERVAL_MS = 5 * 60_000;
+
+    private static EndpointSelector instance;
+
+    /**
+     * One backend replica. Pass it as the @Tag of a call to pin that call to it.
+     */
+    public static class Endpoint {
+        final HttpUrl baseUrl;
+        double averageRttMs = -1;    // -1 until the first sample
+        boolean healthy = true;
+        long lastCheckMs;
+        boolean checkInFlight;
+
+        Endpoint(HttpUrl baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public String getBaseUrl() {
+            return baseUrl.toString();
+        }
+    }
+
+    // The URL Retrofit was built with - requests under it are backend requests
+    private final HttpUrl placeholder = HttpUrl.get(ApiConfig.BASE_URL);
+    private List<Endpoint> endpoints = new ArrayList<>();
+    private long lastProbeAllMs;
+
+    private EndpointSelector(List<String> baseUrls) {
+        setEndpoints(baseUrls);
+    }
+
+    public static synchronized EndpointSelector get() {
+        if (instance == null) {
+            List<String> urls = new ArrayList<>();
+            Collections.addAll(urls, ApiConfig.BASE_URLS);
+            instance = new EndpointSelector(urls);
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the replica list, e.g. from settings. Takes effect on the next request.
+     */
+    public synchronized void setEndpoints(List<String> baseUrls) {
+        if (baseUrls == null || baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one backend URL is required");
+        }
+        List<Endpoint> updated = new ArrayList<>();
+        for (String url : baseUrls) {
+            updated.add(new Endpoint(HttpUrl.get(url.endsWith("/") ? url : url + "/")));
+        }
+        endpoints = updated;
+        lastProbeAllMs = 0;
+    }
+
+    /**
+     * Base URL requests are currently sent to (for diagnostics and error messages)
+     */
+    public synchronized String currentBaseUrl() {
+        // Only reads the ranking - unlike select() it never starts a health check
+        return best().getBaseUrl();
+    }
+
+    /**
+     * Health-check every replica now, refreshing health and RTT
+     */
+    public void checkAll() {
+        List<Endpoint> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(endpoints);
+            lastProbeAllMs = System.currentTimeMillis();
+        }
+        for (Endpoint endpoint : snapshot) {
+            checkHealth(endpoint);
+        }
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isBackendRequest(request.url())) {
+            return chain.proceed(request);
+        }
+
+        Endpoint pinned = request.tag(Endpoint.class);
+        Endpoint endpoint = pinned != null ? pinned : select();
+        Request routed = request.newBuilder().url(rewrite(request.url(), endpoint.baseUrl)).build();
+
+        long startMs = System.currentTimeMillis();
+        Response response;
+        try {
+            response = chain.proceed(routed);
+        } catch (IOException e) {
+            // Same rule as the RTT below: a POST that times out is waiting on generation, not the network
+            boolean slowPost = e instanceof InterruptedIOException && !request.method().equals("GET");
+            if (!chain.call().isCanceled() && !slowPost) {
+                markUnhealthy(endpoint, e.toString());
+            }
+            throw e;
+        }
+
+        int code = response.code();
+        if (code == 502 || code == 503 || code == 504) {
+            markUnhealthy(endpoint, "HTTP " + code);
+        } else if (request.method().equals("GET")) {
+            // POST timings are dominated by note generation, not by the network
+            recordRtt(endpoint, System.currentTimeMillis() - startMs);
+        }
+        return response;
+    }
+
+    /**
+     * The endpoint for a request, scheduling the health checks that keep the ranking current
+     */
+    private synchronized Endpoint select() {
+        long now = System.currentTimeMillis();
+        if (endpoints.size() > 1 && now - lastProbeAllMs > PROBE_ALL_INTERVAL_MS) {
+            lastProbeAllMs = now;
+            for (Endpoint endpoint : endpoints) {
+                scheduleCheck(endpoint);
+            }
+        }
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.healthy && now - endpoint.lastCheckMs > RECHECK_UNHEALTHY_MS) {
+                scheduleCheck(endpoint);
+            }
+        }
+        return best();
+    }
+
+    /**
+     * Healthy endpoint with the lowest average RTT; when none is healthy, the one checked longest ago
+     */
+    private synchronized Endpoint best() {
+        Endpoint best = null;
+        Endpoint oldestUnhealthy = null;
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.healthy) {
+                if (oldestUnhealthy == null || endpoint.lastCheckMs < oldestUnhealthy.lastCheckMs) {
+                    oldestUnhealthy = endpoint;
+                }
+            } else if (best == null || rank(endpoint) < rank(best)) {
+                best = endpoint;
+            }
+        }
+        return best != null ? best : oldestUnhealthy;
+    }
+
+    private static double rank(Endpoint endpoint) {
+        // Unmeasured replicas rank behind measured ones but are still used if nothing else is up
+        return endpoint.averageRttMs < 0 ? Double.MAX_VALUE : endpoint.averageRttMs;
+    }
+
+    private synchronized void recordRtt(Endpoint endpoint, long rttMs) {
+        endpoint.averageRttMs = endpoint.averageRttMs < 0
+                ? rttMs
+                : RTT_ALPHA * rttMs + (1 - RTT_ALPHA) * endpoint.averageRttMs;
+        endpoint.healthy = true;
+    }
+
+    private synchronized void markUnhealthy(Endpoint endpoint, String reason) {
+        if (endpoint.healthy) {
+            android.util.Log.w(TAG, endpoint.baseUrl + " unhealthy: " + reason);
+        }
+        endpoint.healthy = false;
+        endpoint.lastCheckMs = System.currentTimeMillis();
+    }
+
+    private void scheduleCheck(Endpoint endpoint) {
+        // Called with the lock held - the check itself runs on OkHttp's dispatcher
+        if (!endpoint.checkInFlight) {
+            endpoint.checkInFlight = true;
+            endpoint.lastCheckMs = System.currentTimeMillis();
+            checkHealth(endpoint);
+        }
+    }
+
+    private void checkHealth(Endpoint endpoint) {
+        ApiClient.getApiService().healthCheck(endpoint).enqueue(new Callback<Object>() {
+            @Override
+            public void onResponse(Call<Object> call, retrofit2.Response<Object> response) {
+                // RTT was recorded by intercept(); only a 5xx left it unhealthy
+                synchronized (EndpointSelector.this) {
+                    endpoint.checkInFlight = false;
+                    endpoint.lastCheckMs = System.currentTimeMillis();
+                    endpoint.healthy = response.isSuccessful();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Object> call, Throwable t) {
+                synchronized (EndpointSelector.this) {
+                    endpoint.checkInFlight = false;
+                    endpoint.lastCheckMs = System.currentTimeMillis();
+                    endpoint.healthy = false;
+                }
+            }
+        });
+    }
+
+    private boolean isBackendRequest(HttpUrl url) {
+        return url.scheme().equals(placeholder.scheme())
+                && url.host().equals(placeholder.host())
+                && url.port() == placeholder.port()
+                && url.encodedPath().startsWith(placeholder.encodedPath());
+    }
+
+    private HttpUrl rewrite(HttpUrl url, HttpUrl base) {
+        if (base.equals(placeholder)) {
+            return url;
+        }
+        String relativePath = url.encodedPath().substring(placeholder.encodedPath().length());
+        return url.newBuilder()
+                .scheme(base.scheme())
+                .host(base.host())
+                .port(base.port())
+                .encodedPath(base.encodedPath() + relativePath)
+                .build();
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.tubemindai.api;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Hedged reads: if an idempotent GET has not answered within the p95 latency of its group,
+ * a duplicate is sent and whichever answers first wins - the other is cancelled.
+ *
+ * Hedges are paid from a budget that every read tops up by BUDGET_PER_CALL, so at most about
+ * 10% extra load reaches the backend even when it is uniformly slow. Everything runs on the
+ * main thread (Retrofit's callback executor), so no locking is needed.
+ */
+public class HedgedCall {
+    private static final String TAG = "HedgedCall";
+
+    public static final String GROUP_VIDEO_NOTES = "video.notes";
+    public static final String GROUP_PDF_NOTES = "pdf.notes";
+    public static final String GROUP_VIDEO_CHAT_HISTORY = "video.chat_history";
+
+    private static final int LATENCY_WINDOW = 100;
+    private static final int MIN_SAMPLES = 20;
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final long DEFAULT_DELAY_MS = 1_000;
+    private static final long MIN_DELAY_MS = 100;
+    private static final long MAX_DELAY_MS = 3_000;
+
+    private static final double BUDGET_PER_CALL = 0.1;
+    private static final double MAX_BUDGET = 10;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Map<String, LatencyWindow> latencies = new HashMap<>();
+    private static double budget = 1;
+
+    private static long reads;
+    private static long hedgesSent;
+    private static long hedgesWon;
+    private static long hedgesSkipped;
+
+    /**
+     * Enqueue a read, hedging it if it is slow. Only use for idempotent GETs.
+     */
+    public static <T> void enqueue(Call<T> call, String group, Callback<T> callback) {
+        if (!ApiConfig.USE_HEDGED_READS) {
+            call.enqueue(callback);
+            return;
+        }
+        new Attempt<>(call, group, callback).start();
+    }
+
+    // ========== STATS ==========
+
+    public static long getHedgesSent() {
+        return hedgesSent;
+    }
+
+    public static long getHedgesWon() {
+        return hedgesWon;
+    }
+
+    /**
+     * Fraction of hedges that answered before the original request, 0 if none were sent
+     */
+    public static float getHedgeWinRate() {
+        return hedgesSent == 0 ? 0f : (float) hedgesWon / hedgesSent;
+    }
+
+    public static String stats() {
+        return "HedgedCall{reads=" + reads
+                + ", hedges=" + hedgesSent
+                + ", won=" + hedgesWon
+                + ", skippedNoBudget=" + hedgesSkipped + "}";
+    }
+
+    // ========== HELPERS ==========
+
+    static long hedgeDelayMs(String group) {
+        LatencyWindow window = latencies.get(group);
+        if (window == null || window.count < MIN_SAMPLES) {
+            return DEFAULT_DELAY_MS;
+        }
+        return Math.max(MIN_DELAY_MS, Math.min(MAX_DELAY_MS, window.percentile(HEDGE_PERCENTILE)));
+    }
+
+    private static void recordLatency(String group, long latencyMs) {
+        LatencyWindow window = latencies.get(group);
+        if (window == null) {
+            window = new LatencyWindow();
+            latencies.put(group, window);
+        }
+        window.add(latencyMs);
+    }
+
+    /**
+     * Ring buffer of the last LATENCY_WINDOW successful latencies
+     */
+    private static class LatencyWindow {
+        final long[] samples = new long[LATENCY_WINDOW];
+        int count;
+        int next;
+
+        void add(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        long percentile(double p) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            return sorted[Math.min(count - 1, (int) Math.ceil(p * count) - 1)];
+        }
+    }
+
+    /**
+     * One logical read: the original call plus at most one hedge
+     */
+    private static class Attempt<T> {
+        private final Call<T> primary;
+        private final String group;
+        private final Callback<T> callback;
+        private final Runnable hedgeTimer = this::sendHedge;
+        private long startMs;
+        private Call<T> hedge;
+        private int outstanding;
+        private boolean done;
+        // Kept while the other leg may still succeed
+        private Response<T> lastErrorResponse;
+
+        Attempt(Call<T> primary, String group, Callback<T> callback) {
+            this.primary = primary;
+            this.group = group;
+            this.callback = callback;
+        }
+
+        void start() {
+            reads++;
+            budget = Math.min(MAX_BUDGET, budget + BUDGET_PER_CALL);
+            startMs = System.currentTimeMillis();
+            outstanding = 1;
+            primary.enqueue(new Leg(primary, false));
+            mainHandler.postDelayed(hedgeTimer, hedgeDelayMs(group));
+        }
+
+        private void sendHedge() {
+            if (done) {
+                return;
+            }
+            if (budget < 1) {
+                hedgesSkipped++;
+                return;
+            }
+            budget -= 1;
+            hedgesSent++;
+            hedge = primary.clone();
+            outstanding++;
+            hedge.enqueue(new Leg(hedge, true));
+        }
+
+        private void finish(Call<T> winner, boolean wonByHedge, Response<T> response, Throwable failure) {
+            done = true;
+            mainHandler.removeCallbacks(hedgeTimer);
+            Call<T> loser = winner == primary ? hedge : primary;
+            if (loser != null) {
+                loser.cancel();
+            }
+            if (response != null && response.isSuccessful()) {
+                recordLatency(group, System.currentTimeMillis() - startMs);
+                if (wonByHedge) {
+                    hedgesWon++;
+                    android.util.Log.d(TAG, group + " answered by hedge - " + stats());
+                }
+            }
+            if (response != null) {
+                callback.onResponse(winner, response);
+            } else {
+                callback.onFailure(winner, failure);
+            }
+        }
+
+        private class Leg implements Callback<T> {
+            private final Call<T> call;
+            private final boolean isHedge;
+
+            Leg(Call<T> call, boolean isHedge) {
+                this.call = call;
+                this.isHedge = isHedge;
+            }
+
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (done) {
+                    return;
+                }
+                outstanding--;
+                // Anything below 500 is the backend's real answer - no point waiting for the other leg
+                if (response.code() < 500 || outstanding == 0) {
+                    finish(this.call, isHedge, response, null);
+                } else {
+                    lastErrorResponse = response;
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if (done) {
+                    return;
+                }
+                outstanding--;
+                if (outstanding == 0) {
+                    // Prefer the other leg's HTTP error over a network failure
+                    finish(this.call, isHedge, lastErrorResponse, lastErrorResponse == null ? t : null);
+                }
+            }
+        }
+    }
+}
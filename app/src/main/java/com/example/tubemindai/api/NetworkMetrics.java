@@ -0,0 +1,134 @@
+package com.example.tubemindai.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+
+/**
+ * Wire-level counters for everything that goes through the shared OkHttp stack.
+ * API calls and image fetches are counted per channel so they can be compared side by side.
+ */
+public class NetworkMetrics {
+    public static final String CHANNEL_API = "api";
+    public static final String CHANNEL_IMAGE = "image";
+
+    private static final Channel API = new Channel(CHANNEL_API);
+    private static final Channel IMAGE = new Channel(CHANNEL_IMAGE);
+
+    public static Channel api() {
+        return API;
+    }
+
+    public static Channel image() {
+        return IMAGE;
+    }
+
+    public static long getTotalBytesReceived() {
+        return API.bytesReceived.get() + IMAGE.bytesReceived.get();
+    }
+
+    public static long getTotalBytesSent() {
+        return API.bytesSent.get() + IMAGE.bytesSent.get();
+    }
+
+    public static String summary() {
+        return API + ", " + IMAGE;
+    }
+
+    /**
+     * Counters for one logical channel (API or images)
+     */
+    public static class Channel {
+        private final String name;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong connectionsOpened = new AtomicLong();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final AtomicLong bytesReceived = new AtomicLong();
+
+        private Channel(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public long getConnectionsOpened() {
+            return connectionsOpened.get();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.get();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.get();
+        }
+
+        /**
+         * EventListener factory to install on the OkHttpClient serving this channel
+         */
+        public EventListener.Factory listenerFactory() {
+            return call -> new EventListener() {
+                @Override
+                public void callStart(@NonNull Call call) {
+                    calls.incrementAndGet();
+                }
+
+                @Override
+                public void connectEnd(@NonNull Call call, @NonNull java.net.InetSocketAddress inetSocketAddress,
+                                       @NonNull java.net.Proxy proxy, okhttp3.Protocol protocol) {
+                    connectionsOpened.incrementAndGet();
+                }
+
+                @Override
+                public void requestHeadersEnd(@NonNull Call call, @NonNull okhttp3.Request request) {
+                    bytesSent.addAndGet(request.headers().byteCount());
+                }
+
+                @Override
+                public void requestBodyEnd(@NonNull Call call, long byteCount) {
+                    bytesSent.addAndGet(byteCount);
+                }
+
+                @Override
+                public void responseHeadersEnd(@NonNull Call call, @NonNull okhttp3.Response response) {
+                    bytesReceived.addAndGet(response.headers().byteCount());
+                }
+
+                @Override
+                public void responseBodyEnd(@NonNull Call call, long byteCount) {
+                    bytesReceived.addAndGet(byteCount);
+                }
+
+                @Override
+                public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+                    failures.incrementAndGet();
+                }
+            };
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return name + "{calls=" + calls.get()
+                    + ", failures=" + failures.get()
+                    + ", connections=" + connectionsOpened.get()
+                    + ", sent=" + bytesSent.get()
+                    + ", received=" + bytesReceived.get() + "}";
+        }
+    }
+}
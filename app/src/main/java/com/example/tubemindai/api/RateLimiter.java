@@ -0,0 +1,206 @@
+package com.example.tubemindai.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Client-side token buckets for chat sends, one per endpoint scope.
+ *
+ * A request over the limit never reaches the network: ShapingInterceptor fails it at once with
+ * RateLimitedException, which says how long until a token is free. Nothing waits on an OkHttp
+ * dispatcher thread, so held sends neither hold a per-host connection slot nor outlive a
+ * cancel. ChatOutbox, which owns the chat sends, holds the message and tries again after
+ * that wait. The bucket starts from ApiConfig and follows the backend's RateLimit-Policy /
+ * RateLimit-Remaining headers once it has seen them; a 429 empties it until its Retry-After.
+ * Screens call expectedWaitMs() before sending to tell the user how long the message will be held.
+ */
+public class RateLimiter {
+    public static final String SCOPE_VIDEO_CHAT = "video.chat";
+    public static final String SCOPE_VIDEO_SPECULATIVE = "video.speculative";
+    public static final String SCOPE_PDF_CHAT = "pdf.chat";
+
+    private static final String TAG = "RateLimiter";
+
+    // "5;w=60" - limit and window in seconds
+    private static final Pattern POLICY = Pattern.compile("^\\s*(\\d+)\\s*;\\s*w\\s*=\\s*(\\d+)");
+    private static final Pattern VIDEO_CHAT_PATH = Pattern.compile("^/api/video/\\d+/chat$");
+    private static final Pattern VIDEO_SPECULATIVE_PATH = Pattern.compile("^/api/video/\\d+/chat/speculative$");
+    private static final Pattern PDF_CHAT_PATH = Pattern.compile("^/api/pdf/\\d+/chat$");
+
+    private static final Map<String, RateLimiter> limiters = new HashMap<>();
+
+    /**
+     * The scope's bucket is empty - nothing was sent. Try again after getWaitMs().
+     */
+    public static class RateLimitedException extends IOException {
+        private final long waitMs;
+
+        public RateLimitedException(String scope, long waitMs) {
+            super(scope + " rate limit reached, next send in " + waitMs + " ms");
+            this.waitMs = waitMs;
+        }
+
+        public long getWaitMs() {
+            return waitMs;
+        }
+    }
+
+    private double capacity;
+    private double refillPerMs;
+    private double tokens;
+    private long lastRefillMs;
+    // The server's Retry-After from a 429 - no token is handed out before this time
+    private long blockedUntilMs;
+
+    RateLimiter(int limit, int windowSeconds) {
+        setPolicy(limit, windowSeconds);
+        tokens = capacity;
+        lastRefillMs = System.currentTimeMillis();
+    }
+
+    public static synchronized RateLimiter forScope(String scope) {
+        RateLimiter limiter = limiters.get(scope);
+        if (limiter == null) {
+            int limit = SCOPE_VIDEO_SPECULATIVE.equals(scope)
+                    ? ApiConfig.SPECULATIVE_CHAT_RATE_LIMIT : ApiConfig.CHAT_RATE_LIMIT;
+            limiter = new RateLimiter(limit, ApiConfig.CHAT_RATE_LIMIT_WINDOW_SECONDS);
+            limiters.put(scope, limiter);
+        }
+        return limiter;
+    }
+
+    /**
+     * How long a send made now would be held back, 0 if it would go out immediately
+     */
+    public synchronized long expectedWaitMs() {
+        refill();
+        long blockedMs = Math.max(0, blockedUntilMs - System.currentTimeMillis());
+        long bucketMs = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / refillPerMs);
+        return Math.max(blockedMs, bucketMs);
+    }
+
+    /**
+     * Whether a send made now leaves at least reserve tokens for the user - background
+     * sends use this so they never delay something the user typed
+     */
+    public synchronized boolean hasSpare(int reserve) {
+        return expectedWaitMs() == 0 && tokens >= reserve + 1;
+    }
+
+    /**
+     * Take a token if one is free and return 0, otherwise take nothing and return how long
+     * until one will be
+     */
+    synchronized long tryAcquire() {
+        long waitMs = expectedWaitMs();
+        if (waitMs == 0) {
+            tokens -= 1;
+        }
+        return waitMs;
+    }
+
+    synchronized void onServerHeaders(Response response) {
+        if (response.code() == 429) {
+            // The server is out of tokens for us whatever our bucket says
+            refill();
+            tokens = Math.min(tokens, 0);
+            long retryAfterMs = retryAfterMillis(response);
+            if (retryAfterMs > 0) {
+                blockedUntilMs = Math.max(blockedUntilMs, System.currentTimeMillis() + retryAfterMs);
+            }
+        }
+        String policy = response.header("RateLimit-Policy");
+        if (policy != null) {
+            Matcher matcher = POLICY.matcher(policy);
+            if (matcher.find()) {
+                setPolicy(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            }
+        }
+        String remaining = response.header("RateLimit-Remaining");
+        if (remaining != null) {
+            try {
+                // The server's count is authoritative, but never hand back tokens we reserved
+                refill();
+                tokens = Math.min(tokens, Integer.parseInt(remaining.trim()));
+            } catch (NumberFormatException e) {
+                android.util.Log.w(TAG, "Bad RateLimit-Remaining: " + remaining);
+            }
+        }
+    }
+
+    /**
+     * Retry-After as delta-seconds in milliseconds, -1 if absent or not a number
+     */
+    static long retryAfterMillis(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void setPolicy(int limit, int windowSeconds) {
+        capacity = Math.max(1, limit);
+        refillPerMs = capacity / (Math.max(1, windowSeconds) * 1000.0);
+        tokens = Math.min(tokens, capacity);
+    }
+
+    private void refill() {
+        long now = System.currentTimeMillis();
+        tokens = Math.min(capacity, tokens + (now - lastRefillMs) * refillPerMs);
+        lastRefillMs = now;
+    }
+
+    static String scopeOf(Request request) {
+        if (!request.method().equals("POST")) {
+            return null;
+        }
+        String path = request.url().encodedPath();
+        if (VIDEO_CHAT_PATH.matcher(path).matches()) {
+            return SCOPE_VIDEO_CHAT;
+        } else if (VIDEO_SPECULATIVE_PATH.matcher(path).matches()) {
+            return SCOPE_VIDEO_SPECULATIVE;
+        } else if (PDF_CHAT_PATH.matcher(path).matches()) {
+            return SCOPE_PDF_CHAT;
+        }
+        return null;
+    }
+
+    /**
+     * Lets a rate-limited request through only if its bucket has a token for it
+     */
+    public static class ShapingInterceptor implements Interceptor {
+        @NonNull
+        @Override
+        public Response intercept(@NonNull Chain chain) throws IOException {
+            Request request = chain.request();
+            String scope = scopeOf(request);
+            if (scope == null) {
+                return chain.proceed(request);
+            }
+
+            RateLimiter limiter = forScope(scope);
+            long waitMs = limiter.tryAcquire();
+            if (waitMs > 0) {
+                android.util.Log.d(TAG, scope + " send held for " + waitMs + " ms");
+                throw new RateLimitedException(scope, waitMs);
+            }
+            Response response = chain.proceed(request);
+            limiter.onServerHeaders(response);
+            return response;
+        }
+    }
+}
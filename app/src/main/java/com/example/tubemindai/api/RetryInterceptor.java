@@ -0,0 +1,150 @@
+package com.example.tubemindai.api;
+
+import androidx.annotation.NonNull;
+
+import com.example.tubemindai.utils.ConnectivityMonitor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries failed calls with exponential backoff and full jitter, honouring Retry-After.
+ *
+ * Only requests that are safe to repeat are retried: idempotent methods (GET, HEAD, PUT,
+ * DELETE) and POSTs carrying an Idempotency-Key, which the backend answers with the
+ * original result instead of running the AI job again.
+ *
+ * A POST that timed out waiting for its response is not retried: those are the notes and chat
+ * generation calls, where each attempt may already have waited the full read timeout and the
+ * server is most likely still generating. The same goes for 408 and 504 answers to a POST.
+ */
+public class RetryInterceptor implements Interceptor {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY_MS = 500;
+    private static final long MAX_DELAY_MS = 8_000;
+    // A server asking us to wait longer than this gets the error back instead - the user can retry
+    private static final long MAX_RETRY_AFTER_MS = 30_000;
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isRetryable(request)) {
+            return chain.proceed(request);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS || chain.call().isCanceled()
+                        || ConnectivityMonitor.isKnownOffline() || isGenerationTimeout(request, e)
+                        || e instanceof RateLimiter.RateLimitedException) {
+                    // Retrying without a network only burns the backoff - the caller can wait for reconnect
+                    throw e;
+                }
+                sleep(backoffMillis(attempt));
+                continue;
+            }
+
+            if (attempt >= MAX_ATTEMPTS || !isRetryableResponse(request, response)) {
+                return response;
+            }
+            long delay = retryAfterMillis(response);
+            if (delay > MAX_RETRY_AFTER_MS) {
+                return response;
+            }
+            if (delay < 0) {
+                delay = backoffMillis(attempt);
+            }
+            response.close();
+            sleep(delay);
+        }
+    }
+
+    private static boolean isRetryable(Request request) {
+        if (request.tag(EndpointSelector.Endpoint.class) != null) {
+            // Health probes pin one replica - their failure is the answer, not something to retry
+            return false;
+        }
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+                return true;
+            default:
+                return request.header(IDEMPOTENCY_KEY_HEADER) != null;
+        }
+    }
+
+    /**
+     * A POST whose response did not arrive in time - it reached the server, which is still working on it
+     */
+    private static boolean isGenerationTimeout(Request request, IOException e) {
+        return "POST".equals(request.method()) && e instanceof SocketTimeoutException;
+    }
+
+    private static boolean isRetryableResponse(Request request, Response response) {
+        switch (response.code()) {
+            case 408: // Request timeout
+            case 504: // Gateway timeout
+                // For a POST the generation may still be running behind the timeout
+                return !"POST".equals(request.method());
+            case 429: // Too many requests
+                // Chat sends are held by ChatOutbox until Retry-After instead of sleeping here
+                return RateLimiter.scopeOf(request) == null;
+            case 502: // Bad gateway
+            case 503: // Service unavailable
+                return true;
+            case 409:
+                // Same Idempotency-Key still running on the server - it tells us when to come back
+                return response.header("Retry-After") != null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Full jitter: a random delay between 0 and min(cap, base * 2^(attempt - 1))
+     */
+    static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Retry-After in milliseconds (delta-seconds or HTTP date), -1 if absent or unparseable
+     */
+    private static long retryAfterMillis(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = response.headers().getDate("Retry-After");
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : -1;
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Retry interrupted");
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.tubemindai.api;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Streams a JSON list envelope such as {"users": [...], "total": 120} with Gson's JsonReader
+ * and hands the rows to the main thread in batches while the body is still downloading.
+ *
+ * The call must be declared with @Streaming so Retrofit does not buffer the body.
+ * At most MAX_PENDING_BATCHES parsed batches wait for the main thread - when the UI falls
+ * behind, parsing pauses instead of piling up rows, so large lists never sit in memory twice.
+ */
+public class StreamingListLoader {
+    // Small first batch so the first rows paint as early as possible
+    public static final int FIRST_BATCH_SIZE = 10;
+    public static final int BATCH_SIZE = 25;
+    private static final int MAX_PENDING_BATCHES = 4;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Gson gson = new Gson();
+
+    /**
+     * Receives the stream on the main thread
+     */
+    public interface Listener<T> {
+        void onItems(List<T> batch);
+
+        /**
+         * All rows delivered. total is the envelope's "total" field, or -1 if it had none.
+         */
+        void onComplete(int total);
+
+        /**
+         * errorResponse is set for HTTP errors (error body is buffered), error for network or parse failures
+         */
+        void onError(Response<?> errorResponse, Throwable error);
+    }
+
+    /**
+     * Handle to a running stream - cancel it when its rows are no longer wanted (e.g. a new search)
+     */
+    public static class Handle {
+        private final Call<ResponseBody> call;
+        private volatile boolean cancelled;
+
+        private Handle(Call<ResponseBody> call) {
+            this.call = call;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            call.cancel();
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Start streaming the array named arrayField out of the response body
+     */
+    public static <T> Handle load(Call<ResponseBody> call, String arrayField, Class<T> itemClass, Listener<T> listener) {
+        Handle handle = new Handle(call);
+        executor.execute(() -> run(handle, arrayField, itemClass, listener));
+        return handle;
+    }
+
+    private static <T> void run(Handle handle, String arrayField, Class<T> itemClass, Listener<T> listener) {
+        Semaphore pending = new Semaphore(MAX_PENDING_BATCHES);
+        Response<ResponseBody> response;
+        try {
+            response = handle.call.execute();
+        } catch (IOException e) {
+            post(handle, () -> listener.onError(null, e));
+            return;
+        }
+
+        if (!response.isSuccessful() || response.body() == null) {
+            post(handle, () -> listener.onError(response, null));
+            return;
+        }
+
+        int total = -1;
+        try (ResponseBody body = response.body();
+             JsonReader reader = new JsonReader(body.charStream())) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(arrayField) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    readArray(handle, reader, itemClass, listener, pending);
+                } else if (name.equals("total") && reader.peek() == JsonToken.NUMBER) {
+                    total = reader.nextInt();
+                } else {
+                    reader.skipValue();
+                }
+                if (handle.isCancelled()) {
+                    return;
+                }
+            }
+            reader.endObject();
+        } catch (Exception e) {
+            post(handle, () -> listener.onError(null, e));
+            return;
+        }
+
+        int finalTotal = total;
+        post(handle, () -> listener.onComplete(finalTotal));
+    }
+
+    private static <T> void readArray(Handle handle, JsonReader reader, Class<T> itemClass,
+                                      Listener<T> listener, Semaphore pending)
+            throws IOException, InterruptedException {
+        int batchSize = FIRST_BATCH_SIZE;
+        List<T> batch = new ArrayList<>(batchSize);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            batch.add(gson.fromJson(reader, itemClass));
+            if (batch.size() >= batchSize) {
+                deliver(handle, batch, listener, pending);
+                if (handle.isCancelled()) {
+                    return;
+                }
+                batchSize = BATCH_SIZE;
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        reader.endArray();
+        if (!batch.isEmpty()) {
+            deliver(handle, batch, listener, pending);
+        }
+    }
+
+    private static <T> void deliver(Handle handle, List<T> batch, Listener<T> listener, Semaphore pending)
+            throws InterruptedException {
+        // Blocks while the main thread still has MAX_PENDING_BATCHES to bind
+        pending.acquire();
+        mainHandler.post(() -> {
+            pending.release();
+            if (!handle.isCancelled()) {
+                listener.onItems(batch);
+            }
+        });
+    }
+
+    private static void post(Handle handle, Runnable runnable) {
+        mainHandler.post(() -> {
+            if (!handle.isCancelled()) {
+                runnable.run();
+            }
+        });
+    }
+}
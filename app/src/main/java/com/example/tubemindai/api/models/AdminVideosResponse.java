@@ -45,6 +45,7 @@ public class AdminVideosResponse {
         private String video_id;
         private String title;
         private String thumbnail_url;
+        private String thumbnail_hash;
         private int user_id;
         private String user_name;
         private String user_email;
@@ -60,6 +61,8 @@ public class AdminVideosResponse {
         public void setTitle(String title) { this.title = title; }
         public String getThumbnailUrl() { return thumbnail_url; }
         public void setThumbnailUrl(String thumbnail_url) { this.thumbnail_url = thumbnail_url; }
+        public String getThumbnailHash() { return thumbnail_hash; }
+        public void setThumbnailHash(String thumbnail_hash) { this.thumbnail_hash = thumbnail_hash; }
         public int getUserId() { return user_id; }
         public void setUserId(int user_id) { this.user_id = user_id; }
         public String getUserName() { return user_name; }
@@ -2,11 +2,38 @@ package com.example.tubemindai.api.models;
 
 public class ChatMessageRequest {
     private String message;
+    private String client_message_id;
+    private Boolean speculative; // Left out of the JSON unless set
+    private Boolean cached; // Left out of the JSON unless set
 
     public ChatMessageRequest(String message) {
         this.message = message;
     }
 
+    public ChatMessageRequest(String message, String clientMessageId) {
+        this.message = message;
+        this.client_message_id = clientMessageId;
+    }
+
+    /**
+     * A prefetched suggestion - the server answers it without adding it to the chat history
+     */
+    public static ChatMessageRequest speculative(String message) {
+        ChatMessageRequest request = new ChatMessageRequest(message);
+        request.speculative = true;
+        return request;
+    }
+
+    /**
+     * A question the app already answered from its cache - the server stores the answer it
+     * gave before instead of generating one
+     */
+    public static ChatMessageRequest cached(String message, String clientMessageId) {
+        ChatMessageRequest request = new ChatMessageRequest(message, clientMessageId);
+        request.cached = true;
+        return request;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -14,5 +41,9 @@ public class ChatMessageRequest {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public String getClientMessageId() {
+        return client_message_id;
+    }
 }
 
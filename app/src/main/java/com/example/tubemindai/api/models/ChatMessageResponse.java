@@ -1,11 +1,18 @@
 package com.example.tubemindai.api.models;
 
+import com.google.gson.annotations.SerializedName;
+
 public class ChatMessageResponse {
     private int id;
     private String message;
     private String response;
     private boolean isUserMessage;
     private String createdAt;
+    @SerializedName("client_message_id")
+    private String clientMessageId;
+    // The apology sent when generation failed - nothing was stored on the server
+    @SerializedName("is_fallback")
+    private boolean fallback;
 
     public ChatMessageResponse() {
     }
@@ -42,6 +49,18 @@ public class ChatMessageResponse {
         isUserMessage = userMessage;
     }
 
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
+    }
+
+    public boolean isFallback() {
+        return fallback;
+    }
+
     public String getCreatedAt() {
         return createdAt;
     }
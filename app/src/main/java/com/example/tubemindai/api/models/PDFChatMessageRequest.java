@@ -2,12 +2,30 @@ package com.example.tubemindai.api.models;
 
 public class PDFChatMessageRequest {
     private String message;
+    private String client_message_id;
+    private Boolean cached; // Left out of the JSON unless set
 
     public PDFChatMessageRequest(String message) {
         this.message = message;
     }
 
+    public PDFChatMessageRequest(String message, String clientMessageId) {
+        this.message = message;
+        this.client_message_id = clientMessageId;
+    }
+
+    /**
+     * A question the app already answered from its cache - the server stores the answer it
+     * gave before instead of generating one
+     */
+    public static PDFChatMessageRequest cached(String message, String clientMessageId) {
+        PDFChatMessageRequest request = new PDFChatMessageRequest(message, clientMessageId);
+        request.cached = true;
+        return request;
+    }
+
     public String getMessage() { return message; }
     public void setMessage(String message) { this.message = message; }
+    public String getClientMessageId() { return client_message_id; }
 }
 
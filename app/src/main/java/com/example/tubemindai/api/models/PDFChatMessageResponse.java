@@ -7,7 +7,9 @@ public class PDFChatMessageResponse {
     private String message;
     private String response;
     private boolean is_user_message;
+    private String client_message_id;
     private Date created_at;
+    private boolean is_fallback; // The apology sent when generation failed - nothing was stored
 
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
@@ -17,7 +19,10 @@ public class PDFChatMessageResponse {
     public void setResponse(String response) { this.response = response; }
     public boolean isUserMessage() { return is_user_message; }
     public void setUserMessage(boolean is_user_message) { this.is_user_message = is_user_message; }
+    public String getClientMessageId() { return client_message_id; }
+    public void setClientMessageId(String client_message_id) { this.client_message_id = client_message_id; }
     public Date getCreatedAt() { return created_at; }
     public void setCreatedAt(Date created_at) { this.created_at = created_at; }
+    public boolean isFallback() { return is_fallback; }
 }
 
@@ -0,0 +1,49 @@
+package com.example.tubemindai.api.models;
+
+import java.util.List;
+
+/**
+ * Change feed from GET api/sync/changes - rows created, updated or deleted since the sync token.
+ * When reset is true the lists are a full snapshot and replace the local copy.
+ * The feed also carries PDF rows, which the app does not keep locally, so they are not mapped here.
+ */
+public class SyncChangesResponse {
+    public static final String TYPE_VIDEO = "video";
+    public static final String TYPE_PDF = "pdf";
+
+    private List<VideoListItem> videos;
+    private List<ChatHistoryItem> chat_histories;
+    private List<PDFChatHistoryListResponse.PDFChatHistoryItem> pdf_chat_histories;
+    private List<DeletedItem> deleted;
+    private String sync_token;
+    private boolean reset;
+
+    public List<VideoListItem> getVideos() { return videos; }
+    public void setVideos(List<VideoListItem> videos) { this.videos = videos; }
+    public List<ChatHistoryItem> getChatHistories() { return chat_histories; }
+    public void setChatHistories(List<ChatHistoryItem> chat_histories) { this.chat_histories = chat_histories; }
+    public List<PDFChatHistoryListResponse.PDFChatHistoryItem> getPdfChatHistories() { return pdf_chat_histories; }
+    public void setPdfChatHistories(List<PDFChatHistoryListResponse.PDFChatHistoryItem> pdf_chat_histories) { this.pdf_chat_histories = pdf_chat_histories; }
+    public List<DeletedItem> getDeleted() { return deleted; }
+    public void setDeleted(List<DeletedItem> deleted) { this.deleted = deleted; }
+    public String getSyncToken() { return sync_token; }
+    public void setSyncToken(String sync_token) { this.sync_token = sync_token; }
+    public boolean isReset() { return reset; }
+    public void setReset(boolean reset) { this.reset = reset; }
+
+    /**
+     * Tombstone for a deleted video or PDF
+     */
+    public static class DeletedItem {
+        private String entity_type;
+        private int entity_id;
+        private String deleted_at;
+
+        public String getEntityType() { return entity_type; }
+        public void setEntityType(String entity_type) { this.entity_type = entity_type; }
+        public int getEntityId() { return entity_id; }
+        public void setEntityId(int entity_id) { this.entity_id = entity_id; }
+        public String getDeletedAt() { return deleted_at; }
+        public void setDeletedAt(String deleted_at) { this.deleted_at = deleted_at; }
+    }
+}
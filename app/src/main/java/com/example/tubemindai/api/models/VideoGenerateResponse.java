@@ -9,6 +9,7 @@ public class VideoGenerateResponse {
     private String summary;
     private String key_points;
     private String bullet_notes;
+    private boolean is_saved;
     private String status;
 
     public String getMessage() {
@@ -75,6 +76,14 @@ public class VideoGenerateResponse {
         this.bullet_notes = bullet_notes;
     }
 
+    public boolean isSaved() {
+        return is_saved;
+    }
+
+    public void setSaved(boolean is_saved) {
+        this.is_saved = is_saved;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -0,0 +1,101 @@
+package com.example.tubemindai.api.models;
+
+/**
+ * Slim video row returned by GET api/video/?fields=...
+ * Only the requested fields are present - note bodies are fetched with getVideoNotes when a row is opened.
+ */
+public class VideoListItem {
+    private int id;
+    private String video_id;
+    private String video_url;
+    private String title;
+    private String thumbnail_url;
+    private String thumbnail_hash;
+    private String duration;
+    private boolean is_saved;
+    private String created_at;
+    private String summary_preview;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getVideoId() {
+        return video_id;
+    }
+
+    public void setVideoId(String video_id) {
+        this.video_id = video_id;
+    }
+
+    public String getVideoUrl() {
+        return video_url;
+    }
+
+    public void setVideoUrl(String video_url) {
+        this.video_url = video_url;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnail_url;
+    }
+
+    public void setThumbnailUrl(String thumbnail_url) {
+        this.thumbnail_url = thumbnail_url;
+    }
+
+    public String getThumbnailHash() {
+        return thumbnail_hash;
+    }
+
+    public void setThumbnailHash(String thumbnail_hash) {
+        this.thumbnail_hash = thumbnail_hash;
+    }
+
+    public String getDuration() {
+        return duration;
+    }
+
+    public void setDuration(String duration) {
+        this.duration = duration;
+    }
+
+    public boolean isSaved() {
+        return is_saved;
+    }
+
+    public void setSaved(boolean is_saved) {
+        this.is_saved = is_saved;
+    }
+
+    public String getCreatedAt() {
+        return created_at;
+    }
+
+    public void setCreatedAt(String created_at) {
+        this.created_at = created_at;
+    }
+
+    /**
+     * First characters of the summary, for list previews
+     */
+    public String getSummaryPreview() {
+        return summary_preview;
+    }
+
+    public void setSummaryPreview(String summary_preview) {
+        this.summary_preview = summary_preview;
+    }
+}
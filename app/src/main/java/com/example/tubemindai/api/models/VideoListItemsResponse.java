@@ -0,0 +1,39 @@
+package com.example.tubemindai.api.models;
+
+import java.util.List;
+
+/**
+ * Projected page of GET api/video/?fields=... - same envelope as VideoListResponse with slim rows
+ */
+public class VideoListItemsResponse {
+    private List<VideoListItem> videos;
+    private int total;
+    private String next_cursor;
+
+    public List<VideoListItem> getVideos() {
+        return videos;
+    }
+
+    public void setVideos(List<VideoListItem> videos) {
+        this.videos = videos;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Cursor for the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return next_cursor;
+    }
+
+    public void setNextCursor(String next_cursor) {
+        this.next_cursor = next_cursor;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 public class VideoListResponse {
     private List<VideoResponse> videos;
     private int total;
+    private String next_cursor;
 
     public List<VideoResponse> getVideos() {
         return videos;
@@ -21,5 +22,16 @@ public class VideoListResponse {
     public void setTotal(int total) {
         this.total = total;
     }
+
+    /**
+     * Cursor for the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return next_cursor;
+    }
+
+    public void setNextCursor(String next_cursor) {
+        this.next_cursor = next_cursor;
+    }
 }
 
@@ -6,6 +6,7 @@ public class VideoResponse {
     private String video_url;
     private String title;
     private String thumbnail_url;
+    private String thumbnail_hash;
     private String duration;
     private String summary;
     private String key_points;
@@ -53,6 +54,14 @@ public class VideoResponse {
         this.thumbnail_url = thumbnail_url;
     }
 
+    public String getThumbnailHash() {
+        return thumbnail_hash;
+    }
+
+    public void setThumbnailHash(String thumbnail_hash) {
+        this.thumbnail_hash = thumbnail_hash;
+    }
+
     public String getDuration() {
         return duration;
     }
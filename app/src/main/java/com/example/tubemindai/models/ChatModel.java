@@ -7,10 +7,18 @@ public class ChatModel {
     public static final int TYPE_USER = 1;
     public static final int TYPE_AI = 2;
 
+    // Delivery state of a user message
+    public static final int STATUS_SENT = 0;
+    public static final int STATUS_PENDING = 1;     // Waiting in the ChatOutbox
+    public static final int STATUS_FAILED = 2;      // Rejected by the server, will not be resent
+
     private String message;
     private int type; // 1 for user, 2 for AI
     private String timestamp;
     private String videoId;
+    private String clientMessageId;
+    private int status = STATUS_SENT;
+    private String cachedQuestion; // Set on AI answers served from AnswerCache
 
     public ChatModel() {
     }
@@ -53,5 +61,33 @@ public class ChatModel {
     public void setVideoId(String videoId) {
         this.videoId = videoId;
     }
+
+    public String getClientMessageId() {
+        return clientMessageId;
+    }
+
+    public void setClientMessageId(String clientMessageId) {
+        this.clientMessageId = clientMessageId;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getCachedQuestion() {
+        return cachedQuestion;
+    }
+
+    public void setCachedQuestion(String cachedQuestion) {
+        this.cachedQuestion = cachedQuestion;
+    }
+
+    public boolean isCachedAnswer() {
+        return cachedQuestion != null;
+    }
 }
 
@@ -13,6 +13,9 @@ public class NotesModel {
     private String bulletNotes;
     private String date;
     private boolean isSaved;
+    // Search results only - title and snippet with the matched words in bold
+    private CharSequence highlightedTitle;
+    private CharSequence highlightedPreview;
 
     public NotesModel() {
     }
@@ -101,5 +104,20 @@ public class NotesModel {
     public void setSaved(boolean saved) {
         isSaved = saved;
     }
-}
 
+    public CharSequence getHighlightedTitle() {
+        return highlightedTitle;
+    }
+
+    public void setHighlightedTitle(CharSequence highlightedTitle) {
+        this.highlightedTitle = highlightedTitle;
+    }
+
+    public CharSequence getHighlightedPreview() {
+        return highlightedPreview;
+    }
+
+    public void setHighlightedPreview(CharSequence highlightedPreview) {
+        this.highlightedPreview = highlightedPreview;
+    }
+}
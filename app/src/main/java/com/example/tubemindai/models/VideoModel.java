@@ -8,6 +8,7 @@ public class VideoModel {
     private String title;
     private String url;
     private String thumbnailUrl;
+    private String thumbnailHash;
     private String date;
     private String duration;
 
@@ -55,6 +56,14 @@ public class VideoModel {
         this.thumbnailUrl = thumbnailUrl;
     }
 
+    public String getThumbnailHash() {
+        return thumbnailHash;
+    }
+
+    public void setThumbnailHash(String thumbnailHash) {
+        this.thumbnailHash = thumbnailHash;
+    }
+
     public String getDate() {
         return date;
     }
@@ -0,0 +1,199 @@
+package com.example.tubemindai.utils;
+
+import android.app.Activity;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.Toast;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.tubemindai.api.StreamingListLoader;
+
+import java.util.List;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * Search, paging and error handling shared by the admin list screens.
+ *
+ * Owns the screen's PagedList and AdminSearchController: typing shows the loaded rows that match
+ * at once and runs the server query when the text settles, pages stream in as the user scrolls,
+ * and the empty state follows the first page. The screen supplies the request for one page and
+ * its adapter, and keeps its own row actions. Main thread only.
+ */
+public class AdminListController<T> {
+    /**
+     * The streaming request for rows [skip, skip + limit) of the search, or of everything if
+     * search is null
+     */
+    public interface PageRequest {
+        Call<ResponseBody> create(String authHeader, int skip, int limit, @Nullable String search);
+    }
+
+    /**
+     * The screen's progress dialog
+     */
+    public interface Progress {
+        void show(String message);
+
+        void hide();
+    }
+
+    private final Activity activity;
+    private final RecyclerView recyclerView;
+    private final View emptyState;
+    private final String rowsLabel;
+    private final String arrayField;
+    private final Class<T> rowClass;
+    private final PageRequest pageRequest;
+    private final Progress progress;
+    private final SharedPrefsManager prefsManager;
+    private final PagedList<T> rows;
+    private final AdminSearchController<T> search;
+
+    /**
+     * rowsLabel names the rows in messages ("videos"); arrayField is the array of the response
+     * that holds them
+     */
+    public AdminListController(Activity activity, RecyclerView recyclerView, View emptyState, EditText searchBox,
+                               String rowsLabel, String arrayField, Class<T> rowClass, PageRequest pageRequest,
+                               AdminSearchController.RowKeys<T> keys, Progress progress) {
+        this.activity = activity;
+        this.recyclerView = recyclerView;
+        this.emptyState = emptyState;
+        this.rowsLabel = rowsLabel;
+        this.arrayField = arrayField;
+        this.rowClass = rowClass;
+        this.pageRequest = pageRequest;
+        this.progress = progress;
+        this.prefsManager = new SharedPrefsManager(activity);
+        this.rows = new PagedList<>(this::loadPage, new PagedList.Listener<T>() {
+            @Override
+            public void onRows(List<T> batch) {
+                // First rows are on screen - the rest fill in as the user scrolls
+                progress.hide();
+                search.index(batch);
+            }
+
+            @Override
+            public void onFirstPage(boolean empty) {
+                progress.hide();
+                setEmpty(empty);
+            }
+
+            @Override
+            public void onError(Response<?> errorResponse, Throwable error) {
+                progress.hide();
+                showError(activity, errorResponse, error);
+            }
+        });
+        this.search = new AdminSearchController<>(searchBox, keys, new AdminSearchController.Listener<T>() {
+            @Override
+            public void onQueryChanged(String query, List<T> localMatches) {
+                // Rows for the old text must not land under the new one
+                rows.reset(localMatches);
+                if (!localMatches.isEmpty()) {
+                    setEmpty(false);
+                }
+            }
+
+            @Override
+            public void onSearch(String query) {
+                // Local matches are already on screen - no modal dialog while typing
+                load(false);
+            }
+        });
+    }
+
+    /**
+     * The rows to hand to the adapter
+     */
+    public PagedList<T> getRows() {
+        return rows;
+    }
+
+    public void setAdapter(RecyclerView.Adapter<?> adapter) {
+        rows.setAdapter(adapter);
+        recyclerView.setLayoutManager(new LinearLayoutManager(activity));
+        recyclerView.setAdapter(adapter);
+    }
+
+    /**
+     * Load the first page again from the top, with the progress dialog
+     */
+    public void load() {
+        load(true);
+    }
+
+    private void load(boolean showProgress) {
+        if (prefsManager.getAccessToken() == null) {
+            Toast.makeText(activity, "Please login again", Toast.LENGTH_SHORT).show();
+            activity.finish();
+            return;
+        }
+
+        if (showProgress) {
+            progress.show("Loading " + rowsLabel + "...");
+            // Start over from the top
+            rows.reset(null);
+        }
+        // Rows on screen stay until the first page of the new query replaces them
+        rows.load();
+    }
+
+    /**
+     * A row was deleted on the server and removed from the adapter
+     */
+    public void onRowRemoved(int id) {
+        search.remove(id);
+        if (rows.isEmpty()) {
+            setEmpty(true);
+        }
+    }
+
+    /**
+     * Stop parsing rows and searching for a screen that is gone
+     */
+    public void release() {
+        rows.cancel();
+        search.release();
+    }
+
+    /**
+     * Tell the user why a call failed; an expired session goes back to login and closes the screen
+     */
+    public static void showError(Activity activity, @Nullable Response<?> errorResponse, @Nullable Throwable error) {
+        if (errorResponse == null) {
+            Toast.makeText(activity, ApiErrorHandler.handleNetworkError(error), Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (ApiErrorHandler.handleError(activity, errorResponse)) {
+            activity.finish();
+            return;
+        }
+        Toast.makeText(activity, ApiErrorHandler.getErrorMessage(errorResponse), Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * One page of the current search. Rows are bound in batches as they are parsed, so the
+     * first ones show before the body finishes.
+     */
+    private StreamingListLoader.Handle loadPage(int skip, int limit, StreamingListLoader.Listener<T> listener) {
+        String query = search.getQuery();
+        return StreamingListLoader.load(
+                pageRequest.create("Bearer " + prefsManager.getAccessToken(), skip, limit,
+                        query.isEmpty() ? null : query),
+                arrayField,
+                rowClass,
+                listener);
+    }
+
+    private void setEmpty(boolean empty) {
+        recyclerView.setVisibility(empty ? View.GONE : View.VISIBLE);
+        emptyState.setVisibility(empty ? View.VISIBLE : View.GONE);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.tubemindai.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.EditText;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Search box behaviour shared by the admin list screens.
+ *
+ * Every keystroke immediately tells the screen that its running server query is stale and hands
+ * it the rows already loaded whose words start with what was typed, from a local prefix index.
+ * The server query itself only runs once the text has been still for DEBOUNCE_MS, so typing a
+ * name costs one request instead of one per character. Main thread only.
+ */
+public class AdminSearchController<T> {
+    private static final long DEBOUNCE_MS = 300;
+    private static final int MAX_INDEXED_ROWS = 5000;
+
+    /**
+     * How rows are identified and which of their fields are searchable
+     */
+    public interface RowKeys<T> {
+        int idOf(T row);
+
+        String[] textOf(T row);
+    }
+
+    public interface Listener<T> {
+        /**
+         * The text changed - cancel the running server query and show localMatches meanwhile
+         */
+        void onQueryChanged(String query, List<T> localMatches);
+
+        /**
+         * The text has settled - run the server query
+         */
+        void onSearch(String query);
+    }
+
+    private final RowKeys<T> keys;
+    private final Listener<T> listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::search;
+
+    // Loaded rows by id, in the order they arrived
+    private final Map<Integer, T> rows = new LinkedHashMap<>();
+    // Word -> ids of the rows containing it; subMap() gives the words starting with a prefix
+    private final TreeMap<String, Set<Integer>> words = new TreeMap<>();
+    private final Map<Integer, List<String>> wordsOfRow = new LinkedHashMap<>();
+    private String query = "";
+
+    public AdminSearchController(EditText input, RowKeys<T> keys, Listener<T> listener) {
+        this.keys = keys;
+        this.listener = listener;
+        input.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                onTextChanged(s.toString().trim());
+            }
+        });
+    }
+
+    /**
+     * Current query, trimmed - empty when the box is empty
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Add rows the server returned, so later keystrokes can match them locally
+     */
+    public void index(List<T> batch) {
+        for (T row : batch) {
+            int id = keys.idOf(row);
+            unindex(id);
+            if (rows.size() >= MAX_INDEXED_ROWS) {
+                continue;
+            }
+            List<String> rowWords = new ArrayList<>();
+            for (String text : keys.textOf(row)) {
+                rowWords.addAll(tokenize(text));
+            }
+            rows.put(id, row);
+            wordsOfRow.put(id, rowWords);
+            for (String word : rowWords) {
+                Set<Integer> ids = words.get(word);
+                if (ids == null) {
+                    ids = new HashSet<>();
+                    words.put(word, ids);
+                }
+                ids.add(id);
+            }
+        }
+    }
+
+    /**
+     * Drop a deleted row
+     */
+    public void remove(int id) {
+        unindex(id);
+    }
+
+    /**
+     * Loaded rows where every query word is the start of some word of the row
+     */
+    public List<T> match(String text) {
+        List<String> queryWords = tokenize(text);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>(rows.values());
+        }
+        Set<Integer> matching = null;
+        for (String prefix : queryWords) {
+            Set<Integer> ids = new HashSet<>();
+            SortedMap<String, Set<Integer>> range = words.subMap(prefix, prefix + Character.MAX_VALUE);
+            for (Set<Integer> wordIds : range.values()) {
+                ids.addAll(wordIds);
+            }
+            if (matching == null) {
+                matching = ids;
+            } else {
+                matching.retainAll(ids);
+            }
+            if (matching.isEmpty()) {
+                break;
+            }
+        }
+        List<T> result = new ArrayList<>();
+        for (Map.Entry<Integer, T> entry : rows.entrySet()) {
+            if (matching.contains(entry.getKey())) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop a pending server query, e.g. when the screen is destroyed
+     */
+    public void release() {
+        handler.removeCallbacks(searchRunnable);
+    }
+
+    private void onTextChanged(String text) {
+        if (text.equals(query)) {
+            return;
+        }
+        query = text;
+        listener.onQueryChanged(text, match(text));
+        handler.removeCallbacks(searchRunnable);
+        handler.postDelayed(searchRunnable, DEBOUNCE_MS);
+    }
+
+    private void search() {
+        listener.onSearch(query);
+    }
+
+    private void unindex(int id) {
+        rows.remove(id);
+        List<String> rowWords = wordsOfRow.remove(id);
+        if (rowWords == null) {
+            return;
+        }
+        for (String word : rowWords) {
+            Set<Integer> ids = words.get(word);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    words.remove(word);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowercase words; e-mail addresses also split at "@" and "." so "gmail" finds them
+     */
+    private static List<String> tokenize(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) {
+            return result;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.ApiConfig;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Answers already given by the AI, keyed by conversation (video or PDF) and normalized question.
+ *
+ * Asking "Summarize this" again on the same video is answered from here instead of a new LLM
+ * call. Entries expire after ApiConfig.ANSWER_CACHE_TTL_HOURS and the least recently used ones
+ * are dropped beyond ApiConfig.ANSWER_CACHE_MAX_ENTRIES. The chat screens offer "Regenerate"
+ * on every cached answer, which removes the entry and asks the server again.
+ * The cache is kept in files/answer_cache.json and loaded in the background - lookups before
+ * the load has finished are misses.
+ */
+public class AnswerCache {
+    private static final String TAG = "AnswerCache";
+    private static final String FILE_NAME = "answer_cache.json";
+    private static final long TTL_MS = ApiConfig.ANSWER_CACHE_TTL_HOURS * 60L * 60L * 1000L;
+
+    private static AnswerCache instance;
+
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+
+    private static class Entry {
+        private String key;
+        private String answer;
+        private long createdAt;
+    }
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    // Access order - the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Entry> entries =
+            new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > ApiConfig.ANSWER_CACHE_MAX_ENTRIES;
+                }
+            };
+    private boolean loaded;
+
+    private AnswerCache(Context context) {
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+        io.execute(this::load);
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new AnswerCache(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized AnswerCache get() {
+        return instance;
+    }
+
+    /**
+     * Previous answer to this question, or null. Every call counts towards the hit rate.
+     */
+    @Nullable
+    public synchronized String lookup(String kind, int targetId, String question) {
+        Entry entry = entries.get(key(kind, targetId, question));
+        if (entry != null && isExpired(entry)) {
+            entries.remove(entry.key);
+            persist();
+            entry = null;
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        android.util.Log.d(TAG, (entry != null ? "hit " : "miss ") + kind + ":" + targetId + " -> " + stats());
+        return entry != null ? entry.answer : null;
+    }
+
+    /**
+     * Whether an unexpired answer is cached - unlike lookup() this does not count towards the hit rate
+     */
+    public synchronized boolean contains(String kind, int targetId, String question) {
+        Entry entry = entries.get(key(kind, targetId, question));
+        return entry != null && !isExpired(entry);
+    }
+
+    /**
+     * Remember the server's answer to a question
+     */
+    public synchronized void put(String kind, int targetId, String question, @Nullable String answer) {
+        if (answer == null || answer.isEmpty() || normalize(question).isEmpty()) {
+            return;
+        }
+        String key = key(kind, targetId, question);
+        Entry entry = new Entry();
+        entry.key = key;
+        entry.answer = answer;
+        entry.createdAt = System.currentTimeMillis();
+        entries.put(key, entry);
+        persist();
+    }
+
+    /**
+     * Forget one answer, e.g. before regenerating it
+     */
+    public synchronized void invalidate(String kind, int targetId, String question) {
+        if (entries.remove(key(kind, targetId, question)) != null) {
+            persist();
+        }
+    }
+
+    /**
+     * Forget every answer of a conversation whose chat history was deleted
+     */
+    public void remove(String kind, int targetId) {
+        removePrefix(ChatOutbox.conversation(kind, targetId) + ":");
+    }
+
+    /**
+     * Forget every answer of one kind, e.g. when all video chats are cleared
+     */
+    public void removeAll(String kind) {
+        removePrefix(kind + ":");
+    }
+
+    /**
+     * Forget everything, e.g. on logout - answers belong to the previous user's conversations
+     */
+    public static void clear(Context context) {
+        AnswerCache cache = get();
+        if (cache != null) {
+            synchronized (cache) {
+                cache.entries.clear();
+            }
+            cache.io.execute(() -> cache.file.delete());
+        } else {
+            new File(context.getFilesDir(), FILE_NAME).delete();
+        }
+    }
+
+    /**
+     * Questions that differ only in case, spacing or punctuation share an answer
+     */
+    static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder(question.length());
+        boolean space = false;
+        for (int i = 0; i < question.length(); i++) {
+            char c = question.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space && builder.length() > 0) {
+                    builder.append(' ');
+                }
+                builder.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private synchronized void removePrefix(String prefix) {
+        boolean changed = false;
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().startsWith(prefix)) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+        if (changed) {
+            persist();
+        }
+    }
+
+    private static String key(String kind, int targetId, String question) {
+        return ChatOutbox.conversation(kind, targetId) + ":" + normalize(question);
+    }
+
+    private static boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt > TTL_MS;
+    }
+
+    // ========== STATS ==========
+
+    public static int getHitCount() {
+        return hits.get();
+    }
+
+    public static int getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Fraction of questions answered from the cache, 0 if nothing has been asked yet
+     */
+    public static float getHitRate() {
+        int hitCount = hits.get();
+        int total = hitCount + misses.get();
+        return total == 0 ? 0f : (float) hitCount / total;
+    }
+
+    public static String stats() {
+        AnswerCache cache = get();
+        int size;
+        if (cache == null) {
+            size = 0;
+        } else {
+            synchronized (cache) {
+                size = cache.entries.size();
+            }
+        }
+        return "AnswerCache{size=" + size + "/" + ApiConfig.ANSWER_CACHE_MAX_ENTRIES
+                + ", hits=" + hits.get()
+                + ", misses=" + misses.get()
+                + ", hitRate=" + String.format(Locale.US, "%.2f", getHitRate()) + "}";
+    }
+
+    // ========== PERSISTENCE ==========
+
+    private void load() {
+        List<Entry> stored = null;
+        if (file.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                stored = gson.fromJson(reader, new TypeToken<List<Entry>>() {}.getType());
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Could not read answer cache, starting empty", e);
+            }
+        }
+        synchronized (this) {
+            if (stored != null) {
+                // Stored least recently used first - putting them back in order restores the LRU order
+                LinkedHashMap<String, Entry> current = new LinkedHashMap<>(entries);
+                entries.clear();
+                for (Entry entry : stored) {
+                    if (entry != null && entry.key != null && entry.answer != null && !isExpired(entry)) {
+                        entries.put(entry.key, entry);
+                    }
+                }
+                // Answers stored while we were loading are newer than anything on disk
+                entries.putAll(current);
+            }
+            loaded = true;
+        }
+    }
+
+    private void persist() {
+        if (!loaded) {
+            // The load merges and rewrites on the next change
+            return;
+        }
+        List<Entry> snapshot = new ArrayList<>(entries.values());
+        io.execute(() -> write(snapshot));
+    }
+
+    private void write(List<Entry> snapshot) {
+        // Write then rename, so a crash mid-write never leaves a truncated cache
+        File temp = new File(file.getParentFile(), FILE_NAME + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            gson.toJson(snapshot, writer);
+        } catch (IOException e) {
+            android.util.Log.e(TAG, "Could not write answer cache", e);
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            android.util.Log.e(TAG, "Could not replace answer cache file");
+        }
+    }
+}
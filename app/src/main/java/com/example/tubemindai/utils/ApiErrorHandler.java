@@ -38,7 +38,12 @@ public class ApiErrorHandler {
      * Returns a user-friendly error message
      */
     public static String handleNetworkError(Throwable t) {
-        if (t instanceof java.net.SocketTimeoutException || 
+        if (t instanceof ConnectivityMonitor.OfflineException) {
+            return "You're offline. This screen will refresh when the connection is back.";
+        } else if (t instanceof com.example.tubemindai.api.CircuitBreaker.OpenException) {
+            // Failing fast on purpose - the backend failed repeatedly just now
+            return "Server is temporarily unavailable. Please try again in a moment.";
+        } else if (t instanceof java.net.SocketTimeoutException || 
             (t.getMessage() != null && (t.getMessage().toLowerCase().contains("timeout") || 
                                          t.getMessage().toLowerCase().contains("timed out")))) {
             return "Request timed out. This operation can take 30-60 seconds. Please try again or check your internet connection.";
@@ -53,6 +58,15 @@ public class ApiErrorHandler {
         }
     }
     
+    /**
+     * Let the user know a successful response is a saved copy because the server is unavailable
+     */
+    public static void notifyIfStale(Context context, Response<?> response) {
+        if (com.example.tubemindai.api.CircuitBreakerInterceptor.isStale(response)) {
+            Toast.makeText(context, "Server unavailable - showing saved data", Toast.LENGTH_SHORT).show();
+        }
+    }
+    
     /**
      * Get error message from response
      */
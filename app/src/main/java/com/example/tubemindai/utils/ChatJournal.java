@@ -0,0 +1,596 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.models.ChatMessageResponse;
+import com.example.tubemindai.api.models.PDFChatMessageResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only on-disk journal of chat messages, one per conversation, so a conversation
+ * opens from disk while its history is still loading from the server.
+ *
+ * Each conversation has a data file of length-prefixed, CRC-checked binary records and an
+ * index file of 8-byte record offsets. Reads memory-map both and walk the index backwards,
+ * so showing the last screen costs the same however long the conversation is.
+ *
+ * When the server's history differs from the journal, a RESET record and the server's
+ * messages are appended; everything before the last RESET is dead and is dropped by
+ * compaction. A torn write (process killed mid-append) is cut off on first use.
+ * All file work runs on one background thread; results are delivered on the main thread.
+ */
+public class ChatJournal {
+    private static final String TAG = "ChatJournal";
+    private static final String DIR_NAME = "chat_journal";
+    private static final String DATA_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    // Messages read when a conversation opens - a couple of screens
+    public static final int TAIL_MESSAGES = 40;
+
+    private static final int MAGIC = 0x544d4a31;           // "TMJ1"
+    private static final int FILE_HEADER_BYTES = 4;
+    private static final int RECORD_HEADER_BYTES = 8;      // payload length + CRC32
+    private static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+
+    // Compact once dead records take at least this much and more than half the file
+    private static final long COMPACT_MIN_DEAD_BYTES = 64 * 1024;
+
+    private static final byte TYPE_RESET = 0;
+    public static final byte TYPE_USER = 1;
+    public static final byte TYPE_AI = 2;
+
+    private static final Record RESET = new Record(TYPE_RESET, null, null, "");
+
+    private static ChatJournal instance;
+
+    /**
+     * One chat bubble as it was shown
+     */
+    public static class Record {
+        private final byte type;
+        private final String clientMessageId;
+        private final String timestamp;
+        private final String text;
+
+        public Record(byte type, @Nullable String clientMessageId, @Nullable String timestamp, String text) {
+            this.type = type;
+            this.clientMessageId = clientMessageId;
+            this.timestamp = timestamp;
+            this.text = text != null ? text : "";
+        }
+
+        public boolean isUser() {
+            return type == TYPE_USER;
+        }
+
+        @Nullable
+        public String getClientMessageId() {
+            return clientMessageId;
+        }
+
+        @Nullable
+        public String getTimestamp() {
+            return timestamp;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        boolean sameContent(Record other) {
+            return type == other.type && Objects.equals(text, other.text);
+        }
+    }
+
+    public interface Callback {
+        void onRecords(List<Record> records);
+    }
+
+    private final File dir;
+    private final Executor io;
+    // Where read results are delivered - the main thread
+    private final Executor mainThread;
+    // Conversations whose files have been checked since the process started (io thread only)
+    private final Set<String> recovered = new HashSet<>();
+
+    private ChatJournal(Context context) {
+        this(new File(context.getFilesDir(), DIR_NAME), Executors.newSingleThreadExecutor(),
+                new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * A journal kept in dir, doing its file work on io and delivering reads on mainThread
+     */
+    ChatJournal(File dir, Executor io, Executor mainThread) {
+        this.dir = dir;
+        this.io = io;
+        this.mainThread = mainThread;
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new ChatJournal(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized ChatJournal get() {
+        return instance;
+    }
+
+    // ========== PUBLIC API ==========
+
+    /**
+     * Read up to limit of the newest messages, oldest first. Empty if nothing is journalled.
+     */
+    public void readTail(String kind, int targetId, int limit, Callback callback) {
+        String name = fileName(kind, targetId);
+        io.execute(() -> {
+            List<Record> records;
+            try {
+                records = readLive(name, limit);
+            } catch (IOException e) {
+                android.util.Log.w(TAG, "Dropping unreadable journal " + name, e);
+                delete(name);
+                records = Collections.emptyList();
+            }
+            List<Record> result = records;
+            mainThread.execute(() -> callback.onRecords(result));
+        });
+    }
+
+    /**
+     * Append newly delivered messages to the end of a conversation
+     */
+    public void append(String kind, int targetId, List<Record> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        String name = fileName(kind, targetId);
+        io.execute(() -> {
+            try {
+                ensureRecovered(name);
+                writeRecords(dataFile(name), indexFile(name), records);
+            } catch (IOException e) {
+                android.util.Log.w(TAG, "Append failed for " + name, e);
+                delete(name);
+            }
+        });
+    }
+
+    /**
+     * Make the journal match the server's history. If the journal is a prefix of it only
+     * the new messages are appended; otherwise the old contents are superseded by a RESET.
+     * serverRecords must be the whole conversation - a partial page would supersede the newest
+     * messages with the oldest.
+     */
+    public void replaceWith(String kind, int targetId, List<Record> serverRecords) {
+        String name = fileName(kind, targetId);
+        io.execute(() -> {
+            try {
+                if (serverRecords.isEmpty()) {
+                    delete(name);
+                    return;
+                }
+                List<Record> live = readLive(name, Integer.MAX_VALUE);
+                if (isPrefix(live, serverRecords)) {
+                    List<Record> added = serverRecords.subList(live.size(), serverRecords.size());
+                    if (!added.isEmpty()) {
+                        writeRecords(dataFile(name), indexFile(name), added);
+                    }
+                    return;
+                }
+                List<Record> records = new ArrayList<>(serverRecords.size() + 1);
+                if (!live.isEmpty()) {
+                    records.add(RESET);
+                }
+                records.addAll(serverRecords);
+                writeRecords(dataFile(name), indexFile(name), records);
+                maybeCompact(name);
+            } catch (IOException e) {
+                android.util.Log.w(TAG, "Reconcile failed for " + name, e);
+                delete(name);
+            }
+        });
+    }
+
+    /**
+     * Forget one conversation, e.g. after its history was deleted
+     */
+    public void remove(String kind, int targetId) {
+        String name = fileName(kind, targetId);
+        io.execute(() -> delete(name));
+    }
+
+    /**
+     * Forget every conversation, e.g. after deleteAllChatHistory
+     */
+    public void removeAll() {
+        io.execute(this::deleteAll);
+    }
+
+    /**
+     * Delete all journals, e.g. on logout - another user must not see them
+     */
+    public static void clear(Context context) {
+        ChatJournal journal = get();
+        if (journal != null) {
+            journal.removeAll();
+        } else {
+            new ChatJournal(context).deleteAll();
+        }
+    }
+
+    // ========== CONVERTERS ==========
+
+    /**
+     * The bubbles ChatActivity shows for a page of video chat history
+     */
+    public static List<Record> fromVideoHistory(@Nullable List<ChatMessageResponse> messages) {
+        List<Record> records = new ArrayList<>();
+        if (messages == null) {
+            return records;
+        }
+        for (ChatMessageResponse msg : messages) {
+            if (msg.isUserMessage()) {
+                records.add(new Record(TYPE_USER, msg.getClientMessageId(), msg.getCreatedAt(), msg.getMessage()));
+            }
+            if (msg.getResponse() != null && !msg.getResponse().isEmpty()) {
+                records.add(new Record(TYPE_AI, msg.getClientMessageId(), msg.getCreatedAt(), msg.getResponse()));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * The bubbles PDFChatActivity shows for a page of PDF chat history
+     */
+    public static List<Record> fromPDFHistory(@Nullable List<PDFChatMessageResponse> messages) {
+        List<Record> records = new ArrayList<>();
+        if (messages == null) {
+            return records;
+        }
+        for (PDFChatMessageResponse msg : messages) {
+            String timestamp = msg.getCreatedAt() != null ? String.valueOf(msg.getCreatedAt().getTime()) : null;
+            if (msg.isUserMessage()) {
+                records.add(new Record(TYPE_USER, msg.getClientMessageId(), timestamp, msg.getMessage()));
+            } else {
+                records.add(new Record(TYPE_AI, msg.getClientMessageId(), timestamp, msg.getResponse()));
+            }
+        }
+        return records;
+    }
+
+    // ========== FILES (io thread only) ==========
+
+    private List<Record> readLive(String name, int limit) throws IOException {
+        ensureRecovered(name);
+        File data = dataFile(name);
+        File index = indexFile(name);
+        if (!data.exists() || index.length() < 8) {
+            return Collections.emptyList();
+        }
+        List<Record> records = new ArrayList<>();
+        try (RandomAccessFile dataRaf = new RandomAccessFile(data, "r");
+             RandomAccessFile indexRaf = new RandomAccessFile(index, "r")) {
+            ByteBuffer dataMap = dataRaf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, dataRaf.length());
+            LongBuffer offsets = indexRaf.getChannel()
+                    .map(FileChannel.MapMode.READ_ONLY, 0, indexRaf.length() / 8 * 8)
+                    .asLongBuffer();
+            // Newest first, stopping at the last RESET - nothing before it is live
+            for (int i = offsets.limit() - 1; i >= 0 && records.size() < limit; i--) {
+                Record record = readRecord(dataMap, offsets.get(i));
+                if (record.type == TYPE_RESET) {
+                    break;
+                }
+                records.add(record);
+            }
+        }
+        Collections.reverse(records);
+        return records;
+    }
+
+    /**
+     * Append records to the data file, then their offsets to the index. The data is synced
+     * first, so an index entry never points past what is on disk.
+     */
+    private void writeRecords(File data, File index, List<Record> records) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        boolean fresh = data.length() < FILE_HEADER_BYTES;
+        long offset = fresh ? FILE_HEADER_BYTES : data.length();
+
+        ByteArrayOutputStream dataBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(dataBytes);
+        DataOutputStream indexOut = new DataOutputStream(indexBytes);
+        if (fresh) {
+            dataOut.writeInt(MAGIC);
+        }
+        for (Record record : records) {
+            byte[] payload = encode(record);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            dataOut.writeInt(payload.length);
+            dataOut.writeInt((int) crc.getValue());
+            dataOut.write(payload);
+            indexOut.writeLong(offset);
+            offset += RECORD_HEADER_BYTES + payload.length;
+        }
+
+        try (FileOutputStream out = new FileOutputStream(data, !fresh)) {
+            out.write(dataBytes.toByteArray());
+            out.getFD().sync();
+        }
+        try (FileOutputStream out = new FileOutputStream(index, !fresh)) {
+            out.write(indexBytes.toByteArray());
+        }
+    }
+
+    /**
+     * Check a conversation's files once per process: drop a torn record at the end of the
+     * data file and rebuild the index if it is missing or does not match the data.
+     */
+    private void ensureRecovered(String name) throws IOException {
+        if (!recovered.add(name)) {
+            return;
+        }
+        File data = dataFile(name);
+        File index = indexFile(name);
+        if (!data.exists()) {
+            index.delete();
+            return;
+        }
+
+        long validEnd;
+        List<Long> offsets = new ArrayList<>();
+        boolean rewriteIndex;
+        try (RandomAccessFile dataRaf = new RandomAccessFile(data, "rw")) {
+            long length = dataRaf.length();
+            if (length < FILE_HEADER_BYTES) {
+                dataRaf.setLength(0);
+                index.delete();
+                return;
+            }
+            ByteBuffer dataMap = dataRaf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (dataMap.getInt(0) != MAGIC) {
+                throw new IOException("Not a chat journal");
+            }
+
+            // Trust the index if its last entry points at a valid record, then scan anything after it
+            long[] indexed = readIndex(index);
+            long scanFrom = FILE_HEADER_BYTES;
+            rewriteIndex = true;
+            if (indexed.length > 0 && indexed[0] == FILE_HEADER_BYTES) {
+                try {
+                    long last = indexed[indexed.length - 1];
+                    scanFrom = last + RECORD_HEADER_BYTES + checkRecord(dataMap, last);
+                    for (long offset : indexed) {
+                        offsets.add(offset);
+                    }
+                    rewriteIndex = index.length() != indexed.length * 8L;
+                } catch (IOException e) {
+                    scanFrom = FILE_HEADER_BYTES;
+                }
+            }
+            validEnd = scanFrom;
+            while (validEnd < length) {
+                try {
+                    long end = validEnd + RECORD_HEADER_BYTES + checkRecord(dataMap, validEnd);
+                    offsets.add(validEnd);
+                    validEnd = end;
+                    rewriteIndex = true;
+                } catch (IOException e) {
+                    break;
+                }
+            }
+            if (validEnd < length) {
+                android.util.Log.w(TAG, "Truncating torn journal " + name + " at " + validEnd + "/" + length);
+                dataRaf.setLength(validEnd);
+            }
+        }
+
+        if (rewriteIndex) {
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream indexOut = new DataOutputStream(indexBytes);
+            for (long offset : offsets) {
+                indexOut.writeLong(offset);
+            }
+            try (FileOutputStream out = new FileOutputStream(index, false)) {
+                out.write(indexBytes.toByteArray());
+            }
+        }
+    }
+
+    private long[] readIndex(File index) throws IOException {
+        if (!index.exists()) {
+            return new long[0];
+        }
+        try (RandomAccessFile indexRaf = new RandomAccessFile(index, "r")) {
+            long length = indexRaf.length() / 8 * 8;
+            if (length == 0) {
+                return new long[0];
+            }
+            LongBuffer buffer = indexRaf.getChannel()
+                    .map(FileChannel.MapMode.READ_ONLY, 0, length)
+                    .asLongBuffer();
+            long[] offsets = new long[buffer.limit()];
+            buffer.get(offsets);
+            return offsets;
+        }
+    }
+
+    /**
+     * Rewrite the journal with only its live records once dead ones dominate the file
+     */
+    private void maybeCompact(String name) throws IOException {
+        File data = dataFile(name);
+        long length = data.length();
+        List<Record> live = readLive(name, Integer.MAX_VALUE);
+        long liveBytes = FILE_HEADER_BYTES;
+        for (Record record : live) {
+            liveBytes += RECORD_HEADER_BYTES + encode(record).length;
+        }
+        long deadBytes = length - liveBytes;
+        if (deadBytes < COMPACT_MIN_DEAD_BYTES || deadBytes * 2 < length) {
+            return;
+        }
+
+        File tmpData = new File(dir, name + DATA_SUFFIX + TMP_SUFFIX);
+        File tmpIndex = new File(dir, name + INDEX_SUFFIX + TMP_SUFFIX);
+        tmpData.delete();
+        tmpIndex.delete();
+        writeRecords(tmpData, tmpIndex, live);
+
+        // Index goes first - a crash in between leaves no index, and recovery rebuilds it from the data
+        File index = indexFile(name);
+        if (!index.delete() || !tmpData.renameTo(data) || !tmpIndex.renameTo(index)) {
+            throw new IOException("Compaction rename failed for " + name);
+        }
+        android.util.Log.d(TAG, "Compacted " + name + ": " + length + " -> " + data.length() + " bytes");
+    }
+
+    private void delete(String name) {
+        dataFile(name).delete();
+        indexFile(name).delete();
+        recovered.remove(name);
+    }
+
+    private void deleteAll() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        recovered.clear();
+    }
+
+    // ========== RECORD FORMAT ==========
+    // [int payloadLength][int crc32(payload)][payload]
+    // payload: [byte type][string clientMessageId][string timestamp][string text]
+    // string: [int byteLength, -1 for null][UTF-8 bytes]
+
+    /**
+     * Validate the record at offset and return its payload length
+     */
+    private static int checkRecord(ByteBuffer data, long offset) throws IOException {
+        return readPayload(data, offset).length;
+    }
+
+    private static byte[] readPayload(ByteBuffer data, long offset) throws IOException {
+        if (offset < FILE_HEADER_BYTES || offset + RECORD_HEADER_BYTES > data.limit()) {
+            throw new IOException("Record header out of range at " + offset);
+        }
+        int position = (int) offset;
+        int length = data.getInt(position);
+        if (length <= 0 || length > MAX_PAYLOAD_BYTES || position + RECORD_HEADER_BYTES + (long) length > data.limit()) {
+            throw new IOException("Bad record length " + length + " at " + offset);
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer source = data.duplicate();
+        source.position(position + RECORD_HEADER_BYTES);
+        source.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != data.getInt(position + 4)) {
+            throw new IOException("Checksum mismatch at " + offset);
+        }
+        return payload;
+    }
+
+    private static Record readRecord(ByteBuffer data, long offset) throws IOException {
+        byte[] payload = readPayload(data, offset);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        String clientMessageId = readString(in);
+        String timestamp = readString(in);
+        String text = readString(in);
+        return new Record(type, clientMessageId, timestamp, text);
+    }
+
+    private static byte[] encode(Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(record.type);
+        writeString(out, record.clientMessageId);
+        writeString(out, record.timestamp);
+        writeString(out, record.text);
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ========== HELPERS ==========
+
+    private static boolean isPrefix(List<Record> prefix, List<Record> records) {
+        if (prefix.size() > records.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!prefix.get(i).sameContent(records.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String fileName(String kind, int targetId) {
+        return kind + "_" + targetId;
+    }
+
+    private File dataFile(String name) {
+        return new File(dir, name + DATA_SUFFIX);
+    }
+
+    private File indexFile(String name) {
+        return new File(dir, name + INDEX_SUFFIX);
+    }
+}
@@ -0,0 +1,463 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.ApiService;
+import com.example.tubemindai.api.RateLimiter;
+import com.example.tubemindai.api.models.ChatMessageRequest;
+import com.example.tubemindai.api.models.ChatMessageResponse;
+import com.example.tubemindai.api.models.PDFChatMessageRequest;
+import com.example.tubemindai.api.models.PDFChatMessageResponse;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Persistent outbox for chat messages (video and PDF conversations).
+ *
+ * Every message gets a client id when it is written and stays on disk until the server has
+ * answered it. Messages of one conversation go out one at a time, in order; a transient failure
+ * holds the conversation and retries with backoff, or when ConnectivityMonitor reports the
+ * network back. The client id is both the Idempotency-Key and the stored client_message_id,
+ * so a resend after a lost response returns the original answer instead of a second one.
+ * Questions answered from AnswerCache go through here too, marked as cached, so the server
+ * stores the answer it gave before and the history and journal get them like any other exchange.
+ * Everything runs on the main thread.
+ */
+public class ChatOutbox {
+    public static final String KIND_VIDEO = "video";
+    public static final String KIND_PDF = "pdf";
+
+    private static final String TAG = "ChatOutbox";
+    private static final String FILE_NAME = "chat_outbox.json";
+    private static final long RETRY_BASE_MS = 2_000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    private static ChatOutbox instance;
+
+    /**
+     * One undelivered message
+     */
+    public static class Entry {
+        private String clientMessageId;
+        private String kind;
+        private int targetId;
+        private String message;
+        private long createdAt;
+        private int attempts;
+        // Set when the answer was already shown from AnswerCache - kept for the screen, the
+        // server stores its own earlier answer
+        @Nullable
+        private String answer;
+
+        public String getClientMessageId() {
+            return clientMessageId;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public int getTargetId() {
+            return targetId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        @Nullable
+        public String getAnswer() {
+            return answer;
+        }
+
+        public String getConversation() {
+            return conversation(kind, targetId);
+        }
+    }
+
+    /**
+     * Delivery events for one conversation, on the main thread
+     */
+    public interface Listener {
+        void onDelivered(Entry entry, @Nullable String response);
+
+        /**
+         * willRetry: the message is still queued. Otherwise the server rejected it and it was dropped.
+         */
+        void onSendError(Entry entry, @Nullable Response<?> errorResponse, @Nullable Throwable error, boolean willRetry);
+    }
+
+    private final Context context;
+    private final File file;
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Entry> entries;
+    private final Set<String> inFlight = new HashSet<>();
+    // Conversation -> earliest time of the next attempt after a transient failure
+    private final Map<String, Long> notBefore = new HashMap<>();
+    private final Map<String, List<Listener>> listeners = new HashMap<>();
+    private final Runnable flushRunnable = this::flush;
+
+    private ChatOutbox(Context context) {
+        this(context.getApplicationContext(), new File(context.getFilesDir(), FILE_NAME));
+        ConnectivityMonitor.get().addListener(online -> {
+            if (online) {
+                // Network is back - skip any backoff still pending
+                notBefore.clear();
+                flush();
+            }
+        });
+    }
+
+    /**
+     * An outbox kept in file. It does not watch connectivity - nothing is sent until flush().
+     */
+    ChatOutbox(Context context, File file) {
+        this.context = context;
+        this.file = file;
+        this.entries = load();
+    }
+
+    public static synchronized ChatOutbox get(Context context) {
+        if (instance == null) {
+            instance = new ChatOutbox(context);
+        }
+        return instance;
+    }
+
+    public static String conversation(String kind, int targetId) {
+        return kind + ":" + targetId;
+    }
+
+    /**
+     * Queue a message and start delivering it
+     */
+    public Entry enqueue(String kind, int targetId, String message) {
+        return enqueue(kind, targetId, message, null);
+    }
+
+    /**
+     * Queue a question already answered on screen (from AnswerCache), so it is added to the
+     * server history and the journal without a new answer being generated
+     */
+    public Entry enqueueAnswered(String kind, int targetId, String message, String answer) {
+        return enqueue(kind, targetId, message, answer);
+    }
+
+    private Entry enqueue(String kind, int targetId, String message, @Nullable String answer) {
+        Entry entry = new Entry();
+        entry.clientMessageId = UUID.randomUUID().toString();
+        entry.kind = kind;
+        entry.targetId = targetId;
+        entry.message = message;
+        entry.answer = answer;
+        entry.createdAt = System.currentTimeMillis();
+        entries.add(entry);
+        persist();
+        flush();
+        return entry;
+    }
+
+    /**
+     * Undelivered messages of a conversation, oldest first
+     */
+    public List<Entry> pending(String conversation) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.getConversation().equals(conversation)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drop messages the server has answered (their client ids are on answers in the loaded
+     * history) - the answer arrived but our process died before it saw the response. A question
+     * the server stored but has not answered yet stays queued; its resend gets the answer.
+     */
+    public void reconcile(String conversation, Collection<String> answeredClientIds) {
+        boolean changed = false;
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.getConversation().equals(conversation)
+                    && !inFlight.contains(conversation)
+                    && answeredClientIds.contains(entry.clientMessageId)) {
+                iterator.remove();
+                changed = true;
+            }
+        }
+        if (changed) {
+            persist();
+        }
+    }
+
+    public void addListener(String conversation, Listener listener) {
+        List<Listener> list = listeners.get(conversation);
+        if (list == null) {
+            list = new ArrayList<>();
+            listeners.put(conversation, list);
+        }
+        list.add(listener);
+    }
+
+    public void removeListener(String conversation, Listener listener) {
+        List<Listener> list = listeners.get(conversation);
+        if (list != null) {
+            list.remove(listener);
+        }
+    }
+
+    /**
+     * Send the oldest message of every conversation that is not already sending or backing off
+     */
+    public void flush() {
+        if (!ConnectivityMonitor.get().isOnline()) {
+            return;
+        }
+        String token = new SharedPrefsManager(context).getAccessToken();
+        if (token == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Set<String> seen = new HashSet<>();
+        for (Entry entry : new ArrayList<>(entries)) {
+            String conversation = entry.getConversation();
+            if (!seen.add(conversation) || inFlight.contains(conversation)) {
+                continue;
+            }
+            Long retryAt = notBefore.get(conversation);
+            if (retryAt != null && retryAt > now) {
+                continue;
+            }
+            long rateLimitWait = RateLimiter.forScope(rateLimitScope(entry)).expectedWaitMs();
+            if (rateLimitWait > 0) {
+                // The call would only be failed by the limiter - come back when a token is free
+                holdUntil(conversation, now + rateLimitWait);
+                continue;
+            }
+            send(entry, "Bearer " + token);
+        }
+    }
+
+    /**
+     * Forget everything, e.g. on logout - queued messages belong to the previous user
+     */
+    public static void clear(Context context) {
+        if (instance != null) {
+            instance.entries.clear();
+            instance.notBefore.clear();
+            instance.mainHandler.removeCallbacks(instance.flushRunnable);
+        }
+        new File(context.getFilesDir(), FILE_NAME).delete();
+    }
+
+    private void send(Entry entry, String authHeader) {
+        String conversation = entry.getConversation();
+        inFlight.add(conversation);
+        notBefore.remove(conversation);
+        entry.attempts++;
+        persist();
+
+        ApiService apiService = ApiClient.getApiService();
+        if (KIND_PDF.equals(entry.kind)) {
+            PDFChatMessageRequest request = entry.answer != null
+                    ? PDFChatMessageRequest.cached(entry.message, entry.clientMessageId)
+                    : new PDFChatMessageRequest(entry.message, entry.clientMessageId);
+            apiService.sendPDFChatMessage(authHeader, entry.clientMessageId, entry.targetId, request)
+                    .enqueue(new Callback<PDFChatMessageResponse>() {
+                        @Override
+                        public void onResponse(Call<PDFChatMessageResponse> call, Response<PDFChatMessageResponse> response) {
+                            if (response.isSuccessful() && response.body() != null && response.body().isFallback()) {
+                                // The server kept nothing - neither do we
+                                delivered(entry, response.body().getResponse(), true);
+                            } else if (response.isSuccessful() && response.body() != null) {
+                                MemoryCache.appendPDFChatMessage(entry.targetId, response.body());
+                                // The send response is the question row with the answer attached -
+                                // journal the question and the answer once each
+                                List<ChatJournal.Record> records = new ArrayList<>();
+                                records.add(new ChatJournal.Record(ChatJournal.TYPE_USER, entry.clientMessageId,
+                                        String.valueOf(entry.createdAt), entry.message));
+                                records.add(new ChatJournal.Record(ChatJournal.TYPE_AI, entry.clientMessageId,
+                                        String.valueOf(System.currentTimeMillis()), response.body().getResponse()));
+                                ChatJournal.get().append(KIND_PDF, entry.targetId, records);
+                                delivered(entry, response.body().getResponse(), false);
+                            } else {
+                                failed(entry, response, null);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Call<PDFChatMessageResponse> call, Throwable t) {
+                            failed(entry, null, t);
+                        }
+                    });
+        } else {
+            ChatMessageRequest request = entry.answer != null
+                    ? ChatMessageRequest.cached(entry.message, entry.clientMessageId)
+                    : new ChatMessageRequest(entry.message, entry.clientMessageId);
+            apiService.sendChatMessage(authHeader, entry.clientMessageId, entry.targetId, request)
+                    .enqueue(new Callback<ChatMessageResponse>() {
+                        @Override
+                        public void onResponse(Call<ChatMessageResponse> call, Response<ChatMessageResponse> response) {
+                            if (response.isSuccessful() && response.body() != null && response.body().isFallback()) {
+                                // The server kept nothing - neither do we
+                                delivered(entry, response.body().getResponse(), true);
+                            } else if (response.isSuccessful() && response.body() != null) {
+                                MemoryCache.appendVideoChatMessage(entry.targetId, response.body());
+                                ChatJournal.get().append(KIND_VIDEO, entry.targetId,
+                                        ChatJournal.fromVideoHistory(Collections.singletonList(response.body())));
+                                delivered(entry, response.body().getResponse(), false);
+                            } else {
+                                failed(entry, response, null);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Call<ChatMessageResponse> call, Throwable t) {
+                            failed(entry, null, t);
+                        }
+                    });
+        }
+    }
+
+    private void delivered(Entry entry, String response, boolean fallback) {
+        inFlight.remove(entry.getConversation());
+        entries.remove(entry);
+        persist();
+        if (!fallback && entry.answer == null) {
+            // The same question asked again in this conversation is answered without the server.
+            // An apology is not an answer, and a cached answer is already there.
+            AnswerCache.get().put(entry.kind, entry.targetId, entry.message, response);
+        }
+        for (Listener listener : listenersFor(entry)) {
+            listener.onDelivered(entry, response);
+        }
+        // Next message of this conversation
+        flush();
+    }
+
+    private void failed(Entry entry, @Nullable Response<?> response, @Nullable Throwable error) {
+        String conversation = entry.getConversation();
+        inFlight.remove(conversation);
+        if (!entries.contains(entry)) {
+            // Cleared (logout) while the call was running
+            return;
+        }
+
+        int code = response != null ? response.code() : 0;
+        boolean willRetry = response == null || code == 401 || code == 408 || code == 409
+                || code == 429 || code >= 500;
+        if (!willRetry) {
+            entries.remove(entry);
+            persist();
+        } else if (error instanceof RateLimiter.RateLimitedException) {
+            // Never left the device - not a failed attempt, just wait for the token
+            entry.attempts--;
+            persist();
+            holdUntil(conversation, System.currentTimeMillis()
+                    + ((RateLimiter.RateLimitedException) error).getWaitMs());
+        } else if (code == 429) {
+            // The limiter took the server's Retry-After; fall back to backoff if it had none
+            long wait = RateLimiter.forScope(rateLimitScope(entry)).expectedWaitMs();
+            holdUntil(conversation, System.currentTimeMillis() + Math.max(wait, backoffMillis(entry)));
+        } else if (code != 401 && (response != null || ConnectivityMonitor.get().isOnline())) {
+            // Offline failures wait for the network; 401 waits for the next login
+            holdUntil(conversation, System.currentTimeMillis() + backoffMillis(entry));
+        }
+        android.util.Log.w(TAG, conversation + " send failed (" + (response != null ? "HTTP " + code : error)
+                + "), " + (willRetry ? "kept" : "dropped"));
+
+        for (Listener listener : listenersFor(entry)) {
+            listener.onSendError(entry, response, error, willRetry);
+        }
+        if (!willRetry) {
+            flush();
+        }
+    }
+
+    private static long backoffMillis(Entry entry) {
+        long ceiling = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(Math.max(entry.attempts, 1) - 1, 10));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private static String rateLimitScope(Entry entry) {
+        return KIND_PDF.equals(entry.kind) ? RateLimiter.SCOPE_PDF_CHAT : RateLimiter.SCOPE_VIDEO_CHAT;
+    }
+
+    /**
+     * Keep the conversation's next send back until retryAt and schedule a flush for then
+     */
+    private void holdUntil(String conversation, long retryAt) {
+        notBefore.put(conversation, retryAt);
+        // Not replacing pending flushes - another conversation may be due sooner
+        mainHandler.postDelayed(flushRunnable, Math.max(0, retryAt - System.currentTimeMillis()));
+    }
+
+    private List<Listener> listenersFor(Entry entry) {
+        List<Listener> list = listeners.get(entry.getConversation());
+        return list != null ? new ArrayList<>(list) : new ArrayList<>();
+    }
+
+    private List<Entry> load() {
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            List<Entry> loaded = gson.fromJson(reader, new TypeToken<List<Entry>>() {}.getType());
+            return loaded != null ? loaded : new ArrayList<>();
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Could not read outbox, starting empty", e);
+            return new ArrayList<>();
+        }
+    }
+
+    private void persist() {
+        // Write then rename, so a crash mid-write never leaves a truncated outbox
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            gson.toJson(entries, writer);
+        } catch (IOException e) {
+            android.util.Log.e(TAG, "Could not write outbox", e);
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            android.util.Log.e(TAG, "Could not replace outbox file");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.tubemindai.utils;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tracks whether the device has a network, from ConnectivityManager's default-network callback.
+ *
+ * Only NET_CAPABILITY_INTERNET is required, not VALIDATED - the backend is often on a LAN
+ * address that works on Wi-Fi without internet access. Listeners are called on the main thread.
+ *
+ * While offline, API calls fail fast with OfflineException instead of waiting out timeouts,
+ * and work passed to runWhenOnline is held. When the network returns the held work runs in
+ * priority order, then listeners are told, then the visible screen is refreshed if it
+ * implements Refreshable.
+ */
+public class ConnectivityMonitor {
+    private static final String TAG = "ConnectivityMonitor";
+
+    // Order in which held work is replayed when the network returns
+    public static final int PRIORITY_USER_ACTION = 0;   // Something the user asked for, e.g. saving notes
+    public static final int PRIORITY_REFRESH = 1;       // Reloading data a screen shows
+    public static final int PRIORITY_PREFETCH = 2;      // Speculative work nobody is waiting for
+
+    public interface Listener {
+        void onConnectivityChanged(boolean online);
+    }
+
+    /**
+     * Implemented by screens that should reload their data when the network comes back
+     */
+    public interface Refreshable {
+        void onConnectivityRestored();
+    }
+
+    /**
+     * Thrown by the API stack instead of attempting a request while there is no network
+     */
+    public static class OfflineException extends IOException {
+        public OfflineException() {
+            super("No network connection");
+        }
+    }
+
+    private static class HeldWork {
+        final String key;
+        final int priority;
+        final long sequence;
+        final Runnable work;
+
+        HeldWork(String key, int priority, long sequence, Runnable work) {
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.work = work;
+        }
+    }
+
+    private static ConnectivityMonitor instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+    private final List<HeldWork> heldWork = new ArrayList<>();
+    private long nextSequence;
+    private WeakReference<Activity> resumedActivity = new WeakReference<>(null);
+    private volatile boolean online;
+
+    private ConnectivityMonitor(Context context) {
+        if (context instanceof Application) {
+            ((Application) context).registerActivityLifecycleCallbacks(new ResumedActivityTracker());
+        }
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            // Nothing to watch - assume online and let requests fail normally
+            online = true;
+            return;
+        }
+        NetworkCapabilities capabilities =
+                connectivityManager.getNetworkCapabilities(connectivityManager.getActiveNetwork());
+        online = capabilities != null && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network, @NonNull NetworkCapabilities capabilities) {
+                setOnline(capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET));
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                setOnline(false);
+            }
+        });
+    }
+
+    /**
+     * Start monitoring - called once from the Application
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new ConnectivityMonitor(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized ConnectivityMonitor get() {
+        if (instance == null) {
+            throw new IllegalStateException("ConnectivityMonitor.init() was not called");
+        }
+        return instance;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * True only when the monitor is running and knows there is no network - safe to call
+     * from any thread, including OkHttp interceptors
+     */
+    public static boolean isKnownOffline() {
+        ConnectivityMonitor monitor = instance;
+        return monitor != null && !monitor.online;
+    }
+
+    /**
+     * Run work now if online, otherwise hold it until the network returns. Work held under
+     * the same key is replaced, so repeating an action while offline runs it once. Main thread only.
+     */
+    public void runWhenOnline(String key, int priority, Runnable work) {
+        if (online) {
+            work.run();
+            return;
+        }
+        Iterator<HeldWork> iterator = heldWork.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().key.equals(key)) {
+                iterator.remove();
+            }
+        }
+        heldWork.add(new HeldWork(key, priority, nextSequence++, work));
+    }
+
+    /**
+     * Whether work is held under this key
+     */
+    public boolean isHeld(String key) {
+        for (HeldWork held : heldWork) {
+            if (held.key.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Main thread only
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void setOnline(boolean value) {
+        mainHandler.post(() -> {
+            if (online == value) {
+                return;
+            }
+            online = value;
+            android.util.Log.d(TAG, value ? "Network available" : "Network lost");
+            if (value) {
+                replayHeldWork();
+            }
+            for (Listener listener : new ArrayList<>(listeners)) {
+                listener.onConnectivityChanged(value);
+            }
+            if (value) {
+                Activity activity = resumedActivity.get();
+                if (activity instanceof Refreshable && !activity.isFinishing()) {
+                    ((Refreshable) activity).onConnectivityRestored();
+                }
+            }
+        });
+    }
+
+    private void replayHeldWork() {
+        List<HeldWork> ready = new ArrayList<>(heldWork);
+        heldWork.clear();
+        Collections.sort(ready, (a, b) -> a.priority != b.priority
+                ? Integer.compare(a.priority, b.priority)
+                : Long.compare(a.sequence, b.sequence));
+        for (HeldWork held : ready) {
+            held.work.run();
+        }
+    }
+
+    /**
+     * Remembers the activity in the foreground so it can be refreshed on reconnect
+     */
+    private class ResumedActivityTracker implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityResumed(@NonNull Activity activity) {
+            resumedActivity = new WeakReference<>(activity);
+        }
+
+        @Override
+        public void onActivityPaused(@NonNull Activity activity) {
+            if (resumedActivity.get() == activity) {
+                resumedActivity = new WeakReference<>(null);
+            }
+        }
+
+        @Override
+        public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(@NonNull Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(@NonNull Activity activity) {
+        }
+    }
+}
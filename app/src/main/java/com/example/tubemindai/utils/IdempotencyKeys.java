@@ -0,0 +1,44 @@
+package com.example.tubemindai.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Client-generated Idempotency-Key values, one per user action.
+ *
+ * The key for an action stays the same until the action completes, so both automatic
+ * retries and the user pressing the button again after a network error reuse it and the
+ * backend returns the result it already computed instead of running the job twice.
+ */
+public class IdempotencyKeys {
+    private static final Map<String, String> pendingKeys = new HashMap<>();
+
+    public static synchronized String forAction(String action) {
+        String key = pendingKeys.get(action);
+        if (key == null) {
+            key = UUID.randomUUID().toString();
+            pendingKeys.put(action, key);
+        }
+        return key;
+    }
+
+    /**
+     * Record the server's answer for an action. Success and definite client errors forget the
+     * key, so doing the same thing again later is a new request. A 409 (first attempt still
+     * running) or a server error keeps it, so the user's retry picks up the original result.
+     */
+    public static synchronized void onResponse(String action, int statusCode) {
+        if (statusCode != 409 && statusCode < 500) {
+            pendingKeys.remove(action);
+        }
+    }
+
+    public static String generateVideo(String videoUrl) {
+        return "video.generate:" + videoUrl;
+    }
+
+    public static String generatePDF(int pdfId) {
+        return "pdf.generate:" + pdfId;
+    }
+}
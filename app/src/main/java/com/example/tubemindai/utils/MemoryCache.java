@@ -0,0 +1,306 @@
+package com.example.tubemindai.utils;
+
+import android.content.ComponentCallbacks2;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.models.ChatHistoryResponse;
+import com.example.tubemindai.api.models.ChatMessageResponse;
+import com.example.tubemindai.api.models.PDFChatHistoryResponse;
+import com.example.tubemindai.api.models.PDFChatMessageResponse;
+import com.example.tubemindai.api.models.PDFResponse;
+import com.example.tubemindai.api.models.VideoResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-scoped memory cache for notes and chat pages, bounded by an estimated byte size.
+ *
+ * Screens that already hold the notes put them here and pass only the id in the Intent,
+ * so long notes never go through Binder, and reopening a notes or chat screen is served
+ * from memory. Everything is lost with the process - readers must fall back to the API
+ * when a get returns null. The application trims this cache from onTrimMemory.
+ * Notes put here are also fed to NotesSearchIndex and RelatedNotesIndex, which keep them on disk.
+ */
+public class MemoryCache {
+    private static final String TAG = "MemoryCache";
+
+    // 1/32 of the heap, capped at 8 MB - notes are text, so this holds a few hundred entries
+    private static final int MAX_SIZE_BYTES = (int) Math.min(Runtime.getRuntime().maxMemory() / 32, 8L * 1024 * 1024);
+
+    // Rough per-object overhead (headers, references, boxed fields) added to string payloads
+    private static final int OBJECT_OVERHEAD_BYTES = 64;
+
+    private static final LruCache<String, Object> cache = new LruCache<String, Object>(MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(String key, Object value) {
+            return estimateSize(key, value);
+        }
+    };
+
+    // ========== VIDEO NOTES ==========
+
+    public static void putVideo(VideoResponse video) {
+        if (video != null && video.getId() > 0) {
+            cache.put(videoKey(video.getId()), video);
+            // Saved notes stay searchable after they leave memory
+            NotesSearchIndex index = NotesSearchIndex.get();
+            if (index != null) {
+                index.putVideo(video);
+            }
+            RelatedNotesIndex related = RelatedNotesIndex.get();
+            if (related != null) {
+                related.putVideo(video);
+            }
+        }
+    }
+
+    @Nullable
+    public static VideoResponse getVideo(int videoDbId) {
+        return (VideoResponse) cache.get(videoKey(videoDbId));
+    }
+
+    /**
+     * Drop a video's notes and chat page, e.g. after deleteVideo
+     */
+    public static void removeVideo(int videoDbId) {
+        cache.remove(videoKey(videoDbId));
+        cache.remove(videoChatKey(videoDbId));
+        NotesSearchIndex index = NotesSearchIndex.get();
+        if (index != null) {
+            index.remove(videoDbId);
+        }
+        RelatedNotesIndex related = RelatedNotesIndex.get();
+        if (related != null) {
+            related.remove(RelatedNotesIndex.KIND_VIDEO, videoDbId);
+        }
+        VideoPrefetcher.removeVideo(videoDbId);
+    }
+
+    // ========== PDF NOTES ==========
+
+    public static void putPDF(PDFResponse pdf) {
+        if (pdf != null && pdf.getId() > 0) {
+            cache.put(pdfKey(pdf.getId()), pdf);
+            RelatedNotesIndex related = RelatedNotesIndex.get();
+            if (related != null) {
+                related.putPDF(pdf);
+            }
+        }
+    }
+
+    @Nullable
+    public static PDFResponse getPDF(int pdfId) {
+        return (PDFResponse) cache.get(pdfKey(pdfId));
+    }
+
+    /**
+     * Drop a PDF's notes and chat page, e.g. after deletePDF
+     */
+    public static void removePDF(int pdfId) {
+        cache.remove(pdfKey(pdfId));
+        cache.remove(pdfChatKey(pdfId));
+        RelatedNotesIndex related = RelatedNotesIndex.get();
+        if (related != null) {
+            related.remove(RelatedNotesIndex.KIND_PDF, pdfId);
+        }
+    }
+
+    // ========== CHAT PAGES ==========
+
+    public static void putVideoChat(int videoDbId, ChatHistoryResponse history) {
+        if (history != null && history.getMessages() != null) {
+            cache.put(videoChatKey(videoDbId), history);
+        }
+    }
+
+    @Nullable
+    public static ChatHistoryResponse getVideoChat(int videoDbId) {
+        return (ChatHistoryResponse) cache.get(videoChatKey(videoDbId));
+    }
+
+    /**
+     * Append a newly sent message to the cached page (no-op if the page is not cached)
+     */
+    public static void appendVideoChatMessage(int videoDbId, ChatMessageResponse message) {
+        ChatHistoryResponse history = getVideoChat(videoDbId);
+        if (history == null || message == null) {
+            return;
+        }
+        // Copy so the size is re-accounted when the entry is put back
+        List<ChatMessageResponse> messages = new ArrayList<>(history.getMessages());
+        messages.add(message);
+        ChatHistoryResponse updated = new ChatHistoryResponse();
+        updated.setMessages(messages);
+        updated.setTotal(history.getTotal() + 1);
+        cache.put(videoChatKey(videoDbId), updated);
+    }
+
+    public static void removeVideoChat(int videoDbId) {
+        cache.remove(videoChatKey(videoDbId));
+    }
+
+    public static void putPDFChat(int pdfId, PDFChatHistoryResponse history) {
+        if (history != null && history.getMessages() != null) {
+            cache.put(pdfChatKey(pdfId), history);
+        }
+    }
+
+    @Nullable
+    public static PDFChatHistoryResponse getPDFChat(int pdfId) {
+        return (PDFChatHistoryResponse) cache.get(pdfChatKey(pdfId));
+    }
+
+    /**
+     * Append a newly sent message to the cached page (no-op if the page is not cached).
+     * The send response is the question row with the answer attached; the page stores them
+     * as two rows, the way the server's history does.
+     */
+    public static void appendPDFChatMessage(int pdfId, PDFChatMessageResponse message) {
+        PDFChatHistoryResponse history = getPDFChat(pdfId);
+        if (history == null || message == null) {
+            return;
+        }
+        PDFChatMessageResponse question = new PDFChatMessageResponse();
+        question.setId(message.getId());
+        question.setMessage(message.getMessage());
+        question.setUserMessage(true);
+        question.setClientMessageId(message.getClientMessageId());
+        question.setCreatedAt(message.getCreatedAt());
+
+        PDFChatMessageResponse answer = new PDFChatMessageResponse();
+        answer.setMessage("");
+        answer.setResponse(message.getResponse());
+        answer.setUserMessage(false);
+        answer.setClientMessageId(message.getClientMessageId());
+        answer.setCreatedAt(message.getCreatedAt());
+
+        List<PDFChatMessageResponse> messages = new ArrayList<>(history.getMessages());
+        messages.add(question);
+        messages.add(answer);
+        PDFChatHistoryResponse updated = new PDFChatHistoryResponse();
+        updated.setMessages(messages);
+        updated.setTotal(history.getTotal() + 2);
+        cache.put(pdfChatKey(pdfId), updated);
+    }
+
+    public static void removePDFChat(int pdfId) {
+        cache.remove(pdfChatKey(pdfId));
+    }
+
+    /**
+     * Drop every cached chat page, e.g. after deleteAllChatHistory
+     */
+    public static void removeAllChats() {
+        for (String key : cache.snapshot().keySet()) {
+            if (key.startsWith("chat:")) {
+                cache.remove(key);
+            }
+        }
+    }
+
+    // ========== MEMORY MANAGEMENT ==========
+
+    public static void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * Shrink the cache in response to ComponentCallbacks2.onTrimMemory
+     */
+    @SuppressWarnings("deprecation")
+    public static void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            // Process is a kill candidate or the system is about to start killing - free everything
+            cache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize(MAX_SIZE_BYTES / 4);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            cache.trimToSize(MAX_SIZE_BYTES / 2);
+        }
+        android.util.Log.d(TAG, "onTrimMemory(" + level + ") -> " + stats());
+    }
+
+    // ========== STATS ==========
+
+    public static int getHitCount() {
+        return cache.hitCount();
+    }
+
+    public static int getMissCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * Fraction of lookups served from memory, 0 if nothing has been looked up yet
+     */
+    public static float getHitRate() {
+        int hits = cache.hitCount();
+        int total = hits + cache.missCount();
+        return total == 0 ? 0f : (float) hits / total;
+    }
+
+    public static int getSizeBytes() {
+        return cache.size();
+    }
+
+    public static String stats() {
+        return "MemoryCache{size=" + cache.size() + "/" + cache.maxSize()
+                + ", hits=" + cache.hitCount()
+                + ", misses=" + cache.missCount()
+                + ", evictions=" + cache.evictionCount() + "}";
+    }
+
+    // ========== HELPERS ==========
+
+    private static String videoKey(int videoDbId) {
+        return "video:" + videoDbId;
+    }
+
+    private static String pdfKey(int pdfId) {
+        return "pdf:" + pdfId;
+    }
+
+    private static String videoChatKey(int videoDbId) {
+        return "chat:video:" + videoDbId;
+    }
+
+    private static String pdfChatKey(int pdfId) {
+        return "chat:pdf:" + pdfId;
+    }
+
+    private static int estimateSize(String key, Object value) {
+        int size = sizeOf(key) + OBJECT_OVERHEAD_BYTES;
+        if (value instanceof VideoResponse) {
+            VideoResponse video = (VideoResponse) value;
+            size += sizeOf(video.getVideoId()) + sizeOf(video.getVideoUrl()) + sizeOf(video.getTitle())
+                    + sizeOf(video.getThumbnailUrl()) + sizeOf(video.getThumbnailHash())
+                    + sizeOf(video.getDuration()) + sizeOf(video.getCreatedAt())
+                    + sizeOf(video.getSummary()) + sizeOf(video.getKeyPoints()) + sizeOf(video.getBulletNotes());
+        } else if (value instanceof PDFResponse) {
+            PDFResponse pdf = (PDFResponse) value;
+            size += sizeOf(pdf.getFileName())
+                    + sizeOf(pdf.getSummary()) + sizeOf(pdf.getKeyPoints()) + sizeOf(pdf.getBulletNotes());
+        } else if (value instanceof ChatHistoryResponse) {
+            for (ChatMessageResponse message : ((ChatHistoryResponse) value).getMessages()) {
+                size += OBJECT_OVERHEAD_BYTES + sizeOf(message.getMessage())
+                        + sizeOf(message.getResponse()) + sizeOf(message.getCreatedAt());
+            }
+        } else if (value instanceof PDFChatHistoryResponse) {
+            for (PDFChatMessageResponse message : ((PDFChatHistoryResponse) value).getMessages()) {
+                size += OBJECT_OVERHEAD_BYTES + sizeOf(message.getMessage()) + sizeOf(message.getResponse());
+            }
+        }
+        return size;
+    }
+
+    private static int sizeOf(String value) {
+        // UTF-16 chars plus the String/array headers
+        return value == null ? 0 : 40 + value.length() * 2;
+    }
+}
@@ -0,0 +1,829 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.SpannableStringBuilder;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.models.VideoResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device full-text search over saved notes - an inverted index with BM25 ranking.
+ *
+ * Notes are indexed as they pass through MemoryCache (full notes) or the saved notes list
+ * (title and summary preview only, replaced once the full note is seen). Each field is
+ * weighted - a hit in the title counts more than one in the bullet notes. The last query
+ * word is matched as a prefix so results update while typing.
+ *
+ * The index lives in memory behind one lock and is written to a single file a few seconds
+ * after the last change: front-coded terms, delta-encoded doc ids and varint term counts.
+ */
+public class NotesSearchIndex {
+    private static final String TAG = "NotesSearchIndex";
+    private static final String FILE_NAME = "notes_search.idx";
+    private static final int MAGIC = 0x544d5349;    // "TMSI"
+    private static final int VERSION = 1;
+
+    private static final int FIELD_TITLE = 0;
+    private static final int FIELD_SUMMARY = 1;
+    private static final int FIELD_KEY_POINTS = 2;
+    private static final int FIELD_BULLET_NOTES = 3;
+    private static final int FIELD_COUNT = 4;
+    private static final float[] FIELD_WEIGHTS = {3.0f, 1.0f, 1.5f, 1.0f};
+
+    // BM25 parameters - the usual defaults
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    // A one-letter prefix would expand to most of the dictionary - only the terms in the most
+    // notes are scored, so "re" finds "react" before a rare "reassemble" that sorts earlier
+    private static final int MAX_PREFIX_EXPANSIONS = 32;
+    // Prefix expansions rank just below an exact hit on the same word
+    private static final float PREFIX_MATCH_FACTOR = 0.9f;
+    private static final int SNIPPET_CHARS = 160;
+    private static final int SNIPPET_LEAD_CHARS = 40;
+    private static final long SAVE_DELAY_MS = 3_000;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it",
+            "its", "of", "on", "or", "that", "the", "this", "to", "was", "were", "will", "with"));
+
+    private static NotesSearchIndex instance;
+
+    /**
+     * One search hit. Title and snippet carry bold spans on the matched words.
+     */
+    public static class Result {
+        private final int videoDbId;
+        private final String videoId;
+        private final String videoUrl;
+        private final String createdAt;
+        private final String title;
+        private final CharSequence highlightedTitle;
+        private final CharSequence snippet;
+        private final float score;
+
+        Result(Doc doc, CharSequence highlightedTitle, CharSequence snippet, float score) {
+            this.videoDbId = doc.id;
+            this.videoId = doc.videoId;
+            this.videoUrl = doc.videoUrl;
+            this.createdAt = doc.createdAt;
+            this.title = doc.fields[FIELD_TITLE];
+            this.highlightedTitle = highlightedTitle;
+            this.snippet = snippet;
+            this.score = score;
+        }
+
+        public int getVideoDbId() {
+            return videoDbId;
+        }
+
+        public String getVideoId() {
+            return videoId;
+        }
+
+        public String getVideoUrl() {
+            return videoUrl;
+        }
+
+        public String getCreatedAt() {
+            return createdAt;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public CharSequence getHighlightedTitle() {
+            return highlightedTitle;
+        }
+
+        public CharSequence getSnippet() {
+            return snippet;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private static class Doc {
+        int id;
+        boolean full;   // false while only the list preview is known
+        String videoId;
+        String videoUrl;
+        String createdAt;
+        final String[] fields = new String[FIELD_COUNT];
+        final int[] lengths = new int[FIELD_COUNT];
+
+        float weightedLength() {
+            float length = 0;
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                length += FIELD_WEIGHTS[f] * lengths[f];
+            }
+            return length;
+        }
+    }
+
+    /**
+     * Doc ids containing a term, sorted, with per-field counts packed one byte per field
+     */
+    private static class Postings {
+        int size;
+        int[] docIds = new int[4];
+        int[] fieldCounts = new int[4];
+
+        void put(int docId, int counts) {
+            int index = Arrays.binarySearch(docIds, 0, size, docId);
+            if (index >= 0) {
+                fieldCounts[index] = counts;
+                return;
+            }
+            index = -index - 1;
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                fieldCounts = Arrays.copyOf(fieldCounts, size * 2);
+            }
+            System.arraycopy(docIds, index, docIds, index + 1, size - index);
+            System.arraycopy(fieldCounts, index, fieldCounts, index + 1, size - index);
+            docIds[index] = docId;
+            fieldCounts[index] = counts;
+            size++;
+        }
+
+        void remove(int docId) {
+            int index = Arrays.binarySearch(docIds, 0, size, docId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+            System.arraycopy(fieldCounts, index + 1, fieldCounts, index, size - index - 1);
+            size--;
+        }
+    }
+
+    private final File file;
+    private final Executor io;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable saveRunnable;
+
+    // Guarded by this
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private float totalWeightedLength;
+    private boolean ready;
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private final List<Runnable> readyCallbacks = new ArrayList<>();
+
+    private NotesSearchIndex(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME), Executors.newSingleThreadExecutor());
+    }
+
+    /**
+     * An index stored in file, doing its disk work on io
+     */
+    NotesSearchIndex(File file, Executor io) {
+        this.file = file;
+        this.io = io;
+        saveRunnable = () -> io.execute(this::save);
+        io.execute(this::load);
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new NotesSearchIndex(context.getApplicationContext());
+        }
+    }
+
+    @Nullable
+    public static synchronized NotesSearchIndex get() {
+        return instance;
+    }
+
+    // ========== UPDATES ==========
+
+    /**
+     * Index a saved video's full notes. Unsaved videos are not searchable, so the video must
+     * carry the server's is_saved.
+     */
+    public void putVideo(VideoResponse video) {
+        if (video == null || video.getId() <= 0) {
+            return;
+        }
+        if (!video.isSaved()) {
+            remove(video.getId());
+            return;
+        }
+        Doc doc = new Doc();
+        doc.id = video.getId();
+        doc.full = true;
+        doc.videoId = video.getVideoId();
+        doc.videoUrl = video.getVideoUrl();
+        doc.createdAt = video.getCreatedAt();
+        doc.fields[FIELD_TITLE] = video.getTitle();
+        doc.fields[FIELD_SUMMARY] = video.getSummary();
+        doc.fields[FIELD_KEY_POINTS] = video.getKeyPoints();
+        doc.fields[FIELD_BULLET_NOTES] = video.getBulletNotes();
+        put(doc);
+    }
+
+    /**
+     * Index a saved notes list row. Ignored if the full notes are already indexed.
+     */
+    public void putPreview(int videoDbId, String videoId, String videoUrl, String createdAt,
+                           String title, String summaryPreview) {
+        if (videoDbId <= 0) {
+            return;
+        }
+        Doc doc = new Doc();
+        doc.id = videoDbId;
+        doc.videoId = videoId;
+        doc.videoUrl = videoUrl;
+        doc.createdAt = createdAt;
+        doc.fields[FIELD_TITLE] = title;
+        doc.fields[FIELD_SUMMARY] = summaryPreview;
+        put(doc);
+    }
+
+    public void remove(int videoDbId) {
+        change(() -> {
+            Doc old = docs.remove(videoDbId);
+            if (old != null) {
+                unindex(old);
+            }
+        });
+    }
+
+    /**
+     * Drop the whole index, e.g. on logout - another user must not find these notes
+     */
+    public static void clear(Context context) {
+        NotesSearchIndex index = get();
+        if (index == null) {
+            new File(context.getFilesDir(), FILE_NAME).delete();
+            return;
+        }
+        index.mainHandler.removeCallbacks(index.saveRunnable);
+        synchronized (index) {
+            index.docs.clear();
+            index.terms.clear();
+            index.totalWeightedLength = 0;
+            index.pendingChanges.clear();
+        }
+        index.io.execute(index.file::delete);
+    }
+
+    /**
+     * Run callback on the main thread once the index has been read from disk
+     */
+    public void whenReady(Runnable callback) {
+        synchronized (this) {
+            if (!ready) {
+                readyCallbacks.add(callback);
+                return;
+            }
+        }
+        mainHandler.post(callback);
+    }
+
+    private void put(Doc doc) {
+        change(() -> {
+            Doc old = docs.get(doc.id);
+            if (old != null) {
+                if (old.full && !doc.full) {
+                    return;
+                }
+                unindex(old);
+            }
+            index(doc);
+        });
+    }
+
+    private void change(Runnable change) {
+        synchronized (this) {
+            if (!ready) {
+                // Applied on top of the disk copy once it is loaded
+                pendingChanges.add(change);
+                return;
+            }
+            change.run();
+        }
+        mainHandler.removeCallbacks(saveRunnable);
+        mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+    }
+
+    private void index(Doc doc) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            String text = doc.fields[f];
+            doc.lengths[f] = 0;
+            if (text == null) {
+                continue;
+            }
+            int shift = 8 * f;
+            for (String term : terms(text)) {
+                doc.lengths[f]++;
+                Integer packed = counts.get(term);
+                int value = packed != null ? packed : 0;
+                if (((value >>> shift) & 0xff) < 0xff) {
+                    counts.put(term, value + (1 << shift));
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            Postings postings = terms.get(entry.getKey());
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(entry.getKey(), postings);
+            }
+            postings.put(doc.id, entry.getValue());
+        }
+        docs.put(doc.id, doc);
+        totalWeightedLength += doc.weightedLength();
+    }
+
+    private void unindex(Doc doc) {
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            if (doc.fields[f] == null) {
+                continue;
+            }
+            for (String term : terms(doc.fields[f])) {
+                Postings postings = terms.get(term);
+                if (postings != null) {
+                    postings.remove(doc.id);
+                    if (postings.size == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+        }
+        totalWeightedLength = Math.max(0, totalWeightedLength - doc.weightedLength());
+    }
+
+    // ========== SEARCH ==========
+
+    /**
+     * Rank saved notes containing every query word (the last one as a prefix), best first.
+     * Returns an empty list until the index has been loaded.
+     */
+    public List<Result> search(String query, int limit) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        List<String> words = new ArrayList<>();
+        for (int[] span : tokenSpans(query)) {
+            words.add(query.substring(span[0], span[1]).toLowerCase(Locale.ROOT));
+        }
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Still typing the last word unless the query ends with a separator
+        boolean lastIsPrefix = Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        List<Result> results = new ArrayList<>();
+        synchronized (this) {
+            if (!ready || docs.isEmpty()) {
+                return Collections.emptyList();
+            }
+            float averageLength = Math.max(1f, totalWeightedLength / docs.size());
+            Map<Integer, Float> scores = null;
+            for (int i = 0; i < words.size(); i++) {
+                String word = words.get(i);
+                boolean prefix = lastIsPrefix && i == words.size() - 1;
+                if (!prefix && (word.length() < MIN_TOKEN_LENGTH || STOP_WORDS.contains(word))) {
+                    continue;
+                }
+                Map<Integer, Float> wordScores = scoreWord(word, prefix, averageLength);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    // Every word must match
+                    Map<Integer, Float> both = new HashMap<>();
+                    for (Map.Entry<Integer, Float> entry : wordScores.entrySet()) {
+                        Float previous = scores.get(entry.getKey());
+                        if (previous != null) {
+                            both.put(entry.getKey(), previous + entry.getValue());
+                        }
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+            if (scores == null || scores.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+            Collections.sort(ranked, (a, b) -> Float.compare(b.getValue(), a.getValue()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) {
+                Doc doc = docs.get(ranked.get(i).getKey());
+                String title = doc.fields[FIELD_TITLE] != null ? doc.fields[FIELD_TITLE] : "";
+                results.add(new Result(doc,
+                        highlight(title, 0, title.length(), words, lastIsPrefix),
+                        snippet(doc, words, lastIsPrefix),
+                        ranked.get(i).getValue()));
+            }
+        }
+        android.util.Log.d(TAG, "search \"" + query + "\" -> " + results.size() + " results in "
+                + (SystemClock.elapsedRealtimeNanos() - start) / 1000 + " us");
+        return results;
+    }
+
+    /**
+     * BM25 score of every doc containing the word (or, for a prefix, its best expansion)
+     */
+    private Map<Integer, Float> scoreWord(String word, boolean prefix, float averageLength) {
+        Map<Integer, Float> scores = new HashMap<>();
+        List<Map.Entry<String, Postings>> matches;
+        if (prefix) {
+            matches = topExpansions(word);
+        } else {
+            Postings postings = terms.get(word);
+            matches = postings != null
+                    ? Collections.<Map.Entry<String, Postings>>singletonList(new AbstractMap.SimpleImmutableEntry<>(word, postings))
+                    : Collections.<Map.Entry<String, Postings>>emptyList();
+        }
+        for (Map.Entry<String, Postings> match : matches) {
+            float factor = match.getKey().equals(word) ? 1f : PREFIX_MATCH_FACTOR;
+            Postings postings = match.getValue();
+            float idf = (float) Math.log(1 + (docs.size() - postings.size + 0.5) / (postings.size + 0.5));
+            for (int p = 0; p < postings.size; p++) {
+                Doc doc = docs.get(postings.docIds[p]);
+                int counts = postings.fieldCounts[p];
+                float tf = 0;
+                for (int f = 0; f < FIELD_COUNT; f++) {
+                    tf += FIELD_WEIGHTS[f] * ((counts >>> (8 * f)) & 0xff);
+                }
+                float norm = K1 * (1 - B + B * doc.weightedLength() / averageLength);
+                float score = factor * idf * tf * (K1 + 1) / (tf + norm);
+                Float best = scores.get(doc.id);
+                if (best == null || score > best) {
+                    scores.put(doc.id, score);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * The word itself if indexed, then the MAX_PREFIX_EXPANSIONS terms starting with it that are
+     * in the most notes. Only the keys are walked - postings are scored for the chosen few.
+     */
+    private List<Map.Entry<String, Postings>> topExpansions(String prefix) {
+        List<Map.Entry<String, Postings>> matches =
+                new ArrayList<>(terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet());
+        if (matches.size() > MAX_PREFIX_EXPANSIONS) {
+            Collections.sort(matches, (a, b) -> {
+                boolean aExact = a.getKey().equals(prefix);
+                boolean bExact = b.getKey().equals(prefix);
+                if (aExact != bExact) {
+                    return aExact ? -1 : 1;
+                }
+                return Integer.compare(b.getValue().size, a.getValue().size);
+            });
+            matches = matches.subList(0, MAX_PREFIX_EXPANSIONS);
+        }
+        return matches;
+    }
+
+    /**
+     * A window of the body field with the most matches, starting just before the first one
+     */
+    private static CharSequence snippet(Doc doc, List<String> words, boolean lastIsPrefix) {
+        String bestText = null;
+        int bestStart = 0;
+        int bestHits = 0;
+        for (int f = FIELD_SUMMARY; f < FIELD_COUNT; f++) {
+            String text = doc.fields[f];
+            if (text == null) {
+                continue;
+            }
+            int hits = 0;
+            int firstHit = -1;
+            for (int[] span : tokenSpans(text)) {
+                if (matches(text.substring(span[0], span[1]).toLowerCase(Locale.ROOT), words, lastIsPrefix)) {
+                    hits++;
+                    if (firstHit < 0) {
+                        firstHit = span[0];
+                    }
+                }
+            }
+            if (hits > bestHits || bestText == null) {
+                bestText = text;
+                bestHits = hits;
+                bestStart = firstHit < 0 ? 0 : firstHit;
+            }
+        }
+        if (bestText == null) {
+            return "";
+        }
+
+        int start = Math.max(0, bestStart - SNIPPET_LEAD_CHARS);
+        // Begin on a word boundary
+        while (start > 0 && Character.isLetterOrDigit(bestText.charAt(start - 1))) {
+            start++;
+        }
+        int end = Math.min(bestText.length(), start + SNIPPET_CHARS);
+        SpannableStringBuilder snippet = new SpannableStringBuilder();
+        if (start > 0) {
+            snippet.append("…");
+        }
+        snippet.append(highlight(bestText, start, end, words, lastIsPrefix));
+        if (end < bestText.length()) {
+            snippet.append("…");
+        }
+        return snippet;
+    }
+
+    private static CharSequence highlight(String text, int start, int end, List<String> words, boolean lastIsPrefix) {
+        String window = text.substring(start, end).replace('\n', ' ');
+        SpannableStringBuilder builder = new SpannableStringBuilder(window);
+        for (int[] span : tokenSpans(window)) {
+            if (matches(window.substring(span[0], span[1]).toLowerCase(Locale.ROOT), words, lastIsPrefix)) {
+                builder.setSpan(new StyleSpan(Typeface.BOLD), span[0], span[1], Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+            }
+        }
+        return builder;
+    }
+
+    private static boolean matches(String token, List<String> words, boolean lastIsPrefix) {
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            if (token.equals(word) || (lastIsPrefix && i == words.size() - 1 && token.startsWith(word))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ========== TOKENIZER ==========
+
+    /**
+     * Index terms of a text: lowercased letter/digit runs, without stop words and single letters.
+     * Also the shingles RelatedNotesIndex hashes, so both agree on what a word is.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        for (int[] span : tokenSpans(text)) {
+            if (span[1] - span[0] < MIN_TOKEN_LENGTH) {
+                continue;
+            }
+            String term = text.substring(span[0], span[1]).toLowerCase(Locale.ROOT);
+            if (!STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static List<int[]> tokenSpans(String text) {
+        List<int[]> spans = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                spans.add(new int[]{start, i});
+                start = -1;
+            }
+        }
+        return spans;
+    }
+
+    // ========== PERSISTENCE (io thread) ==========
+    // [int magic][int version][varint docCount]
+    // doc: [varint id][byte full][string videoId, videoUrl, createdAt][4 x string field][4 x varint length]
+    // [varint termCount]
+    // term: [varint shared prefix with previous term][string suffix][varint postingCount]
+    // posting: [varint doc id delta][byte field mask][varint count per field in mask]
+    // string: [varint byteLength + 1, 0 for null][UTF-8 bytes]
+
+    private void load() {
+        Map<Integer, Doc> loadedDocs = new HashMap<>();
+        TreeMap<String, Postings> loadedTerms = new TreeMap<>();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Unknown index format");
+                }
+                int docCount = readVarint(in);
+                for (int i = 0; i < docCount; i++) {
+                    Doc doc = new Doc();
+                    doc.id = readVarint(in);
+                    doc.full = in.readByte() != 0;
+                    doc.videoId = readString(in);
+                    doc.videoUrl = readString(in);
+                    doc.createdAt = readString(in);
+                    for (int f = 0; f < FIELD_COUNT; f++) {
+                        doc.fields[f] = readString(in);
+                    }
+                    for (int f = 0; f < FIELD_COUNT; f++) {
+                        doc.lengths[f] = readVarint(in);
+                    }
+                    loadedDocs.put(doc.id, doc);
+                }
+                int termCount = readVarint(in);
+                String previous = "";
+                for (int i = 0; i < termCount; i++) {
+                    int shared = readVarint(in);
+                    String term = previous.substring(0, shared) + readString(in);
+                    Postings postings = new Postings();
+                    int count = readVarint(in);
+                    postings.docIds = new int[Math.max(4, count)];
+                    postings.fieldCounts = new int[Math.max(4, count)];
+                    int docId = 0;
+                    for (int p = 0; p < count; p++) {
+                        docId += readVarint(in);
+                        int mask = in.readUnsignedByte();
+                        int counts = 0;
+                        for (int f = 0; f < FIELD_COUNT; f++) {
+                            if ((mask & (1 << f)) != 0) {
+                                counts |= Math.min(0xff, readVarint(in)) << (8 * f);
+                            }
+                        }
+                        postings.docIds[p] = docId;
+                        postings.fieldCounts[p] = counts;
+                    }
+                    postings.size = count;
+                    loadedTerms.put(term, postings);
+                    previous = term;
+                }
+            } catch (IOException | RuntimeException e) {
+                android.util.Log.w(TAG, "Discarding unreadable search index", e);
+                loadedDocs.clear();
+                loadedTerms.clear();
+                file.delete();
+            }
+        }
+
+        List<Runnable> callbacks;
+        boolean changed;
+        synchronized (this) {
+            docs.putAll(loadedDocs);
+            terms.putAll(loadedTerms);
+            totalWeightedLength = 0;
+            for (Doc doc : docs.values()) {
+                totalWeightedLength += doc.weightedLength();
+            }
+            ready = true;
+            changed = !pendingChanges.isEmpty();
+            for (Runnable change : pendingChanges) {
+                change.run();
+            }
+            pendingChanges.clear();
+            callbacks = new ArrayList<>(readyCallbacks);
+            readyCallbacks.clear();
+        }
+        android.util.Log.d(TAG, "Loaded " + loadedDocs.size() + " notes, " + loadedTerms.size() + " terms");
+        if (changed) {
+            mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+        }
+        for (Runnable callback : callbacks) {
+            mainHandler.post(callback);
+        }
+    }
+
+    private void save() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            // Serialize under the lock, write to disk outside it
+            synchronized (this) {
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeVarint(out, docs.size());
+                for (Doc doc : docs.values()) {
+                    writeVarint(out, doc.id);
+                    out.writeByte(doc.full ? 1 : 0);
+                    writeString(out, doc.videoId);
+                    writeString(out, doc.videoUrl);
+                    writeString(out, doc.createdAt);
+                    for (int f = 0; f < FIELD_COUNT; f++) {
+                        writeString(out, doc.fields[f]);
+                    }
+                    for (int f = 0; f < FIELD_COUNT; f++) {
+                        writeVarint(out, doc.lengths[f]);
+                    }
+                }
+                writeVarint(out, terms.size());
+                String previous = "";
+                for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                    String term = entry.getKey();
+                    int shared = 0;
+                    int max = Math.min(previous.length(), term.length());
+                    while (shared < max && previous.charAt(shared) == term.charAt(shared)) {
+                        shared++;
+                    }
+                    writeVarint(out, shared);
+                    writeString(out, term.substring(shared));
+                    Postings postings = entry.getValue();
+                    writeVarint(out, postings.size);
+                    int previousId = 0;
+                    for (int p = 0; p < postings.size; p++) {
+                        writeVarint(out, postings.docIds[p] - previousId);
+                        previousId = postings.docIds[p];
+                        int counts = postings.fieldCounts[p];
+                        int mask = 0;
+                        for (int f = 0; f < FIELD_COUNT; f++) {
+                            if (((counts >>> (8 * f)) & 0xff) != 0) {
+                                mask |= 1 << f;
+                            }
+                        }
+                        out.writeByte(mask);
+                        for (int f = 0; f < FIELD_COUNT; f++) {
+                            if ((mask & (1 << f)) != 0) {
+                                writeVarint(out, (counts >>> (8 * f)) & 0xff);
+                            }
+                        }
+                    }
+                    previous = term;
+                }
+                out.flush();
+            }
+
+            File tmp = new File(file.getPath() + ".tmp");
+            try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+                bytes.writeTo(out);
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Rename failed");
+            }
+            android.util.Log.d(TAG, "Saved search index: " + bytes.size() + " bytes");
+        } catch (IOException e) {
+            android.util.Log.w(TAG, "Failed to save search index", e);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarint(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.tubemindai.utils;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.tubemindai.api.StreamingListLoader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Response;
+
+/**
+ * A list of server rows fetched a page at a time as the user scrolls, for the admin screens.
+ *
+ * size() is the server's total once the first page has arrived, so the scrollbar covers every
+ * row. get() is for binding: it returns null for rows whose page is not loaded yet - the adapter
+ * binds those as placeholders - and asks for that page. Binding a row within PREFETCH_DISTANCE
+ * of a page edge also asks for the neighbouring page, so it is usually there before it scrolls
+ * into view. Anything else reading rows (e.g. a preloader) uses peek(), which has no side effects.
+ * This is deliberately not a java.util.List: iterating it, indexOf() or contains() would fetch
+ * every page.
+ * Only one page is fetched at a time: further requests wait, and the running one is cancelled
+ * when the user has scrolled far away from it. At most MAX_RESIDENT_PAGES pages are kept -
+ * the ones farthest from the last bound row are dropped and fetched again if they come back.
+ * Main thread only.
+ */
+public class PagedList<T> {
+    private static final String TAG = "PagedList";
+    public static final int PAGE_SIZE = 50;
+    // Rows from a page edge at which the neighbouring page is requested
+    private static final int PREFETCH_DISTANCE = 15;
+    private static final int MAX_RESIDENT_PAGES = 6;
+
+    /**
+     * Fetches rows [skip, skip + limit) of the current query
+     */
+    public interface PageSource<T> {
+        StreamingListLoader.Handle load(int skip, int limit, StreamingListLoader.Listener<T> listener);
+    }
+
+    public interface Listener<T> {
+        /**
+         * Rows arrived from the server, in batches as they are parsed
+         */
+        void onRows(List<T> batch);
+
+        /**
+         * The first page of load() started arriving, or finished empty
+         */
+        void onFirstPage(boolean empty);
+
+        void onError(Response<?> errorResponse, Throwable error);
+    }
+
+    private final PageSource<T> source;
+    private final Listener<T> listener;
+    private RecyclerView.Adapter<?> adapter;
+
+    private final Map<Integer, List<T>> pages = new HashMap<>();
+    // Rows shown until the first page of the next load() arrives, e.g. local search matches
+    private List<T> preview = new ArrayList<>();
+    // Server's row count, -1 until the first page has completed
+    private int total = -1;
+    // Bumped by reset() so callbacks of older loads are dropped
+    private int generation;
+    private StreamingListLoader.Handle inFlight;
+    private int inFlightPage = -1;
+    // Latest page asked for while another one was in flight
+    private int wantedPage = -1;
+    private int lastPosition;
+
+    public PagedList(PageSource<T> source, Listener<T> listener) {
+        this.source = source;
+        this.listener = listener;
+    }
+
+    /**
+     * The adapter bound to this list, notified as pages arrive or are dropped
+     */
+    public void setAdapter(RecyclerView.Adapter<?> adapter) {
+        this.adapter = adapter;
+    }
+
+    /**
+     * Drop all pages and show previewRows until the next load() delivers its first rows
+     */
+    public void reset(@Nullable List<T> previewRows) {
+        generation++;
+        cancelInFlight();
+        pages.clear();
+        total = -1;
+        wantedPage = -1;
+        lastPosition = 0;
+        preview = previewRows != null ? new ArrayList<>(previewRows) : new ArrayList<>();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Fetch the first page of the current query; the rows on screen stay until it arrives
+     */
+    public void load() {
+        cancelInFlight();
+        wantedPage = -1;
+        start(0);
+    }
+
+    /**
+     * Stop the running page fetch, e.g. when the screen is destroyed
+     */
+    public void cancel() {
+        generation++;
+        cancelInFlight();
+    }
+
+    public int size() {
+        if (total >= 0) {
+            return total;
+        }
+        // First page still streaming - its rows so far, or the preview before any arrived
+        List<T> first = pages.get(0);
+        return first != null ? first.size() : preview.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * The row at position if its page is loaded, else null - without fetching anything or
+     * moving the position pages are kept around
+     */
+    @Nullable
+    public T peek(int position) {
+        List<T> rows = rowsAt(position);
+        int offset = total < 0 ? position : position % PAGE_SIZE;
+        return rows != null && position >= 0 && offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    /**
+     * The row being bound at position, or null if its page is not loaded yet (and is now being
+     * fetched). Only onBindViewHolder should call this - see peek().
+     */
+    @Nullable
+    public T get(int position) {
+        if (total < 0) {
+            List<T> first = pages.get(0);
+            List<T> rows = first != null ? first : preview;
+            return position < rows.size() ? rows.get(position) : null;
+        }
+        lastPosition = position;
+        int page = position / PAGE_SIZE;
+        int offset = position % PAGE_SIZE;
+        List<T> rows = pages.get(page);
+        if (rows == null || offset >= rows.size()) {
+            request(page);
+            return null;
+        }
+        if (offset >= PAGE_SIZE - PREFETCH_DISTANCE) {
+            request(page + 1);
+        } else if (offset < PREFETCH_DISTANCE) {
+            request(page - 1);
+        }
+        return rows.get(offset);
+    }
+
+    public T set(int position, T row) {
+        List<T> rows = rowsAt(position);
+        int offset = total < 0 ? position : position % PAGE_SIZE;
+        if (rows == null || offset >= rows.size()) {
+            return null;
+        }
+        return rows.set(offset, row);
+    }
+
+    /**
+     * Remove a deleted row. Pages after it are dropped, since every row there moved up by one;
+     * they and the gap at the end of this page are fetched again when bound. The adapter
+     * notifies the removal itself.
+     */
+    public T remove(int position) {
+        List<T> rows = rowsAt(position);
+        int offset = total < 0 ? position : position % PAGE_SIZE;
+        if (rows == null || offset >= rows.size()) {
+            return null;
+        }
+        T removed = rows.remove(offset);
+        if (total > 0) {
+            total--;
+            int page = position / PAGE_SIZE;
+            if (inFlightPage >= page) {
+                // Its rows were requested with the old offsets
+                cancelInFlight();
+            }
+            List<Integer> later = new ArrayList<>();
+            for (int loaded : pages.keySet()) {
+                if (loaded > page) {
+                    later.add(loaded);
+                }
+            }
+            for (int loaded : later) {
+                pages.remove(loaded);
+            }
+        }
+        return removed;
+    }
+
+    @Nullable
+    private List<T> rowsAt(int position) {
+        if (total < 0) {
+            List<T> first = pages.get(0);
+            return first != null ? first : preview;
+        }
+        return pages.get(position / PAGE_SIZE);
+    }
+
+    private void request(int page) {
+        if (page < 0 || page * PAGE_SIZE >= total || page == inFlightPage || isComplete(page)) {
+            return;
+        }
+        if (inFlight != null) {
+            if (Math.abs(inFlightPage - lastPosition / PAGE_SIZE) <= 1) {
+                // Still useful - fetch this one next
+                wantedPage = page;
+                return;
+            }
+            // The user scrolled away from the running page
+            cancelInFlight();
+        }
+        // Rows are delivered on a later main-thread message, never inside the bind that asked
+        start(page);
+    }
+
+    private boolean isComplete(int page) {
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            return false;
+        }
+        int expected = total < 0 ? PAGE_SIZE : Math.min(PAGE_SIZE, total - page * PAGE_SIZE);
+        return rows.size() >= expected;
+    }
+
+    private void start(int page) {
+        final int loadGeneration = generation;
+        final int firstPosition = page * PAGE_SIZE;
+        final List<T> rows = new ArrayList<>();
+        inFlightPage = page;
+        inFlight = source.load(firstPosition, PAGE_SIZE, new StreamingListLoader.Listener<T>() {
+            @Override
+            public void onItems(List<T> batch) {
+                if (loadGeneration != generation || inFlightPage != page) {
+                    return;
+                }
+                listener.onRows(batch);
+                int start = rows.size();
+                rows.addAll(batch);
+                if (total < 0) {
+                    // First page of a load: its rows replace the preview, then grow below it
+                    boolean first = start == 0;
+                    pages.put(0, rows);
+                    if (first) {
+                        preview = new ArrayList<>();
+                        notifyDataSetChanged();
+                        listener.onFirstPage(false);
+                    } else if (adapter != null) {
+                        adapter.notifyItemRangeInserted(start, batch.size());
+                    }
+                    return;
+                }
+                // A later page (or a refetch) fills placeholders that are already counted
+                pages.put(page, rows);
+                if (adapter != null) {
+                    int count = Math.min(batch.size(), total - firstPosition - start);
+                    if (count > 0) {
+                        adapter.notifyItemRangeChanged(firstPosition + start, count);
+                    }
+                }
+            }
+
+            @Override
+            public void onComplete(int serverTotal) {
+                if (loadGeneration != generation || inFlightPage != page) {
+                    return;
+                }
+                inFlight = null;
+                inFlightPage = -1;
+                boolean firstPage = total < 0;
+                int newTotal;
+                if (rows.size() < PAGE_SIZE) {
+                    // A short page is the end of the list, whatever "total" said
+                    newTotal = firstPosition + rows.size();
+                } else if (serverTotal >= 0) {
+                    newTotal = Math.max(serverTotal, firstPosition + rows.size());
+                } else {
+                    // No "total" - keep one placeholder row past the last full page
+                    newTotal = Math.max(total, firstPosition + rows.size() + 1);
+                }
+                if (rows.isEmpty()) {
+                    pages.remove(page);
+                }
+                if (newTotal != total) {
+                    total = newTotal;
+                    // Placeholders for the rows after this page appear (or the list shrank)
+                    notifyDataSetChanged();
+                }
+                if (firstPage && rows.isEmpty()) {
+                    listener.onFirstPage(true);
+                }
+                evictFarPages();
+                int next = wantedPage;
+                wantedPage = -1;
+                if (next >= 0) {
+                    request(next);
+                }
+                if (inFlight == null) {
+                    // The page under the user may have been passed over while this one ran
+                    request(lastPosition / PAGE_SIZE);
+                }
+            }
+
+            @Override
+            public void onError(Response<?> errorResponse, Throwable error) {
+                if (loadGeneration != generation || inFlightPage != page) {
+                    return;
+                }
+                inFlight = null;
+                inFlightPage = -1;
+                wantedPage = -1;
+                android.util.Log.w(TAG, "Page " + page + " failed", error);
+                // Rows of this page stay placeholders and are asked for again when bound
+                listener.onError(errorResponse, error);
+            }
+        });
+    }
+
+    private void evictFarPages() {
+        int currentPage = lastPosition / PAGE_SIZE;
+        while (pages.size() > MAX_RESIDENT_PAGES) {
+            int farthest = -1;
+            for (int page : pages.keySet()) {
+                if (page != inFlightPage
+                        && (farthest < 0 || Math.abs(page - currentPage) > Math.abs(farthest - currentPage))) {
+                    farthest = page;
+                }
+            }
+            if (farthest < 0) {
+                return;
+            }
+            List<T> dropped = pages.remove(farthest);
+            // Rebind cached views of those rows as placeholders, which fetches the page again
+            if (adapter != null && dropped != null && !dropped.isEmpty()) {
+                adapter.notifyItemRangeChanged(farthest * PAGE_SIZE, dropped.size());
+            }
+        }
+    }
+
+    private void cancelInFlight() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+        inFlightPage = -1;
+    }
+
+    private void notifyDataSetChanged() {
+        if (adapter != null) {
+            adapter.notifyDataSetChanged();
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.models.PDFResponse;
+import com.example.tubemindai.api.models.VideoResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Finds notes on the same topic as the one being read - video and PDF notes alike.
+ *
+ * Each note's word set gets a 64-value MinHash signature; the share of equal values between
+ * two signatures estimates the Jaccard similarity of their word sets. Words every generated
+ * note uses ("summary", "speaker", "explains"...) are left out, or any two notes would look
+ * alike. The first 48 values are cut into 16 bands of 3 rows and every band is hashed into a
+ * bucket, so notes sharing any band are candidates. A lookup probes 16 buckets instead of
+ * comparing against the whole library. Notes sharing 40% of their vocabulary are found two
+ * times in three and 50% nearly always, while pairs under 20% rarely meet in a bucket.
+ *
+ * Saved notes are added as they pass through MemoryCache, and signatures are kept in one file.
+ * Unsaved videos are only kept in memory so their own related notes can be looked up - they are
+ * never suggested.
+ */
+public class RelatedNotesIndex {
+    private static final String TAG = "RelatedNotesIndex";
+    private static final String FILE_NAME = "related_notes.idx";
+    private static final int MAGIC = 0x544d524e;    // "TMRN"
+    private static final int VERSION = 2;
+
+    public static final String KIND_VIDEO = "video";
+    public static final String KIND_PDF = "pdf";
+
+    private static final int SIGNATURE_SIZE = 64;
+    private static final int BANDS = 16;
+    private static final int ROWS = 3;
+    // Below this estimated Jaccard similarity a shared bucket is treated as chance
+    private static final float MIN_SIMILARITY = 0.25f;
+    // Bounds the work per lookup even when a common topic fills a bucket
+    private static final int MAX_CANDIDATES = 256;
+    // Too few words for a meaningful signature (e.g. a failed generation)
+    private static final int MIN_TERMS = 8;
+    private static final long SAVE_DELAY_MS = 3_000;
+
+    // Words of the notes template and the AI's narration - they say nothing about the topic
+    private static final Set<String> TEMPLATE_WORDS = new HashSet<>(Arrays.asList(
+            "summary", "key", "points", "point", "bullet", "notes", "note", "main", "purpose",
+            "takeaways", "takeaway", "messages", "message", "overall", "video", "pdf", "document",
+            "transcript", "speaker", "presenter", "author", "discusses", "discussed", "explains",
+            "explained", "describes", "covers", "covered", "highlights", "mentions", "talks",
+            "about", "also", "important", "example", "examples", "including", "such", "these",
+            "they", "their", "them", "you", "your", "we", "our", "can", "how", "what", "which",
+            "not", "but", "more", "into", "other", "use", "used", "using", "one", "two", "like"));
+
+    // One seed per hash function - fixed, because signatures are stored on disk
+    private static final int[] SEEDS = new int[SIGNATURE_SIZE];
+
+    static {
+        Random random = new Random(0x7ab3e5L);
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            SEEDS[i] = random.nextInt();
+        }
+    }
+
+    private static RelatedNotesIndex instance;
+
+    /**
+     * A note related to the one being viewed
+     */
+    public static class Related {
+        private final String kind;
+        private final int id;
+        private final String title;
+        private final String videoId;
+        private final String videoUrl;
+        private final float similarity;
+
+        Related(Note note, float similarity) {
+            this.kind = note.kind;
+            this.id = note.id;
+            this.title = note.title;
+            this.videoId = note.videoId;
+            this.videoUrl = note.videoUrl;
+            this.similarity = similarity;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        @Nullable
+        public String getVideoId() {
+            return videoId;
+        }
+
+        @Nullable
+        public String getVideoUrl() {
+            return videoUrl;
+        }
+
+        /**
+         * Estimated share of vocabulary in common, 0..1
+         */
+        public float getSimilarity() {
+            return similarity;
+        }
+    }
+
+    private static class Note {
+        String kind;
+        int id;
+        String title;
+        String videoId;
+        String videoUrl;
+        int[] signature;
+        // False for unsaved videos - looked up from, never a candidate
+        boolean listed = true;
+
+        String key() {
+            return RelatedNotesIndex.key(kind, id);
+        }
+    }
+
+    private final File file;
+    private final Executor io;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable saveRunnable;
+
+    // Guarded by this
+    private final Map<String, Note> notes = new HashMap<>();
+    private final Map<Long, List<Note>> buckets = new HashMap<>();
+    private final Map<String, Note> unlisted = new HashMap<>();
+    private boolean ready;
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    private final List<Runnable> readyCallbacks = new ArrayList<>();
+
+    private RelatedNotesIndex(Context context) {
+        this(new File(context.getFilesDir(), FILE_NAME), Executors.newSingleThreadExecutor());
+    }
+
+    /**
+     * An index stored in file, doing its disk work on io
+     */
+    RelatedNotesIndex(File file, Executor io) {
+        this.file = file;
+        this.io = io;
+        saveRunnable = () -> io.execute(this::save);
+        io.execute(this::load);
+    }
+
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new RelatedNotesIndex(context.getApplicationContext());
+        }
+    }
+
+    @Nullable
+    public static synchronized RelatedNotesIndex get() {
+        return instance;
+    }
+
+    // ========== UPDATES ==========
+
+    /**
+     * Index a video's notes. Only saved videos are suggested, so the video must carry the
+     * server's is_saved - a copy built on the client with the flag unset would unlist it.
+     */
+    public void putVideo(VideoResponse video) {
+        if (video == null || video.getId() <= 0) {
+            return;
+        }
+        Note note = new Note();
+        note.kind = KIND_VIDEO;
+        note.id = video.getId();
+        note.title = video.getTitle();
+        note.videoId = video.getVideoId();
+        note.videoUrl = video.getVideoUrl();
+        note.listed = video.isSaved();
+        put(note, video.getTitle(), video.getSummary(), video.getKeyPoints(), video.getBulletNotes());
+    }
+
+    public void putPDF(PDFResponse pdf) {
+        if (pdf == null || pdf.getId() <= 0) {
+            return;
+        }
+        Note note = new Note();
+        note.kind = KIND_PDF;
+        note.id = pdf.getId();
+        note.title = pdf.getFileName();
+        put(note, pdf.getFileName(), pdf.getSummary(), pdf.getKeyPoints(), pdf.getBulletNotes());
+    }
+
+    public void remove(String kind, int id) {
+        change(() -> removeLocked(key(kind, id)));
+    }
+
+    /**
+     * Run callback on the main thread once the stored signatures are loaded - until then
+     * related() finds nothing. Runs at once if they already are.
+     */
+    public void whenReady(Runnable callback) {
+        synchronized (this) {
+            if (!ready) {
+                readyCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * Drop every signature, e.g. on logout
+     */
+    public static void clear(Context context) {
+        RelatedNotesIndex index = get();
+        if (index == null) {
+            new File(context.getFilesDir(), FILE_NAME).delete();
+            return;
+        }
+        index.mainHandler.removeCallbacks(index.saveRunnable);
+        synchronized (index) {
+            index.notes.clear();
+            index.buckets.clear();
+            index.unlisted.clear();
+            index.pendingChanges.clear();
+        }
+        index.io.execute(index.file::delete);
+    }
+
+    private void put(Note note, String... texts) {
+        Set<String> terms = new HashSet<>();
+        for (String text : texts) {
+            if (text != null) {
+                terms.addAll(NotesSearchIndex.terms(text));
+            }
+        }
+        terms.removeAll(TEMPLATE_WORDS);
+        if (terms.size() < MIN_TERMS) {
+            return;
+        }
+        note.signature = signature(terms);
+        change(() -> {
+            removeLocked(note.key());
+            if (note.listed) {
+                addLocked(note);
+            } else {
+                unlisted.put(note.key(), note);
+            }
+        });
+    }
+
+    private void change(Runnable change) {
+        synchronized (this) {
+            if (!ready) {
+                pendingChanges.add(change);
+                return;
+            }
+            change.run();
+        }
+        mainHandler.removeCallbacks(saveRunnable);
+        mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+    }
+
+    private void addLocked(Note note) {
+        notes.put(note.key(), note);
+        for (int band = 0; band < BANDS; band++) {
+            long bucket = bucketKey(note.signature, band);
+            List<Note> members = buckets.get(bucket);
+            if (members == null) {
+                members = new ArrayList<>(2);
+                buckets.put(bucket, members);
+            }
+            members.add(note);
+        }
+    }
+
+    private void removeLocked(String key) {
+        unlisted.remove(key);
+        Note old = notes.remove(key);
+        if (old == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long bucket = bucketKey(old.signature, band);
+            List<Note> members = buckets.get(bucket);
+            if (members != null) {
+                members.remove(old);
+                if (members.isEmpty()) {
+                    buckets.remove(bucket);
+                }
+            }
+        }
+    }
+
+    // ========== LOOKUP ==========
+
+    /**
+     * Notes most similar to the given one, best first. Empty if the note is not indexed yet.
+     */
+    public List<Related> related(String kind, int id, int limit) {
+        List<Related> results = new ArrayList<>();
+        synchronized (this) {
+            Note note = notes.get(key(kind, id));
+            if (note == null) {
+                note = unlisted.get(key(kind, id));
+            }
+            if (note == null) {
+                return Collections.emptyList();
+            }
+            Set<Note> candidates = new HashSet<>();
+            for (int band = 0; band < BANDS && candidates.size() < MAX_CANDIDATES; band++) {
+                List<Note> members = buckets.get(bucketKey(note.signature, band));
+                if (members != null) {
+                    candidates.addAll(members);
+                }
+            }
+            candidates.remove(note);
+            for (Note candidate : candidates) {
+                float similarity = similarity(note.signature, candidate.signature);
+                if (similarity >= MIN_SIMILARITY) {
+                    results.add(new Related(candidate, similarity));
+                }
+            }
+        }
+        Collections.sort(results, (a, b) -> Float.compare(b.similarity, a.similarity));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    // ========== MINHASH ==========
+
+    private static int[] signature(Set<String> terms) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String term : terms) {
+            int hash = mix(term.hashCode());
+            for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                int value = mix(hash ^ SEEDS[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static float similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (float) equal / SIGNATURE_SIZE;
+    }
+
+    private static long bucketKey(int[] signature, int band) {
+        int hash = band;
+        for (int row = 0; row < ROWS; row++) {
+            hash = mix(hash * 31 + signature[band * ROWS + row]);
+        }
+        return ((long) band << 32) | (hash & 0xffffffffL);
+    }
+
+    /**
+     * MurmurHash3 finalizer - spreads the bits of a 32-bit value
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static String key(String kind, int id) {
+        return kind + ":" + id;
+    }
+
+    // ========== PERSISTENCE (io thread) ==========
+    // [int magic][int version][int count]
+    // note: [UTF kind][int id][nullable UTF title, videoId, videoUrl][64 x int signature]
+
+    private void load() {
+        List<Note> loaded = new ArrayList<>();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Unknown index format");
+                }
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    Note note = new Note();
+                    note.kind = in.readUTF();
+                    note.id = in.readInt();
+                    note.title = readNullableUTF(in);
+                    note.videoId = readNullableUTF(in);
+                    note.videoUrl = readNullableUTF(in);
+                    note.signature = new int[SIGNATURE_SIZE];
+                    for (int s = 0; s < SIGNATURE_SIZE; s++) {
+                        note.signature[s] = in.readInt();
+                    }
+                    loaded.add(note);
+                }
+            } catch (IOException | RuntimeException e) {
+                android.util.Log.w(TAG, "Discarding unreadable related notes index", e);
+                loaded.clear();
+                file.delete();
+            }
+        }
+
+        boolean changed;
+        List<Runnable> callbacks;
+        synchronized (this) {
+            for (Note note : loaded) {
+                addLocked(note);
+            }
+            ready = true;
+            changed = !pendingChanges.isEmpty();
+            for (Runnable change : pendingChanges) {
+                change.run();
+            }
+            pendingChanges.clear();
+            callbacks = new ArrayList<>(readyCallbacks);
+            readyCallbacks.clear();
+        }
+        android.util.Log.d(TAG, "Loaded " + loaded.size() + " signatures");
+        for (Runnable callback : callbacks) {
+            mainHandler.post(callback);
+        }
+        if (changed) {
+            mainHandler.postDelayed(saveRunnable, SAVE_DELAY_MS);
+        }
+    }
+
+    private void save() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            synchronized (this) {
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(notes.size());
+                for (Note note : notes.values()) {
+                    out.writeUTF(note.kind);
+                    out.writeInt(note.id);
+                    writeNullableUTF(out, note.title);
+                    writeNullableUTF(out, note.videoId);
+                    writeNullableUTF(out, note.videoUrl);
+                    for (int value : note.signature) {
+                        out.writeInt(value);
+                    }
+                }
+                out.flush();
+            }
+
+            File tmp = new File(file.getPath() + ".tmp");
+            try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+                bytes.writeTo(out);
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Rename failed");
+            }
+        } catch (IOException e) {
+            android.util.Log.w(TAG, "Failed to save related notes index", e);
+        }
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    @Nullable
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
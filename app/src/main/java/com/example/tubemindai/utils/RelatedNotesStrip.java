@@ -0,0 +1,74 @@
+package com.example.tubemindai.utils;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.view.View;
+
+import com.example.tubemindai.NotesActivity;
+import com.example.tubemindai.PDFNotesActivity;
+import com.example.tubemindai.R;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
+
+import java.util.List;
+
+/**
+ * Fills the "Related Notes" card of the notes screens from RelatedNotesIndex.
+ * The layout must contain cardRelatedNotes and chipGroupRelatedNotes.
+ */
+public class RelatedNotesStrip {
+    private static final int MAX_RELATED = 6;
+
+    /**
+     * Show notes related to the given one, or hide the card if there are none. Right after app
+     * start the index may still be loading - the card is filled in once it has.
+     */
+    public static void show(Activity activity, String kind, int id) {
+        RelatedNotesIndex index = RelatedNotesIndex.get();
+        if (index == null || id <= 0) {
+            return;
+        }
+        index.whenReady(() -> {
+            if (!activity.isFinishing() && !activity.isDestroyed()) {
+                bind(activity, index, kind, id);
+            }
+        });
+    }
+
+    private static void bind(Activity activity, RelatedNotesIndex index, String kind, int id) {
+        View card = activity.findViewById(R.id.cardRelatedNotes);
+        ChipGroup chipGroup = activity.findViewById(R.id.chipGroupRelatedNotes);
+        if (card == null || chipGroup == null) {
+            return;
+        }
+
+        List<RelatedNotesIndex.Related> related = index.related(kind, id, MAX_RELATED);
+        chipGroup.removeAllViews();
+        for (RelatedNotesIndex.Related note : related) {
+            Chip chip = new Chip(activity);
+            boolean pdf = RelatedNotesIndex.KIND_PDF.equals(note.getKind());
+            String title = note.getTitle() != null ? note.getTitle() : (pdf ? "PDF Document" : "Video");
+            chip.setText((pdf ? "PDF · " : "") + title);
+            chip.setEllipsize(android.text.TextUtils.TruncateAt.END);
+            chip.setMaxWidth(ThumbnailLoader.dpToPx(activity, 220));
+            chip.setOnClickListener(v -> activity.startActivity(intentFor(activity, note)));
+            chipGroup.addView(chip);
+        }
+        card.setVisibility(related.isEmpty() ? View.GONE : View.VISIBLE);
+    }
+
+    private static Intent intentFor(Activity activity, RelatedNotesIndex.Related note) {
+        if (RelatedNotesIndex.KIND_PDF.equals(note.getKind())) {
+            Intent intent = new Intent(activity, PDFNotesActivity.class);
+            intent.putExtra("pdfId", note.getId());
+            intent.putExtra("fileName", note.getTitle());
+            return intent;
+        }
+        Intent intent = new Intent(activity, NotesActivity.class);
+        intent.putExtra("videoId", note.getVideoId());
+        intent.putExtra("videoTitle", note.getTitle());
+        intent.putExtra("videoUrl", note.getVideoUrl());
+        intent.putExtra("videoDbId", note.getId());
+        return intent;
+    }
+}
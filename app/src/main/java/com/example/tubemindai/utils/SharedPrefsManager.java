@@ -11,10 +11,12 @@ public class SharedPrefsManager {
     private static final String KEY_USER_NAME = "user_name";
     private static final String KEY_IS_LOGGED_IN = "is_logged_in";
 
+    private Context context;
     private SharedPreferences prefs;
     private SharedPreferences.Editor editor;
 
     public SharedPrefsManager(Context context) {
+        this.context = context.getApplicationContext();
         prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         editor = prefs.edit();
     }
@@ -63,6 +65,18 @@ public class SharedPrefsManager {
     public void logout() {
         editor.clear();
         editor.apply();
+        // Don't leave the previous user's notes in memory
+        MemoryCache.clear();
+        SyncManager.clear();
+        com.example.tubemindai.api.CircuitBreakerInterceptor.clearStaleResponses();
+        // Unsent questions belong to the user who typed them
+        ChatOutbox.clear(context);
+        ChatJournal.clear(context);
+        AnswerCache.clear(context);
+        NotesSearchIndex.clear(context);
+        RelatedNotesIndex.clear(context);
+        SuggestedQuestions.clear();
+        VideoPrefetcher.clear();
     }
 
     // Reset token (for password reset flow)
@@ -0,0 +1,229 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.ApiConfig;
+import com.example.tubemindai.api.RateLimiter;
+import com.example.tubemindai.api.models.ChatMessageRequest;
+import com.example.tubemindai.api.models.ChatMessageResponse;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Suggested first questions for a video's chat, derived from its key points.
+ *
+ * NotesActivity calls prefetch() once the notes are shown. The answers are then fetched one at a
+ * time in the background as speculative sends - the server does not store them in the chat
+ * history - and go into AnswerCache, so tapping a suggestion in ChatActivity is a cache hit,
+ * which sends the question with its answer to be stored like any cached answer.
+ * Prefetching is low priority: it waits for the network, draws from its own rate-limit bucket
+ * rather than the user's chat sends and stops for the day after
+ * ApiConfig.SPECULATIVE_ANSWERS_PER_DAY calls.
+ * Everything runs on the main thread.
+ */
+public class SuggestedQuestions {
+    private static final String TAG = "SuggestedQuestions";
+    private static final String PREFS_NAME = "suggested_questions";
+    private static final String KEY_BUDGET_DAY = "budget_day";
+    private static final String KEY_BUDGET_USED = "budget_used";
+
+    private static final String TAKEAWAYS_QUESTION = "What are the key takeaways from this video?";
+    private static final int MAX_TOPIC_CHARS = 60;
+    private static final long RATE_LIMIT_RECHECK_MS = 15_000;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Map<Integer, List<String>> suggestions = new HashMap<>();
+    // Video -> question being prefetched, and who is waiting for it
+    private static final Map<Integer, String> inFlight = new HashMap<>();
+    private static final Map<Integer, List<Runnable>> waiting = new HashMap<>();
+
+    /**
+     * Remember the suggestions for a video and start prefetching their answers
+     */
+    public static void prefetch(Context context, int videoDbId, String keyPoints) {
+        if (videoDbId <= 0) {
+            return;
+        }
+        List<String> questions = fromKeyPoints(keyPoints);
+        suggestions.put(videoDbId, questions);
+        Context appContext = context.getApplicationContext();
+        ConnectivityMonitor.get().runWhenOnline(TAG + ":" + videoDbId, ConnectivityMonitor.PRIORITY_PREFETCH,
+                () -> fetchNext(appContext, videoDbId));
+    }
+
+    /**
+     * Suggestions for a video whose notes were shown in this process, empty otherwise
+     */
+    public static List<String> forVideo(int videoDbId) {
+        List<String> questions = suggestions.get(videoDbId);
+        return questions != null ? Collections.unmodifiableList(questions) : Collections.emptyList();
+    }
+
+    /**
+     * If this question's answer is being prefetched right now, run done once the prefetch
+     * finishes (answered or not) and return true. Returns false if nothing is in flight.
+     */
+    public static boolean whenAnswered(int videoDbId, String question, Runnable done) {
+        String fetching = inFlight.get(videoDbId);
+        if (fetching == null || !AnswerCache.normalize(fetching).equals(AnswerCache.normalize(question))) {
+            return false;
+        }
+        List<Runnable> list = waiting.get(videoDbId);
+        if (list == null) {
+            list = new ArrayList<>();
+            waiting.put(videoDbId, list);
+        }
+        list.add(done);
+        return true;
+    }
+
+    /**
+     * Forget suggestions, e.g. on logout. Prefetches already sent still finish.
+     */
+    public static void clear() {
+        suggestions.clear();
+    }
+
+    /**
+     * "What are the key takeaways" plus one question per leading key point
+     */
+    static List<String> fromKeyPoints(String keyPoints) {
+        List<String> questions = new ArrayList<>();
+        questions.add(TAKEAWAYS_QUESTION);
+        if (keyPoints == null) {
+            return questions;
+        }
+        for (String line : keyPoints.split("\n")) {
+            if (questions.size() >= ApiConfig.SUGGESTED_QUESTIONS) {
+                break;
+            }
+            String topic = topicOf(line);
+            if (!topic.isEmpty()) {
+                questions.add("Can you explain more about " + topic + "?");
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * The heading of a key point ("Caching: keeps ..." -> "Caching"), or its first words
+     */
+    private static String topicOf(String line) {
+        String text = line.trim().replaceFirst("^([-*•]|\\d+[.)])\\s*", "").replace("**", "");
+        int colon = text.indexOf(':');
+        if (colon > 0 && colon <= MAX_TOPIC_CHARS) {
+            text = text.substring(0, colon);
+        } else if (text.length() > MAX_TOPIC_CHARS) {
+            int space = text.lastIndexOf(' ', MAX_TOPIC_CHARS);
+            text = text.substring(0, space > 0 ? space : MAX_TOPIC_CHARS);
+        }
+        return text.replaceAll("[\\s.,;:!?]+$", "").trim();
+    }
+
+    private static void fetchNext(Context context, int videoDbId) {
+        if (inFlight.containsKey(videoDbId)) {
+            return;
+        }
+        String question = nextUnanswered(videoDbId);
+        if (question == null) {
+            return;
+        }
+        String token = new SharedPrefsManager(context).getAccessToken();
+        if (token == null || !ConnectivityMonitor.get().isOnline()) {
+            return;
+        }
+        if (!RateLimiter.forScope(RateLimiter.SCOPE_VIDEO_SPECULATIVE).hasSpare(0)) {
+            // Prefetched enough for now - look again once the bucket has refilled
+            mainHandler.postDelayed(() -> fetchNext(context, videoDbId), RATE_LIMIT_RECHECK_MS);
+            return;
+        }
+        if (!takeBudget(context)) {
+            android.util.Log.d(TAG, "Daily prefetch budget used up");
+            return;
+        }
+
+        inFlight.put(videoDbId, question);
+        ApiClient.getApiService().sendSpeculativeChatMessage("Bearer " + token, videoDbId,
+                ChatMessageRequest.speculative(question))
+                .enqueue(new Callback<ChatMessageResponse>() {
+                    @Override
+                    public void onResponse(Call<ChatMessageResponse> call, Response<ChatMessageResponse> response) {
+                        boolean answered = response.isSuccessful() && response.body() != null;
+                        if (answered) {
+                            AnswerCache.get().put(ChatOutbox.KIND_VIDEO, videoDbId, question,
+                                    response.body().getResponse());
+                        } else {
+                            // 204: nothing generated, 422: no transcript - either way stop for this video
+                            android.util.Log.w(TAG, "No answer prefetched: HTTP " + response.code());
+                        }
+                        finished(context, videoDbId, answered);
+                    }
+
+                    @Override
+                    public void onFailure(Call<ChatMessageResponse> call, Throwable t) {
+                        android.util.Log.w(TAG, "Prefetch failed", t);
+                        finished(context, videoDbId, false);
+                    }
+                });
+    }
+
+    private static void finished(Context context, int videoDbId, boolean answered) {
+        inFlight.remove(videoDbId);
+        List<Runnable> list = waiting.remove(videoDbId);
+        if (list != null) {
+            for (Runnable done : list) {
+                done.run();
+            }
+        }
+        // A failure stops this video's prefetch - it is not worth retrying speculative work
+        if (answered) {
+            fetchNext(context, videoDbId);
+        }
+    }
+
+    private static String nextUnanswered(int videoDbId) {
+        List<String> questions = suggestions.get(videoDbId);
+        AnswerCache cache = AnswerCache.get();
+        if (questions == null || cache == null) {
+            return null;
+        }
+        for (String question : questions) {
+            if (!cache.contains(ChatOutbox.KIND_VIDEO, videoDbId, question)) {
+                return question;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Count one speculative call against today's budget, false if it is used up
+     */
+    private static boolean takeBudget(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String today = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
+        int used = today.equals(prefs.getString(KEY_BUDGET_DAY, null)) ? prefs.getInt(KEY_BUDGET_USED, 0) : 0;
+        if (used >= ApiConfig.SPECULATIVE_ANSWERS_PER_DAY) {
+            return false;
+        }
+        prefs.edit()
+                .putString(KEY_BUDGET_DAY, today)
+                .putInt(KEY_BUDGET_USED, used + 1)
+                .apply();
+        return true;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.tubemindai.utils;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.models.ChatHistoryItem;
+import com.example.tubemindai.api.models.PDFChatHistoryListResponse;
+import com.example.tubemindai.api.models.SyncChangesResponse;
+import com.example.tubemindai.api.models.VideoListItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Process-scoped local copy of the user's videos and chat histories, kept current with
+ * the server change feed (api/sync/changes).
+ *
+ * The first sync downloads a full snapshot; every later sync sends the last sync token
+ * and merges only the rows created, updated or deleted since then, so history screens can
+ * refresh on every resume for the cost of a near-empty response. All access is on the main thread.
+ */
+public class SyncManager {
+    private static final String TAG = "SyncManager";
+
+    // What the server lists as the last message of a video without chat messages
+    private static final String NO_VIDEO_CHAT_MESSAGE = "Click to start chatting about this video";
+
+    private static final Map<Integer, VideoListItem> videos = new HashMap<>();
+    private static final Map<Integer, ChatHistoryItem> chatHistories = new HashMap<>();
+    private static final Map<Integer, PDFChatHistoryListResponse.PDFChatHistoryItem> pdfChatHistories = new HashMap<>();
+    private static String syncToken = null;
+
+    // Callers that asked for a sync while one was already running
+    private static final List<SyncCallback> pendingCallbacks = new ArrayList<>();
+    private static Call<SyncChangesResponse> inFlight = null;
+
+    public interface SyncCallback {
+        /**
+         * The local copy is current. changed is false if the feed had nothing new.
+         */
+        void onSynced(boolean changed);
+
+        /**
+         * The sync failed - errorResponse is set for HTTP errors, error for network failures.
+         * The local copy is left as it was.
+         */
+        void onSyncError(@Nullable Response<?> errorResponse, @Nullable Throwable error);
+    }
+
+    /**
+     * True once a full snapshot has been merged, i.e. the getters return real data
+     */
+    public static boolean hasSnapshot() {
+        return syncToken != null;
+    }
+
+    /**
+     * Fetch and merge changes since the last sync. Concurrent calls share one request.
+     */
+    public static void sync(String authHeader, SyncCallback callback) {
+        pendingCallbacks.add(callback);
+        if (inFlight != null) {
+            return;
+        }
+
+        inFlight = ApiClient.getApiService().getChanges(authHeader, syncToken);
+        inFlight.enqueue(new Callback<SyncChangesResponse>() {
+            @Override
+            public void onResponse(Call<SyncChangesResponse> call, Response<SyncChangesResponse> response) {
+                inFlight = null;
+                List<SyncCallback> callbacks = drainCallbacks();
+                if (response.isSuccessful() && response.body() != null) {
+                    boolean changed = merge(response.body());
+                    for (SyncCallback pending : callbacks) {
+                        pending.onSynced(changed);
+                    }
+                } else {
+                    for (SyncCallback pending : callbacks) {
+                        pending.onSyncError(response, null);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Call<SyncChangesResponse> call, Throwable t) {
+                inFlight = null;
+                for (SyncCallback pending : drainCallbacks()) {
+                    pending.onSyncError(null, t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Chat histories, most recent conversation first
+     */
+    public static List<ChatHistoryItem> getChatHistories() {
+        List<ChatHistoryItem> list = new ArrayList<>(chatHistories.values());
+        Collections.sort(list, Comparator.comparing(ChatHistoryItem::getLastMessageTime,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return list;
+    }
+
+    /**
+     * PDF chat histories, most recent conversation first
+     */
+    public static List<PDFChatHistoryListResponse.PDFChatHistoryItem> getPdfChatHistories() {
+        List<PDFChatHistoryListResponse.PDFChatHistoryItem> list = new ArrayList<>(pdfChatHistories.values());
+        Collections.sort(list, Comparator.comparing(PDFChatHistoryListResponse.PDFChatHistoryItem::getLastMessageTime,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        return list;
+    }
+
+    @Nullable
+    public static VideoListItem getVideo(int videoDbId) {
+        return videos.get(videoDbId);
+    }
+
+    /**
+     * Empty a video chat history deleted from this device right away instead of waiting for the
+     * next sync. The row stays - every video with notes is listed, with or without messages.
+     */
+    public static void removeVideoChat(int videoDbId) {
+        ChatHistoryItem item = chatHistories.get(videoDbId);
+        if (item != null) {
+            emptyVideoChat(item);
+        }
+    }
+
+    /**
+     * Empty every video chat history, after all chats were deleted from this device
+     */
+    public static void removeAllVideoChats() {
+        for (ChatHistoryItem item : chatHistories.values()) {
+            emptyVideoChat(item);
+        }
+    }
+
+    /**
+     * Drop a PDF deleted from this device right away instead of waiting for its tombstone
+     */
+    public static void removePDF(int pdfId) {
+        pdfChatHistories.remove(pdfId);
+    }
+
+    /**
+     * Forget the local copy and token, e.g. on logout
+     */
+    public static void clear() {
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+        pendingCallbacks.clear();
+        videos.clear();
+        chatHistories.clear();
+        pdfChatHistories.clear();
+        syncToken = null;
+    }
+
+    private static void emptyVideoChat(ChatHistoryItem item) {
+        item.setLastMessage(NO_VIDEO_CHAT_MESSAGE);
+        item.setMessageCount(0);
+    }
+
+    private static List<SyncCallback> drainCallbacks() {
+        List<SyncCallback> callbacks = new ArrayList<>(pendingCallbacks);
+        pendingCallbacks.clear();
+        return callbacks;
+    }
+
+    /**
+     * Apply one change feed response, returns true if anything changed
+     */
+    private static boolean merge(SyncChangesResponse changes) {
+        boolean changed = false;
+        if (changes.isReset()) {
+            changed = !videos.isEmpty() || !chatHistories.isEmpty() || !pdfChatHistories.isEmpty();
+            videos.clear();
+            chatHistories.clear();
+            pdfChatHistories.clear();
+        }
+
+        if (changes.getVideos() != null) {
+            for (VideoListItem video : changes.getVideos()) {
+                videos.put(video.getId(), video);
+                changed = true;
+            }
+        }
+        if (changes.getChatHistories() != null) {
+            for (ChatHistoryItem item : changes.getChatHistories()) {
+                ChatHistoryItem previous = chatHistories.put(item.getVideoId(), item);
+                if (previous != null && previous.getMessageCount() > 0 && item.getMessageCount() == 0) {
+                    // Emptied, possibly on another device - drop the conversation we still hold
+                    MemoryCache.removeVideoChat(item.getVideoId());
+                    ChatJournal.get().remove(ChatOutbox.KIND_VIDEO, item.getVideoId());
+                    AnswerCache.get().remove(ChatOutbox.KIND_VIDEO, item.getVideoId());
+                }
+                changed = true;
+            }
+        }
+        if (changes.getPdfChatHistories() != null) {
+            for (PDFChatHistoryListResponse.PDFChatHistoryItem item : changes.getPdfChatHistories()) {
+                PDFChatHistoryListResponse.PDFChatHistoryItem previous = pdfChatHistories.put(item.getPdfId(), item);
+                if (previous != null && previous.getMessageCount() > 0 && item.getMessageCount() == 0) {
+                    MemoryCache.removePDFChat(item.getPdfId());
+                    ChatJournal.get().remove(ChatOutbox.KIND_PDF, item.getPdfId());
+                    AnswerCache.get().remove(ChatOutbox.KIND_PDF, item.getPdfId());
+                }
+                changed = true;
+            }
+        }
+        if (changes.getDeleted() != null) {
+            for (SyncChangesResponse.DeletedItem deleted : changes.getDeleted()) {
+                if (SyncChangesResponse.TYPE_VIDEO.equals(deleted.getEntityType())) {
+                    videos.remove(deleted.getEntityId());
+                    chatHistories.remove(deleted.getEntityId());
+                    // May have been deleted on another device - drop any notes we still hold
+                    MemoryCache.removeVideo(deleted.getEntityId());
+                    ChatJournal.get().remove(ChatOutbox.KIND_VIDEO, deleted.getEntityId());
+                    AnswerCache.get().remove(ChatOutbox.KIND_VIDEO, deleted.getEntityId());
+                } else if (SyncChangesResponse.TYPE_PDF.equals(deleted.getEntityType())) {
+                    pdfChatHistories.remove(deleted.getEntityId());
+                    MemoryCache.removePDF(deleted.getEntityId());
+                    ChatJournal.get().remove(ChatOutbox.KIND_PDF, deleted.getEntityId());
+                    AnswerCache.get().remove(ChatOutbox.KIND_PDF, deleted.getEntityId());
+                }
+                changed = true;
+            }
+        }
+
+        syncToken = changes.getSyncToken();
+        android.util.Log.d(TAG, "Synced: videos=" + videos.size() + ", chats=" + chatHistories.size()
+                + ", pdfChats=" + pdfChatHistories.size() + ", reset=" + changes.isReset());
+        return changed;
+    }
+}
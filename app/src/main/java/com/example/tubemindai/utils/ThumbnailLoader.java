@@ -0,0 +1,189 @@
+package com.example.tubemindai.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.ConnectivityManager;
+import android.text.TextUtils;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.util.FixedPreloadSizeProvider;
+import com.example.tubemindai.R;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads video thumbnails sized for the view they are shown in.
+ *
+ * YouTube serves every thumbnail in several fixed sizes (default, mq, hq, maxres).
+ * The server returns whichever one it stored, so we rewrite the URL to the smallest
+ * variant that still covers the target width and decode it straight to that size.
+ */
+public class ThumbnailLoader {
+    // Number of rows ahead of the visible window to preload while scrolling
+    public static final int PRELOAD_AHEAD_ITEMS = 6;
+    // Hash placeholders already make unloaded rows look complete, so on metered networks we preload less
+    public static final int PRELOAD_AHEAD_ITEMS_METERED = 2;
+
+    // i.ytimg.com / img.youtube.com thumbnail URL: prefix, variant name, extension
+    private static final Pattern YOUTUBE_THUMBNAIL = Pattern.compile(
+            "^(https?://(?:i\\d?\\.ytimg\\.com|img\\.youtube\\.com)/vi(?:_webp)?/[^/]+/)"
+                    + "([a-z]*default)(\\.(?:jpg|webp))(\\?.*)?$");
+
+    // YouTube variants ordered by width, smallest first
+    private static final String[] VARIANT_NAMES = {"default", "mqdefault", "hqdefault", "maxresdefault"};
+    private static final int[] VARIANT_WIDTHS = {120, 320, 480, 1280};
+
+    /**
+     * Maps a row position to the thumbnail URL shown there (null if the row has none)
+     */
+    public interface UrlProvider {
+        @Nullable
+        String getThumbnailUrl(int position);
+    }
+
+    /**
+     * Return the smallest YouTube thumbnail variant whose width covers targetWidthPx.
+     * Non-YouTube URLs are returned unchanged.
+     */
+    public static String pickVariant(String url, int targetWidthPx) {
+        if (TextUtils.isEmpty(url)) {
+            return url;
+        }
+        Matcher matcher = YOUTUBE_THUMBNAIL.matcher(url);
+        if (!matcher.matches()) {
+            return url;
+        }
+
+        String variant = VARIANT_NAMES[VARIANT_NAMES.length - 1];
+        for (int i = 0; i < VARIANT_WIDTHS.length; i++) {
+            if (VARIANT_WIDTHS[i] >= targetWidthPx) {
+                variant = VARIANT_NAMES[i];
+                break;
+            }
+        }
+        String query = matcher.group(4) != null ? matcher.group(4) : "";
+        return matcher.group(1) + variant + matcher.group(3) + query;
+    }
+
+    /**
+     * Load a thumbnail into an ImageView of the given pixel size.
+     * If the backend sent a thumbnail hash, its decoded preview is shown until the image arrives.
+     */
+    public static void load(ImageView imageView, String url, @Nullable String thumbnailHash, int widthPx, int heightPx) {
+        Context context = imageView.getContext();
+        imageView.setTag(R.id.thumbnail_hash_tag, thumbnailHash);
+
+        Bitmap cachedPlaceholder = ThumbnailPlaceholder.getCached(thumbnailHash);
+        Drawable placeholder = cachedPlaceholder != null
+                ? new BitmapDrawable(context.getResources(), cachedPlaceholder)
+                : null;
+
+        if (TextUtils.isEmpty(url)) {
+            Glide.with(context).clear(imageView);
+            if (placeholder != null) {
+                imageView.setImageDrawable(placeholder);
+            } else {
+                imageView.setImageResource(R.color.primary);
+            }
+        } else {
+            RequestBuilder<Drawable> request = buildRequest(Glide.with(context), url, widthPx, heightPx);
+            if (placeholder != null) {
+                request = request.placeholder(placeholder);
+            }
+            request.into(imageView);
+        }
+
+        if (placeholder == null && thumbnailHash != null) {
+            // Decode off the main thread, then swap it in only if this view still shows the flat colour
+            ThumbnailPlaceholder.decodeAsync(thumbnailHash, bitmap -> {
+                if (thumbnailHash.equals(imageView.getTag(R.id.thumbnail_hash_tag))
+                        && imageView.getDrawable() instanceof ColorDrawable) {
+                    imageView.setImageDrawable(new BitmapDrawable(context.getResources(), bitmap));
+                }
+            });
+        }
+    }
+
+    /**
+     * Attach a scroll preloader that fetches thumbnails for the next rows.
+     * The preload request is built exactly like the bind request so it lands in the same cache entry.
+     */
+    public static void attachPreloader(Activity activity, RecyclerView recyclerView, UrlProvider urlProvider,
+                                       int widthPx, int heightPx) {
+        RequestManager requestManager = Glide.with(activity);
+
+        ListPreloader.PreloadModelProvider<String> modelProvider = new ListPreloader.PreloadModelProvider<String>() {
+            @NonNull
+            @Override
+            public List<String> getPreloadItems(int position) {
+                String url = urlProvider.getThumbnailUrl(position);
+                if (TextUtils.isEmpty(url)) {
+                    return Collections.emptyList();
+                }
+                return Collections.singletonList(url);
+            }
+
+            @Nullable
+            @Override
+            public RequestBuilder<?> getPreloadRequestBuilder(@NonNull String url) {
+                return buildRequest(requestManager, url, widthPx, heightPx);
+            }
+        };
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) activity.getSystemService(Context.CONNECTIVITY_SERVICE);
+        boolean metered = connectivityManager != null && connectivityManager.isActiveNetworkMetered();
+
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(
+                requestManager,
+                modelProvider,
+                new FixedPreloadSizeProvider<>(widthPx, heightPx),
+                metered ? PRELOAD_AHEAD_ITEMS_METERED : PRELOAD_AHEAD_ITEMS));
+    }
+
+    public static int dpToPx(Context context, int dp) {
+        return Math.round(dp * context.getResources().getDisplayMetrics().density);
+    }
+
+    private static RequestBuilder<Drawable> buildRequest(RequestManager requestManager, String url, int widthPx, int heightPx) {
+        String sizedUrl = pickVariant(url, widthPx);
+        RequestBuilder<Drawable> request = requestManager
+                .load(sizedUrl)
+                .placeholder(R.color.primary)
+                // Variants are already small, so keeping the source bytes is cheaper than
+                // caching both the source and the transformed copy (DiskCacheStrategy.ALL)
+                .diskCacheStrategy(DiskCacheStrategy.DATA)
+                .override(widthPx, heightPx)
+                .centerCrop();
+
+        if (!sizedUrl.equals(url)) {
+            // maxres is not generated for every video - fall back to the URL the server gave us
+            request = request.error(requestManager
+                    .load(url)
+                    .diskCacheStrategy(DiskCacheStrategy.DATA)
+                    .override(widthPx, heightPx)
+                    .centerCrop()
+                    .error(R.color.primary));
+        } else {
+            request = request.error(R.color.primary);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.tubemindai.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decodes the compact thumbnail hash sent by the backend into a blurred placeholder bitmap.
+ *
+ * Hash format (see backend image_hash_service): "g43:" + base64url of a 4x3 grid of RGB bytes.
+ * The grid is upscaled with bilinear filtering, which gives a soft colour preview of the thumbnail.
+ */
+public class ThumbnailPlaceholder {
+    private static final String TAG = "ThumbnailPlaceholder";
+    private static final String PREFIX = "g43:";
+    private static final int COLUMNS = 4;
+    private static final int ROWS = 3;
+    private static final int SCALED_WIDTH = 32;
+    private static final int SCALED_HEIGHT = 24;
+
+    // 32x24 ARGB bitmaps are ~3 KB each, so 128 entries stay well under 0.5 MB
+    private static final LruCache<String, Bitmap> cache = new LruCache<>(128);
+    private static final ExecutorService decoder = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface Callback {
+        void onDecoded(Bitmap placeholder);
+    }
+
+    /**
+     * Return an already decoded placeholder, or null if it has not been decoded yet
+     */
+    @Nullable
+    public static Bitmap getCached(@Nullable String hash) {
+        if (hash == null) {
+            return null;
+        }
+        return cache.get(hash);
+    }
+
+    /**
+     * Decode on a background thread and deliver the result on the main thread.
+     * Invalid hashes are dropped silently - the caller keeps its flat colour placeholder.
+     */
+    public static void decodeAsync(String hash, Callback callback) {
+        decoder.execute(() -> {
+            Bitmap bitmap = cache.get(hash);
+            if (bitmap == null) {
+                bitmap = decode(hash);
+                if (bitmap == null) {
+                    return;
+                }
+                cache.put(hash, bitmap);
+            }
+            Bitmap result = bitmap;
+            mainHandler.post(() -> callback.onDecoded(result));
+        });
+    }
+
+    @Nullable
+    private static Bitmap decode(String hash) {
+        if (hash == null || !hash.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            byte[] rgb = Base64.decode(hash.substring(PREFIX.length()), Base64.URL_SAFE | Base64.NO_PADDING);
+            if (rgb.length != COLUMNS * ROWS * 3) {
+                return null;
+            }
+
+            int[] pixels = new int[COLUMNS * ROWS];
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = Color.rgb(rgb[i * 3] & 0xFF, rgb[i * 3 + 1] & 0xFF, rgb[i * 3 + 2] & 0xFF);
+            }
+            Bitmap grid = Bitmap.createBitmap(pixels, COLUMNS, ROWS, Bitmap.Config.ARGB_8888);
+            Bitmap scaled = Bitmap.createScaledBitmap(grid, SCALED_WIDTH, SCALED_HEIGHT, true);
+            if (scaled != grid) {
+                grid.recycle();
+            }
+            return scaled;
+        } catch (IllegalArgumentException e) {
+            android.util.Log.w(TAG, "Invalid thumbnail hash: " + hash);
+            return null;
+        }
+    }
+}
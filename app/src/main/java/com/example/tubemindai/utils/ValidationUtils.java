@@ -3,10 +3,18 @@ package com.example.tubemindai.utils;
 import android.text.TextUtils;
 import android.util.Patterns;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Utility class for input validation
  */
 public class ValidationUtils {
+    // watch?v=, youtu.be/, shorts/, embed/ and live/ links, also inside shared text
+    private static final Pattern YOUTUBE_VIDEO_URL = Pattern.compile(
+            "(?:youtube\\.com/(?:watch\\?(?:[^#\\s]*&)?v=|shorts/|embed/|live/|v/)|youtu\\.be/)"
+                    + "([A-Za-z0-9_-]{11})(?![A-Za-z0-9_-])",
+            Pattern.CASE_INSENSITIVE);
 
     /**
      * Validate email format
@@ -63,6 +71,24 @@ public class ValidationUtils {
         return videoId;
     }
 
+    /**
+     * Video id of the first YouTube link in the text (a pasted URL or a shared message), or null
+     */
+    public static String findYouTubeVideoId(String text) {
+        if (TextUtils.isEmpty(text)) {
+            return null;
+        }
+        Matcher matcher = YOUTUBE_VIDEO_URL.matcher(text);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * One URL per video, so requests for the same video share their Idempotency-Key
+     */
+    public static String canonicalYouTubeUrl(String videoId) {
+        return "https://www.youtube.com/watch?v=" + videoId;
+    }
+
     /**
      * Validate name (non-empty)
      */
@@ -0,0 +1,226 @@
+package com.example.tubemindai.utils;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import com.example.tubemindai.api.ApiClient;
+import com.example.tubemindai.api.models.VideoGenerateRequest;
+import com.example.tubemindai.api.models.VideoGenerateResponse;
+import com.example.tubemindai.api.models.VideoResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Starts work for a YouTube link as soon as the app sees it - pasted into the URL field, found
+ * on the clipboard or shared from the YouTube app - instead of when Generate is tapped.
+ *
+ * Seeing a link looks up notes the user already has for that video, which also opens the API
+ * connection, so a later Generate can open the notes or send its request over a warm socket.
+ * A shared link also starts generation right away. Generate requests are keyed by canonical URL
+ * and shared: tapping Generate while a prefetched generation runs attaches to it instead of
+ * starting a second job. Everything runs on the main thread.
+ */
+public class VideoPrefetcher {
+    private static final String TAG = "VideoPrefetcher";
+
+    private static VideoPrefetcher instance;
+
+    /**
+     * Result of a generate request, on the main thread
+     */
+    public interface GenerateCallback {
+        void onResponse(Response<VideoGenerateResponse> response);
+
+        void onFailure(Throwable t);
+    }
+
+    private static class Generation {
+        private final List<GenerateCallback> callbacks = new ArrayList<>();
+        private Response<VideoGenerateResponse> response;
+        private boolean done;
+    }
+
+    private String lastSeenVideoId;
+    // YouTube video id -> complete notes the user already has
+    private final Map<String, VideoResponse> existing = new HashMap<>();
+    // Canonical URL -> running or finished (not yet collected) generate request
+    private final Map<String, Generation> generations = new HashMap<>();
+
+    public static synchronized VideoPrefetcher get() {
+        if (instance == null) {
+            instance = new VideoPrefetcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Text that may contain a YouTube link was seen. startGeneration: also generate the notes
+     * now (shared links - the user clearly wants them).
+     */
+    public void onUrlSeen(Context context, String text, boolean startGeneration) {
+        String videoId = ValidationUtils.findYouTubeVideoId(text);
+        if (videoId == null) {
+            return;
+        }
+        boolean firstSighting = !videoId.equals(lastSeenVideoId);
+        if (!firstSighting && !startGeneration) {
+            return;
+        }
+        lastSeenVideoId = videoId;
+        String token = new SharedPrefsManager(context).getAccessToken();
+        if (token == null) {
+            return;
+        }
+        String authHeader = "Bearer " + token;
+        ConnectivityMonitor.get().runWhenOnline(TAG + ":" + videoId, ConnectivityMonitor.PRIORITY_PREFETCH, () -> {
+            if (firstSighting) {
+                lookUpExisting(authHeader, videoId, startGeneration);
+            } else {
+                generate(authHeader, ValidationUtils.canonicalYouTubeUrl(videoId), null);
+            }
+        });
+    }
+
+    /**
+     * Notes the user already has for this video, if a prefetch found them
+     */
+    @Nullable
+    public VideoResponse existingNotes(String videoId) {
+        return videoId != null ? existing.get(videoId) : null;
+    }
+
+    /**
+     * Generate notes for a link, joining a prefetched request for the same video if there is one
+     */
+    public void generate(String authHeader, String videoUrl, @Nullable GenerateCallback callback) {
+        String videoId = ValidationUtils.findYouTubeVideoId(videoUrl);
+        String url = videoId != null ? ValidationUtils.canonicalYouTubeUrl(videoId) : videoUrl;
+
+        Generation generation = generations.get(url);
+        if (generation != null) {
+            if (callback == null) {
+                return;
+            }
+            if (generation.done) {
+                // Finished while the user was still looking at the link
+                generations.remove(url);
+                callback.onResponse(generation.response);
+            } else {
+                generation.callbacks.add(callback);
+            }
+            return;
+        }
+
+        Generation started = new Generation();
+        if (callback != null) {
+            started.callbacks.add(callback);
+        }
+        generations.put(url, started);
+
+        // Same key until the server answers, so pressing Generate again after a timeout
+        // returns the notes already being generated instead of starting a second job
+        String action = IdempotencyKeys.generateVideo(url);
+        ApiClient.getApiService().generateVideoNotes(authHeader, IdempotencyKeys.forAction(action),
+                new VideoGenerateRequest(url))
+                .enqueue(new Callback<VideoGenerateResponse>() {
+                    @Override
+                    public void onResponse(Call<VideoGenerateResponse> call, Response<VideoGenerateResponse> response) {
+                        IdempotencyKeys.onResponse(action, response.code());
+                        if (generations.get(url) != started) {
+                            // Cleared (logout) while the request was running
+                            return;
+                        }
+                        if (started.callbacks.isEmpty() && response.isSuccessful()) {
+                            // Nobody tapped Generate yet - keep the result for when they do
+                            started.response = response;
+                            started.done = true;
+                            return;
+                        }
+                        generations.remove(url);
+                        for (GenerateCallback waiting : started.callbacks) {
+                            waiting.onResponse(response);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<VideoGenerateResponse> call, Throwable t) {
+                        if (generations.get(url) != started) {
+                            return;
+                        }
+                        // A failed prefetch is dropped - Generate simply tries again
+                        generations.remove(url);
+                        android.util.Log.w(TAG, "Generate failed for " + url, t);
+                        for (GenerateCallback waiting : started.callbacks) {
+                            waiting.onFailure(t);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Forget everything, e.g. on logout
+     */
+    public static synchronized void clear() {
+        if (instance != null) {
+            instance.lastSeenVideoId = null;
+            instance.existing.clear();
+            instance.generations.clear();
+        }
+    }
+
+    /**
+     * The notes with this database id were deleted (here or through sync) - stop offering them
+     */
+    public static synchronized void removeVideo(int videoDbId) {
+        if (instance == null) {
+            return;
+        }
+        Iterator<Map.Entry<String, VideoResponse>> it = instance.existing.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, VideoResponse> entry = it.next();
+            if (entry.getValue().getId() == videoDbId) {
+                it.remove();
+                // Seeing the link again should look it up again
+                if (entry.getKey().equals(instance.lastSeenVideoId)) {
+                    instance.lastSeenVideoId = null;
+                }
+            }
+        }
+    }
+
+    private void lookUpExisting(String authHeader, String videoId, boolean startGeneration) {
+        ApiClient.getApiService().getVideoByYouTubeId(authHeader, videoId)
+                .enqueue(new Callback<VideoResponse>() {
+                    @Override
+                    public void onResponse(Call<VideoResponse> call, Response<VideoResponse> response) {
+                        VideoResponse video = response.body();
+                        // Same rule as the backend's generate: only complete notes are reused
+                        if (response.isSuccessful() && video != null && video.getSummary() != null
+                                && video.getKeyPoints() != null && video.getBulletNotes() != null) {
+                            existing.put(videoId, video);
+                            MemoryCache.putVideo(video);
+                            android.util.Log.d(TAG, "Notes already exist for " + videoId);
+                        } else if (startGeneration) {
+                            generate(authHeader, ValidationUtils.canonicalYouTubeUrl(videoId), null);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call<VideoResponse> call, Throwable t) {
+                        android.util.Log.w(TAG, "Lookup failed for " + videoId, t);
+                        if (startGeneration) {
+                            generate(authHeader, ValidationUtils.canonicalYouTubeUrl(videoId), null);
+                        }
+                    }
+                });
+    }
+}
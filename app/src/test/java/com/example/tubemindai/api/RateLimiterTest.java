@@ -0,0 +1,124 @@
+package com.example.tubemindai.api;
+
+import org.junit.Test;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import static org.junit.Assert.*;
+
+public class RateLimiterTest {
+    @Test
+    public void fullBucketSendsAtOnce() {
+        RateLimiter limiter = new RateLimiter(3, 60);
+        assertEquals(0, limiter.expectedWaitMs());
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+    }
+
+    @Test
+    public void emptyBucketHoldsUntilNextToken() {
+        // 2 per minute - one token every 30 s
+        RateLimiter limiter = new RateLimiter(2, 60);
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        long wait = limiter.tryAcquire();
+        assertTrue("wait " + wait, wait > 29_000 && wait <= 30_000);
+        // A held send takes nothing, so asking again does not push the wait further out
+        assertTrue(limiter.tryAcquire() <= wait);
+    }
+
+    @Test
+    public void tooManyRequestsBlocksUntilRetryAfter() {
+        RateLimiter limiter = new RateLimiter(5, 60);
+        limiter.onServerHeaders(response(429, "Retry-After", "20"));
+        long wait = limiter.expectedWaitMs();
+        assertTrue("wait " + wait, wait > 19_000 && wait <= 20_000);
+        assertEquals(wait, limiter.tryAcquire(), 50);
+        assertFalse(limiter.hasSpare(0));
+    }
+
+    @Test
+    public void tooManyRequestsWithoutRetryAfterEmptiesBucket() {
+        RateLimiter limiter = new RateLimiter(5, 60);
+        limiter.onServerHeaders(response(429));
+        long wait = limiter.expectedWaitMs();
+        assertTrue("wait " + wait, wait > 11_000 && wait <= 12_000);
+    }
+
+    @Test
+    public void serverRemainingCapsTokens() {
+        RateLimiter limiter = new RateLimiter(5, 60);
+        limiter.onServerHeaders(response(200, "RateLimit-Remaining", "1"));
+        assertEquals(0, limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    public void serverPolicyReplacesConfiguredLimit() {
+        RateLimiter limiter = new RateLimiter(5, 60);
+        limiter.onServerHeaders(response(200, "RateLimit-Policy", "1;w=10"));
+        assertEquals(0, limiter.tryAcquire());
+        long wait = limiter.tryAcquire();
+        assertTrue("wait " + wait, wait > 9_000 && wait <= 10_000);
+    }
+
+    @Test
+    public void malformedHeadersAreIgnored() {
+        RateLimiter limiter = new RateLimiter(2, 60);
+        limiter.onServerHeaders(response(200, "RateLimit-Policy", "lots", "RateLimit-Remaining", "many"));
+        assertEquals(0, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    public void onlyChatSendsAreShaped() {
+        assertEquals(RateLimiter.SCOPE_VIDEO_CHAT, RateLimiter.scopeOf(post("/api/video/7/chat")));
+        assertEquals(RateLimiter.SCOPE_PDF_CHAT, RateLimiter.scopeOf(post("/api/pdf/12/chat")));
+        assertEquals(RateLimiter.SCOPE_VIDEO_SPECULATIVE, RateLimiter.scopeOf(post("/api/video/7/chat/speculative")));
+        assertNull(RateLimiter.scopeOf(post("/api/video/7/chat/suggested")));
+        assertNull(RateLimiter.scopeOf(post("/api/video/generate")));
+        assertNull(RateLimiter.scopeOf(new Request.Builder().url("http://localhost/api/video/7/chat").build()));
+    }
+
+    @Test
+    public void prefetchesHaveTheirOwnBucket() {
+        RateLimiter speculative = RateLimiter.forScope(RateLimiter.SCOPE_VIDEO_SPECULATIVE);
+        for (int i = 0; i < ApiConfig.SPECULATIVE_CHAT_RATE_LIMIT; i++) {
+            assertTrue(speculative.hasSpare(0));
+            assertEquals(0, speculative.tryAcquire());
+        }
+        assertFalse(speculative.hasSpare(0));
+        assertEquals(0, RateLimiter.forScope(RateLimiter.SCOPE_VIDEO_CHAT).expectedWaitMs());
+    }
+
+    @Test
+    public void retryAfterIsReadAsSeconds() {
+        assertEquals(20_000, RateLimiter.retryAfterMillis(response(429, "Retry-After", " 20 ")));
+        assertEquals(-1, RateLimiter.retryAfterMillis(response(429, "Retry-After", "soon")));
+        assertEquals(-1, RateLimiter.retryAfterMillis(response(429)));
+    }
+
+    private static Request post(String path) {
+        return new Request.Builder()
+                .url("http://localhost" + path)
+                .post(RequestBody.create(new byte[0]))
+                .build();
+    }
+
+    private static Response response(int code, String... headers) {
+        Response.Builder builder = new Response.Builder()
+                .request(post("/api/video/1/chat"))
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("");
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+}
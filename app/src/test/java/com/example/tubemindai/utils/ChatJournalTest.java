@@ -0,0 +1,204 @@
+package com.example.tubemindai.utils;
+
+import com.example.tubemindai.api.models.ChatMessageResponse;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChatJournalTest {
+    private static final String KIND = "video";
+    private static final int TARGET = 42;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private ChatJournal journal;
+
+    @Before
+    public void setUp() {
+        dir = new File(folder.getRoot(), "chat_journal");
+        journal = open();
+    }
+
+    @Test
+    public void appendedRecordsReadBackInOrder() {
+        journal.append(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+        journal.append(KIND, TARGET, Arrays.asList(user("q2"), ai("a2")));
+
+        assertEquals(Arrays.asList("q1", "a1", "q2", "a2"), texts(readTail(100)));
+        assertTrue(readTail(100).get(0).isUser());
+        assertFalse(readTail(100).get(1).isUser());
+    }
+
+    @Test
+    public void tailIsTheNewestRecords() {
+        for (int i = 0; i < 10; i++) {
+            journal.append(KIND, TARGET, Collections.singletonList(user("m" + i)));
+        }
+        assertEquals(Arrays.asList("m7", "m8", "m9"), texts(readTail(3)));
+    }
+
+    @Test
+    public void missingConversationIsEmpty() {
+        assertTrue(readTail(100).isEmpty());
+    }
+
+    @Test
+    public void serverHistoryExtendingJournalIsAppended() {
+        journal.append(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+        long before = dataFile().length();
+        journal.replaceWith(KIND, TARGET, Arrays.asList(user("q1"), ai("a1"), user("q2"), ai("a2")));
+
+        assertEquals(Arrays.asList("q1", "a1", "q2", "a2"), texts(readTail(100)));
+        assertTrue(dataFile().length() > before);
+    }
+
+    @Test
+    public void divergingServerHistorySupersedesJournal() {
+        journal.append(KIND, TARGET, Arrays.asList(user("local question"), ai("local answer")));
+        journal.replaceWith(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+
+        assertEquals(Arrays.asList("q1", "a1"), texts(readTail(100)));
+    }
+
+    @Test
+    public void emptyServerHistoryDeletesJournal() {
+        journal.append(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+        journal.replaceWith(KIND, TARGET, Collections.<ChatJournal.Record>emptyList());
+
+        assertFalse(dataFile().exists());
+        assertTrue(readTail(100).isEmpty());
+    }
+
+    @Test
+    public void tornRecordIsCutOffOnReopen() throws Exception {
+        journal.append(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+        long intact = dataFile().length();
+        // Process killed halfway through the next append
+        try (FileOutputStream out = new FileOutputStream(dataFile(), true)) {
+            out.write(new byte[]{0, 0, 0, 50, 1, 2, 3});
+        }
+
+        journal = open();
+        assertEquals(Arrays.asList("q1", "a1"), texts(readTail(100)));
+        assertEquals(intact, dataFile().length());
+
+        journal.append(KIND, TARGET, Collections.singletonList(user("q2")));
+        assertEquals(Arrays.asList("q1", "a1", "q2"), texts(readTail(100)));
+    }
+
+    @Test
+    public void lostIndexIsRebuiltFromData() {
+        journal.append(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+        assertTrue(new File(dir, KIND + "_" + TARGET + ".idx").delete());
+
+        journal = open();
+        assertEquals(Arrays.asList("q1", "a1"), texts(readTail(100)));
+    }
+
+    @Test
+    public void corruptedRecordIsNotReturned() throws Exception {
+        journal.append(KIND, TARGET, Arrays.asList(user("q1"), ai("a1")));
+        try (RandomAccessFile data = new RandomAccessFile(dataFile(), "rw")) {
+            // Flip a byte of the last payload - its checksum no longer matches
+            data.seek(data.length() - 1);
+            int last = data.read();
+            data.seek(data.length() - 1);
+            data.write(last ^ 0xff);
+        }
+
+        journal = open();
+        assertEquals(Arrays.asList("q1"), texts(readTail(100)));
+    }
+
+    @Test
+    public void deadRecordsAreCompactedAway() {
+        char[] filler = new char[20_000];
+        Arrays.fill(filler, 'x');
+        String big = new String(filler);
+        for (int i = 0; i < 6; i++) {
+            journal.replaceWith(KIND, TARGET, Arrays.asList(user("q" + i), ai(big + i)));
+        }
+
+        assertEquals(Arrays.asList("q5", big + "5"), texts(readTail(100)));
+        assertTrue("data file " + dataFile().length(), dataFile().length() < 3 * 20_000);
+    }
+
+    @Test
+    public void removeForgetsOneConversation() {
+        journal.append(KIND, TARGET, Collections.singletonList(user("q1")));
+        journal.append(KIND, TARGET + 1, Collections.singletonList(user("other")));
+        journal.remove(KIND, TARGET);
+
+        assertTrue(readTail(100).isEmpty());
+        assertEquals(1, readTail(TARGET + 1, 100).size());
+    }
+
+    @Test
+    public void videoHistoryBecomesQuestionAndAnswerBubbles() {
+        ChatMessageResponse answered = message("What is a monad?", "A monoid in the category of endofunctors.");
+        ChatMessageResponse pending = message("And a functor?", "");
+
+        List<ChatJournal.Record> records = ChatJournal.fromVideoHistory(Arrays.asList(answered, pending));
+        assertEquals(Arrays.asList("What is a monad?", "A monoid in the category of endofunctors.", "And a functor?"),
+                texts(records));
+        assertEquals("cid-What is a monad?", records.get(1).getClientMessageId());
+        assertTrue(ChatJournal.fromVideoHistory(null).isEmpty());
+    }
+
+    private ChatJournal open() {
+        return new ChatJournal(dir, Runnable::run, Runnable::run);
+    }
+
+    private List<ChatJournal.Record> readTail(int limit) {
+        return readTail(TARGET, limit);
+    }
+
+    private List<ChatJournal.Record> readTail(int target, int limit) {
+        List<ChatJournal.Record> result = new ArrayList<>();
+        journal.readTail(KIND, target, limit, result::addAll);
+        return result;
+    }
+
+    private File dataFile() {
+        return new File(dir, KIND + "_" + TARGET + ".log");
+    }
+
+    private static ChatJournal.Record user(String text) {
+        return new ChatJournal.Record(ChatJournal.TYPE_USER, "cid-" + text, "1", text);
+    }
+
+    private static ChatJournal.Record ai(String text) {
+        return new ChatJournal.Record(ChatJournal.TYPE_AI, null, "2", text);
+    }
+
+    private static ChatMessageResponse message(String question, String answer) {
+        ChatMessageResponse message = new ChatMessageResponse();
+        message.setMessage(question);
+        message.setResponse(answer);
+        message.setUserMessage(true);
+        message.setClientMessageId("cid-" + question);
+        return message;
+    }
+
+    private static List<String> texts(List<ChatJournal.Record> records) {
+        List<String> texts = new ArrayList<>();
+        for (ChatJournal.Record record : records) {
+            texts.add(record.getText());
+        }
+        return texts;
+    }
+}
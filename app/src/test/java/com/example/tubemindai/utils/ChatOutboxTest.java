@@ -0,0 +1,110 @@
+package com.example.tubemindai.utils;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ChatOutboxTest {
+    private static final String VIDEO_1 = ChatOutbox.conversation(ChatOutbox.KIND_VIDEO, 1);
+    private static final String PDF_1 = ChatOutbox.conversation(ChatOutbox.KIND_PDF, 1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(folder.getRoot(), "chat_outbox.json");
+        String json = "["
+                + entry("c1", ChatOutbox.KIND_VIDEO, "first", null) + ","
+                + entry("c2", ChatOutbox.KIND_VIDEO, "second", null) + ","
+                + entry("c3", ChatOutbox.KIND_VIDEO, "cached", "from cache") + ","
+                + entry("c1", ChatOutbox.KIND_PDF, "pdf question", null)
+                + "]";
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void queuedMessagesSurviveRestart() {
+        ChatOutbox outbox = new ChatOutbox(null, file);
+        assertEquals(Arrays.asList("c1", "c2", "c3"), ids(outbox.pending(VIDEO_1)));
+        assertEquals("from cache", outbox.pending(VIDEO_1).get(2).getAnswer());
+        assertNull(outbox.pending(VIDEO_1).get(0).getAnswer());
+        assertEquals(Arrays.asList("c1"), ids(outbox.pending(PDF_1)));
+    }
+
+    @Test
+    public void answeredMessagesAreDropped() {
+        ChatOutbox outbox = new ChatOutbox(null, file);
+        outbox.reconcile(VIDEO_1, Arrays.asList("c1", "c3"));
+
+        assertEquals(Arrays.asList("c2"), ids(outbox.pending(VIDEO_1)));
+        // The drop is on disk, so a restart does not send them again
+        assertEquals(Arrays.asList("c2"), ids(new ChatOutbox(null, file).pending(VIDEO_1)));
+    }
+
+    @Test
+    public void storedButUnansweredQuestionStaysQueued() {
+        ChatOutbox outbox = new ChatOutbox(null, file);
+        // History had c2's question row but no answer carrying its id
+        outbox.reconcile(VIDEO_1, Collections.singletonList("c1"));
+
+        assertEquals(Arrays.asList("c2", "c3"), ids(outbox.pending(VIDEO_1)));
+    }
+
+    @Test
+    public void otherConversationsAreUntouched() {
+        ChatOutbox outbox = new ChatOutbox(null, file);
+        // Same client id in the PDF conversation - only the video one was answered
+        outbox.reconcile(VIDEO_1, Collections.singletonList("c1"));
+
+        assertEquals(Arrays.asList("c1"), ids(outbox.pending(PDF_1)));
+    }
+
+    @Test
+    public void nothingAnsweredLeavesFileAlone() {
+        ChatOutbox outbox = new ChatOutbox(null, file);
+        long modified = file.lastModified();
+        assertTrue(file.setLastModified(modified - 10_000));
+        outbox.reconcile(VIDEO_1, Collections.singletonList("unknown"));
+
+        assertEquals(modified - 10_000, file.lastModified());
+        assertEquals(3, outbox.pending(VIDEO_1).size());
+    }
+
+    @Test
+    public void unreadableFileStartsEmpty() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("{not json".getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(new ChatOutbox(null, file).pending(VIDEO_1).isEmpty());
+    }
+
+    private static String entry(String clientId, String kind, String message, String answer) {
+        return "{\"clientMessageId\":\"" + clientId + "\",\"kind\":\"" + kind + "\",\"targetId\":1,"
+                + "\"message\":\"" + message + "\",\"createdAt\":1,\"attempts\":1"
+                + (answer != null ? ",\"answer\":\"" + answer + "\"" : "") + "}";
+    }
+
+    private static List<String> ids(List<ChatOutbox.Entry> entries) {
+        List<String> ids = new ArrayList<>();
+        for (ChatOutbox.Entry entry : entries) {
+            ids.add(entry.getClientMessageId());
+        }
+        return ids;
+    }
+}
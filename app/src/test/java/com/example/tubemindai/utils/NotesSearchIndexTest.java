@@ -0,0 +1,153 @@
+package com.example.tubemindai.utils;
+
+import com.example.tubemindai.api.models.VideoResponse;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NotesSearchIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void termsAreLowercasedWordsWithoutStopWords() {
+        assertEquals(Arrays.asList("react", "hooks", "state", "2024"),
+                NotesSearchIndex.terms("The React-hooks of a state, in 2024!"));
+    }
+
+    @Test
+    public void everyWordMustMatch() {
+        NotesSearchIndex index = newIndex();
+        index.putVideo(video(1, "Kubernetes networking", "Pods talk through services."));
+        index.putVideo(video(2, "Kubernetes storage", "Volumes outlive pods."));
+
+        List<Integer> both = ids(index.search("kubernetes pods ", 10));
+        assertEquals(2, both.size());
+        assertTrue(both.containsAll(Arrays.asList(1, 2)));
+        assertEquals(Arrays.asList(2), ids(index.search("kubernetes volumes ", 10)));
+        assertTrue(index.search("kubernetes gardening ", 10).isEmpty());
+    }
+
+    @Test
+    public void titleHitOutranksBodyHit() {
+        NotesSearchIndex index = newIndex();
+        index.putVideo(video(1, "Cooking pasta at home", "A short history of compilers and parsers."));
+        index.putVideo(video(2, "Compilers explained", "Cooking a parser from scratch."));
+
+        assertEquals(Arrays.asList(2, 1), ids(index.search("compilers ", 10)));
+        assertEquals(Arrays.asList(1, 2), ids(index.search("cooking ", 10)));
+    }
+
+    @Test
+    public void lastWordIsPrefixWhileTyping() {
+        NotesSearchIndex index = newIndex();
+        index.putVideo(video(1, "Transformers from scratch", "Attention is computed per head."));
+
+        assertEquals(Arrays.asList(1), ids(index.search("transf", 10)));
+        // A separator after the word means it is finished
+        assertTrue(index.search("transf ", 10).isEmpty());
+    }
+
+    @Test
+    public void prefixScoresTermsInMostNotes() {
+        NotesSearchIndex index = newIndex();
+        // More rare expansions than are scored, all sorting before the common one
+        for (int i = 0; i < 40; i++) {
+            index.putVideo(video(100 + i, "Rare note " + i, "Only reaa" + i + " appears here."));
+        }
+        for (int i = 0; i < 5; i++) {
+            index.putVideo(video(i + 1, "Frontend " + i, "Building interfaces with react components."));
+        }
+
+        List<Integer> found = ids(index.search("rea", 100));
+        for (int i = 1; i <= 5; i++) {
+            assertTrue("react note " + i + " missing from " + found, found.contains(i));
+        }
+    }
+
+    @Test
+    public void unsavedVideoIsNotSearchable() {
+        NotesSearchIndex index = newIndex();
+        index.putVideo(video(1, "Gradient descent", "Step downhill."));
+        VideoResponse unsaved = video(1, "Gradient descent", "Step downhill.");
+        unsaved.setSaved(false);
+        index.putVideo(unsaved);
+
+        assertTrue(index.search("gradient ", 10).isEmpty());
+    }
+
+    @Test
+    public void previewDoesNotReplaceFullNotes() {
+        NotesSearchIndex index = newIndex();
+        index.putVideo(video(1, "Rust ownership", "Borrowing rules explained."));
+        index.putPreview(1, "vid", "url", null, "Rust ownership", "Short preview");
+
+        assertEquals(Arrays.asList(1), ids(index.search("borrowing ", 10)));
+    }
+
+    @Test
+    public void removedNoteIsForgotten() {
+        NotesSearchIndex index = newIndex();
+        index.putVideo(video(1, "Sourdough baking", "Starter and flour."));
+        index.putVideo(video(2, "Sourdough starter care", "Feed it daily."));
+        index.remove(1);
+
+        assertEquals(Arrays.asList(2), ids(index.search("sourdough ", 10)));
+    }
+
+    @Test
+    public void changesBeforeLoadApplyOnTopOfDisk() {
+        List<Runnable> io = new ArrayList<>();
+        NotesSearchIndex index = new NotesSearchIndex(new File(folder.getRoot(), "notes.idx"), io::add);
+        index.putVideo(video(1, "Quantum computing", "Qubits and gates."));
+        assertTrue(index.search("qubits ", 10).isEmpty());
+
+        // The load was queued first
+        io.remove(0).run();
+        assertEquals(Arrays.asList(1), ids(index.search("qubits ", 10)));
+    }
+
+    @Test
+    public void unreadableFileIsDiscarded() throws Exception {
+        File file = new File(folder.getRoot(), "notes.idx");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        }
+        NotesSearchIndex index = new NotesSearchIndex(file, Runnable::run);
+
+        assertFalse(file.exists());
+        index.putVideo(video(1, "Docker images", "Layers are cached."));
+        assertEquals(Arrays.asList(1), ids(index.search("docker", 10)));
+    }
+
+    private NotesSearchIndex newIndex() {
+        return new NotesSearchIndex(new File(folder.getRoot(), "notes.idx"), Runnable::run);
+    }
+
+    private static VideoResponse video(int id, String title, String summary) {
+        VideoResponse video = new VideoResponse();
+        video.setId(id);
+        video.setVideoId("vid" + id);
+        video.setTitle(title);
+        video.setSummary(summary);
+        video.setSaved(true);
+        return video;
+    }
+
+    private static List<Integer> ids(List<NotesSearchIndex.Result> results) {
+        List<Integer> ids = new ArrayList<>();
+        for (NotesSearchIndex.Result result : results) {
+            ids.add(result.getVideoDbId());
+        }
+        return ids;
+    }
+}
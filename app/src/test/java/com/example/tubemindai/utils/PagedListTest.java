@@ -0,0 +1,200 @@
+package com.example.tubemindai.utils;
+
+import com.example.tubemindai.api.StreamingListLoader;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import retrofit2.Response;
+
+import static org.junit.Assert.*;
+
+public class PagedListTest {
+    private static final int PAGE = PagedList.PAGE_SIZE;
+
+    /**
+     * A page fetch the test answers by hand
+     */
+    private static class Fetch {
+        final int skip;
+        final StreamingListLoader.Listener<String> listener;
+
+        Fetch(int skip, StreamingListLoader.Listener<String> listener) {
+            this.skip = skip;
+            this.listener = listener;
+        }
+
+        void deliver(int count, int total) {
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                rows.add("row" + (skip + i));
+            }
+            if (!rows.isEmpty()) {
+                listener.onItems(rows);
+            }
+            listener.onComplete(total);
+        }
+    }
+
+    private final List<Fetch> fetches = new ArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private PagedList<String> list;
+
+    @Before
+    public void setUp() {
+        list = new PagedList<>((skip, limit, listener) -> {
+            assertEquals(PAGE, limit);
+            fetches.add(new Fetch(skip, listener));
+            // No Handle to cancel - superseded fetches are told apart by their page
+            return null;
+        }, new PagedList.Listener<String>() {
+            @Override
+            public void onRows(List<String> batch) {
+                events.add("rows " + batch.size());
+            }
+
+            @Override
+            public void onFirstPage(boolean empty) {
+                events.add(empty ? "first empty" : "first");
+            }
+
+            @Override
+            public void onError(Response<?> errorResponse, Throwable error) {
+                events.add("error");
+            }
+        });
+    }
+
+    @Test
+    public void previewStaysUntilFirstRowsArrive() {
+        list.reset(Arrays.asList("match1", "match2"));
+        list.load();
+        assertEquals(2, list.size());
+        assertEquals("match1", list.get(0));
+
+        lastFetch().listener.onItems(Arrays.asList("row0"));
+        assertEquals(1, list.size());
+        assertEquals("row0", list.get(0));
+        assertEquals(Arrays.asList("rows 1", "first"), events);
+    }
+
+    @Test
+    public void sizeCoversRowsNotLoadedYet() {
+        list.load();
+        lastFetch().deliver(PAGE, 120);
+        assertEquals(120, list.size());
+        assertEquals("row49", list.peek(49));
+        assertNull(list.peek(60));
+    }
+
+    @Test
+    public void peekNeverFetches() {
+        list.load();
+        lastFetch().deliver(PAGE, 120);
+        list.peek(40);
+        list.peek(60);
+        list.peek(119);
+        assertEquals(1, fetches.size());
+    }
+
+    @Test
+    public void bindingAnUnloadedRowFetchesItsPage() {
+        list.load();
+        lastFetch().deliver(PAGE, 120);
+        assertNull(list.get(60));
+        assertEquals(PAGE, lastFetch().skip);
+
+        lastFetch().deliver(PAGE, 120);
+        assertEquals("row60", list.get(60));
+    }
+
+    @Test
+    public void bindingNearPageEndPrefetchesNextPage() {
+        list.load();
+        lastFetch().deliver(PAGE, 120);
+        assertEquals("row10", list.get(10));
+        assertEquals(1, fetches.size());
+        assertEquals("row45", list.get(45));
+        assertEquals(2, fetches.size());
+        assertEquals(PAGE, lastFetch().skip);
+    }
+
+    @Test
+    public void shortPageEndsTheList() {
+        list.load();
+        lastFetch().deliver(10, 500);
+        assertEquals(10, list.size());
+    }
+
+    @Test
+    public void missingTotalKeepsOnePlaceholderPastFullPage() {
+        list.load();
+        lastFetch().deliver(PAGE, -1);
+        assertEquals(PAGE + 1, list.size());
+    }
+
+    @Test
+    public void emptyFirstPageIsReported() {
+        list.reset(Arrays.asList("stale"));
+        list.load();
+        lastFetch().deliver(0, 0);
+        assertTrue(list.isEmpty());
+        assertEquals(Arrays.asList("first empty"), events);
+    }
+
+    @Test
+    public void rowsOfAnOlderLoadAreDropped() {
+        list.load();
+        Fetch old = lastFetch();
+        list.reset(null);
+        list.load();
+        old.deliver(PAGE, 120);
+        assertEquals(0, list.size());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void cancelledLoadDeliversNothing() {
+        list.load();
+        list.cancel();
+        lastFetch().deliver(PAGE, 120);
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void removeShiftsRowsAndRefetchesLaterPages() {
+        list.load();
+        lastFetch().deliver(PAGE, 120);
+        list.get(60);
+        lastFetch().deliver(PAGE, 120);
+
+        assertEquals("row10", list.remove(10));
+        assertEquals(119, list.size());
+        assertEquals("row11", list.peek(10));
+        // Every later row moved up by one - page 1 is fetched again rather than shown shifted
+        assertNull(list.peek(60));
+    }
+
+    @Test
+    public void failedPageIsAskedForAgainWhenBound() {
+        list.load();
+        lastFetch().deliver(PAGE, 120);
+        list.get(60);
+        lastFetch().listener.onError(null, new java.io.IOException("reset"));
+        assertTrue(events.contains("error"));
+
+        int before = fetches.size();
+        assertNull(list.get(60));
+        assertEquals(before + 1, fetches.size());
+        assertEquals(PAGE, lastFetch().skip);
+    }
+
+    private Fetch lastFetch() {
+        assertFalse("nothing was fetched", fetches.isEmpty());
+        return fetches.get(fetches.size() - 1);
+    }
+}
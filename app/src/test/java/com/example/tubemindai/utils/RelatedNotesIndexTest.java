@@ -0,0 +1,138 @@
+package com.example.tubemindai.utils;
+
+import com.example.tubemindai.api.models.PDFResponse;
+import com.example.tubemindai.api.models.VideoResponse;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RelatedNotesIndexTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RelatedNotesIndex index;
+
+    @Before
+    public void setUp() {
+        index = new RelatedNotesIndex(new File(folder.getRoot(), "related.idx"), Runnable::run);
+    }
+
+    @Test
+    public void noteSharingMostWordsIsRelated() {
+        index.putVideo(video(1, words("neuron", 0, 30), true));
+        // 27 of 33 words in common
+        index.putVideo(video(2, words("neuron", 3, 33), true));
+        index.putVideo(video(3, words("glacier", 0, 30), true));
+
+        List<RelatedNotesIndex.Related> related = index.related(RelatedNotesIndex.KIND_VIDEO, 1, 5);
+        assertEquals(1, related.size());
+        assertEquals(2, related.get(0).getId());
+        assertTrue(related.get(0).getSimilarity() > 0.5f);
+    }
+
+    @Test
+    public void templateWordsDoNotMakeNotesRelated() {
+        String template = "Summary key points bullet notes main purpose overall the speaker explains "
+                + "and covers important examples video transcript takeaways messages ";
+        index.putVideo(video(1, template + words("volcano", 0, 12), true));
+        index.putVideo(video(2, template + words("violin", 0, 12), true));
+
+        assertTrue(index.related(RelatedNotesIndex.KIND_VIDEO, 1, 5).isEmpty());
+    }
+
+    @Test
+    public void unsavedVideoIsNeverSuggested() {
+        index.putVideo(video(1, words("orbit", 0, 30), true));
+        index.putVideo(video(2, words("orbit", 1, 31), false));
+
+        assertTrue(index.related(RelatedNotesIndex.KIND_VIDEO, 1, 5).isEmpty());
+        // Its own related notes can still be shown
+        assertEquals(1, index.related(RelatedNotesIndex.KIND_VIDEO, 2, 5).get(0).getId());
+    }
+
+    @Test
+    public void savingAVideoMakesItSuggestable() {
+        index.putVideo(video(1, words("orbit", 0, 30), true));
+        index.putVideo(video(2, words("orbit", 1, 31), false));
+        index.putVideo(video(2, words("orbit", 1, 31), true));
+
+        assertEquals(2, index.related(RelatedNotesIndex.KIND_VIDEO, 1, 5).get(0).getId());
+    }
+
+    @Test
+    public void videosAndPdfsAreRelatedAcrossKinds() {
+        index.putVideo(video(7, words("enzyme", 0, 30), true));
+        PDFResponse pdf = new PDFResponse();
+        pdf.setId(7);
+        pdf.setFileName("enzymes.pdf");
+        pdf.setSummary(words("enzyme", 2, 32));
+        index.putPDF(pdf);
+
+        List<RelatedNotesIndex.Related> related = index.related(RelatedNotesIndex.KIND_VIDEO, 7, 5);
+        assertEquals(1, related.size());
+        assertEquals(RelatedNotesIndex.KIND_PDF, related.get(0).getKind());
+        assertEquals("enzymes.pdf", related.get(0).getTitle());
+    }
+
+    @Test
+    public void shortNotesAreNotIndexed() {
+        index.putVideo(video(1, "Generation failed", true));
+        index.putVideo(video(2, "Generation failed", true));
+
+        assertTrue(index.related(RelatedNotesIndex.KIND_VIDEO, 1, 5).isEmpty());
+    }
+
+    @Test
+    public void removedNoteIsNoLongerSuggested() {
+        index.putVideo(video(1, words("tensor", 0, 30), true));
+        index.putVideo(video(2, words("tensor", 2, 32), true));
+        index.remove(RelatedNotesIndex.KIND_VIDEO, 2);
+
+        assertTrue(index.related(RelatedNotesIndex.KIND_VIDEO, 1, 5).isEmpty());
+    }
+
+    @Test
+    public void resultsAreBestFirstAndLimited() {
+        index.putVideo(video(1, words("prism", 0, 30), true));
+        index.putVideo(video(2, words("prism", 1, 31), true));
+        index.putVideo(video(3, words("prism", 6, 36), true));
+        index.putVideo(video(4, words("prism", 4, 34), true));
+
+        List<RelatedNotesIndex.Related> related = index.related(RelatedNotesIndex.KIND_VIDEO, 1, 2);
+        assertEquals(2, related.size());
+        assertTrue(related.get(0).getSimilarity() >= related.get(1).getSimilarity());
+    }
+
+    @Test
+    public void whenReadyRunsAtOnceAfterLoad() {
+        List<String> calls = new ArrayList<>();
+        index.whenReady(() -> calls.add("ready"));
+        assertEquals(1, calls.size());
+    }
+
+    private static String words(String stem, int from, int to) {
+        StringBuilder text = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            text.append(stem).append(i).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static VideoResponse video(int id, String summary, boolean saved) {
+        VideoResponse video = new VideoResponse();
+        video.setId(id);
+        video.setVideoId("vid" + id);
+        video.setTitle("Video " + id);
+        video.setSummary(summary);
+        video.setSaved(saved);
+        return video;
+    }
+}
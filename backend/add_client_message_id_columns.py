@@ -0,0 +1,44 @@
+"""
+Script to add client_message_id columns to the chats and pdf_chats tables
+Run this once to update the database schema (new databases get them from create_all)
+"""
+import sys
+from sqlalchemy import text
+from app.database import engine
+
+TABLES = [
+    ("chats", "ix_chats_user_client_message"),
+    ("pdf_chats", "ix_pdf_chats_user_client_message"),
+]
+
+def add_client_message_id_columns():
+    """Add client_message_id and its (user_id, client_message_id) index to each chat table"""
+    try:
+        with engine.connect() as conn:
+            for table, index_name in TABLES:
+                # Check if column already exists
+                check_query = text("""
+                    SELECT column_name 
+                    FROM information_schema.columns 
+                    WHERE table_name=:table AND column_name='client_message_id'
+                """)
+                if conn.execute(check_query, {"table": table}).fetchone():
+                    print(f"Column client_message_id already exists on {table}!")
+                else:
+                    conn.execute(text(f"ALTER TABLE {table} ADD COLUMN client_message_id VARCHAR(64)"))
+                    print(f"Added client_message_id column to {table}")
+                
+                conn.execute(text(
+                    f"CREATE INDEX IF NOT EXISTS {index_name} ON {table} (user_id, client_message_id)"
+                ))
+            conn.commit()
+            print("Successfully added client_message_id columns!")
+            
+    except Exception as e:
+        print(f"Error adding columns: {str(e)}")
+        sys.exit(1)
+
+if __name__ == "__main__":
+    print("Adding client_message_id columns to chat tables...")
+    add_client_message_id_columns()
+    print("Done!")
@@ -0,0 +1,27 @@
+"""
+Script to add the saved-notes pagination index to the videos table
+Run this once on databases created before the index was added to the model
+"""
+import sys
+from sqlalchemy import text
+from app.database import engine
+
+def add_saved_notes_index():
+    """Add (user_id, is_saved, created_at, id) index to videos table"""
+    try:
+        with engine.connect() as conn:
+            conn.execute(text("""
+                CREATE INDEX IF NOT EXISTS ix_videos_user_saved_created
+                ON videos (user_id, is_saved, created_at, id)
+            """))
+            conn.commit()
+            print("Successfully added ix_videos_user_saved_created index!")
+            
+    except Exception as e:
+        print(f"Error adding index: {str(e)}")
+        sys.exit(1)
+
+if __name__ == "__main__":
+    print("Adding saved-notes index to videos table...")
+    add_saved_notes_index()
+    print("Done!")
@@ -0,0 +1,60 @@
+"""
+Script to add thumbnail_hash column to videos table
+Run this once to update the database schema and backfill existing videos
+"""
+import asyncio
+import sys
+from sqlalchemy import text
+from app.database import engine, SessionLocal
+from app.models import Video
+from app.core.image_hash_service import compute_thumbnail_hash
+
+def add_thumbnail_hash_column():
+    """Add thumbnail_hash column to videos table"""
+    try:
+        with engine.connect() as conn:
+            # Check if column already exists
+            check_query = text("""
+                SELECT column_name 
+                FROM information_schema.columns 
+                WHERE table_name='videos' AND column_name='thumbnail_hash'
+            """)
+            result = conn.execute(check_query)
+            if result.fetchone():
+                print("Column thumbnail_hash already exists!")
+                return
+            
+            # Add the column
+            alter_query = text("""
+                ALTER TABLE videos 
+                ADD COLUMN thumbnail_hash VARCHAR(64)
+            """)
+            conn.execute(alter_query)
+            conn.commit()
+            print("Successfully added thumbnail_hash column to videos table!")
+            
+    except Exception as e:
+        print(f"Error adding column: {str(e)}")
+        sys.exit(1)
+
+def backfill_thumbnail_hashes():
+    """Compute hashes for videos created before the column existed"""
+    db = SessionLocal()
+    try:
+        videos = db.query(Video).filter(Video.thumbnail_hash.is_(None)).all()
+        updated = 0
+        for video in videos:
+            thumbnail_hash = asyncio.run(compute_thumbnail_hash(video.video_id))
+            if thumbnail_hash:
+                video.thumbnail_hash = thumbnail_hash
+                updated += 1
+        db.commit()
+        print(f"Backfilled thumbnail_hash for {updated} of {len(videos)} videos")
+    finally:
+        db.close()
+
+if __name__ == "__main__":
+    print("Adding thumbnail_hash column to videos table...")
+    add_thumbnail_hash_column()
+    backfill_thumbnail_hashes()
+    print("Done!")
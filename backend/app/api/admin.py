@@ -1,6 +1,6 @@
 from fastapi import APIRouter, Depends, HTTPException, status
-from sqlalchemy.orm import Session
-from sqlalchemy import func, desc
+from sqlalchemy.orm import Session, load_only
+from sqlalchemy import func, desc, and_
 from typing import List, Optional
 from datetime import datetime, timedelta
 
@@ -9,10 +9,22 @@ from app.models import User, Video, Chat, PDF, PDFChat
 from app.core.security import verify_password, create_access_token
 from app.api.video import get_current_user_id
 from app.schemas.auth import UserLogin, Token
+from app.core.projection import parse_fields, project
+from app.core.sync_service import record_deletion, ENTITY_VIDEO, ENTITY_PDF
 from app.config import settings
 
 router = APIRouter(prefix="/admin", tags=["Admin"])
 
+# Fields the admin list endpoints may be asked for with ?fields=
+ADMIN_VIDEO_FIELDS = {
+    "id", "video_id", "title", "thumbnail_url", "thumbnail_hash", "user_id",
+    "user_name", "user_email", "has_notes", "chat_count", "created_at"
+}
+ADMIN_PDF_FIELDS = {
+    "id", "file_name", "file_size", "page_count", "user_id",
+    "user_name", "user_email", "has_notes", "chat_count", "created_at"
+}
+
 
 def get_current_admin_user_id(
     current_user_id: int = Depends(get_current_user_id),
@@ -272,11 +284,28 @@ async def get_all_videos(
     limit: int = 50,
     search: Optional[str] = None,
     user_id: Optional[int] = None,
+    fields: Optional[str] = None,
     db: Session = Depends(get_db),
     admin_id: int = Depends(get_current_admin_user_id)
 ):
-    """Get all videos with filters"""
-    query = db.query(Video)
+    """
+    Get all videos with filters
+
+    - fields: comma separated projection, e.g. "id,title,thumbnail_url,user_name".
+      Users and chat counts are only looked up when requested.
+    """
+    selected = parse_fields(fields, ADMIN_VIDEO_FIELDS)
+    
+    # has_notes is computed in SQL so the note bodies and transcript are never loaded
+    has_notes = and_(
+        Video.summary.isnot(None),
+        Video.key_points.isnot(None),
+        Video.bullet_notes.isnot(None)
+    ).label("has_notes")
+    query = db.query(Video, has_notes).options(load_only(
+        Video.id, Video.video_id, Video.title, Video.thumbnail_url,
+        Video.thumbnail_hash, Video.user_id, Video.created_at
+    ))
     
     # Apply filters
     if search:
@@ -292,26 +321,30 @@ async def get_all_videos(
     # Get videos
     videos = query.order_by(desc(Video.created_at)).offset(skip).limit(limit).all()
     
+    wants_user = selected is None or bool({"user_name", "user_email"} & selected)
+    wants_chat_count = selected is None or "chat_count" in selected
+    
     # Format response
     videos_list = []
-    for video in videos:
+    for video, video_has_notes in videos:
         # Get user info
-        user = db.query(User).filter(User.id == video.user_id).first()
+        user = db.query(User).filter(User.id == video.user_id).first() if wants_user else None
         # Count chats
-        chat_count = db.query(func.count(Chat.id)).filter(Chat.video_id == video.id).scalar()
+        chat_count = db.query(func.count(Chat.id)).filter(Chat.video_id == video.id).scalar() if wants_chat_count else None
         
-        videos_list.append({
+        videos_list.append(project({
             "id": video.id,
             "video_id": video.video_id,
             "title": video.title,
             "thumbnail_url": video.thumbnail_url,
+            "thumbnail_hash": video.thumbnail_hash,
             "user_id": video.user_id,
             "user_name": user.name if user else "Unknown",
             "user_email": user.email if user else "Unknown",
-            "has_notes": video.summary is not None and video.key_points is not None and video.bullet_notes is not None,
+            "has_notes": bool(video_has_notes),
             "chat_count": chat_count,
             "created_at": video.created_at.isoformat() if video.created_at else None
-        })
+        }, selected))
     
     return {
         "videos": videos_list,
@@ -337,6 +370,7 @@ async def delete_video(
     
     # Delete video (cascade will delete chats and notes)
     db.delete(video)
+    record_deletion(db, video.user_id, ENTITY_VIDEO, video_id)
     db.commit()
     
     return {
@@ -351,11 +385,27 @@ async def get_all_pdfs(
     limit: int = 50,
     search: Optional[str] = None,
     user_id: Optional[int] = None,
+    fields: Optional[str] = None,
     db: Session = Depends(get_db),
     admin_id: int = Depends(get_current_admin_user_id)
 ):
-    """Get all PDFs with filters"""
-    query = db.query(PDF)
+    """
+    Get all PDFs with filters
+
+    - fields: comma separated projection, e.g. "id,file_name,page_count,user_name".
+      Users and chat counts are only looked up when requested.
+    """
+    selected = parse_fields(fields, ADMIN_PDF_FIELDS)
+    
+    # has_notes is computed in SQL so the note bodies and extracted text are never loaded
+    has_notes = and_(
+        PDF.summary.isnot(None),
+        PDF.key_points.isnot(None),
+        PDF.bullet_notes.isnot(None)
+    ).label("has_notes")
+    query = db.query(PDF, has_notes).options(load_only(
+        PDF.id, PDF.file_name, PDF.file_size, PDF.page_count, PDF.user_id, PDF.created_at
+    ))
     
     # Apply filters
     if search:
@@ -371,15 +421,18 @@ async def get_all_pdfs(
     # Get PDFs
     pdfs = query.order_by(desc(PDF.created_at)).offset(skip).limit(limit).all()
     
+    wants_user = selected is None or bool({"user_name", "user_email"} & selected)
+    wants_chat_count = selected is None or "chat_count" in selected
+    
     # Format response
     pdfs_list = []
-    for pdf in pdfs:
+    for pdf, pdf_has_notes in pdfs:
         # Get user info
-        user = db.query(User).filter(User.id == pdf.user_id).first()
+        user = db.query(User).filter(User.id == pdf.user_id).first() if wants_user else None
         # Count chats
-        chat_count = db.query(func.count(PDFChat.id)).filter(PDFChat.pdf_id == pdf.id).scalar()
+        chat_count = db.query(func.count(PDFChat.id)).filter(PDFChat.pdf_id == pdf.id).scalar() if wants_chat_count else None
         
-        pdfs_list.append({
+        pdfs_list.append(project({
             "id": pdf.id,
             "file_name": pdf.file_name,
             "file_size": pdf.file_size,
@@ -387,10 +440,10 @@ async def get_all_pdfs(
             "user_id": pdf.user_id,
             "user_name": user.name if user else "Unknown",
             "user_email": user.email if user else "Unknown",
-            "has_notes": pdf.summary is not None and pdf.key_points is not None and pdf.bullet_notes is not None,
+            "has_notes": bool(pdf_has_notes),
             "chat_count": chat_count,
             "created_at": pdf.created_at.isoformat() if pdf.created_at else None
-        })
+        }, selected))
     
     return {
         "pdfs": pdfs_list,
@@ -421,6 +474,7 @@ async def delete_pdf_admin(
     
     # Delete PDF (cascade will delete chats)
     db.delete(pdf)
+    record_deletion(db, pdf.user_id, ENTITY_PDF, pdf_id)
     db.commit()
     
     return {
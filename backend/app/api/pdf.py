@@ -1,5 +1,7 @@
 from fastapi import APIRouter, Depends, HTTPException, status, Header, UploadFile, File
-from sqlalchemy.orm import Session
+from fastapi.encoders import jsonable_encoder
+from fastapi.responses import JSONResponse
+from sqlalchemy.orm import Session, defer, load_only
 from sqlalchemy import func, desc
 from typing import Optional, List
 from datetime import datetime, timedelta
@@ -20,10 +22,17 @@ from app.schemas.pdf import (
 )
 from app.core.pdf_service import extract_text_from_pdf, save_uploaded_pdf, delete_pdf_file
 from app.core.ai_service import generate_notes_from_transcript
+from app.core.projection import parse_fields, project, PREVIEW_CHARS
+from app.core.idempotency import run_idempotent
+from app.core.chat_answers import previous_pdf_answer
+from app.core.sync_service import record_deletion, ENTITY_PDF
 from app.config import settings
 
 router = APIRouter()
 
+# Fields a list request may ask for with ?fields=
+PDF_LIST_FIELDS = set(PDFResponse.model_fields.keys()) | {"summary_preview"}
+
 
 @router.post("/upload", response_model=PDFUploadResponse, status_code=status.HTTP_201_CREATED)
 async def upload_pdf(
@@ -106,8 +115,24 @@ async def upload_pdf(
 @router.post("/{pdf_id}/generate", response_model=PDFGenerateResponse)
 async def generate_pdf_notes(
     pdf_id: int,
+    idempotency_key: Optional[str] = Header(None, alias="Idempotency-Key"),
     db: Session = Depends(get_db),
     user_id: int = Depends(get_current_user_id)
+):
+    """
+    Generate notes from uploaded PDF
+    Retries sent with the same Idempotency-Key get the original result instead of a new AI call.
+    """
+    return await run_idempotent(
+        db, user_id, idempotency_key, "pdf.generate", status.HTTP_200_OK,
+        lambda: _generate_pdf_notes(pdf_id, db, user_id)
+    )
+
+
+async def _generate_pdf_notes(
+    pdf_id: int,
+    db: Session,
+    user_id: int
 ):
     """
     Generate notes from uploaded PDF
@@ -214,18 +239,46 @@ async def get_pdf_notes(
 async def get_user_pdfs(
     skip: int = 0,
     limit: int = 50,
+    fields: Optional[str] = None,
     db: Session = Depends(get_db),
     user_id: int = Depends(get_current_user_id)
 ):
     """
     Get all PDFs for the current user (only with complete notes)
+
+    - fields: comma separated projection, e.g. "id,file_name,created_at,summary_preview".
+      Note bodies are only read when requested; full bodies come from GET /{pdf_id}.
     """
-    pdfs = db.query(PDF).filter(
+    selected = parse_fields(fields, PDF_LIST_FIELDS)
+    
+    query = db.query(PDF).filter(
         PDF.user_id == user_id,
         PDF.summary.isnot(None),
         PDF.key_points.isnot(None),
         PDF.bullet_notes.isnot(None)
-    ).order_by(desc(PDF.created_at)).offset(skip).limit(limit).all()
+    ).options(defer(PDF.extracted_text))
+    
+    if selected is not None:
+        columns = {"id"} | (selected & set(PDFResponse.model_fields.keys()))
+        query = query.options(load_only(*[getattr(PDF, name) for name in columns]))
+        query = query.add_columns(func.substr(PDF.summary, 1, PREVIEW_CHARS).label("summary_preview"))
+        rows = query.order_by(desc(PDF.created_at)).offset(skip).limit(limit).all()
+        
+        total = db.query(func.count(PDF.id)).filter(
+            PDF.user_id == user_id,
+            PDF.summary.isnot(None),
+            PDF.key_points.isnot(None),
+            PDF.bullet_notes.isnot(None)
+        ).scalar()
+        
+        items = []
+        for pdf, summary_preview in rows:
+            item = {name: getattr(pdf, name) for name in columns}
+            item["summary_preview"] = summary_preview
+            items.append(project(item, selected))
+        return JSONResponse(content=jsonable_encoder({"pdfs": items, "total": total}))
+    
+    pdfs = query.order_by(desc(PDF.created_at)).offset(skip).limit(limit).all()
     
     total = db.query(func.count(PDF.id)).filter(
         PDF.user_id == user_id,
@@ -256,8 +309,25 @@ async def get_user_pdfs(
 async def send_pdf_chat_message(
     pdf_id: int,
     request: PDFChatMessageRequest,
+    idempotency_key: Optional[str] = Header(None, alias="Idempotency-Key"),
     db: Session = Depends(get_db),
     user_id: int = Depends(get_current_user_id)
+):
+    """
+    Send a chat message about a PDF
+    Retries sent with the same Idempotency-Key get the original result instead of a new AI call.
+    """
+    return await run_idempotent(
+        db, user_id, idempotency_key, "pdf.chat", status.HTTP_201_CREATED,
+        lambda: _send_pdf_chat_message(pdf_id, request, db, user_id)
+    )
+
+
+async def _send_pdf_chat_message(
+    pdf_id: int,
+    request: PDFChatMessageRequest,
+    db: Session,
+    user_id: int
 ):
     """
     Send a chat message about a PDF
@@ -277,30 +347,82 @@ async def send_pdf_chat_message(
             detail="PDF notes not generated yet. Please generate notes first."
         )
     
+    # A resend of a message we already answered (outbox retry after a lost response)
+    user_chat = None
+    if request.client_message_id:
+        user_chat = db.query(PDFChat).filter(
+            PDFChat.user_id == user_id,
+            PDFChat.client_message_id == request.client_message_id,
+            PDFChat.is_user_message == True
+        ).first()
+        if user_chat:
+            # The answer row carries its question's client_message_id
+            ai_chat = db.query(PDFChat).filter(
+                PDFChat.user_id == user_id,
+                PDFChat.client_message_id == request.client_message_id,
+                PDFChat.is_user_message == False
+            ).first()
+            if ai_chat:
+                return PDFChatMessageResponse(
+                    id=user_chat.id,
+                    message=user_chat.message,
+                    response=ai_chat.response,
+                    is_user_message=True,
+                    client_message_id=user_chat.client_message_id,
+                    created_at=user_chat.created_at
+                )
+    
     # Save user message
-    user_chat = PDFChat(
-        pdf_id=pdf_id,
-        user_id=user_id,
-        message=request.message,
-        is_user_message=True
-    )
-    db.add(user_chat)
-    db.commit()
-    db.refresh(user_chat)
+    if user_chat is None:
+        user_chat = PDFChat(
+            pdf_id=pdf_id,
+            user_id=user_id,
+            message=request.message,
+            is_user_message=True,
+            client_message_id=request.client_message_id
+        )
+        db.add(user_chat)
+        db.commit()
+        db.refresh(user_chat)
     
     # Generate AI response
     from app.core.ai_service import generate_chat_response
     
     context = f"PDF Title: {pdf.file_name}\n\nSummary: {pdf.summary}\n\nKey Points: {pdf.key_points}\n\nNotes: {pdf.bullet_notes}"
-    ai_response = generate_chat_response(request.message, context)
+    # The app may have answered from its cache already - store the answer we gave before
+    ai_response = None
+    if request.cached:
+        ai_response = previous_pdf_answer(db, user_id, pdf_id, request.message)
+    try:
+        if not ai_response:
+            ai_response = generate_chat_response(request.message, context)
+    except Exception as e:
+        if settings.DEBUG:
+            print(f"DEBUG: Error generating PDF chat response: {str(e)}")
+    
+    if not ai_response:
+        # Drop the question too - history never shows it unanswered and a resend asks again
+        fallback = PDFChatMessageResponse(
+            id=user_chat.id,
+            message=user_chat.message,
+            response="I apologize, but I couldn't generate a response. Please try again.",
+            is_user_message=True,
+            client_message_id=user_chat.client_message_id,
+            created_at=user_chat.created_at,
+            is_fallback=True
+        )
+        db.delete(user_chat)
+        db.commit()
+        return fallback
     
     # Save AI response
     ai_chat = PDFChat(
         pdf_id=pdf_id,
         user_id=user_id,
         message="",  # Empty for AI messages
-        response=ai_response if ai_response else "I apologize, but I couldn't generate a response. Please try again.",
-        is_user_message=False
+        response=ai_response,
+        is_user_message=False,
+        client_message_id=user_chat.client_message_id
     )
     db.add(ai_chat)
     db.commit()
@@ -311,6 +433,7 @@ async def send_pdf_chat_message(
         message=user_chat.message,
         response=ai_chat.response,
         is_user_message=True,
+        client_message_id=user_chat.client_message_id,
         created_at=user_chat.created_at
     )
 
@@ -351,6 +474,7 @@ async def get_pdf_chat_history(
             message=chat.message if chat.is_user_message else "",
             response=chat.response if not chat.is_user_message else None,
             is_user_message=chat.is_user_message,
+            client_message_id=chat.client_message_id,
             created_at=chat.created_at
         )
         for chat in chats
@@ -359,24 +483,11 @@ async def get_pdf_chat_history(
     return PDFChatHistoryResponse(messages=messages, total=total)
 
 
-@router.get("/chat/histories", response_model=PDFChatHistoryListResponse)
-async def get_all_pdf_chat_histories(
-    skip: int = 0,
-    limit: int = 50,
-    db: Session = Depends(get_db),
-    user_id: int = Depends(get_current_user_id)
-):
+def pdf_chat_history_query(db: Session, user_id: int):
     """
-    Get all PDF chat histories grouped by PDF
+    Query for PDF chat history rows - PDFs with complete notes, with their last user
+    message time and message count. Shared by the history list and the sync feed.
     """
-    # Get PDFs that have complete notes OR have existing chat messages
-    pdfs_with_notes = db.query(PDF.id).filter(
-        PDF.user_id == user_id,
-        PDF.summary.isnot(None),
-        PDF.key_points.isnot(None),
-        PDF.bullet_notes.isnot(None)
-    ).subquery()
-    
     # Get PDFs with chat messages
     pdfs_with_chats = db.query(
         PDFChat.pdf_id,
@@ -387,8 +498,7 @@ async def get_all_pdf_chat_histories(
         PDFChat.is_user_message == True
     ).group_by(PDFChat.pdf_id).subquery()
     
-    # Get all PDFs that have notes OR have chats
-    results = db.query(
+    return db.query(
         PDF.id,
         PDF.file_name,
         PDF.created_at,
@@ -403,9 +513,11 @@ async def get_all_pdf_chat_histories(
         PDF.bullet_notes.isnot(None)
     ).order_by(
         desc(func.coalesce(pdfs_with_chats.c.last_message_time, PDF.created_at))
-    ).offset(skip).limit(limit).all()
-    
-    # Get last message for each PDF
+    )
+
+
+def build_pdf_chat_history_items(db: Session, user_id: int, results) -> List[PDFChatHistoryItem]:
+    """Turn pdf_chat_history_query rows into PDFChatHistoryItems with the last message of each PDF"""
     histories = []
     for result in results:
         last_user_chat = db.query(PDFChat).filter(
@@ -442,6 +554,24 @@ async def get_all_pdf_chat_histories(
             last_message_time=last_message_time,
             message_count=message_count
         ))
+    return histories
+
+
+@router.get("/chat/histories", response_model=PDFChatHistoryListResponse)
+async def get_all_pdf_chat_histories(
+    skip: int = 0,
+    limit: int = 50,
+    db: Session = Depends(get_db),
+    user_id: int = Depends(get_current_user_id)
+):
+    """
+    Get all PDF chat histories grouped by PDF
+    """
+    # PDFs that have complete notes, most recent conversation first
+    results = pdf_chat_history_query(db, user_id).offset(skip).limit(limit).all()
+    
+    # Get last message for each PDF
+    histories = build_pdf_chat_history_items(db, user_id, results)
     
     total = db.query(func.count(PDF.id)).filter(
         PDF.user_id == user_id,
@@ -478,6 +608,7 @@ async def delete_pdf(
     
     # Delete PDF (cascade will delete chats)
     db.delete(pdf)
+    record_deletion(db, user_id, ENTITY_PDF, pdf_id)
     db.commit()
     
     return {"message": "PDF deleted successfully", "pdf_id": pdf_id}
@@ -0,0 +1,128 @@
+from datetime import datetime, timezone
+from typing import Optional
+from fastapi import APIRouter, Depends
+from sqlalchemy import func, or_
+from sqlalchemy.orm import Session
+
+from app.database import get_db
+from app.models import Video, Chat, PDF, PDFChat, Tombstone
+from app.api.video import get_current_user_id, chat_history_query, build_chat_history_items
+from app.api.pdf import pdf_chat_history_query, build_pdf_chat_history_items
+from app.schemas.sync import SyncChangesResponse, SyncVideoItem, SyncPDFItem, SyncDeletedItem
+from app.core.projection import PREVIEW_CHARS
+from app.core.sync_service import (
+    encode_sync_token,
+    decode_sync_token,
+    is_expired,
+    SYNC_OVERLAP,
+    ENTITY_VIDEO,
+    ENTITY_PDF,
+    ENTITY_VIDEO_CHAT,
+    ENTITY_PDF_CHAT
+)
+
+router = APIRouter()
+
+
+def _changed_since(model, since: datetime):
+    return or_(model.created_at > since, model.updated_at > since)
+
+
+@router.get("/changes", response_model=SyncChangesResponse)
+async def get_changes(
+    since: Optional[str] = None,
+    db: Session = Depends(get_db),
+    user_id: int = Depends(get_current_user_id)
+):
+    """
+    Change feed for the client's local copy of videos, PDFs and chat histories
+
+    - since: sync_token from the previous response. Omit it for a full snapshot.
+    Rows are upserts keyed by id; `deleted` lists tombstones of removed videos and PDFs.
+    A chat history item is re-sent whenever its video/PDF or any of its messages changed;
+    a conversation whose messages were all deleted is re-sent with a message_count of 0.
+    """
+    # Read the clock before the rows so nothing that commits meanwhile is skipped
+    now = db.query(func.now()).scalar() or datetime.now(timezone.utc)
+    if now.tzinfo is None:
+        now = now.replace(tzinfo=timezone.utc)
+    
+    token_time = decode_sync_token(since)
+    reset = token_time is None or is_expired(token_time, now)
+    window_start = None if reset else token_time - SYNC_OVERLAP
+    
+    # Videos with complete notes
+    video_query = db.query(
+        Video.id, Video.video_id, Video.video_url, Video.title, Video.thumbnail_url,
+        Video.thumbnail_hash, Video.duration, Video.is_saved, Video.created_at, Video.updated_at,
+        func.substr(Video.summary, 1, PREVIEW_CHARS).label("summary_preview")
+    ).filter(
+        Video.user_id == user_id,
+        Video.summary.isnot(None),
+        Video.key_points.isnot(None),
+        Video.bullet_notes.isnot(None)
+    )
+    if window_start is not None:
+        video_query = video_query.filter(_changed_since(Video, window_start))
+    videos = [SyncVideoItem.model_validate(row._asdict()) for row in video_query.all()]
+    
+    # PDFs with complete notes
+    pdf_query = db.query(
+        PDF.id, PDF.file_name, PDF.file_size, PDF.page_count, PDF.is_saved,
+        PDF.created_at, PDF.updated_at,
+        func.substr(PDF.summary, 1, PREVIEW_CHARS).label("summary_preview")
+    ).filter(
+        PDF.user_id == user_id,
+        PDF.summary.isnot(None),
+        PDF.key_points.isnot(None),
+        PDF.bullet_notes.isnot(None)
+    )
+    if window_start is not None:
+        pdf_query = pdf_query.filter(_changed_since(PDF, window_start))
+    pdfs = [SyncPDFItem.model_validate(row._asdict()) for row in pdf_query.all()]
+    
+    deleted = []
+    history_query = chat_history_query(db, user_id)
+    pdf_history_query = pdf_chat_history_query(db, user_id)
+    
+    if window_start is not None:
+        tombstones = db.query(Tombstone).filter(
+            Tombstone.user_id == user_id,
+            Tombstone.deleted_at > window_start
+        ).all()
+        
+        # Conversations to re-send: the video/PDF changed, a message was added or messages were deleted
+        video_ids = {video.id for video in videos}
+        video_ids.update(row.video_id for row in db.query(Chat.video_id).filter(
+            Chat.user_id == user_id,
+            Chat.created_at > window_start
+        ).distinct())
+        video_ids.update(t.entity_id for t in tombstones if t.entity_type == ENTITY_VIDEO_CHAT)
+        
+        pdf_ids = {pdf.id for pdf in pdfs}
+        pdf_ids.update(row.pdf_id for row in db.query(PDFChat.pdf_id).filter(
+            PDFChat.user_id == user_id,
+            PDFChat.created_at > window_start
+        ).distinct())
+        pdf_ids.update(t.entity_id for t in tombstones if t.entity_type == ENTITY_PDF_CHAT)
+        
+        history_query = history_query.filter(Video.id.in_(video_ids))
+        pdf_history_query = pdf_history_query.filter(PDF.id.in_(pdf_ids))
+        
+        deleted = [
+            SyncDeletedItem(entity_type=t.entity_type, entity_id=t.entity_id, deleted_at=t.deleted_at)
+            for t in tombstones if t.entity_type in (ENTITY_VIDEO, ENTITY_PDF)
+        ]
+    
+    chat_histories = build_chat_history_items(db, user_id, history_query.all())
+    pdf_chat_histories = build_pdf_chat_history_items(db, user_id, pdf_history_query.all())
+    
+    return SyncChangesResponse(
+        videos=videos,
+        pdfs=pdfs,
+        chat_histories=chat_histories,
+        pdf_chat_histories=pdf_chat_histories,
+        deleted=deleted,
+        sync_token=encode_sync_token(now),
+        reset=reset
+    )
@@ -1,6 +1,11 @@
+import base64
+from datetime import datetime
 from fastapi import APIRouter, Depends, HTTPException, status, Header
-from sqlalchemy.orm import Session
-from typing import Optional
+from fastapi.responses import JSONResponse, Response
+from fastapi.encoders import jsonable_encoder
+from sqlalchemy import and_, or_, func, desc
+from sqlalchemy.orm import Session, defer, load_only
+from typing import Optional, List
 from app.database import get_db
 from app.models import Video, User, Chat
 from app.schemas.video import (
@@ -17,10 +22,18 @@ from app.schemas.video import (
 from app.core.security import verify_token
 from app.core.youtube_service import extract_video_id, get_video_info, get_video_info_with_api
 from app.core.ai_service import generate_notes_from_transcript, generate_chat_response
+from app.core.image_hash_service import compute_thumbnail_hash
+from app.core.projection import parse_fields, project, PREVIEW_CHARS
+from app.core.idempotency import run_idempotent
+from app.core.chat_answers import previous_video_answer, remember_speculative_answer
+from app.core.sync_service import record_deletion, record_deletions, ENTITY_VIDEO, ENTITY_VIDEO_CHAT
 from app.config import settings
 
 router = APIRouter()
 
+# Fields a list request may ask for with ?fields=
+VIDEO_LIST_FIELDS = set(VideoResponse.model_fields.keys()) | {"summary_preview"}
+
 
 def get_current_user_id(token: Optional[str] = Header(None, alias="Authorization"), db: Session = Depends(get_db)) -> int:
     """Get current user ID from JWT token"""
@@ -62,8 +75,24 @@ def get_current_user_id(token: Optional[str] = Header(None, alias="Authorization
 @router.post("/generate", response_model=VideoGenerateResponse, status_code=status.HTTP_201_CREATED)
 async def generate_video_notes(
     request: VideoGenerateRequest,
+    idempotency_key: Optional[str] = Header(None, alias="Idempotency-Key"),
     db: Session = Depends(get_db),
     user_id: int = Depends(get_current_user_id)
+):
+    """
+    Generate notes from a YouTube video URL
+    Retries sent with the same Idempotency-Key get the original result instead of a new AI call.
+    """
+    return await run_idempotent(
+        db, user_id, idempotency_key, "video.generate", status.HTTP_201_CREATED,
+        lambda: _generate_video_notes(request, db, user_id)
+    )
+
+
+async def _generate_video_notes(
+    request: VideoGenerateRequest,
+    db: Session,
+    user_id: int
 ):
     """
     Generate notes from a YouTube video URL
@@ -98,6 +127,7 @@ async def generate_video_notes(
             summary=existing_video.summary,
             key_points=existing_video.key_points,
             bullet_notes=existing_video.bullet_notes,
+            is_saved=bool(existing_video.is_saved),
             status="completed"
         )
     
@@ -192,6 +222,7 @@ async def generate_video_notes(
             video_url=request.video_url,
             title=video_info.get("title", f"Video {video_id}"),
             thumbnail_url=video_info.get("thumbnail_url"),
+            thumbnail_hash=await compute_thumbnail_hash(video_id),
             duration=video_info.get("duration"),
             transcript=video_info.get("transcript"),
             summary=notes.get("summary"),
@@ -216,6 +247,7 @@ async def generate_video_notes(
             summary=video.summary,
             key_points=video.key_points,
             bullet_notes=video.bullet_notes,
+            is_saved=bool(video.is_saved),
             status="completed"
         )
     except HTTPException:
@@ -299,34 +331,115 @@ async def get_video_by_youtube_id(
     return VideoResponse.model_validate(video)
 
 
+def encode_video_cursor(video: Video) -> str:
+    """Opaque keyset cursor pointing just after this video in (created_at desc, id desc) order"""
+    raw = f"{video.created_at.isoformat()}|{video.id}"
+    return base64.urlsafe_b64encode(raw.encode("utf-8")).decode("ascii")
+
+
+def decode_video_cursor(cursor: str):
+    """Return (created_at, id) from a cursor, or raise 400 if it is malformed"""
+    try:
+        raw = base64.urlsafe_b64decode(cursor.encode("ascii")).decode("utf-8")
+        created_at, video_id = raw.rsplit("|", 1)
+        return datetime.fromisoformat(created_at), int(video_id)
+    except Exception:
+        raise HTTPException(
+            status_code=status.HTTP_400_BAD_REQUEST,
+            detail="Invalid cursor"
+        )
+
+
 @router.get("/", response_model=VideoListResponse)
 async def get_user_videos(
     skip: int = 0,
     limit: int = 20,
+    is_saved: Optional[bool] = None,
+    cursor: Optional[str] = None,
+    fields: Optional[str] = None,
     db: Session = Depends(get_db),
     user_id: int = Depends(get_current_user_id)
 ):
-    """Get all videos for the current user - only videos with complete notes"""
+    """
+    Get all videos for the current user - only videos with complete notes
+
+    - is_saved: only return saved (true) or unsaved (false) videos
+    - cursor: next_cursor from the previous page; when given, skip is ignored and
+      the page starts right after the cursor (keyset pagination, stable under inserts)
+    - fields: comma separated projection, e.g. "id,title,thumbnail_url,created_at,summary_preview".
+      Note bodies are only read from the database when requested; summary_preview is the
+      first PREVIEW_CHARS characters of the summary. Full bodies come from GET /{video_id}.
+    """
+    selected = parse_fields(fields, VIDEO_LIST_FIELDS)
+
     # Only return videos that have complete notes (summary, key_points, bullet_notes)
-    videos = db.query(Video).filter(
+    base_query = db.query(Video).filter(
         Video.user_id == user_id,
         Video.summary.isnot(None),
         Video.key_points.isnot(None),
         Video.bullet_notes.isnot(None)
-    ).order_by(Video.created_at.desc()).offset(skip).limit(limit).all()
+    )
+    if is_saved is not None:
+        base_query = base_query.filter(Video.is_saved == is_saved)
+    
+    # Count only videos with complete notes (and matching the is_saved filter)
+    total = base_query.count()
+    
+    page_query = base_query
+    if cursor:
+        cursor_created_at, cursor_id = decode_video_cursor(cursor)
+        page_query = page_query.filter(or_(
+            Video.created_at < cursor_created_at,
+            and_(Video.created_at == cursor_created_at, Video.id < cursor_id)
+        ))
+    page_query = page_query.order_by(Video.created_at.desc(), Video.id.desc())
+    if not cursor:
+        page_query = page_query.offset(skip)
+    
+    # The transcript is never part of a list item
+    page_query = page_query.options(defer(Video.transcript))
+    if selected is not None:
+        # Only read the columns the client asked for (plus the keyset columns)
+        columns = {"id", "created_at"} | (selected & set(VideoResponse.model_fields.keys()))
+        page_query = page_query.options(load_only(*[getattr(Video, name) for name in columns]))
+        if "summary_preview" in selected:
+            page_query = page_query.add_columns(
+                func.substr(Video.summary, 1, PREVIEW_CHARS).label("summary_preview")
+            )
     
-    # Count only videos with complete notes
-    total = db.query(Video).filter(
-        Video.user_id == user_id,
-        Video.summary.isnot(None),
-        Video.key_points.isnot(None),
-        Video.bullet_notes.isnot(None)
-    ).count()
+    # Fetch one extra row to know whether another page exists
+    rows = page_query.limit(limit + 1).all()
+    has_more = len(rows) > limit
+    rows = rows[:limit]
+    next_cursor = None
+    if has_more and rows:
+        last_video = rows[-1][0] if selected is not None and "summary_preview" in selected else rows[-1]
+        next_cursor = encode_video_cursor(last_video)
+    
+    if selected is None:
+        return VideoListResponse(
+            videos=[VideoResponse.model_validate(v) for v in rows],
+            total=total,
+            next_cursor=next_cursor
+        )
     
-    return VideoListResponse(
-        videos=[VideoResponse.model_validate(v) for v in videos],
-        total=total
-    )
+    # Sparse response - bypasses VideoResponse validation since required fields may be absent
+    items = []
+    for row in rows:
+        if "summary_preview" in selected:
+            video, summary_preview = row
+        else:
+            video, summary_preview = row, None
+        item = {name: getattr(video, name) for name in selected if name in VideoResponse.model_fields}
+        if "summary_preview" in selected:
+            item["summary_preview"] = summary_preview
+        items.append(project(item, selected))
+    
+    return JSONResponse(content=jsonable_encoder({
+        "videos": items,
+        "total": total,
+        "next_cursor": next_cursor
+    }))
 
 
 @router.post("/{video_id}/save", response_model=VideoResponse)
@@ -373,6 +486,7 @@ async def delete_video(
         )
     
     db.delete(video)
+    record_deletion(db, user_id, ENTITY_VIDEO, video_id)
     db.commit()
     
     return {"message": "Video deleted successfully"}
@@ -382,8 +496,25 @@ async def delete_video(
 async def send_chat_message(
     video_id: int,
     request: ChatMessageRequest,
+    idempotency_key: Optional[str] = Header(None, alias="Idempotency-Key"),
     db: Session = Depends(get_db),
     user_id: int = Depends(get_current_user_id)
+):
+    """
+    Send a chat message about a video and get AI response
+    Retries sent with the same Idempotency-Key get the original result instead of a new AI call.
+    """
+    return await run_idempotent(
+        db, user_id, idempotency_key, "video.chat", status.HTTP_201_CREATED,
+        lambda: _send_chat_message(video_id, request, db, user_id)
+    )
+
+
+async def _send_chat_message(
+    video_id: int,
+    request: ChatMessageRequest,
+    db: Session,
+    user_id: int
 ):
     """Send a chat message about a video and get AI response"""
     # Verify video exists and belongs to user
@@ -398,34 +529,40 @@ async def send_chat_message(
             detail="Video not found"
         )
     
+    if request.speculative:
+        return _speculative_answer(video, request, db, user_id)
+    
+    # A resend of a message we already stored (outbox retry after a lost response)
+    chat_message = None
+    if request.client_message_id:
+        chat_message = db.query(Chat).filter(
+            Chat.user_id == user_id,
+            Chat.client_message_id == request.client_message_id
+        ).first()
+        if chat_message and chat_message.response:
+            return ChatMessageResponse.model_validate(chat_message)
+    
     # Save user message to database
-    chat_message = Chat(
-        video_id=video_id,
-        user_id=user_id,
-        message=request.message,
-        is_user_message=True
-    )
-    db.add(chat_message)
-    db.commit()
-    db.refresh(chat_message)
+    if chat_message is None:
+        chat_message = Chat(
+            video_id=video_id,
+            user_id=user_id,
+            message=request.message,
+            is_user_message=True,
+            client_message_id=request.client_message_id
+        )
+        db.add(chat_message)
+        db.commit()
+        db.refresh(chat_message)
     
     # Get conversation history for context
-    previous_chats = db.query(Chat).filter(
-        Chat.video_id == video_id,
-        Chat.user_id == user_id
-    ).order_by(Chat.created_at.asc()).all()
+    conversation_history = _conversation_history(db, video_id, user_id)
     
-    # Build conversation history
-    conversation_history = []
-    for chat in previous_chats[-10:]:  # Last 10 messages for context
-        if chat.is_user_message:
-            conversation_history.append({"role": "user", "content": chat.message})
-        else:
-            conversation_history.append({"role": "assistant", "content": chat.response or ""})
-    
-    # Generate AI response
+    # The app already answered from its cache - store the answer we gave before, never its text
     ai_response = None
-    if video.transcript:
+    if request.cached:
+        ai_response = previous_video_answer(db, user_id, video_id, request.message)
+    if not ai_response and video.transcript:
         try:
             ai_response = generate_chat_response(
                 user_message=request.message,
@@ -439,9 +576,21 @@ async def send_chat_message(
                 import traceback
                 print(f"DEBUG: Traceback: {traceback.format_exc()}")
     
-    # If AI response generation failed, provide fallback
+    # If AI response generation failed, answer with an apology but keep nothing - history never
+    # shows the question unanswered and a resend asks again
     if not ai_response:
-        ai_response = "I apologize, but I'm having trouble generating a response right now. Please try again later or check if the video transcript is available."
+        fallback = ChatMessageResponse(
+            id=chat_message.id,
+            message=chat_message.message,
+            response="I apologize, but I'm having trouble generating a response right now. Please try again later or check if the video transcript is available.",
+            is_user_message=True,
+            client_message_id=chat_message.client_message_id,
+            created_at=chat_message.created_at,
+            is_fallback=True
+        )
+        db.delete(chat_message)
+        db.commit()
+        return fallback
     
     # Save AI response to database
     chat_message.response = ai_response
@@ -451,6 +600,87 @@ async def send_chat_message(
     return ChatMessageResponse.model_validate(chat_message)
 
 
+@router.post("/{video_id}/chat/speculative", response_model=ChatMessageResponse)
+async def send_speculative_chat_message(
+    video_id: int,
+    request: ChatMessageRequest,
+    db: Session = Depends(get_db),
+    user_id: int = Depends(get_current_user_id)
+):
+    """
+    Answer a suggested question the app prefetches, without storing it. Same as a chat send
+    with speculative set, but rate-limited separately so prefetches never use up the user's sends.
+    """
+    video = db.query(Video).filter(
+        Video.id == video_id,
+        Video.user_id == user_id
+    ).first()
+    
+    if not video:
+        raise HTTPException(
+            status_code=status.HTTP_404_NOT_FOUND,
+            detail="Video not found"
+        )
+    
+    return _speculative_answer(video, request, db, user_id)
+
+
+def _conversation_history(db: Session, video_id: int, user_id: int) -> List[dict]:
+    """Last 10 messages of a video's chat in the shape generate_chat_response expects"""
+    previous_chats = db.query(Chat).filter(
+        Chat.video_id == video_id,
+        Chat.user_id == user_id
+    ).order_by(Chat.created_at.asc()).all()
+    
+    conversation_history = []
+    for chat in previous_chats[-10:]:  # Last 10 messages for context
+        if chat.is_user_message:
+            conversation_history.append({"role": "user", "content": chat.message})
+        else:
+            conversation_history.append({"role": "assistant", "content": chat.response or ""})
+    return conversation_history
+
+
+def _speculative_answer(video: Video, request: ChatMessageRequest, db: Session, user_id: int):
+    """
+    Answer a suggested question without storing it - the app prefetches these after the notes
+    load and only shows one if the user taps that suggestion; the tap sends it back as a cache
+    hit and the answer kept here is stored. No transcript is a 422 and a failed generation a 204 - never the
+    apology text, which the app would cache as an answer, and never a 5xx, which would mark
+    this replica unhealthy and count against the circuit breaker for optional work.
+    """
+    if not video.transcript:
+        raise HTTPException(
+            status_code=status.HTTP_422_UNPROCESSABLE_ENTITY,
+            detail="Video has no transcript to answer from"
+        )
+    
+    ai_response = None
+    try:
+        ai_response = generate_chat_response(
+            user_message=request.message,
+            video_transcript=video.transcript,
+            video_title=video.title,
+            conversation_history=_conversation_history(db, video.id, user_id)
+        )
+    except Exception as e:
+        if settings.DEBUG:
+            print(f"DEBUG: Error generating speculative answer: {str(e)}")
+    
+    if not ai_response:
+        return Response(status_code=status.HTTP_204_NO_CONTENT)
+    
+    # Tapping the suggestion sends it back as a cache hit - it is stored from here
+    remember_speculative_answer(user_id, video.id, request.message, ai_response)
+    return ChatMessageResponse(
+        id=0,
+        message=request.message,
+        response=ai_response,
+        is_user_message=True,
+        created_at=datetime.utcnow()
+    )
+
+
 @router.get("/{video_id}/chat", response_model=ChatHistoryResponse)
 async def get_chat_history(
     video_id: int,
@@ -489,25 +719,11 @@ async def get_chat_history(
     )
 
 
-@router.get("/chat/histories", response_model=ChatHistoryListResponse)
-async def get_all_chat_histories(
-    skip: int = 0,
-    limit: int = 50,
-    db: Session = Depends(get_db),
-    user_id: int = Depends(get_current_user_id)
-):
-    """Get all chat histories grouped by video for the current user - shows videos with notes (ready for chat) or existing chats"""
-    from sqlalchemy import func, desc, or_
-    
-    # Get videos that have complete notes (ready for chat) OR have existing chat messages
-    # This allows users to see videos they've generated notes for and start chatting
-    videos_with_notes = db.query(Video.id).filter(
-        Video.user_id == user_id,
-        Video.summary.isnot(None),
-        Video.key_points.isnot(None),
-        Video.bullet_notes.isnot(None)
-    ).subquery()
-    
+def chat_history_query(db: Session, user_id: int):
+    """
+    Query for chat history rows - videos with complete notes (ready for chat), with their
+    last user message time and message count. Shared by the history list and the sync feed.
+    """
     # Get videos with chat messages
     videos_with_chats = db.query(
         Chat.video_id,
@@ -518,9 +734,8 @@ async def get_all_chat_histories(
         Chat.is_user_message == True
     ).group_by(Chat.video_id).subquery()
     
-    # Get all videos that have notes OR have chats
     # Use outer join to include videos with notes but no chats yet
-    results = db.query(
+    return db.query(
         Video.id,
         Video.title,
         Video.thumbnail_url,
@@ -537,9 +752,11 @@ async def get_all_chat_histories(
         Video.bullet_notes.isnot(None)
     ).order_by(
         desc(func.coalesce(videos_with_chats.c.last_message_time, Video.created_at))
-    ).offset(skip).limit(limit).all()
-    
-    # Get last message for each video
+    )
+
+
+def build_chat_history_items(db: Session, user_id: int, results) -> List[ChatHistoryItem]:
+    """Turn chat_history_query rows into ChatHistoryItems with the last message of each video"""
     histories = []
     for result in results:
         # Get the last user message first, if not available, get last AI response
@@ -583,6 +800,22 @@ async def get_all_chat_histories(
             message_count=message_count,
             youtube_video_id=result.video_id
         ))
+    return histories
+
+
+@router.get("/chat/histories", response_model=ChatHistoryListResponse)
+async def get_all_chat_histories(
+    skip: int = 0,
+    limit: int = 50,
+    db: Session = Depends(get_db),
+    user_id: int = Depends(get_current_user_id)
+):
+    """Get all chat histories grouped by video for the current user - shows videos with notes (ready for chat) or existing chats"""
+    # Videos that have complete notes (ready for chat), most recent conversation first
+    results = chat_history_query(db, user_id).offset(skip).limit(limit).all()
+    
+    # Get last message for each video
+    histories = build_chat_history_items(db, user_id, results)
     
     # Get total count - videos with complete notes (ready for chat)
     total = db.query(Video).filter(
@@ -617,6 +850,7 @@ async def delete_chat_message(
         )
     
     db.delete(chat)
+    record_deletion(db, user_id, ENTITY_VIDEO_CHAT, chat.video_id)
     db.commit()
     
     return {"message": "Chat message deleted successfully"}
@@ -647,6 +881,8 @@ async def delete_video_chat_history(
         Chat.user_id == user_id
     ).delete()
     
+    if deleted_count:
+        record_deletion(db, user_id, ENTITY_VIDEO_CHAT, video_id)
     db.commit()
     
     return {"message": f"Deleted {deleted_count} chat message(s) successfully"}
@@ -658,10 +894,15 @@ async def delete_all_chat_history(
     user_id: int = Depends(get_current_user_id)
 ):
     """Delete all chat messages for the current user"""
+    chat_video_ids = [row.video_id for row in db.query(Chat.video_id).filter(
+        Chat.user_id == user_id
+    ).distinct().all()]
+    
     deleted_count = db.query(Chat).filter(
         Chat.user_id == user_id
     ).delete()
     
+    record_deletions(db, user_id, ENTITY_VIDEO_CHAT, chat_video_ids)
     db.commit()
     
     return {"message": f"Deleted {deleted_count} chat message(s) successfully"}
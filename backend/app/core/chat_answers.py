@@ -0,0 +1,93 @@
+"""
+Chat Answers
+Finds the answer the server already gave when the app answers a repeated question from its cache
+"""
+import re
+import time
+from collections import OrderedDict
+from typing import Optional
+from sqlalchemy.orm import Session
+
+from app.models import Chat, PDFChat
+
+# Answered questions of a conversation searched for a repeat, newest first
+LOOKUP_LIMIT = 200
+
+# Speculative answers are not stored in the chat history, so they are kept here until the
+# user taps the suggestion. Process memory - on another worker the question is answered again.
+SPECULATIVE_RETENTION_SECONDS = 72 * 60 * 60
+MAX_SPECULATIVE_ANSWERS = 10000
+
+_SEPARATORS = re.compile(r"[\W_]+")
+
+# (user_id, video_id, normalized question) -> (answer, stored at), oldest first
+_speculative = OrderedDict()
+
+
+def normalize_question(question: Optional[str]) -> str:
+    """Same rule as the app's AnswerCache - case, spacing and punctuation do not matter"""
+    return _SEPARATORS.sub(" ", question or "").strip().lower()
+
+
+def remember_speculative_answer(user_id: int, video_id: int, question: str, answer: str, now: float = None):
+    """Keep a prefetched answer so storing it later copies what the user was shown"""
+    now = time.monotonic() if now is None else now
+    key = (user_id, video_id, normalize_question(question))
+    _speculative.pop(key, None)
+    _speculative[key] = (answer, now)
+    while len(_speculative) > MAX_SPECULATIVE_ANSWERS:
+        _speculative.popitem(last=False)
+
+
+def _speculative_answer(user_id: int, video_id: int, normalized: str, now: float) -> Optional[str]:
+    entry = _speculative.get((user_id, video_id, normalized))
+    if entry is None:
+        return None
+    answer, stored_at = entry
+    if now - stored_at > SPECULATIVE_RETENTION_SECONDS:
+        del _speculative[(user_id, video_id, normalized)]
+        return None
+    return answer
+
+
+def previous_video_answer(db: Session, user_id: int, video_id: int, question: str,
+                          now: float = None) -> Optional[str]:
+    """The last stored (or prefetched) answer to the same question about this video, if any"""
+    normalized = normalize_question(question)
+    if not normalized:
+        return None
+    rows = db.query(Chat.message, Chat.response).filter(
+        Chat.video_id == video_id,
+        Chat.user_id == user_id,
+        Chat.is_user_message == True,
+        Chat.response.isnot(None)
+    ).order_by(Chat.id.desc()).limit(LOOKUP_LIMIT).all()
+    for message, response in rows:
+        if response and normalize_question(message) == normalized:
+            return response
+    return _speculative_answer(user_id, video_id, normalized, time.monotonic() if now is None else now)
+
+
+def previous_pdf_answer(db: Session, user_id: int, pdf_id: int, question: str) -> Optional[str]:
+    """The last stored answer to the same question about this PDF, if any"""
+    normalized = normalize_question(question)
+    if not normalized:
+        return None
+    questions = db.query(PDFChat.id, PDFChat.message).filter(
+        PDFChat.pdf_id == pdf_id,
+        PDFChat.user_id == user_id,
+        PDFChat.is_user_message == True
+    ).order_by(PDFChat.id.desc()).limit(LOOKUP_LIMIT).all()
+    for question_id, message in questions:
+        if normalize_question(message) != normalized:
+            continue
+        # PDF answers are their own rows, stored right after the question
+        answer = db.query(PDFChat.response).filter(
+            PDFChat.pdf_id == pdf_id,
+            PDFChat.user_id == user_id,
+            PDFChat.is_user_message == False,
+            PDFChat.id > question_id
+        ).order_by(PDFChat.id.asc()).first()
+        if answer and answer.response:
+            return answer.response
+    return None
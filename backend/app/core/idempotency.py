@@ -0,0 +1,130 @@
+"""
+Idempotency Service
+Replays the stored result of a request retried with the same Idempotency-Key
+"""
+import json
+from datetime import datetime, timedelta, timezone
+from typing import Awaitable, Callable, Optional
+from fastapi import HTTPException, status
+from fastapi.encoders import jsonable_encoder
+from fastapi.responses import JSONResponse
+from sqlalchemy.exc import IntegrityError
+from sqlalchemy.orm import Session
+
+from app.models import IdempotencyRecord
+
+MAX_KEY_LENGTH = 64
+
+# A request still marked running after this long is assumed to have died and may run again
+IN_PROGRESS_TIMEOUT = timedelta(minutes=10)
+
+# Seconds a client should wait before retrying a key whose first request is still running
+IN_PROGRESS_RETRY_AFTER = 5
+
+# Keys are kept this long - a retry after that runs the job again
+RECORD_RETENTION = timedelta(hours=24)
+
+
+def _in_progress() -> HTTPException:
+    return HTTPException(
+        status_code=status.HTTP_409_CONFLICT,
+        detail="A request with this Idempotency-Key is still being processed",
+        headers={"Retry-After": str(IN_PROGRESS_RETRY_AFTER)}
+    )
+
+
+def _is_stale(record: IdempotencyRecord, now: datetime, max_age: timedelta) -> bool:
+    created_at = record.created_at
+    if created_at is None:
+        return False
+    if created_at.tzinfo is None:
+        created_at = created_at.replace(tzinfo=timezone.utc)
+    return now - created_at > max_age
+
+
+async def run_idempotent(
+    db: Session,
+    user_id: int,
+    key: Optional[str],
+    scope: str,
+    status_code: int,
+    handler: Callable[[], Awaitable]
+):
+    """
+    Run handler once per (user, key). Without a key the handler just runs.
+
+    - Completed key: the original response is returned without calling handler
+    - Key still running: 409 with Retry-After
+    - handler raises, or returns a fallback (is_fallback): the key is released so a retry
+      runs the job again
+    """
+    if not key:
+        return await handler()
+    
+    if len(key) > MAX_KEY_LENGTH:
+        raise HTTPException(
+            status_code=status.HTTP_400_BAD_REQUEST,
+            detail=f"Idempotency-Key must be at most {MAX_KEY_LENGTH} characters"
+        )
+    
+    now = datetime.now(timezone.utc)
+    record = db.query(IdempotencyRecord).filter(
+        IdempotencyRecord.user_id == user_id,
+        IdempotencyRecord.key == key
+    ).first()
+    
+    if record and (_is_stale(record, now, RECORD_RETENTION)
+                   or (record.status_code is None and _is_stale(record, now, IN_PROGRESS_TIMEOUT))):
+        # Expired key or a request that never finished - start over
+        db.delete(record)
+        db.commit()
+        record = None
+    
+    if record:
+        if record.scope != scope:
+            raise HTTPException(
+                status_code=status.HTTP_422_UNPROCESSABLE_ENTITY,
+                detail="Idempotency-Key was already used for a different request"
+            )
+        if record.status_code is None:
+            raise _in_progress()
+        return JSONResponse(content=json.loads(record.response_body), status_code=record.status_code)
+    
+    record = IdempotencyRecord(user_id=user_id, key=key, scope=scope)
+    db.add(record)
+    try:
+        db.commit()
+    except IntegrityError:
+        # Another request with the same key got there first
+        db.rollback()
+        raise _in_progress()
+    record_id = record.id
+    
+    try:
+        result = await handler()
+    except Exception:
+        db.rollback()
+        db.query(IdempotencyRecord).filter(IdempotencyRecord.id == record_id).delete()
+        db.commit()
+        raise
+    
+    payload = jsonable_encoder(result)
+    if getattr(result, "is_fallback", False):
+        # Not the answer to this request - do not replay it
+        db.query(IdempotencyRecord).filter(IdempotencyRecord.id == record_id).delete()
+        db.commit()
+        return JSONResponse(content=payload, status_code=status_code)
+    
+    db.query(IdempotencyRecord).filter(IdempotencyRecord.id == record_id).update({
+        IdempotencyRecord.status_code: status_code,
+        IdempotencyRecord.response_body: json.dumps(payload)
+    })
+    db.commit()
+    return JSONResponse(content=payload, status_code=status_code)
+
+
+def prune_records(db: Session, now: datetime) -> int:
+    """Delete records past the retention window, returns the number removed"""
+    return db.query(IdempotencyRecord).filter(
+        IdempotencyRecord.created_at < now - RECORD_RETENTION
+    ).delete(synchronize_session=False)
@@ -0,0 +1,36 @@
+"""
+Field Projection
+Helpers for the `fields=` parameter on list endpoints (sparse fieldsets)
+"""
+from typing import Iterable, Optional, Set, Dict, Any
+from fastapi import HTTPException, status
+
+# Length of the summary_preview field that list endpoints can return instead of the full summary
+PREVIEW_CHARS = 160
+
+
+def parse_fields(fields: Optional[str], allowed: Iterable[str]) -> Optional[Set[str]]:
+    """
+    Parse a comma separated `fields` parameter.
+    Returns None when no projection was requested (full items), otherwise the
+    requested field names plus "id", which is always returned.
+    """
+    if not fields:
+        return None
+    
+    requested = {name.strip() for name in fields.split(",") if name.strip()}
+    unknown = requested - set(allowed)
+    if unknown:
+        raise HTTPException(
+            status_code=status.HTTP_400_BAD_REQUEST,
+            detail=f"Unknown fields: {', '.join(sorted(unknown))}"
+        )
+    requested.add("id")
+    return requested
+
+
+def project(item: Dict[str, Any], selected: Optional[Set[str]]) -> Dict[str, Any]:
+    """Keep only the selected keys of a serialized item (all keys if selected is None)"""
+    if selected is None:
+        return item
+    return {key: value for key, value in item.items() if key in selected}
@@ -0,0 +1,70 @@
+"""
+Sync Service
+Sync tokens and tombstones for the incremental change feed (GET /api/sync/changes)
+"""
+import base64
+from datetime import datetime, timedelta, timezone
+from typing import Iterable, Optional
+from fastapi import HTTPException, status
+from sqlalchemy.orm import Session
+
+from app.models import Tombstone
+
+# Rows changed this long before the token are re-sent. Covers transactions that
+# committed after the feed was read but stamped an earlier time; merges are idempotent.
+SYNC_OVERLAP = timedelta(seconds=5)
+
+# Tombstones older than this are not guaranteed to be kept - older tokens get a full reset
+TOMBSTONE_RETENTION = timedelta(days=30)
+
+ENTITY_VIDEO = "video"
+ENTITY_PDF = "pdf"
+# Chat tombstones only mark a conversation changed - the feed re-sends its row, never the tombstone
+ENTITY_VIDEO_CHAT = "video_chat"
+ENTITY_PDF_CHAT = "pdf_chat"
+
+
+def encode_sync_token(moment: datetime) -> str:
+    """Opaque token for the moment a change feed was read"""
+    if moment.tzinfo is None:
+        moment = moment.replace(tzinfo=timezone.utc)
+    return base64.urlsafe_b64encode(moment.isoformat().encode()).decode().rstrip("=")
+
+
+def decode_sync_token(token: Optional[str]) -> Optional[datetime]:
+    """Return the token's moment, None for no token (full sync). Raises 400 for malformed tokens."""
+    if not token:
+        return None
+    try:
+        padded = token + "=" * (-len(token) % 4)
+        moment = datetime.fromisoformat(base64.urlsafe_b64decode(padded.encode()).decode())
+    except (ValueError, UnicodeDecodeError):
+        raise HTTPException(
+            status_code=status.HTTP_400_BAD_REQUEST,
+            detail="Invalid sync token"
+        )
+    if moment.tzinfo is None:
+        moment = moment.replace(tzinfo=timezone.utc)
+    return moment
+
+
+def is_expired(since: datetime, now: datetime) -> bool:
+    """True if tombstones for this token may already have been pruned"""
+    return now - since > TOMBSTONE_RETENTION
+
+
+def record_deletion(db: Session, user_id: int, entity_type: str, entity_id: int):
+    """Add a tombstone to the session - committed together with the delete"""
+    db.add(Tombstone(user_id=user_id, entity_type=entity_type, entity_id=entity_id))
+
+
+def record_deletions(db: Session, user_id: int, entity_type: str, entity_ids: Iterable[int]):
+    for entity_id in set(entity_ids):
+        record_deletion(db, user_id, entity_type, entity_id)
+
+
+def prune_tombstones(db: Session, now: datetime) -> int:
+    """Delete tombstones past the retention window, returns the number removed"""
+    return db.query(Tombstone).filter(
+        Tombstone.deleted_at < now - TOMBSTONE_RETENTION
+    ).delete(synchronize_session=False)
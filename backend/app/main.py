@@ -10,9 +10,10 @@ from app.middleware.error_handler import (
     general_exception_handler
 )
 from app.middleware.json_cleaner import JSONCleanerMiddleware
+from app.middleware.rate_limit import ChatRateLimitMiddleware
 
 # Import all models to ensure they're registered
-from app.models import User, OTP, Video, Note, Chat, PDF, PDFChat
+from app.models import User, OTP, Video, Note, Chat, PDF, PDFChat, Tombstone, IdempotencyRecord
 
 # Create database tables
 Base.metadata.create_all(bind=engine)
@@ -32,6 +33,9 @@ app.add_exception_handler(Exception, general_exception_handler)
 # JSON cleaner middleware (to handle malformed JSON)
 app.add_middleware(JSONCleanerMiddleware)
 
+# Token-bucket limit on chat sends (each one is an AI call)
+app.add_middleware(ChatRateLimitMiddleware)
+
 # CORS middleware
 app.add_middleware(
     CORSMiddleware,
@@ -57,10 +61,11 @@ async def health_check():
 
 
 # Import and include routers
-from app.api import auth, video, admin, pdf
+from app.api import auth, video, admin, pdf, sync
 
 app.include_router(auth.router, prefix="/api/auth", tags=["Authentication"])
 app.include_router(video.router, prefix="/api/video", tags=["Video Notes"])
 app.include_router(pdf.router, prefix="/api/pdf", tags=["PDF Notes"])
 app.include_router(admin.router, prefix="/api", tags=["Admin"])
+app.include_router(sync.router, prefix="/api/sync", tags=["Sync"])
 
@@ -142,7 +142,9 @@ async def http_exception_handler(request: Request, exc: StarletteHTTPException):
         content={
             "detail": exc.detail,
             "message": exc.detail
-        }
+        },
+        # Keep headers such as Retry-After set by the endpoint
+        headers=getattr(exc, "headers", None)
     )
 
 
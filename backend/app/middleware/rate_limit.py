@@ -0,0 +1,110 @@
+from starlette.middleware.base import BaseHTTPMiddleware
+from starlette.requests import Request
+from starlette.responses import JSONResponse
+from collections import OrderedDict
+import hashlib
+import math
+import re
+import time
+
+from app.config import settings
+
+# POST endpoints that start an AI call, and the bucket each one draws from
+RATE_LIMITED_ROUTES = [
+    (re.compile(r"^/api/video/\d+/chat$"), "video.chat"),
+    (re.compile(r"^/api/video/\d+/chat/speculative$"), "video.speculative"),
+    (re.compile(r"^/api/pdf/\d+/chat$"), "pdf.chat"),
+]
+
+# Past this many buckets the least recently used ones are dropped. The oldest has had the
+# longest to refill, so dropping it (= a full bucket next time) costs the least.
+MAX_BUCKETS = 10000
+
+
+class ChatRateLimitMiddleware(BaseHTTPMiddleware):
+    """
+    Token-bucket limit on chat sends, per caller and endpoint. Speculative answers the app
+    prefetches draw from their own, smaller bucket, never from the user's chat sends.
+    
+    Every response from a limited route advertises the policy so clients can shape their
+    own traffic: RateLimit-Policy ("<limit>;w=<window seconds>"), RateLimit-Limit,
+    RateLimit-Remaining and RateLimit-Reset (seconds until the next token). Over the limit
+    the request gets 429 with Retry-After. Buckets live in process memory, so each worker
+    enforces the limit separately.
+    """
+    
+    def __init__(self, app):
+        super().__init__(app)
+        self.window = settings.CHAT_RATE_LIMIT_WINDOW_SECONDS
+        self.limits = {
+            "video.chat": settings.CHAT_RATE_LIMIT,
+            "video.speculative": settings.SPECULATIVE_CHAT_RATE_LIMIT,
+            "pdf.chat": settings.CHAT_RATE_LIMIT,
+        }
+        # (scope, caller) -> (tokens, updated at), least recently updated first
+        self.buckets = OrderedDict()
+    
+    @staticmethod
+    def scope_for(request: Request):
+        if request.method != "POST":
+            return None
+        for pattern, scope in RATE_LIMITED_ROUTES:
+            if pattern.match(request.url.path):
+                return scope
+        return None
+    
+    @staticmethod
+    def caller_key(request: Request) -> str:
+        # The token identifies the user without decoding it again here
+        token = request.headers.get("authorization")
+        if token:
+            return hashlib.sha256(token.encode()).hexdigest()
+        return request.client.host if request.client else "unknown"
+    
+    def take(self, key, now: float):
+        """
+        Take one token from the (scope, caller) bucket; returns (allowed, tokens left,
+        seconds until the next token)
+        """
+        limit = self.limits[key[0]]
+        rate = limit / self.window
+        tokens, updated_at = self.buckets.get(key, (float(limit), now))
+        tokens = min(float(limit), tokens + (now - updated_at) * rate)
+        allowed = tokens >= 1
+        if allowed:
+            tokens -= 1
+        self.buckets[key] = (tokens, now)
+        self.buckets.move_to_end(key)
+        while len(self.buckets) > MAX_BUCKETS:
+            self.buckets.popitem(last=False)
+        wait = 0 if tokens >= 1 else (1 - tokens) / rate
+        return allowed, int(tokens), wait
+    
+    def headers(self, scope: str, remaining: int, wait: float) -> dict:
+        limit = self.limits[scope]
+        return {
+            "RateLimit-Policy": f"{limit};w={self.window}",
+            "RateLimit-Limit": str(limit),
+            "RateLimit-Remaining": str(remaining),
+            "RateLimit-Reset": str(math.ceil(wait)),
+        }
+    
+    async def dispatch(self, request: Request, call_next):
+        scope = self.scope_for(request)
+        if scope is None:
+            return await call_next(request)
+        
+        allowed, remaining, wait = self.take((scope, self.caller_key(request)), time.monotonic())
+        headers = self.headers(scope, remaining, wait)
+        if not allowed:
+            headers["Retry-After"] = str(math.ceil(wait))
+            detail = "Too many chat messages. Please wait a moment before sending another."
+            return JSONResponse(
+                status_code=429,
+                content={"detail": detail, "message": detail},
+                headers=headers
+            )
+        
+        response = await call_next(request)
+        response.headers.update(headers)
+        return response
@@ -1,5 +1,7 @@
 from app.models.user import User, OTP
 from app.models.video import Video, Note, Chat
 from app.models.pdf import PDF, PDFChat
+from app.models.sync import Tombstone
+from app.models.idempotency import IdempotencyRecord
 
-__all__ = ["User", "OTP", "Video", "Note", "Chat", "PDF", "PDFChat"]
+__all__ = ["User", "OTP", "Video", "Note", "Chat", "PDF", "PDFChat", "Tombstone", "IdempotencyRecord"]
@@ -0,0 +1,26 @@
+from sqlalchemy import Column, Integer, String, Text, DateTime, ForeignKey, UniqueConstraint
+from sqlalchemy.sql import func
+from app.database import Base
+
+
+class IdempotencyRecord(Base):
+    """
+    Result of a request sent with an Idempotency-Key header, replayed when the
+    client retries the same key instead of running the (LLM) job again
+    """
+    __tablename__ = "idempotency_records"
+
+    id = Column(Integer, primary_key=True, index=True)
+    user_id = Column(Integer, ForeignKey("users.id"), nullable=False)
+    key = Column(String(64), nullable=False)
+    scope = Column(String(50), nullable=False)  # e.g. 'video.generate', 'video.chat'
+    status_code = Column(Integer, nullable=True)  # None while the request is still running
+    response_body = Column(Text, nullable=True)  # JSON of the original response
+    created_at = Column(DateTime(timezone=True), server_default=func.now())
+
+    __table_args__ = (
+        UniqueConstraint("user_id", "key", name="uq_idempotency_user_key"),
+    )
+
+    def __repr__(self):
+        return f"<IdempotencyRecord(key={self.key}, scope={self.scope}, status={self.status_code})>"
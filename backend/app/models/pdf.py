@@ -1,4 +1,4 @@
-from sqlalchemy import Column, Integer, String, Text, DateTime, ForeignKey, Boolean
+from sqlalchemy import Column, Integer, String, Text, DateTime, ForeignKey, Boolean, Index
 from sqlalchemy.sql import func
 from sqlalchemy.orm import relationship
 from app.database import Base
@@ -37,11 +37,16 @@ class PDFChat(Base):
     message = Column(Text, nullable=False)
     response = Column(Text, nullable=True)
     is_user_message = Column(Boolean, default=True)
+    client_message_id = Column(String(64), nullable=True)  # Set by the app's outbox on the user row and copied to its answer
     created_at = Column(DateTime(timezone=True), server_default=func.now())
 
     # Relationship
     pdf = relationship("PDF", back_populates="chats")
 
+    __table_args__ = (
+        Index("ix_pdf_chats_user_client_message", "user_id", "client_message_id"),
+    )
+
     def __repr__(self):
         return f"<PDFChat(id={self.id}, pdf_id={self.pdf_id}, is_user={self.is_user_message})>"
 
@@ -0,0 +1,25 @@
+from sqlalchemy import Column, Integer, String, DateTime, ForeignKey, Index
+from sqlalchemy.sql import func
+from app.database import Base
+
+
+class Tombstone(Base):
+    """
+    Record of a deleted row, served by the sync change feed so clients
+    holding a local copy can drop it without refetching the whole list
+    """
+    __tablename__ = "tombstones"
+
+    id = Column(Integer, primary_key=True, index=True)
+    user_id = Column(Integer, ForeignKey("users.id"), nullable=False)
+    entity_type = Column(String(20), nullable=False)  # 'video', 'pdf', 'video_chat', 'pdf_chat'
+    entity_id = Column(Integer, nullable=False)
+    deleted_at = Column(DateTime(timezone=True), server_default=func.now())
+
+    # Serves the change feed: WHERE user_id AND deleted_at > since
+    __table_args__ = (
+        Index("ix_tombstones_user_deleted", "user_id", "deleted_at"),
+    )
+
+    def __repr__(self):
+        return f"<Tombstone(type={self.entity_type}, id={self.entity_id})>"
@@ -1,4 +1,4 @@
-from sqlalchemy import Column, Integer, String, Text, DateTime, ForeignKey, Boolean
+from sqlalchemy import Column, Integer, String, Text, DateTime, ForeignKey, Boolean, Index
 from sqlalchemy.sql import func
 from sqlalchemy.orm import relationship
 from app.database import Base
@@ -13,6 +13,7 @@ class Video(Base):
     video_url = Column(String(500), nullable=False)
     title = Column(String(500), nullable=False)
     thumbnail_url = Column(String(500), nullable=True)
+    thumbnail_hash = Column(String(64), nullable=True)  # Tiny colour-grid placeholder, see image_hash_service
     duration = Column(String(20), nullable=True)  # e.g., "15:30"
     summary = Column(Text, nullable=True)
     key_points = Column(Text, nullable=True)  # JSON string or text
@@ -26,6 +27,11 @@ class Video(Base):
     notes = relationship("Note", back_populates="video", cascade="all, delete-orphan")
     chats = relationship("Chat", back_populates="video", cascade="all, delete-orphan")
 
+    # Serves the saved-notes keyset pages: WHERE user_id, is_saved ORDER BY created_at, id
+    __table_args__ = (
+        Index("ix_videos_user_saved_created", "user_id", "is_saved", "created_at", "id"),
+    )
+
     def __repr__(self):
         return f"<Video(id={self.id}, video_id={self.video_id}, title={self.title})>"
 
@@ -57,11 +63,16 @@ class Chat(Base):
     message = Column(Text, nullable=False)
     response = Column(Text, nullable=True)
     is_user_message = Column(Boolean, default=True)
+    client_message_id = Column(String(64), nullable=True)  # Set by the app's outbox, makes resends no-ops
     created_at = Column(DateTime(timezone=True), server_default=func.now())
 
     # Relationship
     video = relationship("Video", back_populates="chats")
 
+    __table_args__ = (
+        Index("ix_chats_user_client_message", "user_id", "client_message_id"),
+    )
+
     def __repr__(self):
         return f"<Chat(id={self.id}, video_id={self.video_id}, is_user={self.is_user_message})>"
 
@@ -44,6 +44,8 @@ class PDFListResponse(BaseModel):
 
 class PDFChatMessageRequest(BaseModel):
     message: str = Field(..., description="User's chat message/question", min_length=1, max_length=2000)
+    client_message_id: Optional[str] = Field(None, description="Client-generated id - a resend with the same id returns the stored answer", max_length=64)
+    cached: bool = Field(False, description="The app already showed an answer from its cache - the answer given before is stored instead of generating one")
 
 
 class PDFChatMessageResponse(BaseModel):
@@ -51,7 +53,10 @@ class PDFChatMessageResponse(BaseModel):
     message: str
     response: Optional[str] = None
     is_user_message: bool
+    client_message_id: Optional[str] = None
     created_at: datetime
+    # Set on the apology sent when generation failed - nothing was stored, the app may ask again
+    is_fallback: bool = False
 
     class Config:
         from_attributes = True
@@ -0,0 +1,55 @@
+from pydantic import BaseModel
+from typing import Optional, List
+from datetime import datetime
+
+from app.schemas.video import ChatHistoryItem
+from app.schemas.pdf import PDFChatHistoryItem
+
+
+class SyncVideoItem(BaseModel):
+    """Video list row in the change feed - note bodies are fetched with GET /api/video/{id}"""
+    id: int
+    video_id: str
+    video_url: str
+    title: str
+    thumbnail_url: Optional[str] = None
+    thumbnail_hash: Optional[str] = None
+    duration: Optional[str] = None
+    is_saved: bool
+    created_at: datetime
+    updated_at: Optional[datetime] = None
+    summary_preview: Optional[str] = None
+
+
+class SyncPDFItem(BaseModel):
+    """PDF list row in the change feed - note bodies are fetched with GET /api/pdf/{id}"""
+    id: int
+    file_name: str
+    file_size: Optional[int] = None
+    page_count: Optional[int] = None
+    is_saved: bool
+    created_at: datetime
+    updated_at: Optional[datetime] = None
+    summary_preview: Optional[str] = None
+
+
+class SyncDeletedItem(BaseModel):
+    """Tombstone - entity_type is 'video' or 'pdf'"""
+    entity_type: str
+    entity_id: int
+    deleted_at: datetime
+
+
+class SyncChangesResponse(BaseModel):
+    """
+    Rows created, updated or deleted since the request's sync token.
+    reset=True means the token was missing or expired: the lists are complete
+    and the client must replace its local copy instead of merging.
+    """
+    videos: List[SyncVideoItem]
+    pdfs: List[SyncPDFItem]
+    chat_histories: List[ChatHistoryItem]
+    pdf_chat_histories: List[PDFChatHistoryItem]
+    deleted: List[SyncDeletedItem]
+    sync_token: str
+    reset: bool
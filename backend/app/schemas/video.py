@@ -16,6 +16,7 @@ class VideoGenerateResponse(BaseModel):
     summary: Optional[str] = None
     key_points: Optional[str] = None
     bullet_notes: Optional[str] = None
+    is_saved: bool = False
     status: str = Field(..., description="Status: 'processing', 'completed', 'failed'")
 
 
@@ -25,6 +26,7 @@ class VideoResponse(BaseModel):
     video_url: str
     title: str
     thumbnail_url: Optional[str] = None
+    thumbnail_hash: Optional[str] = None
     duration: Optional[str] = None
     summary: Optional[str] = None
     key_points: Optional[str] = None
@@ -39,6 +41,7 @@ class VideoResponse(BaseModel):
 class VideoListResponse(BaseModel):
     videos: List[VideoResponse]
     total: int
+    next_cursor: Optional[str] = None  # Pass back as ?cursor= to get the next page; None on the last page
 
 
 class NoteResponse(BaseModel):
@@ -54,6 +57,9 @@ class NoteResponse(BaseModel):
 
 class ChatMessageRequest(BaseModel):
     message: str = Field(..., description="User's chat message/question", min_length=1, max_length=2000)
+    client_message_id: Optional[str] = Field(None, description="Client-generated id - a resend with the same id returns the stored answer", max_length=64)
+    speculative: bool = Field(False, description="Prefetched suggestion - answer it without storing it in the chat history")
+    cached: bool = Field(False, description="The app already showed an answer from its cache - the answer given before is stored instead of generating one")
 
 
 class ChatMessageResponse(BaseModel):
@@ -61,7 +67,10 @@ class ChatMessageResponse(BaseModel):
     message: str
     response: Optional[str] = None
     is_user_message: bool
+    client_message_id: Optional[str] = None
     created_at: datetime
+    # Set on the apology sent when generation failed - nothing was stored, the app may ask again
+    is_fallback: bool = False
 
     class Config:
         from_attributes = True
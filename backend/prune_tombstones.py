@@ -0,0 +1,31 @@
+"""
+Script to delete sync tombstones and idempotency records older than their retention windows
+Safe to run periodically (e.g. from cron) - clients with older sync tokens get a full reset
+"""
+import sys
+from datetime import datetime, timezone
+from app.database import SessionLocal
+from app.core.sync_service import prune_tombstones, TOMBSTONE_RETENTION
+from app.core.idempotency import prune_records, RECORD_RETENTION
+
+def run_prune():
+    """Delete tombstones past TOMBSTONE_RETENTION"""
+    db = SessionLocal()
+    try:
+        now = datetime.now(timezone.utc)
+        removed = prune_tombstones(db, now)
+        removed_records = prune_records(db, now)
+        db.commit()
+        print(f"Removed {removed} tombstone(s) older than {TOMBSTONE_RETENTION.days} days")
+        print(f"Removed {removed_records} idempotency record(s) older than {RECORD_RETENTION}")
+    except Exception as e:
+        db.rollback()
+        print(f"Error pruning tombstones: {str(e)}")
+        sys.exit(1)
+    finally:
+        db.close()
+
+if __name__ == "__main__":
+    print("Pruning sync tombstones...")
+    run_prune()
+    print("Done!")
@@ -0,0 +1,32 @@
+"""
+Shared fixtures - tests run against an in-memory SQLite database, no PostgreSQL needed
+"""
+import os
+import sys
+
+import pytest
+from sqlalchemy import create_engine
+from sqlalchemy.orm import sessionmaker
+from sqlalchemy.pool import StaticPool
+
+sys.path.insert(0, os.path.dirname(os.path.dirname(os.path.abspath(__file__))))
+
+from app.database import Base
+import app.models  # noqa: F401 - registers every table on Base
+
+
+@pytest.fixture
+def db():
+    # One connection shared by every session, so a TestClient thread sees the same database
+    engine = create_engine(
+        "sqlite://",
+        connect_args={"check_same_thread": False},
+        poolclass=StaticPool
+    )
+    Base.metadata.create_all(bind=engine)
+    session = sessionmaker(autocommit=False, autoflush=False, bind=engine)()
+    try:
+        yield session
+    finally:
+        session.close()
+        engine.dispose()
@@ -0,0 +1,84 @@
+from app.core import chat_answers
+from app.core.chat_answers import (
+    normalize_question,
+    previous_pdf_answer,
+    previous_video_answer,
+    remember_speculative_answer,
+)
+from app.models import Chat, PDFChat
+
+USER_ID = 1
+
+
+def add_video_chat(db, message, response, video_id=1, user_id=USER_ID):
+    db.add(Chat(video_id=video_id, user_id=user_id, message=message, response=response, is_user_message=True))
+    db.commit()
+
+
+def add_pdf_chat(db, message, response, pdf_id=1):
+    db.add(PDFChat(pdf_id=pdf_id, user_id=USER_ID, message=message, is_user_message=True))
+    db.commit()
+    if response is not None:
+        db.add(PDFChat(pdf_id=pdf_id, user_id=USER_ID, message="", response=response, is_user_message=False))
+        db.commit()
+
+
+def test_case_spacing_and_punctuation_do_not_matter():
+    assert normalize_question("  Summarize   THIS, please?! ") == "summarize this please"
+    assert normalize_question("what's_new") == "what s new"
+    assert normalize_question(None) == ""
+
+
+def test_repeated_video_question_copies_stored_answer(db):
+    add_video_chat(db, "What is attention?", "A weighting of tokens.")
+    add_video_chat(db, "And multi-head?", "Several attentions in parallel.")
+
+    assert previous_video_answer(db, USER_ID, 1, "what is attention") == "A weighting of tokens."
+
+
+def test_newest_answer_wins(db):
+    add_video_chat(db, "Summarize", "Old summary.")
+    add_video_chat(db, "summarize!", "New summary.")
+
+    assert previous_video_answer(db, USER_ID, 1, "Summarize") == "New summary."
+
+
+def test_unknown_question_has_no_answer(db):
+    add_video_chat(db, "What is attention?", "A weighting of tokens.")
+    add_video_chat(db, "Unanswered", None)
+
+    assert previous_video_answer(db, USER_ID, 1, "What is a transformer?") is None
+    assert previous_video_answer(db, USER_ID, 1, "Unanswered") is None
+    assert previous_video_answer(db, USER_ID, 1, "?!") is None
+
+
+def test_other_conversations_are_not_searched(db):
+    add_video_chat(db, "What is attention?", "Other video.", video_id=2)
+    add_video_chat(db, "What is attention?", "Other user.", user_id=USER_ID + 1)
+
+    assert previous_video_answer(db, USER_ID, 1, "What is attention?") is None
+
+
+def test_prefetched_answer_is_found_until_it_expires(db):
+    remember_speculative_answer(USER_ID, 1, "Key takeaways?", "Three of them.", now=100.0)
+
+    assert previous_video_answer(db, USER_ID, 1, "key takeaways", now=200.0) == "Three of them."
+    expired = 100.0 + chat_answers.SPECULATIVE_RETENTION_SECONDS + 1
+    assert previous_video_answer(db, USER_ID, 1, "key takeaways", now=expired) is None
+
+
+def test_repeated_pdf_question_copies_following_answer_row(db):
+    add_pdf_chat(db, "Main argument?", "Prices follow supply.")
+    add_pdf_chat(db, "Who wrote it?", "Smith.")
+
+    assert previous_pdf_answer(db, USER_ID, 1, "main argument") == "Prices follow supply."
+    assert previous_pdf_answer(db, USER_ID, 1, "who wrote it") == "Smith."
+
+
+def test_unanswered_pdf_question_has_no_answer(db):
+    add_pdf_chat(db, "Main argument?", "Prices follow supply.")
+    add_pdf_chat(db, "Main argument?", None)
+
+    # The newest copy has no answer row after it, the older one does
+    assert previous_pdf_answer(db, USER_ID, 1, "Main argument?") == "Prices follow supply."
+    assert previous_pdf_answer(db, USER_ID, 2, "Main argument?") is None
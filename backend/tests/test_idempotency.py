@@ -0,0 +1,125 @@
+import asyncio
+from datetime import datetime, timedelta, timezone
+
+import pytest
+from fastapi import HTTPException
+from pydantic import BaseModel
+
+from app.core import idempotency
+from app.core.idempotency import run_idempotent
+from app.models import IdempotencyRecord
+
+USER_ID = 1
+
+
+class Answer(BaseModel):
+    text: str
+    is_fallback: bool = False
+
+
+class Handler:
+    """Counts calls and returns (or raises) whatever the test set up"""
+
+    def __init__(self, result=None, error=None):
+        self.calls = 0
+        self.result = result if result is not None else Answer(text="first")
+        self.error = error
+
+    async def __call__(self):
+        self.calls += 1
+        if self.error:
+            raise self.error
+        return self.result
+
+
+def run(db, key, handler, scope="video.chat", status_code=201):
+    return asyncio.run(run_idempotent(db, USER_ID, key, scope, status_code, handler))
+
+
+def records(db):
+    return db.query(IdempotencyRecord).all()
+
+
+def test_without_key_handler_just_runs(db):
+    handler = Handler()
+    assert run(db, None, handler).text == "first"
+    assert run(db, None, handler).text == "first"
+    assert handler.calls == 2
+    assert records(db) == []
+
+
+def test_retry_replays_stored_result(db):
+    handler = Handler()
+    first = run(db, "key-1", handler)
+    handler.result = Answer(text="second")
+    replay = run(db, "key-1", handler)
+
+    assert handler.calls == 1
+    assert replay.status_code == 201
+    assert replay.body == first.body
+
+
+def test_key_still_running_is_409(db):
+    db.add(IdempotencyRecord(user_id=USER_ID, key="key-1", scope="video.chat"))
+    db.commit()
+
+    with pytest.raises(HTTPException) as raised:
+        run(db, "key-1", Handler())
+    assert raised.value.status_code == 409
+    assert raised.value.headers["Retry-After"] == str(idempotency.IN_PROGRESS_RETRY_AFTER)
+
+
+def test_abandoned_run_is_started_over(db):
+    created = datetime.now(timezone.utc) - idempotency.IN_PROGRESS_TIMEOUT - timedelta(minutes=1)
+    db.add(IdempotencyRecord(user_id=USER_ID, key="key-1", scope="video.chat", created_at=created))
+    db.commit()
+
+    handler = Handler()
+    assert run(db, "key-1", handler).status_code == 201
+    assert handler.calls == 1
+
+
+def test_key_reused_for_other_scope_is_422(db):
+    run(db, "key-1", Handler(), scope="video.chat")
+
+    handler = Handler()
+    with pytest.raises(HTTPException) as raised:
+        run(db, "key-1", handler, scope="video.generate")
+    assert raised.value.status_code == 422
+    assert handler.calls == 0
+
+
+def test_key_too_long_is_400(db):
+    handler = Handler()
+    with pytest.raises(HTTPException) as raised:
+        run(db, "k" * (idempotency.MAX_KEY_LENGTH + 1), handler)
+    assert raised.value.status_code == 400
+    assert handler.calls == 0
+
+
+def test_handler_error_releases_key(db):
+    with pytest.raises(HTTPException):
+        run(db, "key-1", Handler(error=HTTPException(status_code=404, detail="Video not found")))
+    assert records(db) == []
+
+    handler = Handler()
+    assert run(db, "key-1", handler).status_code == 201
+    assert handler.calls == 1
+
+
+def test_fallback_is_returned_but_not_replayed(db):
+    fallback = run(db, "key-1", Handler(result=Answer(text="sorry", is_fallback=True)))
+    assert fallback.status_code == 201
+    assert records(db) == []
+
+    handler = Handler()
+    run(db, "key-1", handler)
+    assert handler.calls == 1
+
+
+def test_keys_are_per_user(db):
+    run(db, "key-1", Handler())
+
+    handler = Handler()
+    asyncio.run(run_idempotent(db, USER_ID + 1, "key-1", "video.chat", 201, handler))
+    assert handler.calls == 1
@@ -0,0 +1,100 @@
+import pytest
+from fastapi import FastAPI
+from fastapi.testclient import TestClient
+
+from app.api import video as video_api
+from app.config import settings
+from app.database import get_db
+from app.middleware.rate_limit import ChatRateLimitMiddleware
+from app.models import Chat, Video
+
+USER_ID = 1
+
+
+@pytest.fixture
+def client(db):
+    app = FastAPI()
+    app.add_middleware(ChatRateLimitMiddleware)
+    app.include_router(video_api.router, prefix="/api/video")
+    app.dependency_overrides[get_db] = lambda: db
+    app.dependency_overrides[video_api.get_current_user_id] = lambda: USER_ID
+    return TestClient(app)
+
+
+def add_video(db, transcript="Attention weights every token against every other."):
+    video = Video(user_id=USER_ID, video_id="abc123", video_url="https://youtu.be/abc123",
+                  title="Transformers", transcript=transcript)
+    db.add(video)
+    db.commit()
+    return video.id
+
+
+def ask(client, video_id):
+    return client.post(f"/api/video/{video_id}/chat/speculative",
+                       json={"message": "What is attention?", "speculative": True})
+
+
+def test_answer_is_returned_but_not_stored(client, db, monkeypatch):
+    monkeypatch.setattr(video_api, "generate_chat_response", lambda **kwargs: "A weighting of tokens.")
+    video_id = add_video(db)
+
+    response = ask(client, video_id)
+    assert response.status_code == 201
+    assert response.json()["response"] == "A weighting of tokens."
+    assert db.query(Chat).count() == 0
+
+
+def test_failed_generation_is_204(client, db, monkeypatch):
+    def fail(**kwargs):
+        raise RuntimeError("quota exceeded")
+    monkeypatch.setattr(video_api, "generate_chat_response", fail)
+    video_id = add_video(db)
+
+    response = ask(client, video_id)
+    assert response.status_code == 204
+    assert response.content == b""
+    assert db.query(Chat).count() == 0
+
+
+def test_empty_answer_is_204(client, db, monkeypatch):
+    monkeypatch.setattr(video_api, "generate_chat_response", lambda **kwargs: "")
+    assert ask(client, add_video(db)).status_code == 204
+
+
+def test_no_transcript_is_422(client, db, monkeypatch):
+    def unexpected(**kwargs):
+        raise AssertionError("nothing to answer from")
+    monkeypatch.setattr(video_api, "generate_chat_response", unexpected)
+
+    response = ask(client, add_video(db, transcript=None))
+    assert response.status_code == 422
+    assert db.query(Chat).count() == 0
+
+
+def test_unknown_video_is_404(client, db):
+    assert ask(client, 999).status_code == 404
+
+
+def test_speculative_flag_on_chat_send_is_not_stored(client, db, monkeypatch):
+    monkeypatch.setattr(video_api, "generate_chat_response", lambda **kwargs: "A weighting of tokens.")
+    video_id = add_video(db)
+
+    response = client.post(f"/api/video/{video_id}/chat",
+                           json={"message": "What is attention?", "speculative": True})
+    assert response.status_code == 201
+    assert db.query(Chat).count() == 0
+
+
+def test_prefetches_do_not_use_up_chat_sends(client, db, monkeypatch):
+    monkeypatch.setattr(video_api, "generate_chat_response", lambda **kwargs: "A weighting of tokens.")
+    video_id = add_video(db)
+
+    for _ in range(settings.SPECULATIVE_CHAT_RATE_LIMIT):
+        response = ask(client, video_id)
+        assert response.status_code == 201
+        assert response.headers["RateLimit-Limit"] == str(settings.SPECULATIVE_CHAT_RATE_LIMIT)
+    assert ask(client, video_id).status_code == 429
+
+    response = client.post(f"/api/video/{video_id}/chat", json={"message": "And multi-head?"})
+    assert response.status_code == 201
+    assert response.headers["RateLimit-Remaining"] == str(settings.CHAT_RATE_LIMIT - 1)